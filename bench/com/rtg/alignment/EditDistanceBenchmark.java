@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.alignment;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rtg.bench.SyntheticData;
+import com.rtg.ngs.NgsParamsBuilder;
+import com.rtg.reader.SequencesReader;
+import com.rtg.util.PortableRandom;
+import com.rtg.util.diagnostic.Diagnostic;
+
+/**
+ * Throughput of the aligner chain built by <code>EditDistanceFactory</code>, aligning
+ * reads from a generated reads SDF against a generated reference SDF at the position
+ * they were sampled from, as the mapping candidate stage would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EditDistanceBenchmark {
+
+  private static final int READS = 4096;
+  private static final int REFERENCE_LENGTH = 1000000;
+  private static final int MAX_SHIFT = 7;
+  private static final int MAX_SCORE = 1000000;
+
+  @Param({"TABLE", "GENERAL"})
+  public AlignerMode mAlignerMode;
+
+  @Param({"100", "150"})
+  public int mReadLength;
+
+  @Param({"0.01", "0.03"})
+  public double mErrorRate;
+
+  private BidirectionalEditDistance mEditDistance;
+  private byte[] mTemplate;
+  private byte[][] mReads;
+  private int[] mStarts;
+  private boolean[] mReverse;
+
+  @Setup
+  public void setup() throws IOException {
+    Diagnostic.setLogStream();
+    final PortableRandom random = new PortableRandom(42);
+    final byte[] reference = SyntheticData.reference(random, REFERENCE_LENGTH);
+    final byte[][] reads = new byte[READS][];
+    mStarts = new int[READS];
+    mReverse = new boolean[READS];
+    for (int i = 0; i < READS; ++i) {
+      mStarts[i] = MAX_SHIFT + random.nextInt(REFERENCE_LENGTH - 2 * mReadLength);
+      mReverse[i] = random.nextBoolean();
+      final byte[] read = SyntheticData.sampleRead(random, reference, mStarts[i], mReadLength, mErrorRate);
+      reads[i] = mReverse[i] ? reverseComplement(read) : read;
+    }
+    try (final SequencesReader referenceReader = SyntheticData.sdf(reference);
+         final SequencesReader readsReader = SyntheticData.sdf(reads)) {
+      mTemplate = referenceReader.read(0);
+      mReads = new byte[READS][];
+      for (int i = 0; i < READS; ++i) {
+        mReads[i] = readsReader.read(i);
+      }
+      mEditDistance = EditDistanceFactory.createEditDistance(new NgsParamsBuilder().alignerMode(mAlignerMode).create(), readsReader, null);
+    }
+  }
+
+  private static byte[] reverseComplement(final byte[] read) {
+    final byte[] res = new byte[read.length];
+    for (int i = 0; i < read.length; ++i) {
+      res[read.length - 1 - i] = (byte) (5 - read[i]);
+    }
+    return res;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(READS)
+  public long align() {
+    long total = 0;
+    for (int i = 0; i < READS; ++i) {
+      final int[] actions = mEditDistance.calculateEditDistance(mReads[i], mReadLength, mTemplate, mStarts[i], mReverse[i], MAX_SCORE, MAX_SHIFT, true);
+      total += actions == null ? 0 : actions[ActionsHelper.ALIGNMENT_SCORE_INDEX];
+    }
+    return total;
+  }
+}
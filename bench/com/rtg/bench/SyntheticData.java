@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.bench;
+
+import java.io.IOException;
+
+import com.rtg.mode.DnaUtils;
+import com.rtg.reader.ReaderTestUtils;
+import com.rtg.reader.SequencesReader;
+import com.rtg.util.PortableRandom;
+
+/**
+ * Seeded generators for the synthetic references, reads and complex regions used by
+ * the benchmarks, so that every run measures exactly the same data.
+ */
+public final class SyntheticData {
+
+  private SyntheticData() { }
+
+  /** Bases are coded as in <code>DNA</code>, 1 to 4 */
+  private static final int BASES = 4;
+
+  /**
+   * @param random source of randomness
+   * @param length number of bases
+   * @return random bases coded 1 to 4
+   */
+  public static byte[] randomDna(final PortableRandom random, final int length) {
+    final byte[] res = new byte[length];
+    for (int i = 0; i < length; ++i) {
+      res[i] = (byte) (1 + random.nextInt(BASES));
+    }
+    return res;
+  }
+
+  /**
+   * Insert a tandem repeat into a sequence, giving the kind of low complexity
+   * region that triggers complex calling and realignment.
+   * @param seq sequence to modify
+   * @param start position of the first repeat unit
+   * @param unit repeat unit, coded 1 to 4
+   * @param copies number of copies of the unit
+   */
+  public static void tandemRepeat(final byte[] seq, final int start, final byte[] unit, final int copies) {
+    for (int i = 0; i < unit.length * copies && start + i < seq.length; ++i) {
+      seq[start + i] = unit[i % unit.length];
+    }
+  }
+
+  /**
+   * Sample a read from a template with machine-like errors. Substitutions occur at
+   * <code>errorRate</code> and a single base insertion or deletion at a tenth of that.
+   * @param random source of randomness
+   * @param template template bases
+   * @param start zero based start of the read on the template
+   * @param length length of the read
+   * @param errorRate per base error rate
+   * @return the read bases
+   */
+  public static byte[] sampleRead(final PortableRandom random, final byte[] template, final int start, final int length, final double errorRate) {
+    final byte[] read = new byte[length];
+    int t = start;
+    for (int i = 0; i < length; ++i) {
+      final double u = random.nextDouble();
+      if (u < errorRate * 0.05) {
+        read[i] = (byte) (1 + random.nextInt(BASES)); // insertion
+        continue;
+      } else if (u < errorRate * 0.1) {
+        ++t; // deletion
+      }
+      final byte b = t < template.length ? template[t] : 1;
+      read[i] = u < errorRate ? (byte) (1 + (b + random.nextInt(BASES - 1)) % BASES) : b;
+      ++t;
+    }
+    return read;
+  }
+
+  /**
+   * @param random source of randomness
+   * @param length number of qualities
+   * @return phred qualities typical of a short read run
+   */
+  public static byte[] qualities(final PortableRandom random, final int length) {
+    final byte[] res = new byte[length];
+    for (int i = 0; i < length; ++i) {
+      res[i] = (byte) (i > length - length / 8 ? 10 + random.nextInt(15) : 25 + random.nextInt(15));
+    }
+    return res;
+  }
+
+  /**
+   * Build an in memory SDF from coded sequences.
+   * @param seqs sequences coded 1 to 4
+   * @return a reader for the sequences
+   * @throws IOException if the SDF cannot be built
+   */
+  public static SequencesReader sdf(final byte[]... seqs) throws IOException {
+    final String[] strings = new String[seqs.length];
+    for (int i = 0; i < seqs.length; ++i) {
+      strings[i] = DnaUtils.bytesToSequenceIncCG(seqs[i]);
+    }
+    return ReaderTestUtils.getReaderDnaMemory(ReaderTestUtils.fasta(strings));
+  }
+
+  /**
+   * @param random source of randomness
+   * @param length reference length
+   * @return a reference with a tandem repeat in every kilobase
+   */
+  public static byte[] reference(final PortableRandom random, final int length) {
+    final byte[] ref = randomDna(random, length);
+    for (int start = 500; start < length; start += 1000) {
+      tandemRepeat(ref, start, randomDna(random, 1 + random.nextInt(4)), 4 + random.nextInt(8));
+    }
+    return ref;
+  }
+}
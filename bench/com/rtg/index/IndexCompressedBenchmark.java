@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.index;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rtg.bench.SyntheticData;
+import com.rtg.index.params.CreateParams;
+import com.rtg.util.PortableRandom;
+
+/**
+ * Search throughput of a frozen compressed index built from the word hashes of a
+ * synthetic reference. Queries are the word hashes of reads sampled from the
+ * reference with errors, so a mixture of hits, repeats and misses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IndexCompressedBenchmark {
+
+  private static final int QUERIES = 1 << 16;
+
+  @Param({"1000000", "10000000"})
+  public int mReferenceLength;
+
+  @Param({"12", "18"})
+  public int mWordSize;
+
+  private IndexCompressed mIndex;
+  private long[] mQueries;
+
+  private static final class CountingFinder extends Finder {
+    long mCount = 0;
+    @Override
+    public boolean found(long id) {
+      ++mCount;
+      return true;
+    }
+  }
+
+  private static long[] hashes(final byte[] seq, final int wordSize) {
+    final long mask = (1L << (2 * wordSize)) - 1;
+    final long[] res = new long[Math.max(0, seq.length - wordSize + 1)];
+    long hash = 0;
+    for (int i = 0; i < seq.length; ++i) {
+      hash = ((hash << 2) | (seq[i] - 1)) & mask;
+      if (i >= wordSize - 1) {
+        res[i - wordSize + 1] = hash;
+      }
+    }
+    return res;
+  }
+
+  @Setup
+  public void setup() {
+    final PortableRandom random = new PortableRandom(42);
+    final byte[] reference = SyntheticData.reference(random, mReferenceLength);
+    final long[] referenceHashes = hashes(reference, mWordSize);
+    final int valueBits = 64 - Long.numberOfLeadingZeros(referenceHashes.length);
+    final CreateParams params = new CreateParams(referenceHashes.length, 2 * mWordSize, 2 * mWordSize, valueBits, true, true, false, false);
+    mIndex = new IndexCompressed(params, new UnfilteredFilterMethod(), 1);
+    // Compressed hashes require two passes of adds
+    for (int pass = 0; pass < 2; ++pass) {
+      for (int i = 0; i < referenceHashes.length; ++i) {
+        mIndex.add(referenceHashes[i], i);
+      }
+      mIndex.freeze();
+    }
+    mQueries = new long[QUERIES];
+    final int readLength = 100;
+    for (int q = 0; q < QUERIES; q += readLength - mWordSize + 1) {
+      final byte[] read = SyntheticData.sampleRead(random, reference, random.nextInt(mReferenceLength - 2 * readLength), readLength, 0.01);
+      final long[] readHashes = hashes(read, mWordSize);
+      System.arraycopy(readHashes, 0, mQueries, q, Math.min(readHashes.length, QUERIES - q));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(QUERIES)
+  public long search() throws IOException {
+    final CountingFinder finder = new CountingFinder();
+    for (final long hash : mQueries) {
+      mIndex.search(hash, finder);
+    }
+    return finder.mCount;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(QUERIES)
+  public long count() {
+    long total = 0;
+    for (final long hash : mQueries) {
+      total += mIndex.count(hash);
+    }
+    return total;
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.ngs.blocking;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Contended updates of the shared read blocker used by multi-threaded mapping,
+ * comparing the compare and set blocker against the striped lock baseline. Each
+ * operation checks whether a hit is blocked and if not records it. Run via
+ * <code>main</code> to sweep 1 to 64 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReadBlockerBenchmark {
+
+  private static final int THRESHOLD = 20;
+  private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+  /** Number of distinct reads, a small number gives heavy contention on the same reads */
+  @Param({"1024", "4000000"})
+  public int mReads;
+
+  private MapQScoringReadBlockerSynch mCompareAndSet;
+  private StripedLockMapQScoringReadBlocker mStripedLock;
+
+  /** Per thread generator of read ids and scores */
+  @State(Scope.Thread)
+  public static class Hits {
+    private long mSeed;
+
+    @Setup
+    public void setup() {
+      mSeed = 0x9E3779B97F4A7C15L * (Thread.currentThread().getId() + 1);
+    }
+
+    long next() {
+      mSeed ^= mSeed << 13;
+      mSeed ^= mSeed >>> 7;
+      mSeed ^= mSeed << 17;
+      return mSeed;
+    }
+  }
+
+  @Setup
+  public void setup() {
+    mCompareAndSet = new MapQScoringReadBlockerSynch(mReads, THRESHOLD);
+    mStripedLock = new StripedLockMapQScoringReadBlocker(mReads, THRESHOLD);
+  }
+
+  private int read(final long hit) {
+    return (int) ((hit >>> 8) % mReads);
+  }
+
+  private static int score(final long hit) {
+    return (int) (hit & 0xF);
+  }
+
+  @Benchmark
+  public int compareAndSet(final Hits hits) {
+    final long hit = hits.next();
+    final int r = read(hit);
+    final int score = score(hit);
+    if (mCompareAndSet.isBlocked1(r, score)) {
+      return -1;
+    }
+    return mCompareAndSet.increment(r, score);
+  }
+
+  @Benchmark
+  public int stripedLock(final Hits hits) {
+    final long hit = hits.next();
+    final int r = read(hit);
+    final int score = score(hit);
+    if (mStripedLock.isBlocked1Locked(r, score)) {
+      return -1;
+    }
+    return mStripedLock.increment(r, score);
+  }
+
+  /**
+   * Run both blockers at each thread count.
+   * @param args ignored
+   * @throws RunnerException if a benchmark fails
+   */
+  public static void main(final String[] args) throws RunnerException {
+    for (final int threads : THREADS) {
+      final Options opts = new OptionsBuilder()
+        .include(ReadBlockerBenchmark.class.getName())
+        .threads(threads)
+        .build();
+      new Runner(opts).run();
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.ngs.blocking;
+
+/**
+ * The earlier thread safe read blocker, which guarded each read with one of a fixed
+ * array of locks. Kept only as a baseline for comparison with the compare and set
+ * updates of <code>MapQScoringReadBlockerSynch</code>.
+ */
+public class StripedLockMapQScoringReadBlocker extends MapQScoringReadBlocker {
+
+  private static final int NUMBER_OF_THREAD_LOCKS = 1 << 16;
+  private static final int THREAD_LOCK_MASK = NUMBER_OF_THREAD_LOCKS - 1;
+
+  /* Array of locks for multiple threads */
+  private final Object[] mThreadLocks;
+
+  /**
+   * @param count number of reads
+   * @param threshold blocking threshold in range 1 to 255.
+   */
+  public StripedLockMapQScoringReadBlocker(final int count, final int threshold) {
+    super(count, threshold, "striped lock blocked pairings");
+    mThreadLocks = new Object[NUMBER_OF_THREAD_LOCKS];
+    for (int i = 0; i < mThreadLocks.length; ++i) {
+      mThreadLocks[i] = new Object();
+    }
+  }
+
+  @Override
+  public int increment(final int r, final int score) {
+    synchronized (mThreadLocks[r & THREAD_LOCK_MASK]) {
+      return super.increment(r, score);
+    }
+  }
+
+  /**
+   * Locked equivalent of <code>isBlocked1</code>.
+   * @param r read to check
+   * @param score the score to check
+   * @return true if blocked
+   */
+  public boolean isBlocked1Locked(final int r, final int score) {
+    synchronized (mThreadLocks[r & THREAD_LOCK_MASK]) {
+      return isBlocked1(r, score);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "StripedLockMapQScoringReadBlocker";
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.ngs.tempstage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rtg.util.PortableRandom;
+import com.rtg.util.io.FileUtils;
+import com.rtg.util.test.FileHelper;
+
+/**
+ * Writing of paired end temporary alignment records, as produced during mapping,
+ * either to memory or to a file as the mapping output processors do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TempRecordWriterNioBenchmark {
+
+  private static final int RECORDS = 1 << 16;
+
+  /** Destination of the records */
+  public enum Sink {
+    /** In memory, measuring the record encoding alone */
+    MEMORY,
+    /** Uncompressed file */
+    FILE,
+    /** Compressed file, as used for mapping temporary files */
+    GZIP_FILE
+  }
+
+  @Param({"MEMORY", "FILE", "GZIP_FILE"})
+  public Sink mSink;
+
+  private BinaryTempFileRecord[] mRecords;
+  private File mDir;
+  private ByteArrayOutputStream mMemory;
+
+  @Setup
+  public void setup() throws IOException {
+    final PortableRandom random = new PortableRandom(42);
+    mRecords = new BinaryTempFileRecord[RECORDS];
+    int position = 1;
+    for (int i = 0; i < RECORDS; ++i) {
+      final BinaryTempFileRecord rec = new BinaryTempFileRecord(true, false, false, false);
+      position += random.nextInt(4);
+      final boolean first = random.nextBoolean();
+      final int mismatches = random.nextInt(10) == 0 ? 1 + random.nextInt(3) : 0;
+      rec.setReferenceId(0);
+      rec.setReadId(i);
+      rec.setSamFlags((byte) (1 | 2 | (first ? 64 : 128) | (random.nextBoolean() ? 16 : 32)));
+      rec.setStartPosition(position);
+      rec.setCigarString((mismatches == 0 ? "150=" : "70=1X79=").getBytes());
+      rec.setMdString((mismatches == 0 ? "150" : "70A79").getBytes());
+      rec.setNumberMismatches(mismatches);
+      rec.setAlignmentScore(mismatches * 9);
+      rec.setComboScore(mismatches * 9 + random.nextInt(10));
+      rec.setMatePosition(position + 200 + random.nextInt(200));
+      rec.setTemplateLength(350 + random.nextInt(200));
+      mRecords[i] = rec;
+    }
+    mDir = FileUtils.createTempDir("bench", "tempstage");
+    mMemory = new ByteArrayOutputStream(RECORDS * 64);
+  }
+
+  @TearDown
+  public void tearDown() {
+    FileHelper.deleteAll(mDir);
+  }
+
+  private OutputStream output() throws IOException {
+    switch (mSink) {
+      case MEMORY:
+        mMemory.reset();
+        return mMemory;
+      case FILE:
+        return FileUtils.createOutputStream(new File(mDir, "alignments.bin"), false);
+      default:
+        return FileUtils.createOutputStream(new File(mDir, "alignments.bin.gz"), true);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void write() throws IOException {
+    try (TempRecordWriter writer = new TempRecordWriterNio(output())) {
+      for (final BinaryTempFileRecord rec : mRecords) {
+        writer.writeRecord(rec);
+      }
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.sam;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rtg.bench.SyntheticData;
+import com.rtg.mode.DnaUtils;
+import com.rtg.util.PortableRandom;
+import com.rtg.util.diagnostic.Diagnostic;
+import com.rtg.util.io.FileUtils;
+import com.rtg.util.test.FileHelper;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMFileWriter;
+import htsjdk.samtools.SAMFileWriterFactory;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMSequenceRecord;
+
+/**
+ * Merging of coordinate sorted BAM files, as done at the end of mapping and by
+ * <code>sammerge</code>. Each input holds reads sampled from a synthetic reference,
+ * interleaved by position with the other inputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SamMergerBenchmark {
+
+  private static final int REFERENCE_LENGTH = 1000000;
+  private static final int READ_LENGTH = 100;
+
+  @Param({"8"})
+  public int mFiles;
+
+  @Param({"50000"})
+  public int mRecordsPerFile;
+
+  @Param({"1", "4"})
+  public int mThreads;
+
+  @Param({"bam", "sam.gz"})
+  public String mOutputFormat;
+
+  private File mDir;
+  private List<File> mInputs;
+  private SAMFileHeader mHeader;
+
+  @Setup
+  public void setup() throws IOException {
+    Diagnostic.setLogStream();
+    mDir = FileUtils.createTempDir("bench", "sammerge");
+    final PortableRandom random = new PortableRandom(42);
+    final byte[] reference = SyntheticData.reference(random, REFERENCE_LENGTH);
+    final SAMFileHeader header = new SAMFileHeader();
+    header.setSortOrder(SAMFileHeader.SortOrder.coordinate);
+    header.addSequence(new SAMSequenceRecord("chr1", REFERENCE_LENGTH));
+    mInputs = new ArrayList<>();
+    for (int f = 0; f < mFiles; ++f) {
+      final File file = new File(mDir, "alignments" + f + ".bam");
+      try (SAMFileWriter writer = new SAMFileWriterFactory().makeBAMWriter(header, true, file)) {
+        int position = 1;
+        final int step = REFERENCE_LENGTH / mRecordsPerFile;
+        for (int r = 0; r < mRecordsPerFile; ++r) {
+          position += random.nextInt(step * 2);
+          if (position > REFERENCE_LENGTH - READ_LENGTH) {
+            break;
+          }
+          final byte[] read = SyntheticData.sampleRead(random, reference, position - 1, READ_LENGTH, 0);
+          final byte[] quals = SyntheticData.qualities(random, READ_LENGTH);
+          final SAMRecord rec = new SAMRecord(header);
+          rec.setReadName("read" + f + "-" + r);
+          rec.setReferenceIndex(0);
+          rec.setAlignmentStart(position);
+          rec.setReadNegativeStrandFlag(random.nextBoolean());
+          rec.setCigarString(READ_LENGTH + "M");
+          rec.setMappingQuality(random.nextInt(10) == 0 ? random.nextInt(60) : 60);
+          rec.setReadBases(DnaUtils.bytesToSequenceIncCG(read).getBytes());
+          rec.setBaseQualities(quals);
+          rec.setAttribute(SamUtils.ATTRIBUTE_ALIGNMENT_SCORE, 0);
+          rec.setAttribute(SamUtils.ATTRIBUTE_NUM_MISMATCHES, 0);
+          writer.addAlignment(rec);
+        }
+      }
+      mInputs.add(file);
+    }
+    mHeader = SamUtils.getUberHeader(null, mInputs);
+  }
+
+  @TearDown
+  public void tearDown() {
+    FileHelper.deleteAll(mDir);
+  }
+
+  @Benchmark
+  public void merge() throws IOException {
+    final File output = new File(mDir, "merged." + mOutputFormat);
+    final SamMerger merger = new SamMerger(false, true, false, mThreads, SamFilterParams.builder().create(), false, false);
+    merger.mergeSamFiles(mInputs, Collections.<File>emptyList(), output, null, null, mHeader.clone(), true, true);
+  }
+}
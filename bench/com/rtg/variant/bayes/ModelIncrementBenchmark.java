@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.variant.bayes;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rtg.util.PortableRandom;
+import com.rtg.util.Utils;
+import com.rtg.variant.GenomePriorParams;
+import com.rtg.variant.bayes.snp.EvidenceQFactory;
+import com.rtg.variant.bayes.snp.HypothesesSnp;
+import com.rtg.variant.bayes.snp.StatisticsSnp;
+import com.rtg.variant.util.arithmetic.LogApproximatePossibility;
+
+/**
+ * Accumulation of a synthetic SNP pileup into per position models, the inner loop
+ * of the SNP caller. Each position is mostly reference with some heterozygous
+ * positions, and evidence varies in base quality, mapping quality and read position.
+ * The number of distinct pieces of evidence per position is reported during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ModelIncrementBenchmark {
+
+  private static final int POSITIONS = 512;
+
+  @Param({"30", "100", "1000"})
+  public int mDepth;
+
+  @Param({"true", "false"})
+  public boolean mAggregate;
+
+  private HypothesesSnp[] mHypotheses;
+  private int[] mRef;
+  private EvidenceInterface[][] mPileup;
+
+  @Setup
+  public void setup() {
+    final GenomePriorParams priors = GenomePriorParams.builder().create();
+    mHypotheses = new HypothesesSnp[4];
+    for (int ref = 0; ref < mHypotheses.length; ++ref) {
+      mHypotheses[ref] = new HypothesesSnp(LogApproximatePossibility.SINGLETON, priors, false, ref);
+    }
+    final EvidenceQFactory factory = new EvidenceQFactory();
+    final PortableRandom random = new PortableRandom(42);
+    mRef = new int[POSITIONS];
+    mPileup = new EvidenceInterface[POSITIONS][mDepth];
+    for (int p = 0; p < POSITIONS; ++p) {
+      mRef[p] = random.nextInt(4);
+      final int alt = random.nextInt(20) == 0 ? (mRef[p] + 1 + random.nextInt(3)) % 4 : mRef[p];
+      for (int d = 0; d < mDepth; ++d) {
+        final int nt = random.nextInt(100) == 0 ? random.nextInt(4) : random.nextBoolean() ? alt : mRef[p];
+        final int mapQ = random.nextInt(10) == 0 ? random.nextInt(20) : 60;
+        final int phred = random.nextInt(8) == 0 ? 10 + random.nextInt(10) : 30 + random.nextInt(8);
+        final int readPos = random.nextInt(150);
+        mPileup[p][d] = factory.evidence(nt, readPos, 149 - readPos, mapQ, phred, 0, 0, false);
+      }
+    }
+    reportEvidenceClasses();
+  }
+
+  // Report how many distinct pieces of evidence each position holds back when aggregating
+  private void reportEvidenceClasses() {
+    long total = 0;
+    int max = 0;
+    for (int p = 0; p < POSITIONS; ++p) {
+      final HypothesesSnp hypotheses = mHypotheses[mRef[p]];
+      final Model<Description> model = new Model<>(hypotheses, new StatisticsSnp(hypotheses.description()), new NoAlleleBalance());
+      model.setAggregateEvidence(true);
+      for (final EvidenceInterface e : mPileup[p]) {
+        model.increment(e);
+      }
+      total += model.evidenceClasses();
+      max = Math.max(max, model.evidenceClasses());
+    }
+    System.err.println("Depth " + mDepth + " evidence classes per position: mean " + Utils.realFormat((double) total / POSITIONS, 1) + " max " + max);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(POSITIONS)
+  public double increment() {
+    double total = 0;
+    for (int p = 0; p < POSITIONS; ++p) {
+      final HypothesesSnp hypotheses = mHypotheses[mRef[p]];
+      final Model<Description> model = new Model<>(hypotheses, new StatisticsSnp(hypotheses.description()), new NoAlleleBalance());
+      model.setAggregateEvidence(mAggregate);
+      for (final EvidenceInterface e : mPileup[p]) {
+        model.increment(e);
+      }
+      model.freeze();
+      total += model.posteriorLn0(mRef[p]);
+    }
+    return total;
+  }
+}
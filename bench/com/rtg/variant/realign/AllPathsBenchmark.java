@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.variant.realign;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rtg.bench.SyntheticData;
+import com.rtg.util.PortableRandom;
+import com.rtg.variant.MachineErrorParamsBuilder;
+import com.rtg.variant.util.arithmetic.LogApproximatePossibility;
+import com.rtg.variant.util.arithmetic.LogPossibility;
+
+/**
+ * All paths scoring of reads across synthetic complex regions, a tandem repeat
+ * flanked by unique sequence, as done for each read and hypothesis during complex
+ * calling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AllPathsBenchmark {
+
+  private static final int REGIONS = 256;
+  private static final int TEMPLATE_LENGTH = 400;
+  private static final int MAX_SHIFT = 7;
+
+  /** Scorer under test */
+  public enum Scorer {
+    /** Forward matrix using doubles with underflow handling, the usual choice */
+    FAST_UNDERFLOW,
+    /** Forward matrix in log space */
+    LOG,
+    /** Forward matrix in approximate log space */
+    LOG_APPROXIMATE,
+    /** Forward and reverse matrices, as used for per position probabilities */
+    DELTA
+  }
+
+  @Param({"FAST_UNDERFLOW", "LOG", "LOG_APPROXIMATE", "DELTA"})
+  public Scorer mScorer;
+
+  @Param({"100", "150"})
+  public int mReadLength;
+
+  private AllPaths mAllPaths;
+  private Environment[] mEnvironments;
+
+  @Setup
+  public void setup() {
+    final RealignParams params = new RealignParamsImplementation(new MachineErrorParamsBuilder().create());
+    switch (mScorer) {
+      case FAST_UNDERFLOW:
+        mAllPaths = new ScoreFastUnderflow(params);
+        break;
+      case LOG:
+        mAllPaths = new ScoreMatrix(LogPossibility.SINGLETON, params);
+        break;
+      case LOG_APPROXIMATE:
+        mAllPaths = new ScoreMatrix(LogApproximatePossibility.SINGLETON, params);
+        break;
+      default:
+        mAllPaths = new DeltaImplementation(LogApproximatePossibility.SINGLETON, params);
+        break;
+    }
+    final PortableRandom random = new PortableRandom(42);
+    mEnvironments = new Environment[REGIONS];
+    for (int i = 0; i < REGIONS; ++i) {
+      final byte[] template = SyntheticData.randomDna(random, TEMPLATE_LENGTH);
+      final int repeatStart = TEMPLATE_LENGTH / 2 - 10;
+      SyntheticData.tandemRepeat(template, repeatStart, SyntheticData.randomDna(random, 1 + random.nextInt(3)), 6 + random.nextInt(10));
+      final int start = repeatStart - random.nextInt(mReadLength - 20);
+      final byte[] read = SyntheticData.sampleRead(random, template, start, mReadLength, 0.02);
+      final byte[] phred = SyntheticData.qualities(random, mReadLength);
+      final double[] quality = new double[mReadLength];
+      for (int j = 0; j < mReadLength; ++j) {
+        quality[j] = Math.pow(10, -phred[j] / 10.0);
+      }
+      mEnvironments[i] = new EnvironmentImplementation(MAX_SHIFT, template, start, read, quality);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(REGIONS)
+  public double score() {
+    double total = 0;
+    for (final Environment env : mEnvironments) {
+      mAllPaths.setEnv(env);
+      total += mAllPaths.totalScoreLn();
+    }
+    return total;
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.alignment;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.rtg.util.Environment;
+import com.rtg.util.StringUtils;
+import com.rtg.util.io.FileUtils;
+
+/**
+ * Accumulates per aligner counts from prioritised edit distance chains, so they can be written
+ * as a tab separated file for tuning the aligner chain.
+ */
+public final class AlignerMetrics {
+
+  /** The name of the aligner metrics file */
+  public static final String ALIGNER_METRICS_FILE_NAME = "alignermetrics.tsv";
+
+  /** Aligner metrics file format version */
+  public static final String VERSION = "aligner metrics v2";
+
+  /** Value of the thread column for counts merged across all threads */
+  public static final String ALL_THREADS = "all";
+
+  private static final String SEPARATOR = "\t";
+
+  private static final int CALLS = 0;
+  private static final int NULLS = 1;
+  private static final int MAX_INT = 2;
+  private static final int TOTAL_SCORE = 3;
+  private static final int TIME = 4;
+  private static final int FIELDS = 5;
+
+  // keyed on chain name, position in the chain and aligner name
+  private final TreeMap<String, long[]> mCounts = new TreeMap<>();
+  private final TreeMap<String, Long> mReorders = new TreeMap<>();
+
+  private static String key(final String chain, final int position, final String aligner) {
+    return chain + SEPARATOR + position + SEPARATOR + aligner;
+  }
+
+  private long[] counts(final String key) {
+    return mCounts.computeIfAbsent(key, k -> new long[FIELDS]);
+  }
+
+  /**
+   * Add the counts for one aligner in a chain.
+   * @param chain name of the aligner chain
+   * @param position position of the aligner in the chain as configured, starting at 1
+   * @param aligner name of the aligner
+   * @param calls number of times the aligner was called
+   * @param nulls number of times the aligner declined to produce an alignment
+   * @param maxInt number of times the aligner reported the alignment exceeded the maximum score
+   * @param totalScore sum of the alignment scores produced
+   * @param timeNanos estimated total time spent in the aligner, in nanoseconds
+   */
+  public synchronized void add(String chain, int position, String aligner, long calls, long nulls, long maxInt, long totalScore, long timeNanos) {
+    final long[] c = counts(key(chain, position, aligner));
+    c[CALLS] += calls;
+    c[NULLS] += nulls;
+    c[MAX_INT] += maxInt;
+    c[TOTAL_SCORE] += totalScore;
+    c[TIME] += timeNanos;
+  }
+
+  /**
+   * Add to the number of times a chain was reordered.
+   * @param chain name of the aligner chain
+   * @param reorders number of reorders
+   */
+  public synchronized void addReorders(String chain, long reorders) {
+    mReorders.merge(chain, reorders, Long::sum);
+  }
+
+  /**
+   * Add all the counts from other metrics into this one.
+   * @param other metrics to merge
+   */
+  public void merge(AlignerMetrics other) {
+    final ArrayList<Map.Entry<String, long[]>> counts;
+    final ArrayList<Map.Entry<String, Long>> reorders;
+    synchronized (other) {
+      counts = new ArrayList<>(other.mCounts.entrySet());
+      reorders = new ArrayList<>(other.mReorders.entrySet());
+    }
+    synchronized (this) {
+      for (final Map.Entry<String, long[]> e : counts) {
+        final long[] c = counts(e.getKey());
+        for (int i = 0; i < FIELDS; ++i) {
+          c[i] += e.getValue()[i];
+        }
+      }
+      for (final Map.Entry<String, Long> e : reorders) {
+        mReorders.merge(e.getKey(), e.getValue(), Long::sum);
+      }
+    }
+  }
+
+  /**
+   * @return true if no counts have been added
+   */
+  public synchronized boolean isEmpty() {
+    return mCounts.isEmpty();
+  }
+
+  /**
+   * Write the metrics to a stream.
+   * @param out stream to write to
+   */
+  public void write(OutputStream out) {
+    write(out, Collections.emptyList());
+  }
+
+  /**
+   * Write these metrics as the total across all threads, followed by a section for each thread.
+   * @param out stream to write to
+   * @param threads metrics of the individual threads, numbered from 1 in the output
+   */
+  public void write(OutputStream out, List<AlignerMetrics> threads) {
+    final PrintStream ps = new PrintStream(out);
+    ps.print("#Version" + SEPARATOR + Environment.getVersion() + ", " + VERSION + StringUtils.LS);
+    writeReorders(ps, ALL_THREADS);
+    for (int i = 0; i < threads.size(); ++i) {
+      threads.get(i).writeReorders(ps, String.valueOf(i + 1));
+    }
+    ps.print("#thread" + SEPARATOR + "chain" + SEPARATOR + "position" + SEPARATOR + "aligner" + SEPARATOR + "calls" + SEPARATOR + "nulls" + SEPARATOR + "max-int"
+      + SEPARATOR + "total-score" + SEPARATOR + "estimated-time-ns" + StringUtils.LS);
+    writeCounts(ps, ALL_THREADS);
+    for (int i = 0; i < threads.size(); ++i) {
+      threads.get(i).writeCounts(ps, String.valueOf(i + 1));
+    }
+    ps.flush();
+  }
+
+  private synchronized void writeReorders(PrintStream ps, String thread) {
+    for (final Map.Entry<String, Long> e : mReorders.entrySet()) {
+      ps.print("#Reorders" + SEPARATOR + thread + SEPARATOR + e.getKey() + SEPARATOR + e.getValue() + StringUtils.LS);
+    }
+  }
+
+  private synchronized void writeCounts(PrintStream ps, String thread) {
+    for (final Map.Entry<String, long[]> e : mCounts.entrySet()) {
+      final long[] c = e.getValue();
+      ps.print(thread + SEPARATOR + e.getKey() + SEPARATOR + c[CALLS] + SEPARATOR + c[NULLS] + SEPARATOR + c[MAX_INT] + SEPARATOR + c[TOTAL_SCORE] + SEPARATOR + c[TIME] + StringUtils.LS);
+    }
+  }
+
+  /**
+   * Write the metrics to a file.
+   * @param file file to write to
+   * @param threads metrics of the individual threads
+   * @throws IOException if an I/O problem occurs
+   */
+  public void write(File file, List<AlignerMetrics> threads) throws IOException {
+    try (OutputStream out = FileUtils.createOutputStream(file, false)) {
+      write(out, threads);
+    }
+  }
+
+  /**
+   * Get the counts for an aligner.
+   * @param chain name of the aligner chain
+   * @param position position of the aligner in the chain as configured
+   * @param aligner name of the aligner
+   * @return calls, nulls, max int returns, total score and estimated time, or null if there are no counts
+   */
+  synchronized long[] get(String chain, int position, String aligner) {
+    final long[] c = mCounts.get(key(chain, position, aligner));
+    return c == null ? null : c.clone();
+  }
+}
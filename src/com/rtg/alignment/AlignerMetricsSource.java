@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.alignment;
+
+/**
+ * An edit distance able to report per aligner counts.
+ */
+public interface AlignerMetricsSource {
+
+  /**
+   * Add the counts accumulated so far to the supplied metrics.
+   * @param metrics destination for the counts
+   */
+  void addMetrics(AlignerMetrics metrics);
+}
@@ -129,13 +129,13 @@ public final class EditDistanceFactory {
     }
     if (USE_SINGLE_INDEL_SEEDED_ONLY) {
       Diagnostic.developerLog("Using SingleIndelSeededEditDistance: maxReadLength=" + maxReadLength);
-      return new RcEditDistance(new SoftClipper(new UnidirectionalPrioritisedEditDistance(new SingleIndelSeededEditDistance(ngsParams, maxReadLength)), ngsParams.indelSoftClipDistance(), ngsParams.mismatchSoftClipDistance(), ngsParams.minMatches()));
+      return new RcEditDistance(new SoftClipper(new UnidirectionalPrioritisedEditDistance("single-indel-seeded", new SingleIndelSeededEditDistance(ngsParams, maxReadLength)), ngsParams.indelSoftClipDistance(), ngsParams.mismatchSoftClipDistance(), ngsParams.minMatches()));
     } else if (USE_GOTOH_ONLY) {
       Diagnostic.developerLog("Using Gotoh only");
       return new RcEditDistance(new SoftClipper(new GotohEditDistance(ngsParams.gapOpenPenalty(), ngsParams.gapExtendPenalty(), ngsParams.substitutionPenalty(), ngsParams.unknownsPenalty(), false), ngsParams.indelSoftClipDistance(), ngsParams.mismatchSoftClipDistance(), ngsParams.minMatches()));
     } else if (effectiveChain == AlignerMode.TABLE) {
       Diagnostic.developerLog("Using SingleIndelEditDistance (TABLE): maxReadLength=" + maxReadLength);
-      return new RcEditDistance(new SoftClipper(new UnidirectionalPrioritisedEditDistance(new SingleIndelEditDistance(ngsParams, maxReadLength)), ngsParams.indelSoftClipDistance(), ngsParams.mismatchSoftClipDistance(), ngsParams.minMatches()));
+      return new RcEditDistance(new SoftClipper(new UnidirectionalPrioritisedEditDistance(chainName(AlignerMode.TABLE), new SingleIndelEditDistance(ngsParams, maxReadLength)), ngsParams.indelSoftClipDistance(), ngsParams.mismatchSoftClipDistance(), ngsParams.minMatches()));
     }
     // General case
 
@@ -180,18 +180,22 @@ public final class EditDistanceFactory {
       rev.add(new GotohEditDistance(ngsParams.gapOpenPenalty(), ngsParams.gapExtendPenalty(), ngsParams.substitutionPenalty(), ngsParams.unknownsPenalty(), false));
 
       return new RcEditDistance(
-        new SoftClipper(new UnidirectionalPrioritisedEditDistance(fwd.toArray(new UnidirectionalEditDistance[fwd.size()])),
+        new SoftClipper(new UnidirectionalPrioritisedEditDistance(chainName(AlignerMode.GENERAL), fwd.toArray(new UnidirectionalEditDistance[fwd.size()])),
           ngsParams.indelSoftClipDistance(), ngsParams.mismatchSoftClipDistance(), ngsParams.minMatches()),
-        new SoftClipper(new UnidirectionalPrioritisedEditDistance(rev.toArray(new UnidirectionalEditDistance[rev.size()])),
+        new SoftClipper(new UnidirectionalPrioritisedEditDistance(chainName(AlignerMode.GENERAL), rev.toArray(new UnidirectionalEditDistance[rev.size()])),
           ngsParams.indelSoftClipDistance(), ngsParams.mismatchSoftClipDistance(), ngsParams.minMatches()));
     }
 
-    return new RcEditDistance(new SoftClipper(new UnidirectionalPrioritisedEditDistance(
+    return new RcEditDistance(new SoftClipper(new UnidirectionalPrioritisedEditDistance(chainName(AlignerMode.GENERAL),
       new NoIndelsEditDistance(ngsParams),
       new GotohEditDistance(ngsParams.gapOpenPenalty(), ngsParams.gapExtendPenalty(), ngsParams.substitutionPenalty(), ngsParams.unknownsPenalty(), false)),
       ngsParams.indelSoftClipDistance(), ngsParams.mismatchSoftClipDistance(), ngsParams.minMatches()));
   }
 
+  private static String chainName(AlignerMode chain) {
+    return chain.toString().toLowerCase(Locale.getDefault());
+  }
+
   private static CgGotohEditDistance createCgGotohEditDistance(int unknownsPenalty, int readLength) {
     try {
       final boolean v2 = readLength == CgUtils.CG2_RAW_READ_LENGTH;
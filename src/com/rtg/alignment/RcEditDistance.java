@@ -21,7 +21,7 @@ import com.rtg.util.diagnostic.Diagnostic;
  * of the template, and always calls the wrapped unidirectional edit distance
  * implementation(s).
  */
-public class RcEditDistance implements BidirectionalEditDistance {
+public class RcEditDistance implements BidirectionalEditDistance, AlignerMetricsSource {
 
   private UnidirectionalEditDistance mEd;
   private UnidirectionalEditDistance mEdRC;
@@ -72,6 +72,16 @@ public class RcEditDistance implements BidirectionalEditDistance {
     return res;
   }
 
+  @Override
+  public void addMetrics(AlignerMetrics metrics) {
+    if (mEd instanceof AlignerMetricsSource) {
+      ((AlignerMetricsSource) mEd).addMetrics(metrics);
+    }
+    if (mEdRC instanceof AlignerMetricsSource) {
+      ((AlignerMetricsSource) mEdRC).addMetrics(metrics);
+    }
+  }
+
   @Override
   @JumbleIgnore
   public void logStats() {
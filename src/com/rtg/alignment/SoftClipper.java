@@ -17,7 +17,7 @@ package com.rtg.alignment;
  * If mismatches occur within M bases of the end of the alignment, it it will be clipped.
  * If the post-clipping alignment has fewer than O matches, return poorest alignment score.
  */
-public class SoftClipper implements UnidirectionalEditDistance {
+public class SoftClipper implements UnidirectionalEditDistance, AlignerMetricsSource {
 
   private final UnidirectionalEditDistance mEd;
   private final int mMinMatches;
@@ -175,6 +175,13 @@ public class SoftClipper implements UnidirectionalEditDistance {
     return mEd.calculateEditDistanceFixedBoth(read, readStartPos, readEndPos, template, templateStartPos, templateEndPos, maxScore, maxShift);
   }
 
+  @Override
+  public void addMetrics(AlignerMetrics metrics) {
+    if (mEd instanceof AlignerMetricsSource) {
+      ((AlignerMetricsSource) mEd).addMetrics(metrics);
+    }
+  }
+
   @Override
   public void logStats() {
     mEd.logStats();
@@ -22,13 +22,26 @@ import com.rtg.util.diagnostic.Diagnostic;
 /**
  * A prioritised edit distance which attempts multiple other edit distances in
  * order of simplicity, returning the result from the first which passes.
- *
+ * In adaptive mode the order is periodically revised from the observed success
+ * rate of each edit distance.
  */
-class UnidirectionalPrioritisedEditDistance implements UnidirectionalEditDistance {
+class UnidirectionalPrioritisedEditDistance implements UnidirectionalEditDistance, AlignerMetricsSource {
 
   private static final boolean LOG_AS_HISTO = GlobalFlags.isSet(CoreGlobalFlags.EDIT_DIST_LOG_AS_HISTOGRAM_FLAG);
+  private static final boolean ADAPTIVE = GlobalFlags.isSet(CoreGlobalFlags.EDIT_DIST_ADAPTIVE_CHAIN_FLAG);
+
+  /** Number of alignments between reconsidering the order of the chain in adaptive mode */
+  static final int ADAPT_INTERVAL = 1 << 16;
+  /** Minimum number of calls before an aligner takes part in reordering */
+  static final int ADAPT_MIN_CALLS = 4096;
 
+  private final String mChain;
+  private final boolean mAdaptive;
   private final UnidirectionalEditDistance[] mEds;
+  // position in the configured chain of each aligner, in the order they are currently tried
+  private final int[] mOrder;
+  private long mAlignments = 0;
+  private long mReorders = 0;
   private final int[] mCounts;
   private final long[] mTimeTaken;
   private final int[] mNullReturned;
@@ -45,7 +58,33 @@ class UnidirectionalPrioritisedEditDistance implements UnidirectionalEditDistanc
    * @param editDistances the edit distances to iterate over (in order)
    */
   protected UnidirectionalPrioritisedEditDistance(UnidirectionalEditDistance... editDistances) {
+    this("custom", editDistances);
+  }
+
+  /**
+   * Creates a Prioritised edit distance which tries several options in order
+   * @param chain name of the chain, used when reporting metrics
+   * @param editDistances the edit distances to iterate over (in order)
+   */
+  protected UnidirectionalPrioritisedEditDistance(String chain, UnidirectionalEditDistance... editDistances) {
+    this(chain, ADAPTIVE, editDistances);
+  }
+
+  /**
+   * Creates a Prioritised edit distance which tries several options in order
+   * @param chain name of the chain, used when reporting metrics
+   * @param adaptive if true, periodically reorder all but the last edit distance so the
+   *                 most often successful are tried first
+   * @param editDistances the edit distances to iterate over (in order)
+   */
+  UnidirectionalPrioritisedEditDistance(String chain, boolean adaptive, UnidirectionalEditDistance... editDistances) {
+    mChain = chain;
+    mAdaptive = adaptive;
     mEds = editDistances;
+    mOrder = new int[editDistances.length];
+    for (int i = 0; i < mOrder.length; ++i) {
+      mOrder[i] = i;
+    }
     mCounts = new int[editDistances.length];
     mTimeTaken = new long[editDistances.length]; // scaled to be in micro seconds, estimated by sampling
     mNullReturned = new int[editDistances.length];
@@ -71,10 +110,13 @@ class UnidirectionalPrioritisedEditDistance implements UnidirectionalEditDistanc
           + DnaUtils.bytesToSequenceIncCG(read));
     }
 
-    int i = 0;
+    if (mAdaptive && (++mAlignments & (ADAPT_INTERVAL - 1)) == 0) {
+      reorder();
+    }
     long starttime = 0;
     long endtime;
-    for (final UnidirectionalEditDistance ed : mEds) {
+    for (final int i : mOrder) {
+      final UnidirectionalEditDistance ed = mEds[i];
       mCounts[i]++;
       if ((mCounts[i] & 1023) == 0) {
         starttime = System.nanoTime();
@@ -109,7 +151,6 @@ class UnidirectionalPrioritisedEditDistance implements UnidirectionalEditDistanc
         return actions;
       }
       mNullReturned[i]++;
-      ++i;
     }
     mMaxIntActions[ActionsHelper.TEMPLATE_START_INDEX] = zeroBasedStart;
     return mMaxIntActions;
@@ -152,6 +193,58 @@ class UnidirectionalPrioritisedEditDistance implements UnidirectionalEditDistanc
     return mMaxIntActions;
   }
 
+  // true if aligner a ends the chain for a larger fraction of its calls than aligner b
+  private boolean moreSuccessful(final int a, final int b) {
+    final long successesA = mCounts[a] - mNullReturned[a];
+    final long successesB = mCounts[b] - mNullReturned[b];
+    return successesA * mCounts[b] > successesB * mCounts[a];
+  }
+
+  /**
+   * Reorder the chain, except for the last aligner which must remain the final fallback, so
+   * that aligners which succeed for the largest fraction of their calls are tried first.
+   * Only the call and failure counts are used, so the order is the same from run to run.
+   * Aligners without enough calls to estimate their success rate keep their relative position.
+   */
+  void reorder() {
+    final int n = mOrder.length - 1;
+    if (n < 2) {
+      return;
+    }
+    boolean changed = false;
+    // insertion sort on known success rates, stable so ties and unknowns keep their order
+    for (int k = 1; k < n; ++k) {
+      final int a = mOrder[k];
+      if (mCounts[a] < ADAPT_MIN_CALLS) {
+        continue;
+      }
+      int j = k - 1;
+      while (j >= 0 && mCounts[mOrder[j]] >= ADAPT_MIN_CALLS && moreSuccessful(a, mOrder[j])) {
+        mOrder[j + 1] = mOrder[j];
+        --j;
+        changed = true;
+      }
+      mOrder[j + 1] = a;
+    }
+    if (changed) {
+      ++mReorders;
+    }
+  }
+
+  int[] order() {
+    return mOrder.clone();
+  }
+
+  @Override
+  public void addMetrics(AlignerMetrics metrics) {
+    for (int i = 0; i < mEds.length; ++i) {
+      metrics.add(mChain, i + 1, mEds[i].getClass().getSimpleName(), mCounts[i], mNullReturned[i], mMaxIntReturned[i], mTotalScore[i], mTimeTaken[i] * 1024);
+    }
+    if (mAdaptive) {
+      metrics.addReorders(mChain, mReorders);
+    }
+  }
+
   @Override
   @JumbleIgnore
   public void logStats() {
@@ -35,9 +35,12 @@ import com.rtg.assembler.graph.Graph;
 import com.rtg.assembler.graph.MutableGraph;
 import com.rtg.assembler.graph.io.GraphReader;
 import com.rtg.assembler.graph.io.GraphWriter;
+import com.rtg.index.hash.ExactHashFunction;
 import com.rtg.launcher.ParamsTask;
 import com.rtg.mode.DnaUtils;
 import com.rtg.reader.SequencesReaderFactory;
+import com.rtg.util.IORunnable;
+import com.rtg.util.SimpleThreadPool;
 import com.rtg.util.diagnostic.Diagnostic;
 import com.rtg.util.store.StoreDirProxy;
 
@@ -64,55 +67,93 @@ public final class PacBio extends ParamsTask<PacBioParams, PacBioStatistics> {
 
   void mapPacBio(ReadPairSource source, MutableGraph graph) throws IOException {
     final GraphIndex index = new GraphIndex(graph, 1, WORDSIZE);
-    List<byte[]> fragments;
-    final PathTracker tracker = new PathTracker(new PalindromeTracker(graph));
-    while ((fragments = source.nextFragments()) != null) {
-      for (byte[] read : fragments) {
-        final List<List<ContigPosition>> hits = index.hits(read, graph, index.getSearchFunction());
-        boolean hasHit = false;
-        for (List<ContigPosition> hit : hits) {
-          //out.println("Dodgy read: " + readId);
-          //printHits(hits);
-          if (hit.size() > 0) {
-            hasHit = true;
-            break;
+    final PalindromeTracker palindromes = new PalindromeTracker(graph);
+    final int numberThreads = mParams.numberThreads();
+    final AsyncReadPool readPool = new AsyncReadPool("ReadForPacBio", Collections.singletonList(source));
+    final SimpleThreadPool placePool = new SimpleThreadPool(numberThreads, "PlacePacBio", true);
+    final List<PlacementRunnable> placeThreads = new ArrayList<>(numberThreads);
+    for (int i = 0; i < numberThreads; ++i) {
+      final PlacementRunnable placeThread = new PlacementRunnable(index, graph, new PathTracker(palindromes), readPool.sources());
+      placeThreads.add(placeThread);
+      placePool.execute(placeThread);
+    }
+    placePool.terminate();
+    readPool.terminate();
+    final List<PathTracker> trackers = new ArrayList<>(placeThreads.size());
+    for (PlacementRunnable placeThread : placeThreads) {
+      mStatistics.accumulate(placeThread.mStatistics);
+      trackers.add(placeThread.mTracker);
+    }
+    final SortedMap<List<Long>, Integer> merge = PathTracker.merge(trackers);
+    PathTracker.apply(merge, graph);
+  }
+
+  /**
+   * Places reads taken from shared sources against the graph, tallying the paths found in
+   * its own tracker so that workers never contend over path counts.
+   */
+  static class PlacementRunnable implements IORunnable {
+    final GraphIndex mIndex;
+    final MutableGraph mGraph;
+    final PathTracker mTracker;
+    final List<AsyncReadSource> mReaders;
+    final PacBioStatistics mStatistics = new PacBioStatistics(null);
+
+    PlacementRunnable(GraphIndex index, MutableGraph graph, PathTracker tracker, List<AsyncReadSource> readers) {
+      mIndex = index;
+      mGraph = graph;
+      mTracker = tracker;
+      mReaders = readers;
+    }
+
+    @Override
+    public void run() throws IOException {
+      final ExactHashFunction searchFunction = mIndex.getSearchFunction();
+      for (AsyncReadSource reader : mReaders) {
+        List<byte[]> fragments;
+        while ((fragments = reader.nextFragments()) != null) {
+          for (byte[] read : fragments) {
+            placeRead(read, searchFunction);
           }
+          mStatistics.increment(PacBioStatistics.Stat.TOTAL_READS);
         }
-        if (!hasHit) {
-          continue;
-        }
-        final boolean isInternal = isInternal(graph, hits);
-        if (isInternal) {
-          mStatistics.increment(PacBioStatistics.Stat.INTERNAL_READS);
+      }
+    }
+
+    void placeRead(byte[] read, ExactHashFunction searchFunction) throws IOException {
+      final List<List<ContigPosition>> hits = mIndex.hits(read, mGraph, searchFunction);
+      boolean hasHit = false;
+      for (List<ContigPosition> hit : hits) {
+        //out.println("Dodgy read: " + readId);
+        //printHits(hits);
+        if (hit.size() > 0) {
+          hasHit = true;
+          break;
         }
-        if (!isInternal) {
-          //printHits(hits);
-          final HitMap mergedHits = joinHits(hits, WORDSIZE);
-          if (mergedHits.size() > 1) {
-            final List<PartialAlignment> alignments = alignHits(mergedHits, graph, read);
-            if (alignments.size() >= 2) {
-              Collections.sort(alignments);
-              int endPoint = 0;
-              for (PartialAlignment pa : alignments) {
-                endPoint = Math.max(pa.getReadEnd(), endPoint);
-              }
-              final SortedSet<PartialAlignment> sorted = new TreeSet<>();
-              sorted.addAll(alignments);
-              final Map<Long, List<PacBioPath>> longListMap = joinAlignments(new ArrayList<>(sorted), graph);
-              final PacBioPath best = uniqueBest(longListMap, read.length);
-              if (best != null) {
-
-                mStatistics.increment(PacBioStatistics.Stat.CROSS_CONTIG);
-                tracker.increment(best.toPath());
-              }
-            }
+      }
+      if (!hasHit) {
+        return;
+      }
+      if (isInternal(mGraph, hits)) {
+        mStatistics.increment(PacBioStatistics.Stat.INTERNAL_READS);
+        return;
+      }
+      //printHits(hits);
+      final HitMap mergedHits = joinHits(hits, WORDSIZE);
+      if (mergedHits.size() > 1) {
+        final List<PartialAlignment> alignments = alignHits(mergedHits, mGraph, read);
+        if (alignments.size() >= 2) {
+          final SortedSet<PartialAlignment> sorted = new TreeSet<>();
+          sorted.addAll(alignments);
+          final Map<Long, List<PacBioPath>> longListMap = joinAlignments(new ArrayList<>(sorted), mGraph);
+          final PacBioPath best = uniqueBest(longListMap, read.length);
+          if (best != null) {
+            mStatistics.increment(PacBioStatistics.Stat.CROSS_CONTIG);
+            mTracker.increment(best.toPath());
           }
         }
       }
-      mStatistics.increment(PacBioStatistics.Stat.TOTAL_READS);
     }
-    final SortedMap<List<Long>, Integer> merge = PathTracker.merge(Collections.singletonList(tracker));
-    PathTracker.apply(merge, graph);
   }
 
   static boolean isInternal(Graph graph, List<List<ContigPosition>> hits) {
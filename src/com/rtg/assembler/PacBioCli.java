@@ -59,7 +59,8 @@ public class PacBioCli extends ParamsCli<PacBioParams> {
     builder.directory((File) flags.getValue(CommonFlags.OUTPUT_FLAG))
         .reads(CommonFlags.getFileList(flags, CommonFlags.INPUT_LIST_FLAG, null, true))
         .graph((File) flags.getValue(GraphMapCli.GRAPH_FLAG))
-        .trimGraph(flags.isSet(TRIM));
+        .trimGraph(flags.isSet(TRIM))
+        .numberThreads(CommonFlags.parseThreads((Integer) flags.getValue(CommonFlags.THREADS_FLAG)));
 
     return builder.create();
   }
@@ -85,6 +86,7 @@ public class PacBioCli extends ParamsCli<PacBioParams> {
     final Flag<File> listFlag = flags.registerOptional('I', CommonFlags.INPUT_LIST_FLAG, File.class, CommonFlags.FILE, "file containing a list of SDF directories (1 per line) containing sequences to assemble").setCategory(INPUT_OUTPUT);
     flags.addRequiredSet(inFlag);
     flags.addRequiredSet(listFlag);
+    CommonFlags.initThreadsFlag(flags);
     flags.setValidator(new PacBioValidator());
   }
 
@@ -23,6 +23,7 @@ public class PacBioParams extends ModuleParams {
   private final List<File> mReads;
   private final File mGraph;
   private final boolean mTrimGraph;
+  private final int mNumberThreads;
   private final File mDirectory;
 
   protected PacBioParams(Builder builder) {
@@ -30,6 +31,7 @@ public class PacBioParams extends ModuleParams {
     mReads = builder.mReads;
     mGraph = builder.mGraph;
     mTrimGraph = builder.mTrimGraph;
+    mNumberThreads = builder.mNumberThreads;
     mDirectory = builder.mDirectory;
   }
   /**
@@ -50,6 +52,12 @@ public class PacBioParams extends ModuleParams {
   public boolean trimGraph() {
     return mTrimGraph;
   }
+  /**
+    * @return number of threads to use in processing
+    */
+  public int numberThreads() {
+    return mNumberThreads;
+  }
   /**
     * @return output directory
     */
@@ -67,6 +75,7 @@ public class PacBioParams extends ModuleParams {
         + " reads=" + mReads
         + " graph=" + mGraph
         + " trimGraph=" + mTrimGraph
+        + " numberThreads=" + mNumberThreads
         + " directory=" + mDirectory
         + "";
   }
@@ -81,6 +90,7 @@ public class PacBioParams extends ModuleParams {
     private List<File> mReads;
     private File mGraph;
     private boolean mTrimGraph;
+    private int mNumberThreads = 1;
     private File mDirectory;
     /**
       * @param reads read input sdf
@@ -106,6 +116,14 @@ public class PacBioParams extends ModuleParams {
       mTrimGraph = trimGraph;
       return this;
     }
+    /**
+      * @param numberThreads number of threads to use in processing
+      * @return this so calls can be chained
+      */
+    public Builder numberThreads(int numberThreads) {
+      mNumberThreads = numberThreads;
+      return this;
+    }
     /**
       * @param directory output directory
       * @return this so calls can be chained
@@ -20,11 +20,16 @@ import com.rtg.ngs.NgsParams;
 import com.rtg.util.IORunnable;
 import com.rtg.util.SimpleThreadPool;
 import com.rtg.util.diagnostic.Diagnostic;
+import com.rtg.util.metrics.MetricsRegistry;
+import com.rtg.util.metrics.PhaseTimer;
 
 /**
  * This class encapsulates a collection of Indexes and provides a way to create and freeze them.
  */
 public class IndexSet {
+
+  private static final PhaseTimer FREEZE_TIMER = MetricsRegistry.global().phase("index.freeze");
+
   private final Index[] mIndexes;
 
   /**
@@ -75,12 +80,14 @@ public class IndexSet {
    * @throws IOException should the multi-threading fall over.
    */
   public void freeze(int numberThreads) throws IOException {
+    final PhaseTimer.Split split = FREEZE_TIMER.start();
     final SimpleThreadPool pool = new SimpleThreadPool(numberThreads, "BuildFreeze", true);
     pool.enableBasicProgress(mIndexes.length);
     for (int i = 0; i < mIndexes.length; ++i) {
       pool.execute(new FreezeRunnable(mIndexes[i], i));
     }
     pool.terminate();
+    split.stop();
   }
 
   private static class CreateRunnable implements IORunnable {
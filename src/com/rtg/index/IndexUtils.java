@@ -13,6 +13,7 @@ package com.rtg.index;
 
 import com.rtg.index.params.CreateParams;
 import com.rtg.index.params.ParamsUtils;
+import com.rtg.index.queue.IndexQueues;
 import com.rtg.util.StringUtils;
 import com.rtg.util.diagnostic.Diagnostic;
 
@@ -60,6 +61,29 @@ public final class IndexUtils {
     return total;
   }
 
+  /**
+   * Compute the number of bytes of memory held by the queues when a compressed <code>IndexImplementation</code>
+   * is built from a single pass over its hashes. These are held until the index is frozen, in addition
+   * to the memory given by <code>bytes</code>.
+   * @param createParams parameters that will be used to construct the <code>IndexImplementation</code>.
+   * @param numberQueues number of queues the hashes are spread over, one for each thread adding to them.
+   * @return to the total bytes of queue memory.
+   */
+  public static long queueBytes(final CreateParams createParams, final int numberQueues) {
+    return IndexQueues.bytes(numberQueues, createParams.hashBits(), createParams.size(), createParams.valueBits(), createParams.initialPointerBits());
+  }
+
+  /**
+   * Compute the peak number of bytes of memory that the <code>IndexImplementation</code> will
+   * require while it is being built.
+   * @param createParams parameters that will be used to construct the <code>IndexImplementation</code>.
+   * @param numberQueues number of queues the hashes are spread over, or 0 if the index is not built from queued hashes.
+   * @return to the total bytes of memory.
+   */
+  public static long bytes(final CreateParams createParams, final int numberQueues) {
+    return bytes(createParams) + (numberQueues > 0 ? queueBytes(createParams, numberQueues) : 0);
+  }
+
   /**
    * Create a human readable description of the memory usage of an <code>IndexImplementation</code>
    * constructed using this.
@@ -100,6 +124,20 @@ public final class IndexUtils {
     assert pBytes == bytes(createParams);
   }
 
+  /**
+   * Create a human readable description of the peak memory usage of an <code>IndexImplementation</code>
+   * while it is being built, including any queues.
+   * @param sb where to place the result.
+   * @param createParams parameters that will be used to construct the <code>IndexImplementation</code>.
+   * @param numberQueues number of queues the hashes are spread over, or 0 if the index is not built from queued hashes.
+   */
+  public static void memToString(final StringBuilder sb, final CreateParams createParams, final int numberQueues) {
+    memToString(sb, createParams);
+    if (numberQueues > 0) {
+      sb.append(ParamsUtils.memToString("Queue", queueBytes(createParams, numberQueues), numberQueues));
+    }
+  }
+
   /**
    * Create a human readable description of the memory usage of an <code>IndexImplementation</code>
    * constructed using this.
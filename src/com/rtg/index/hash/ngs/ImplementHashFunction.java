@@ -271,6 +271,20 @@ public abstract class ImplementHashFunction extends IntegralAbstract implements
     mReadSequencesF2 = new long[(int) numberReads];
   }
 
+  @Override
+  public boolean shareReadSequences(final ReadHashFunction other) {
+    if (!(other instanceof ImplementHashFunction)) {
+      return false;
+    }
+    final ImplementHashFunction hf = (ImplementHashFunction) other;
+    if (hf.mReadSequencesF1 == null) {
+      return false;
+    }
+    mReadSequencesF1 = hf.mReadSequencesF1;
+    mReadSequencesF2 = hf.mReadSequencesF2;
+    return true;
+  }
+
   @Override
   public void templateSet(final long name, final int length) {
     mTemplateCall.set(name, length);
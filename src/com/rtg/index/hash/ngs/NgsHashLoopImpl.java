@@ -43,11 +43,11 @@ public class NgsHashLoopImpl extends IntegralAbstract implements NgsHashLoop {
   private final long mReadProgressMask;
   private final long mTemplateProgressMask;
   private long mThreadPadding;
-  /** Value to use for the generation of a valid base when an N is seen. */
-  private int mUnknownVictim = 0;
 
   protected long mMinChunkSize = HashingRegion.DEFAULT_MIN_CHUNK_SIZE;
 
+  private boolean mReadPrefetch = false;
+
   /**
    * set the number of bases to pad each threads region to handle matches near the boundaries
    * @param threadPadding the number of bases to pad the thread
@@ -56,6 +56,14 @@ public class NgsHashLoopImpl extends IntegralAbstract implements NgsHashLoop {
     this.mThreadPadding = threadPadding;
   }
 
+  /**
+   * Set whether reads are decoded ahead of hashing in a separate thread.
+   * @param readPrefetch true to decode reads in a separate thread
+   */
+  public void setReadPrefetch(final boolean readPrefetch) {
+    mReadPrefetch = readPrefetch;
+  }
+
   /**
    * @param numberReads total number of reads used for building.
    * @param progress true iff progress messages are to be generated.
@@ -83,26 +91,48 @@ public class NgsHashLoopImpl extends IntegralAbstract implements NgsHashLoop {
     final UnidirectionalFrame frame = UnidirectionalFrame.FORWARD;
 
     final SequencesReader reader = params.reader();
-    final long start = 0;
-    final long end = reader.numberSequences();
-    if (end > Integer.MAX_VALUE) {
+    if (reader.numberSequences() > Integer.MAX_VALUE) {
       throw new RuntimeException("Too many reads");
     }
+    final HashingRegion region = params.region();
+    final long start;
+    final long end;
+    if (region != HashingRegion.NONE) {
+      start = region.getStart();
+      end = region.getEnd();
+    } else {
+      start = 0;
+      end = reader.numberSequences();
+    }
 
     assert mode.codeType().firstValid() == 1;
-    final byte[] byteBuffer = makeBuffer(reader);
+    final long totalLength;
+    if (mReadPrefetch && start == 0 && end == reader.numberSequences()) {
+      try (ReadPrefetcher prefetcher = new ReadPrefetcher(reader, hashFunction.readLength())) {
+        totalLength = readLoop(reader, start, end, prefetcher, null, frame, hashFunction, encoder, reverse);
+      }
+    } else {
+      totalLength = readLoop(reader, start, end, null, makeBuffer(reader), frame, hashFunction, encoder, reverse);
+    }
+    mReadSequencesDefined = true;
+    assert Exam.globalIntegrity(hashFunction);
+    return totalLength;
+  }
+
+  private long readLoop(final SequencesReader reader, final long start, final long end, final ReadPrefetcher prefetcher, final byte[] buffer, final UnidirectionalFrame frame, final ReadHashFunction hashFunction, final ReadEncoder encoder, final boolean reverse) throws IOException {
     int badLengthCount = 0;
     long totalLength = 0;
     for (int seq = (int) start; seq < end; ++seq) {
-      mUnknownVictim = -1;
+      // Value to use for the generation of a valid base when an N is seen (local so regions can be hashed in parallel)
+      int unknownVictim = -1;
       final int readId = encoder.encode(seq);
-      final int id2 = encoder.encode((int) (seq - start));
+      final int id2 = readId;
       //System.err.println("id2=" + id2);
       if ((id2 & mReadProgressMask) == 0) {
         ProgramState.checkAbort();
       }
       //System.err.println("seq=" + seq);
-      final int currentLength = reader.length(seq);
+      final int currentLength = prefetcher != null ? prefetcher.length(seq) : reader.length(seq);
       if (currentLength != hashFunction.readLength()) {
         if (badLengthCount++ < WRONG_LENGTH_REPORT_LIMIT) {
           Diagnostic.warning(WarningType.INCORRECT_LENGTH, reader.names() != null ? reader.name(seq) : ("" + seq), currentLength + "", hashFunction.readLength() + "");
@@ -110,7 +140,8 @@ public class NgsHashLoopImpl extends IntegralAbstract implements NgsHashLoop {
         hashFunction.setValues(id2, false);
         continue;
       }
-      final int length = reader.read(seq, byteBuffer);
+      final byte[] byteBuffer = prefetcher != null ? prefetcher.bases(seq) : buffer;
+      final int length = prefetcher != null ? currentLength : reader.read(seq, byteBuffer);
       totalLength += length;
       //System.err.println(Arrays.toString(byteBuffer));
       hashFunction.reset();
@@ -123,13 +154,13 @@ public class NgsHashLoopImpl extends IntegralAbstract implements NgsHashLoop {
         //System.err.println("c=" + c);
         final byte v;
         if (c < 0) {
-          if (DAVE_N_HACK || mUnknownVictim == -1) {
-            mUnknownVictim = prev;
+          if (DAVE_N_HACK || unknownVictim == -1) {
+            unknownVictim = prev;
           }
-          v = (byte) mUnknownVictim;
+          v = (byte) unknownVictim;
           if (!DAVE_N_HACK) {
-            ++mUnknownVictim;
-            mUnknownVictim &= 3;
+            ++unknownVictim;
+            unknownVictim &= 3;
           }
         } else {
           v = (byte) c;
@@ -144,9 +175,6 @@ public class NgsHashLoopImpl extends IntegralAbstract implements NgsHashLoop {
     if (badLengthCount >= WRONG_LENGTH_REPORT_LIMIT) {
       Diagnostic.warning(WarningType.NUMBER_OF_INCORRECT_LENGTH, String.valueOf(badLengthCount));
     }
-
-    mReadSequencesDefined = true;
-    assert Exam.globalIntegrity(hashFunction);
     return totalLength;
   }
 
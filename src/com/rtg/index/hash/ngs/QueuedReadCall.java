@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.index.hash.ngs;
+
+import static com.rtg.util.StringUtils.LS;
+
+import com.rtg.index.IndexSet;
+import com.rtg.index.params.CreateParams;
+import com.rtg.index.queue.IndexQueue;
+import com.rtg.index.queue.IndexQueues;
+import com.rtg.util.StringUtils;
+import com.rtg.util.diagnostic.Diagnostic;
+import com.rtg.util.diagnostic.OneShotTimer;
+import com.rtg.util.metrics.Counter;
+import com.rtg.util.metrics.MetricsRegistry;
+import com.rtg.util.metrics.PhaseTimer;
+
+/**
+ * Does the actions for each window when scanning reads, by placing the hashes in
+ * radix partitioned queues (one set for each window). The indexes are then filled
+ * from the queues with both of the compressed index passes done in parallel, so the
+ * reads only need to be scanned once. Each thread scanning reads adds to its own queue,
+ * and the queues are frozen in order, so within a bucket the values are in queue order.
+ */
+public class QueuedReadCall implements ReadCall {
+
+  private static final PhaseTimer FREEZE_TIMER = MetricsRegistry.global().phase("index.freeze");
+  private static final Counter QUEUE_BYTES = MetricsRegistry.global().counter("index.queue_bytes");
+
+  private final IndexQueues[] mQueues;
+  private final IndexQueue[] mQueue;
+
+  /**
+   * @param windows number of windows used by the hash function.
+   * @param indexParams parameters of each of the indexes.
+   * @param numberQueues number of queues for each window, one for each range of reads scanned in parallel.
+   * @param numberThreads number of threads to use when freezing.
+   */
+  public QueuedReadCall(final int windows, final CreateParams indexParams, final int numberQueues, final int numberThreads) {
+    if (!indexParams.compressHashes()) {
+      throw new IllegalArgumentException("Queued index construction requires compressed hashes");
+    }
+    mQueues = new IndexQueues[windows];
+    mQueue = new IndexQueue[windows];
+    for (int i = 0; i < windows; ++i) {
+      mQueues[i] = new IndexQueues(numberQueues, numberThreads, indexParams.hashBits(), indexParams.size(), indexParams.valueBits(), indexParams.initialPointerBits());
+      mQueue[i] = mQueues[i].queue(0);
+    }
+  }
+
+  @Override
+  public void readCall(final int id, final long hash, final int index) {
+    mQueue[index].add(hash, id);
+  }
+
+  /**
+   * Get a read call which adds to queue <code>q</code> of each window, for use by a single thread.
+   * @param q the queue index.
+   * @return the read call.
+   */
+  public ReadCall queue(final int q) {
+    final IndexQueue[] queue = new IndexQueue[mQueues.length];
+    for (int i = 0; i < queue.length; ++i) {
+      queue[i] = mQueues[i].queue(q);
+    }
+    return (id, hash, index) -> queue[index].add(hash, id);
+  }
+
+  /**
+   * @return the number of bytes of memory currently allocated to the queues which have not yet been frozen.
+   */
+  public long bytes() {
+    long total = 0;
+    for (final IndexQueues queues : mQueues) {
+      if (queues != null) {
+        total += queues.bytes();
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Transfer all the queued hashes into the indexes and freeze them.
+   * The memory for each queue is released once its index is complete.
+   * @param indexes the indexes, one for each window.
+   */
+  public void freeze(final IndexSet indexes) {
+    assert indexes.size() == mQueues.length;
+    final long queueBytes = bytes();
+    QUEUE_BYTES.add(queueBytes);
+    Diagnostic.userLog("Index queue memory usage : " + StringUtils.commas(queueBytes) + " bytes");
+    final PhaseTimer.Split split = FREEZE_TIMER.start();
+    for (int i = 0; i < mQueues.length; ++i) {
+      final OneShotTimer timer = new OneShotTimer("Index_queue_freeze_" + i);
+      mQueue[i] = null;
+      mQueues[i].freeze(indexes.get(i));
+      mQueues[i] = null;
+      timer.stopLog();
+      Diagnostic.userLog("Index[" + i + "] statistics " + LS + indexes.get(i).infoString());
+    }
+    split.stop();
+  }
+}
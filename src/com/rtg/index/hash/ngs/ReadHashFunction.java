@@ -25,6 +25,16 @@ public interface ReadHashFunction extends CommonHashFunction {
    */
   void setReadSequences(long numberReads);
 
+  /**
+   * Use the read sequence arrays of another hash function rather than a private copy,
+   * so that several hash functions can scan disjoint ranges of reads in parallel.
+   * @param other hash function whose read sequences have already been set.
+   * @return true if the arrays are now shared, false if this hash function cannot share them.
+   */
+  default boolean shareReadSequences(ReadHashFunction other) {
+    return false;
+  }
+
   /**
    * Process all windows for the specified read.
    * @param readId number of the read (&gt;=0).
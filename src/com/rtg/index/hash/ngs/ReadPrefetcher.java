@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.index.hash.ngs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.rtg.reader.SequencesReader;
+import com.rtg.util.IORunnable;
+import com.rtg.util.ProgramState;
+import com.rtg.util.SimpleThreadPool;
+
+/**
+ * Decodes reads from a copy of a sequences reader in a separate thread, a block at
+ * a time, so that the thread doing the hashing does not wait on I/O or decompression.
+ * A fixed number of blocks is recycled between the two threads. Reads must be
+ * requested in increasing order.
+ */
+final class ReadPrefetcher implements Closeable {
+
+  /** Number of reads decoded in each block */
+  static final int BLOCK_SIZE = 1024;
+  private static final int NUMBER_BLOCKS = 4;
+  private static final int TIMEOUT = 1;
+
+  private static final class Block {
+    private final int[] mLengths = new int[BLOCK_SIZE];
+    private final byte[][] mBases = new byte[BLOCK_SIZE][];
+    private int mStart;
+    private int mCount;
+
+    private Block(final int readLength) {
+      for (int i = 0; i < BLOCK_SIZE; ++i) {
+        mBases[i] = new byte[readLength];
+      }
+    }
+  }
+
+  /** Marks the end of the reads */
+  private static final Block END = new Block(0);
+
+  private final SequencesReader mReader;
+  private final int mReadLength;
+  private final int mEnd;
+  private final BlockingQueue<Block> mFree = new ArrayBlockingQueue<>(NUMBER_BLOCKS);
+  private final BlockingQueue<Block> mFull = new ArrayBlockingQueue<>(NUMBER_BLOCKS + 1);
+  private final SimpleThreadPool mPool;
+  private volatile boolean mClosed = false;
+  private Block mCurrent = null;
+
+  /**
+   * Start decoding reads.
+   * @param reader reader of the reads, a copy is used for decoding
+   * @param readLength bases are only decoded for reads with this length
+   * @throws IOException if the reader cannot be copied
+   */
+  ReadPrefetcher(final SequencesReader reader, final int readLength) throws IOException {
+    mReader = reader.copy();
+    mReadLength = readLength;
+    mEnd = (int) reader.numberSequences();
+    for (int i = 0; i < NUMBER_BLOCKS; ++i) {
+      mFree.add(new Block(readLength));
+    }
+    mPool = new SimpleThreadPool(1, "ReadPrefetch", true);
+    mPool.execute(new Decoder());
+  }
+
+  private final class Decoder implements IORunnable {
+    @Override
+    public void run() throws IOException {
+      try {
+        for (int start = 0; start < mEnd && !mClosed; start += BLOCK_SIZE) {
+          final Block block = take(mFree);
+          if (block == null) {
+            return;
+          }
+          block.mStart = start;
+          block.mCount = Math.min(BLOCK_SIZE, mEnd - start);
+          for (int i = 0; i < block.mCount; ++i) {
+            final int length = mReader.length(start + i);
+            block.mLengths[i] = length;
+            if (length == mReadLength) {
+              mReader.read(start + i, block.mBases[i]);
+            }
+          }
+          put(block);
+        }
+      } finally {
+        put(END);
+        mReader.close();
+      }
+    }
+  }
+
+  private Block take(final BlockingQueue<Block> queue) {
+    try {
+      while (!mClosed) {
+        final Block block = queue.poll(TIMEOUT, TimeUnit.SECONDS);
+        if (block != null) {
+          return block;
+        }
+        ProgramState.checkAbort();
+      }
+    } catch (final InterruptedException e) {
+      ProgramState.setAbort();
+    }
+    return null;
+  }
+
+  private void put(final Block block) {
+    try {
+      while (!mClosed && !mFull.offer(block, TIMEOUT, TimeUnit.SECONDS)) {
+        ProgramState.checkAbort();
+      }
+    } catch (final InterruptedException e) {
+      ProgramState.setAbort();
+    }
+  }
+
+  private Block block(final int seq) throws IOException {
+    while (mCurrent == null || seq >= mCurrent.mStart + mCurrent.mCount) {
+      if (mCurrent != null) {
+        mFree.add(mCurrent);
+      }
+      mCurrent = take(mFull);
+      if (mCurrent == null || mCurrent == END) {
+        mCurrent = null;
+        // The decoder failed, closing reports its exception
+        close();
+        throw new IOException("Read decoding finished before read " + seq);
+      }
+    }
+    assert seq >= mCurrent.mStart;
+    return mCurrent;
+  }
+
+  /**
+   * @param seq read number
+   * @return length of the read
+   * @throws IOException if an I/O error occurs while decoding
+   */
+  int length(final int seq) throws IOException {
+    final Block block = block(seq);
+    return block.mLengths[seq - block.mStart];
+  }
+
+  /**
+   * Get the decoded bases of a read, only valid until a later read is requested.
+   * @param seq read number, which must have the expected read length
+   * @return buffer holding the bases of the read
+   * @throws IOException if an I/O error occurs while decoding
+   */
+  byte[] bases(final int seq) throws IOException {
+    final Block block = block(seq);
+    assert block.mLengths[seq - block.mStart] == mReadLength;
+    return block.mBases[seq - block.mStart];
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!mClosed) {
+      mClosed = true;
+      mPool.terminate();
+    }
+  }
+}
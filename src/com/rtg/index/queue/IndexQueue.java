@@ -122,6 +122,30 @@ public class IndexQueue extends IntegralAbstract implements Add {
     assert integrity();
   }
 
+  /**
+   * Estimate the number of bytes a queue will occupy once <code>length</code> entries have been added.
+   * Each entry takes two slots (the low order hash bits and the value), every block loses three slots
+   * to housekeeping, and each radix may have one partly filled block.
+   * @param lowerBits number of bits to right of radix.
+   * @param upperBits number of bits in a radix (high order bits of hash).
+   * @param length number of entries to be stored in the queue.
+   * @param valueBits number of value bits.
+   * @return the estimated bytes of memory.
+   */
+  public static long bytes(final int lowerBits, final int upperBits, final long length, final int valueBits) {
+    final long radix = 1L << upperBits;
+    final long slotBytes = Math.max(lowerBits, valueBits) <= 32 ? 4 : 8;
+    final long slots = 2 * length * MIN_BLOCK_SIZE / (MIN_BLOCK_SIZE - 3) + radix * (MIN_BLOCK_SIZE + 3);
+    return slots * slotBytes + (radix << TOTAL_BITS) * 8;
+  }
+
+  /**
+   * @return the number of bytes of memory currently allocated to this queue.
+   */
+  public long bytes() {
+    return mMemory.bytes() + mQueueInfo.length * 8L;
+  }
+
   final ExtensibleIndex makeMemory(final long length) {
     final int lengthBits = MathUtils.ceilPowerOf2Bits(length - 1);
     final int initLengthBits = lengthBits - 7;
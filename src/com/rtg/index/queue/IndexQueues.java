@@ -31,6 +31,8 @@ public class IndexQueues extends IntegralAbstract {
 
   private final int mNumberThreads;
 
+  private final int mNumberQueues;
+
   private final IndexQueue[] mQueues;
 
   private final int mRadixBits;
@@ -47,12 +49,28 @@ public class IndexQueues extends IntegralAbstract {
    * @param ipBits number of bits used to generate length of initial pointer table.
    */
   public IndexQueues(final int numberThreads, final int hashBits, final long size, final int valueBits, final int ipBits) {
+    this(numberThreads, numberThreads, hashBits, size, valueBits, ipBits);
+  }
+
+  /**
+   * @param numberQueues number of queues, one for each thread that adds to them.
+   * @param numberThreads number of threads available for parallel freezing.
+   * @param hashBits number of bits in a hash word.
+   * @param size estimated total size of all queues.
+   * @param valueBits the number of bits needed to represent a value.
+   * @param ipBits number of bits used to generate length of initial pointer table.
+   */
+  public IndexQueues(final int numberQueues, final int numberThreads, final int hashBits, final long size, final int valueBits, final int ipBits) {
     if (numberThreads < 1) {
       throw new IllegalArgumentException("threads=" + numberThreads);
     }
+    if (numberQueues < 1) {
+      throw new IllegalArgumentException("queues=" + numberQueues);
+    }
     mNumberThreads = numberThreads;
-    mRadixSize = (size + numberThreads - 1) / numberThreads;
-    mQueues = new IndexQueue[mNumberThreads];
+    mNumberQueues = numberQueues;
+    mRadixSize = (size + numberQueues - 1) / numberQueues;
+    mQueues = new IndexQueue[mNumberQueues];
     mRadixBits = radixBits(hashBits, ipBits);
     mLowerBits = hashBits - mRadixBits;
     Diagnostic.developerLog("Lower bits=" + mLowerBits + " radixBits=" + mRadixBits);
@@ -62,9 +80,40 @@ public class IndexQueues extends IntegralAbstract {
   }
 
   final int radixBits(final int hashBits, final int ipBits) {
+    return defaultRadixBits(hashBits, ipBits);
+  }
+
+  private static int defaultRadixBits(final int hashBits, final int ipBits) {
     return Math.min(hashBits, Math.min(ipBits, DEFAULT_RADIX_BITS));
   }
 
+  /**
+   * Estimate the number of bytes the queues will occupy once all the entries have been added.
+   * This is in addition to the memory of the index being built from them.
+   * @param numberQueues number of queues, one for each thread that adds to them.
+   * @param hashBits number of bits in a hash word.
+   * @param size estimated total size of all queues.
+   * @param valueBits the number of bits needed to represent a value.
+   * @param ipBits number of bits used to generate length of initial pointer table.
+   * @return the estimated bytes of memory.
+   */
+  public static long bytes(final int numberQueues, final int hashBits, final long size, final int valueBits, final int ipBits) {
+    final int radixBits = defaultRadixBits(hashBits, ipBits);
+    final long radixSize = (size + numberQueues - 1) / numberQueues;
+    return numberQueues * IndexQueue.bytes(hashBits - radixBits, radixBits, radixSize, valueBits);
+  }
+
+  /**
+   * @return the number of bytes of memory currently allocated to the queues.
+   */
+  public long bytes() {
+    long total = 0;
+    for (final IndexQueue queue : mQueues) {
+      total += queue.bytes();
+    }
+    return total;
+  }
+
   /**
    * Get the queue for use by thread q.
    * @param q the thread index.
@@ -114,7 +163,7 @@ public class IndexQueues extends IntegralAbstract {
    */
   public void freeze(final Index index) {
     final OneShotTimer freezeCloseTimer = new OneShotTimer("LR_BS_freeze_close");
-    for (int i = 0; i < mNumberThreads; ++i) {
+    for (int i = 0; i < mNumberQueues; ++i) {
       mQueues[i].close();
     }
     freezeCloseTimer.stopLog();
@@ -155,7 +204,7 @@ public class IndexQueues extends IntegralAbstract {
   public boolean integrity() {
     Exam.assertTrue(mNumberThreads >= 1);
     Exam.assertTrue(mRadixBits >= 1);
-    Exam.assertEquals(mQueues.length, mNumberThreads);
+    Exam.assertEquals(mQueues.length, mNumberQueues);
     return true;
   }
 
@@ -11,16 +11,20 @@
  */
 package com.rtg.index.similarity;
 
+import java.io.IOException;
+
 import com.rtg.index.Finder;
 import com.rtg.index.IndexCompressed;
 import com.rtg.index.IndexFilterMethod;
 import com.rtg.index.params.CreateParams;
+import com.rtg.util.SimpleThreadPool;
+import com.rtg.util.StringUtils;
+import com.rtg.util.diagnostic.Diagnostic;
 
 /**
  */
 public final class IndexSimilarity extends IndexCompressed {
 
-  private SimilaritySorter mSimilaritySorter;
   private final boolean mSingleton;
 
   /**
@@ -46,6 +50,10 @@ public final class IndexSimilarity extends IndexCompressed {
 
   /**
    * Create a self-similarity matrix for the sequences in the index.
+   * The hash buckets are divided into contiguous ranges which are scanned in parallel,
+   * each range accumulating into its own partial matrix, and the partial matrices are
+   * then summed (also in parallel) to give the final result. The number of partial matrices
+   * is limited to those that fit in the memory available.
    * @param numSequences total number of sequences
    * @return the similarity matrix.
    * @throws IllegalStateException if index has not been frozen.
@@ -54,36 +62,107 @@ public final class IndexSimilarity extends IndexCompressed {
     if (mState != IndexState.FROZEN) {
       throw new IllegalStateException();
     }
-    if (mSimilaritySorter == null) {
-      mSimilaritySorter = new SimilaritySorter(maxHashCount(), mSingleton);
+    final long buckets = mInitialPositionLength - 2;
+    final Runtime rt = Runtime.getRuntime();
+    final int numThreads = partialMatrices(Math.min(mNumberThreads, buckets), SimilarityMatrix.bytes(numSequences), rt.maxMemory() - (rt.totalMemory() - rt.freeMemory()));
+    if (numThreads == 1) {
+      final SimilarityMatrix matrix = new SimilarityMatrix(numSequences);
+      scan(0, buckets, matrix);
+      return matrix;
+    }
+    final SimilarityMatrix[] partials = new SimilarityMatrix[numThreads];
+    final long batchSize = buckets / numThreads;
+    final SimpleThreadPool scanPool = new SimpleThreadPool(numThreads, "Similarity", true);
+    for (int t = 0; t < numThreads; ++t) {
+      final int thread = t;
+      final long start = batchSize * t;
+      final long end = (t == numThreads - 1) ? buckets : (batchSize * (t + 1));
+      scanPool.execute(() -> {
+        final SimilarityMatrix partial = new SimilarityMatrix(numSequences);
+        scan(start, end, partial);
+        partials[thread] = partial;
+      });
+    }
+    terminate(scanPool);
+    return reduce(partials, numThreads);
+  }
+
+  /**
+   * @param threads number of threads available.
+   * @param matrixBytes memory used by each partial matrix.
+   * @param availableBytes memory available for the partial matrices.
+   * @return the number of partial matrices, and hence threads, to use (at least one).
+   */
+  static int partialMatrices(final long threads, final long matrixBytes, final long availableBytes) {
+    final long fit = Math.max(1, availableBytes / Math.max(1, matrixBytes));
+    if (fit < threads) {
+      Diagnostic.userLog("Similarity matrices limited to " + fit + " by available memory of " + StringUtils.commas(availableBytes) + " bytes");
     }
-    final SimilarityMatrix matrix = new SimilarityMatrix(numSequences);
-    long lo = 0;
-    for (long p = 0; p < mInitialPositionLength - 2; ++p) {
+    return (int) Math.max(1, Math.min(threads, fit));
+  }
+
+  /**
+   * Accumulate the similarity contributions of a contiguous range of hash buckets.
+   * @param start first bucket (inclusive).
+   * @param end last bucket (exclusive).
+   * @param matrix partial matrix to be updated.
+   */
+  private void scan(final long start, final long end, final SimilarityMatrix matrix) {
+    final SimilaritySorter sorter = new SimilaritySorter(maxHashCount(), mSingleton);
+    long lo = mInitialPosition.get(start);
+    for (long p = start; p < end; ++p) {
       final long hi = mInitialPosition.get(p + 1);
       for (long i = lo; i < hi;) {
-      final long hash = mHash.get(i);
-      final int seq = (int) mValue.get(i);
-      //System.err.println(" i=" + i + " seq=" + seq + " hash=" + hash);
-      mSimilaritySorter.add(seq);
-      ++i;
-      if (i >= mNumValues) {
-        mSimilaritySorter.similarity(matrix);
-        //System.err.println(mSimilaritySorter.toString());
-        mSimilaritySorter.reset();
-        break;
+        final long hash = mHash.get(i);
+        final int seq = (int) mValue.get(i);
+        sorter.add(seq);
+        ++i;
+        if (i >= mNumValues) {
+          sorter.similarity(matrix);
+          sorter.reset();
+          break;
+        }
+        if (hash != mHash.get(i)) {
+          sorter.similarity(matrix);
+          sorter.reset();
+        }
       }
-      if (hash != mHash.get(i)) {
-        mSimilaritySorter.similarity(matrix);
-        //System.err.println(mSimilaritySorter.toString());
-        mSimilaritySorter.reset();
+      sorter.similarity(matrix);
+      sorter.reset();
+      lo = hi;
+    }
+  }
+
+  /**
+   * Sum the partial matrices into the first one. Rows are divided among the threads
+   * so that each thread handles roughly the same number of cells of the triangular matrix.
+   */
+  private static SimilarityMatrix reduce(final SimilarityMatrix[] partials, final int numThreads) {
+    final SimilarityMatrix result = partials[0];
+    final int length = result.length();
+    final SimpleThreadPool reducePool = new SimpleThreadPool(numThreads, "SimilarityMerge", true);
+    int startRow = 0;
+    for (int t = 1; t <= numThreads; ++t) {
+      final int endRow = t == numThreads ? length : (int) (length * Math.sqrt((double) t / numThreads));
+      if (endRow > startRow) {
+        final int s = startRow;
+        reducePool.execute(() -> {
+          for (int k = 1; k < partials.length; ++k) {
+            result.add(partials[k], s, endRow);
+          }
+        });
+        startRow = endRow;
       }
     }
-      mSimilaritySorter.similarity(matrix);
-      //System.err.println(mSimilaritySorter.toString());
-      mSimilaritySorter.reset();
-      lo = hi;
+    terminate(reducePool);
+    return result;
+  }
+
+  private static void terminate(final SimpleThreadPool pool) {
+    try {
+      pool.terminate();
+    } catch (final IOException e) {
+      throw new IllegalStateException("Similarity computation should not throw IOException", e);
     }
-    return matrix;
   }
 }
@@ -46,6 +46,15 @@ public class SimilarityMatrix extends IntegralAbstract {
     }
   }
 
+  /**
+   * Estimate the memory used by a matrix.
+   * @param numberSequences same as size of matrix.
+   * @return the estimated bytes of memory, the triangular counts plus a header and reference for each row.
+   */
+  public static long bytes(final long numberSequences) {
+    return 8L * numberSequences * (numberSequences + 1) / 2 + 24L * numberSequences;
+  }
+
   /**
    * Get the size of the array.
    * @return the size of the array (it is a length x length array).
@@ -82,6 +91,26 @@ public class SimilarityMatrix extends IntegralAbstract {
     }
   }
 
+  /**
+   * Add the counts from another matrix of the same size into this one, restricted to
+   * a range of rows of the lower triangle. Disjoint row ranges may be added concurrently.
+   * @param other matrix whose counts are to be added.
+   * @param startRow first row (inclusive).
+   * @param endRow last row (exclusive).
+   */
+  public void add(final SimilarityMatrix other, final int startRow, final int endRow) {
+    if (other.mLength != mLength) {
+      throw new IllegalArgumentException("Matrix sizes differ: " + other.mLength + " != " + mLength);
+    }
+    for (int i = startRow; i < endRow; ++i) {
+      final double[] row = mCounts[i];
+      final double[] otherRow = other.mCounts[i];
+      for (int j = 0; j <= i; ++j) {
+        row[j] += otherRow[j];
+      }
+    }
+  }
+
   /**
    * Get count taking into account commutativity of matrix.
    * @param a first index.
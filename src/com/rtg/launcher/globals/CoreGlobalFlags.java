@@ -40,6 +40,8 @@ public class CoreGlobalFlags extends GlobalFlagsInitializer {
   public static final String EDIT_DIST_INDEL_TABLE_FLAG = "com.rtg.alignment.SingleIndelEditDistance.penalties-file";
   /** True to log alignment score histogram */
   public static final String EDIT_DIST_LOG_AS_HISTOGRAM_FLAG = "com.rtg.alignment.UnidirectionalPrioritisedEditDistance.log-as-histo";
+  /** Periodically reorder the aligner chain by observed success rate (may change results) */
+  public static final String EDIT_DIST_ADAPTIVE_CHAIN_FLAG = "com.rtg.alignment.UnidirectionalPrioritisedEditDistance.adaptive";
   /** Number of bases from alignment ends within which a mismatch will trigger soft-clipping */
   public static final String EDIT_DIST_MISMATCH_SOFT_CLIP = "com.rtg.alignment.soft-clip-mismatch-distance";
   /** Minimum number of post-soft-clip matches required in order to keep an alignment */
@@ -49,6 +51,10 @@ public class CoreGlobalFlags extends GlobalFlagsInitializer {
   public static final String TEMP_FILES_DUMP_ALIGN_STATS_FLAG = "com.rtg.ngs.tempstage.AbstractTempFileWriter.dump-alignment-stats";
   /** keep temporary files from mapping run instead of deleting them */
   public static final String MAP_KEEP_TEMPORARY_FILES = "com.rtg.map.keep-temporary-files";
+  /** If true, multi-threaded short read mapping builds its indexes from radix partitioned queues in a single pass over the reads (the queues are held in addition to the indexes) */
+  public static final String MAP_QUEUED_INDEX_FLAG = "com.rtg.ngs.NgsTask.queued-index";
+  /** If true, multi-threaded short read mapping decodes reads in a separate thread while hashing them */
+  public static final String MAP_READ_PREFETCH_FLAG = "com.rtg.index.hash.ngs.NgsHashLoopImpl.read-prefetch";
   /** Maximum number of hits at a given position in the sliding window collector */
   //see bug #1476 for consequences of this on larger datasets
   public static final String SLIDING_WINDOW_MAX_HITS_PER_POS_FLAG = "com.rtg.pairedend.SlidingWindow.max-hits-per-position";
@@ -62,6 +68,8 @@ public class CoreGlobalFlags extends GlobalFlagsInitializer {
   public static final String ASSEMBLER_INSERT_DEVIATIONS_FLAG = "com.rtg.assembler.insertdeviations";
   /** Mask homopolymer bases near ends of alignments before using in variant calling */
   public static final String VARIANT_MASK_HOMOPOLYMER = "com.rtg.variant.mask-homopolymer";
+  /** Apply repeated identical evidence to the models once per distinct piece of evidence */
+  public static final String VARIANT_AGGREGATE_EVIDENCE_FLAG = "com.rtg.variant.bayes.Model.aggregate-evidence";
   /** The maximum number of hypotheses that can comfortably be handled by the complex caller */
   public static final String COMPLEX_CALLER_MAX_HYPOTH_FLAG = "com.rtg.variant.bayes.multisample.ComplexCaller.max-hypoth";
   /** Complex region extraction include indel lengths in interesting separation */
@@ -90,6 +98,8 @@ public class CoreGlobalFlags extends GlobalFlagsInitializer {
   public static final String CALLER_N_MIN_DEPTH = "com.rtg.variant.n-min-depth";
   /** If true, the population command will fall back to using forward backward when disagreeing calls are encountered (currently slow for large pops) */
   public static final String FAMILY_CALLER_FALLBACK_FLAG = "com.rtg.variant.bayes.multisample.FamilyCaller.fb-fallback";
+  /** If true, skip joint population calling at sites where every sample is certain to be called as the reference */
+  public static final String POPULATION_INVARIANT_SCREEN = "com.rtg.variant.bayes.multisample.population.invariant-screen";
   /** If true perform early exit of family caller when enough precision is reached */
   public static final String FAMILY_CALLER_SORTED_HYPOTHESES = "com.rtg.variant.bayes.multisample.FamilyPosterior.sorted-hypotheses";
   /** Treat bases with phred below the minimum base quality as quality 2*/
@@ -139,12 +149,15 @@ public class CoreGlobalFlags extends GlobalFlagsInitializer {
     registerFlag(EDIT_DIST_SINGLE_INDEL_SEEDED_ONLY_FLAG);
     registerFlag(EDIT_DIST_INDEL_TABLE_FLAG, String.class, "");
     registerFlag(EDIT_DIST_LOG_AS_HISTOGRAM_FLAG);
+    registerFlag(EDIT_DIST_ADAPTIVE_CHAIN_FLAG);
     registerFlag(EDIT_DIST_MISMATCH_SOFT_CLIP, Integer.class, 0);
     registerFlag(EDIT_DIST_MIN_MATCHES, Integer.class, 5);
     registerFlag(DEFAULT_INDEL_LENGTH_FLAG, Integer.class, 7);
 
     registerFlag(TEMP_FILES_DUMP_ALIGN_STATS_FLAG);
     registerFlag(MAP_KEEP_TEMPORARY_FILES);
+    registerFlag(MAP_QUEUED_INDEX_FLAG, Boolean.class, Boolean.TRUE);
+    registerFlag(MAP_READ_PREFETCH_FLAG, Boolean.class, Boolean.TRUE);
     registerFlag(SLIDING_WINDOW_MAX_HITS_PER_POS_FLAG, Integer.class, 0);
     registerFlag(SLIDING_WINDOW_MAX_HITS_PER_READ_FLAG, Integer.class, 0);
 
@@ -156,6 +169,7 @@ public class CoreGlobalFlags extends GlobalFlagsInitializer {
 
     // variant calling
     registerFlag(VARIANT_MASK_HOMOPOLYMER, Boolean.class, Boolean.FALSE);
+    registerFlag(VARIANT_AGGREGATE_EVIDENCE_FLAG, Boolean.class, Boolean.TRUE);
 
     // Complex caller
     registerFlag(COMPLEX_CALLER_MAX_HYPOTH_FLAG, Integer.class, 20);
@@ -175,6 +189,7 @@ public class CoreGlobalFlags extends GlobalFlagsInitializer {
     registerFlag(CALLER_N_MIN_DEPTH, Integer.class, 5);
     registerFlag(FAMILY_CALLER_FALLBACK_FLAG, Boolean.class, Boolean.FALSE);
     registerFlag(FAMILY_CALLER_SORTED_HYPOTHESES, Boolean.class, Boolean.TRUE);
+    registerFlag(POPULATION_INVARIANT_SCREEN, Boolean.class, Boolean.TRUE);
     registerFlag(MIN_BASE_QUALITY_AS_TWO, Boolean.class, Boolean.FALSE);
     registerFlag(QUALITY_CALIBRATION_MIN_EVIDENCE, Integer.class, 10);
     registerFlag(QUALITY_CALIBRATION_COVARIATE_INTERSECTION, Boolean.class, Boolean.FALSE);
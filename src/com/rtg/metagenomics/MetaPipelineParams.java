@@ -42,6 +42,7 @@ public class MetaPipelineParams extends OutputModuleParams {
     protected File mInputLeft = null;
     protected File mInputRight = null;
     protected Platform mInputPlatform = Platform.ILLUMINA;
+    protected boolean mKeepIntermediate = true;
 
     /**
      * Set protein SDF.
@@ -113,6 +114,16 @@ public class MetaPipelineParams extends OutputModuleParams {
       return self();
     }
 
+    /**
+     * Set whether the read SDFs produced by filtering are retained.
+     * @param keepIntermediate true to retain the filtered read SDFs.
+     * @return this builder, so calls can be chained.
+     */
+    public MetaPipelineParamsBuilder keepIntermediate(boolean keepIntermediate) {
+      mKeepIntermediate = keepIntermediate;
+      return self();
+    }
+
     @Override
     protected MetaPipelineParamsBuilder self() {
       return this;
@@ -135,6 +146,7 @@ public class MetaPipelineParams extends OutputModuleParams {
   private final File mInputLeft;
   private final File mInputRight;
   private final Platform mInputPlatform;
+  private final boolean mKeepIntermediate;
 
   /**
    * @param builder the builder object.
@@ -148,6 +160,7 @@ public class MetaPipelineParams extends OutputModuleParams {
     mInputLeft = builder.mInputLeft;
     mInputRight = builder.mInputRight;
     mInputPlatform = builder.mInputPlatform;
+    mKeepIntermediate = builder.mKeepIntermediate;
   }
 
   /**
@@ -206,4 +219,12 @@ public class MetaPipelineParams extends OutputModuleParams {
     return mInputPlatform;
   }
 
+  /**
+   * Get whether the read SDFs produced by filtering are retained.
+   * @return true if the filtered read SDFs are retained.
+   */
+  public boolean keepIntermediate() {
+    return mKeepIntermediate;
+  }
+
 }
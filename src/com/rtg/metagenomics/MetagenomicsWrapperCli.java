@@ -49,6 +49,7 @@ public class MetagenomicsWrapperCli extends ParamsCli<MetaPipelineParams> {
   static final String INPUT_RIGHT = "input-right";
   static final String PLATFORM = "platform";
   static final String FILTER = "filter";
+  static final String NO_INTERMEDIATE = "Xno-intermediate-sdf";
 
   LogStream mLogStream;
   PrintStream mErr;
@@ -193,6 +194,7 @@ public class MetagenomicsWrapperCli extends ParamsCli<MetaPipelineParams> {
         proteinFlag.setParameterDefault(new File(referencesDir, PROTEIN_REFERENCE_DEFAULT));
       }
     }
+    flags.registerOptional(NO_INTERMEDIATE, "do not retain the read SDFs produced by filtering").setCategory(CommonFlagCategories.UTILITY);
     flags.addRequiredSet(input);
     flags.addRequiredSet(left, right);
     flags.setValidator(new MetaWrapperValidator());
@@ -243,6 +245,7 @@ public class MetagenomicsWrapperCli extends ParamsCli<MetaPipelineParams> {
     }
     builder.inputPlatform((Platform) mFlags.getValue(PLATFORM));
     builder.filterSdf((File) mFlags.getValue(FILTER));
+    builder.keepIntermediate(!mFlags.isSet(NO_INTERMEDIATE));
     if (mFlags.getFlag(SPECIES) != null) {
       builder.speciesSdf((File) mFlags.getValue(SPECIES));
     }
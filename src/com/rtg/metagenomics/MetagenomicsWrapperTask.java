@@ -41,6 +41,7 @@ import com.rtg.util.StringUtils;
 import com.rtg.util.cli.CommandLine;
 import com.rtg.util.diagnostic.CliDiagnosticListener;
 import com.rtg.util.diagnostic.Diagnostic;
+import com.rtg.util.io.FileUtils;
 import com.rtg.util.io.LogStream;
 
 /**
@@ -136,6 +137,10 @@ class MetagenomicsWrapperTask extends ParamsTask<MetaPipelineParams, NoStatistic
           , "--" + SamCommandHelper.SAM_RG, "@RG\\tPL:" + mParams.inputPlatform() + "\\tSM:sample\\tID:id"
       ));
       mapfArgs.addAll(inputFlags);
+      if (!mParams.keepIntermediate()) {
+        // Only the unmapped reads are needed by the later stages
+        mapfArgs.add("--" + MapFCli.NO_MAPPED_SDF_FLAG);
+      }
       final MapFCli mapF = new NoListenerMapF();
       final int mapFResult = runCommand(mReportStream, mapF, mapfArgs);
       mOutputDirectories.add(mapfOutput);
@@ -149,8 +154,17 @@ class MetagenomicsWrapperTask extends ParamsTask<MetaPipelineParams, NoStatistic
     } else {
       mapInput.addAll(inputFlags);
     }
+    // Remove the unmapped reads as soon as the last stage reading them has returned
+    final boolean dropUnmapped = mParams.filterSdf() != null && !mParams.keepIntermediate();
+    final File unmapped = new File(mapfOutput, AbstractSdfOutputProcessor.UNMAPPED_SDF_FILE);
+    if (dropUnmapped && mParams.speciesSdf() == null && mParams.proteinSdf() == null) {
+      deleteIntermediate(unmapped);
+    }
     if (mParams.speciesSdf() != null) {
       final int result = species(mReportStream, output, mapInput);
+      if (dropUnmapped && (result != 0 || mParams.proteinSdf() == null)) {
+        deleteIntermediate(unmapped);
+      }
       if (result != 0) {
         mReturnCode = result;
         return;
@@ -158,6 +172,9 @@ class MetagenomicsWrapperTask extends ParamsTask<MetaPipelineParams, NoStatistic
     }
     if (mParams.proteinSdf() != null) {
       final int result = mapX(mapfOutput, mReportStream, output);
+      if (dropUnmapped) {
+        deleteIntermediate(unmapped);
+      }
       if (result != 0) {
         mReturnCode = result;
         return;
@@ -171,6 +188,12 @@ class MetagenomicsWrapperTask extends ParamsTask<MetaPipelineParams, NoStatistic
     report.makeReport();
   }
 
+  private static void deleteIntermediate(File sdf) {
+    if (sdf.exists() && !FileUtils.deleteFiles(sdf)) {
+      Diagnostic.warning("Could not delete intermediate SDF: " + sdf.getPath());
+    }
+  }
+
   protected static String errorRate(Platform inputMachineType) {
     return inputMachineType == Platform.ILLUMINA ? "10%" : "15%";
   }
@@ -11,9 +11,7 @@
  */
 package com.rtg.metagenomics.metasnp;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 import com.rtg.variant.util.arithmetic.PossibilityArithmetic;
 
@@ -48,15 +46,36 @@ public final class AlphaSelector {
     return alphaPosition(referenceAllele, new ProbAlphaSimpleBeta(probSpaceBeta), reads, thetaLookup, arith, nStrains);
   }
   static AlphaScore alphaPosition(int referenceAllele, ProbAlpha pAlpha, double[][] reads, double[][] thetaLookup, PossibilityArithmetic arith, int nStrains) {
+    final int alleles = reads.length == 0 ? 0 : reads[0].length;
+    final double[] counts = new double[reads.length * MetaSnpEvidence.STRIDE];
+    for (int sampleIndex = 0; sampleIndex < reads.length; ++sampleIndex) {
+      System.arraycopy(reads[sampleIndex], 0, counts, sampleIndex * MetaSnpEvidence.STRIDE, alleles);
+    }
+    return alphaPosition(referenceAllele, pAlpha, counts, 0, reads.length, alleles, thetaLookup, arith, nStrains);
+  }
+
+  /**
+   * Select the best assignment of alleles to strains for a position whose evidence is held in a flat array
+   * with <code>MetaSnpEvidence.STRIDE</code> counts per sample.
+   *
+   * @param referenceAllele base in the reference at this position
+   * @param pAlpha prior probability of each assignment
+   * @param counts evidence storage
+   * @param offset index of the first count for this position
+   * @param samples number of samples
+   * @param alleles number of alleles with counts for each sample
+   * @param thetaLookup precomputed theta table
+   * @param arith arithmetic object
+   * @param nStrains number of strains
+   * @return assignments and a score.
+   */
+  static AlphaScore alphaPosition(int referenceAllele, ProbAlpha pAlpha, double[] counts, int offset, int samples, int alleles, double[][] thetaLookup, PossibilityArithmetic arith, int nStrains) {
     final int[] strainVariants = new int[nStrains];
     int stackPos = 0;
     double bestScore = arith.zero();
     double bestEvidenceScore = arith.zero();
     double restScore = arith.zero();
-    List<Integer> best = new ArrayList<>(nStrains);
-    for (int i = 0; i < nStrains ; ++i) {
-      best.add(0);
-    }
+    final int[] best = new int[nStrains];
     final int[] thetaMask = new int[MAX_VALUE + 1];
     int last = -1;
     // Loop over all possible alpha_x assigments (assigments of alleles to strains)
@@ -70,23 +89,19 @@ public final class AlphaSelector {
       }
 
       double evidenceScore = arith.one();
-      for (int sampleIndex = 0; sampleIndex < reads.length; ++sampleIndex) {
-        final double[] sample = reads[sampleIndex];
-        for (int i = 0; i < sample.length; ++i) {
-          evidenceScore = arith.multiply(evidenceScore, arith.pow(thetaLookup[sampleIndex][thetaMask[i]], sample[i]));
+      for (int sampleIndex = 0, base = offset; sampleIndex < samples; ++sampleIndex, base += MetaSnpEvidence.STRIDE) {
+        final double[] theta = thetaLookup[sampleIndex];
+        for (int i = 0; i < alleles; ++i) {
+          evidenceScore = arith.multiply(evidenceScore, arith.pow(theta[thetaMask[i]], counts[base + i]));
         }
       }
       final double alphaScore = arith.prob2Poss(pAlpha.pAlpha(referenceAllele, strainVariants));
       final double currentScore = arith.multiply(alphaScore, evidenceScore);
-//      System.err.println("score=" + currentScore + " best= " + bestScore + " strainVariants=" + strainVariants);
       if (currentScore > bestScore) {
         restScore = arith.add(restScore, bestScore);
         bestScore = currentScore;
         bestEvidenceScore = evidenceScore;
-        best = new ArrayList<>(strainVariants.length);
-        for (int base : strainVariants) {
-          best.add(base);
-        }
+        System.arraycopy(strainVariants, 0, best, 0, nStrains);
       } else {
         restScore = arith.add(restScore, currentScore);
       }
@@ -95,11 +110,7 @@ public final class AlphaSelector {
         // nop
       }
     }
-    final int[] res = new int[best.size()];
-    for (int i = 0; i < res.length; ++i) {
-      res[i] = best.get(i);
-    }
-    return new AlphaScore(arith.divide(bestScore, restScore), bestEvidenceScore, res);
+    return new AlphaScore(arith.divide(bestScore, restScore), bestEvidenceScore, best);
   }
 
   /**
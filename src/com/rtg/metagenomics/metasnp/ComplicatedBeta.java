@@ -25,7 +25,27 @@ class ComplicatedBeta implements ProbAlpha {
   final long mTotal;
   final int mStrains;
   ComplicatedBeta(List<Integer> refBytes, List<int[]> assignments, long length) {
-    mStrains = assignments.get(0).length;
+    this(assignments.get(0).length, length);
+    for (int position = 0; position < assignments.size(); ++position) {
+      mCounts[findIndex(refBytes.get(position), assignments.get(position), 0)]++;
+    }
+  }
+
+  /**
+   * @param evidence supplies the reference allele of each position
+   * @param assignments flattened assignments, <code>strains</code> entries for each position
+   * @param strains number of strains
+   * @param length approximate genome length
+   */
+  ComplicatedBeta(MetaSnpEvidence evidence, int[] assignments, int strains, long length) {
+    this(strains, length);
+    for (int position = 0, start = 0; position < evidence.size(); ++position, start += strains) {
+      mCounts[findIndex(evidence.ref(position), assignments, start)]++;
+    }
+  }
+
+  private ComplicatedBeta(int strains, long length) {
+    mStrains = strains;
     mStride = new int[mStrains];
     int possibilities = 1;
     for (int i = 2; i <= mStrains + 1; ++i) {
@@ -40,14 +60,8 @@ class ComplicatedBeta implements ProbAlpha {
     mCounts = new int[possibilities];
     //TODO This initialisation could be improved the laplace correction includes some entries that are inaccessible
     mTotal = length + init(mCounts, mStrains, mStride);
-
-    for (int position = 0; position < assignments.size(); ++position) {
-      final int[] current = assignments.get(position);
-      final int ref = refBytes.get(position);
-      final int index = findIndex(ref, current);
-      mCounts[index]++;
-    }
   }
+
   public static int init(int[] counts, int strains, int[] strides) {
     int totalCells = 0;
     final int[] assignment = new int[strains];
@@ -72,16 +86,17 @@ class ComplicatedBeta implements ProbAlpha {
     return totalCells;
   }
 
-  private int findIndex(int ref, int[] assignment) {
+  private int findIndex(int ref, int[] assignment, int start) {
     final int[] currentId = new int[mStrains];
     int index = 0;
-    for (int i = 0; i < assignment.length; ++i) {
+    for (int i = 0; i < mStrains; ++i) {
+      final int allele = assignment[start + i];
       int id = 0;
-      if (assignment[i] == ref) {
+      if (allele == ref) {
         id = -1;
       } else {
         for (int j = 0; j < i; ++j) {
-          if (assignment[i] == assignment[j]) {
+          if (allele == assignment[start + j]) {
             id = currentId[j] - 1;
             break;
           }
@@ -93,9 +108,10 @@ class ComplicatedBeta implements ProbAlpha {
     }
     return index;
   }
+
   int getCount(int ref, int[] assignment) {
 
-    return mCounts[findIndex(ref, assignment)];
+    return mCounts[findIndex(ref, assignment, 0)];
   }
 
   /**
@@ -103,7 +119,7 @@ class ComplicatedBeta implements ProbAlpha {
    */
   @Override
   public double pAlpha(int ref, int[] current) {
-    return (double) mCounts[findIndex(ref, current)] / mTotal;
+    return (double) mCounts[findIndex(ref, current, 0)] / mTotal;
   }
 
   public static int max(int[] arr, int limit) {
@@ -13,10 +13,14 @@ package com.rtg.metagenomics.metasnp;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.rtg.util.diagnostic.Diagnostic;
+import com.rtg.util.diagnostic.NoTalkbackSlimException;
 import com.rtg.variant.util.arithmetic.LogPossibility;
 import com.rtg.variant.util.arithmetic.PossibilityArithmetic;
 
@@ -69,99 +73,173 @@ public final class EmIterate {
       return iteration >= mIterations;
     }
   }
-  private static ProbAlpha getProbAlpha(BetaType type, List<Integer> ref, final List<int[]> assignments, long length, double[] staticBeta) {
+  /** Number of positions in each unit of parallel work */
+  static final int CHUNK_SIZE = 1 << 12;
+
+  private interface Chunk<T> {
+    /**
+     * @param start first position of the chunk
+     * @param end one past the last position of the chunk
+     * @return the result for the chunk
+     */
+    T run(int start, int end);
+  }
+
+  /**
+   * Apply a function to consecutive chunks of positions. The chunk boundaries do not depend on
+   * the number of threads, so results combined in chunk order are reproducible.
+   * @param executor executor to run the chunks, or null to run them in this thread
+   * @param n number of positions
+   * @param label progress label, or null for no progress reporting
+   * @param chunk function applied to each chunk
+   * @param <T> type of chunk result
+   * @return the result of each chunk in position order
+   */
+  private static <T> List<T> perChunk(final ExecutorService executor, final int n, final String label, final Chunk<T> chunk) {
+    final List<T> res = new ArrayList<>();
+    if (executor == null) {
+      for (int start = 0; start < n; start += CHUNK_SIZE) {
+        res.add(chunk.run(start, Math.min(n, start + CHUNK_SIZE)));
+        progress(label, start, n);
+      }
+      return res;
+    }
+    final List<Future<T>> futures = new ArrayList<>();
+    for (int start = 0; start < n; start += CHUNK_SIZE) {
+      final int s = start;
+      final int e = Math.min(n, start + CHUNK_SIZE);
+      futures.add(executor.submit(() -> chunk.run(s, e)));
+    }
+    for (int i = 0; i < futures.size(); ++i) {
+      try {
+        res.add(futures.get(i).get());
+      } catch (final ExecutionException e) {
+        throw new RuntimeException(e.getCause());
+      } catch (final InterruptedException e) {
+        throw new NoTalkbackSlimException("Interrupted while estimating strains.");
+      }
+      progress(label, i * CHUNK_SIZE, n);
+    }
+    return res;
+  }
+
+  private static void progress(final String label, final int start, final int n) {
+    final int end = Math.min(n, start + CHUNK_SIZE);
+    if (label != null && (start * 100L / n) != (end * 100L / n)) {
+      Diagnostic.progress(label + ": " + (end * 100L / n) + "%");
+    }
+  }
+
+  private static ProbAlpha getProbAlpha(BetaType type, MetaSnpEvidence evidence, final int[] assignments, int strains, long length, double[] staticBeta, ExecutorService executor) {
     switch (type) {
       case COMPLEX:
-        return new ComplicatedBeta(ref, assignments, length);
+        return new ComplicatedBeta(evidence, assignments, strains, length);
       case REESTIMATE:
-        return new ProbAlphaSimpleBeta(estimateBeta(ref, assignments, length));
+        return new ProbAlphaSimpleBeta(estimateBeta(evidence, assignments, strains, length, executor));
       default:
         return new ProbAlphaSimpleBeta(staticBeta);
     }
   }
-  
-  private static double[] estimateBeta(List<Integer> ref, final List<int[]> assignments, long length) {
-    assert ref.size() == assignments.size();
-    assert length >= ref.size() && length > 0;
-    final double[] beta = new double[assignments.get(0).length];
-    for (int pos = 0; pos < ref.size(); ++pos) {
-      final int refNt = ref.get(pos);
-      final int[] alpha = assignments.get(pos);
-      for (int strain = 0; strain < beta.length; ++strain) {
-        if (alpha[strain] != refNt) {
-          beta[strain]++;
+
+  private static double[] estimateBeta(final MetaSnpEvidence evidence, final int[] assignments, final int strains, long length, ExecutorService executor) {
+    assert assignments.length == evidence.size() * strains;
+    assert length >= evidence.size() && length > 0;
+    final double[] beta = new double[strains];
+    final List<long[]> parts = perChunk(executor, evidence.size(), null, (start, end) -> {
+      final long[] variants = new long[strains];
+      for (int pos = start, a = start * strains; pos < end; ++pos) {
+        final int refNt = evidence.ref(pos);
+        for (int strain = 0; strain < strains; ++strain, ++a) {
+          if (assignments[a] != refNt) {
+            variants[strain]++;
+          }
         }
       }
+      return variants;
+    });
+    for (final long[] variants : parts) {
+      for (int strain = 0; strain < strains; ++strain) {
+        beta[strain] += variants[strain];
+      }
     }
-    for (int strain = 0; strain < beta.length; ++strain) {
+    for (int strain = 0; strain < strains; ++strain) {
       beta[strain] /= length;
     }
     return beta;
   }
-  
-  private static double codeLength(final List<AlphaScore> scores, final int strains, final PossibilityArithmetic arith, long length) {
-    // Length not currently used 
-    double codeLength = 0;
-    for (final AlphaScore score : scores) {
-      codeLength += arith.poss2Ln(score.mBestPoss);
-    }
+
+  private static double codeLength(final double lnBestPoss, final int strains, final int positions) {
     // Cost of xi is negligible?
     // Cost of specifying A + cost of specifying alpha
-    return -codeLength + strains * scores.size() * Math.log(4);
+    return -lnBestPoss + (double) strains * positions * Math.log(4);
   }
 
   static List<EmResult> iterate(List<Integer> ref, List<double[][]> evidence, int strains, BetaType betaType, double error, double[][] xi) {
-    return iterate(ref, evidence, strains, ref.size(), LogPossibility.SINGLETON, new FixedIterations(10), betaType, error, xi);
+    return iterate(new MetaSnpEvidence(ref, evidence), strains, ref.size(), LogPossibility.SINGLETON, new FixedIterations(10), betaType, error, xi, 1);
   }
+
   /**
    *
-   * @param ref per interesting position reference byte
-   * @param evidence per position evidence position/sample/base = count
+   * @param evidence per interesting position reference allele and evidence sample/base = count
    * @param strains  number of strains to estimate
-   * @param arith arithmetic space to use
    * @param approxLength approximate genome length
+   * @param arith arithmetic space to use
    * @param terminate when should we stop
    * @param updateBeta should beta be recomputed each iteration
    * @param error error rate
    * @param xiPrior priors for xi
+   * @param threads number of threads to use for the assignment step
    * @return assignments and predicted xi
    */
-  static List<EmResult> iterate(List<Integer> ref, List<double[][]> evidence, int strains, long approxLength, PossibilityArithmetic arith, Termination terminate, BetaType updateBeta, double error, double[][] xiPrior) {
+  static List<EmResult> iterate(MetaSnpEvidence evidence, int strains, long approxLength, PossibilityArithmetic arith, Termination terminate, BetaType updateBeta, double error, double[][] xiPrior, int threads) {
+    final ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+    try {
+      return iterate(evidence, strains, approxLength, arith, terminate, updateBeta, error, xiPrior, executor);
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  private static List<EmResult> iterate(final MetaSnpEvidence evidence, final int strains, long approxLength, final PossibilityArithmetic arith, Termination terminate, BetaType updateBeta, double error, double[][] xiPrior, ExecutorService executor) {
+    assert xiPrior[0].length == strains;
     final double[] beta = new double[strains];
     Arrays.fill(beta, 0.001);
     double[][] xi = xiPrior;
-    List<AlphaScore> scores;
-    List<int[]> assignments;
     final RandomWalkXiFinder randomWalkXiFinder = new RandomWalkXiFinder(arith);
     final List<EmResult> results = new ArrayList<>();
-    ProbAlpha pAlpha = getProbAlpha(BetaType.STATIC, ref, Collections.emptyList(), 0, beta);
+    final int n = evidence.size();
+    ProbAlpha pAlpha = new ProbAlphaSimpleBeta(beta);
     for (int emIterations = 0; !terminate.finished(emIterations, results); ++emIterations) {
       Diagnostic.progress("Starting Iteration: " + emIterations);
-      final int n = evidence.size();
-      assignments = new ArrayList<>(n);
-      scores = new ArrayList<>(n);
-      int percent = 0;
-      int lastReport = 0;
+      final AlphaScore[] scores = new AlphaScore[n];
+      final int[] assignments = new int[n * strains];
       final double[][] outerTheta = AlphaSelector.computeThetaLookup(xi, arith, arith.prob2Poss(1 - error), arith.prob2Poss(error / 3));
-      for (int x = 0; x < n; ++x) {
-
-        final AlphaScore alphaScore =  AlphaSelector.alphaPosition(ref.get(x), pAlpha, evidence.get(x), outerTheta, arith, xi[0].length);
-        scores.add(alphaScore);
-        assignments.add(alphaScore.mCalls);
-        if ((x * 100 / n) > percent && x > lastReport + 10000) {
-          percent = x * 100 / n;
-          lastReport = x;
-          Diagnostic.progress("Strain assignment: " + percent + "%");
+      final ProbAlpha currentAlpha = pAlpha;
+      // Each chunk fills its own range of the score and assignment arrays
+      final List<Double> parts = perChunk(executor, n, "Strain assignment", (start, end) -> {
+        double lnBestPoss = 0;
+        for (int x = start; x < end; ++x) {
+          final AlphaScore alphaScore = AlphaSelector.alphaPosition(evidence.ref(x), currentAlpha, evidence.counts(x), evidence.offset(x), evidence.samples(), evidence.alleles(x), outerTheta, arith, strains);
+          scores[x] = alphaScore;
+          System.arraycopy(alphaScore.mCalls, 0, assignments, x * strains, strains);
+          lnBestPoss += arith.poss2Ln(alphaScore.mBestPoss);
         }
+        return lnBestPoss;
+      });
+      double lnBestPoss = 0;
+      for (final double part : parts) {
+        lnBestPoss += part;
       }
-      Diagnostic.userLog("Alpha code length: " + codeLength(scores, strains, arith, approxLength));
-      pAlpha = getProbAlpha(updateBeta, ref, assignments, approxLength, beta);
-      final double[][] newXi = randomWalkXiFinder.maximize(assignments, evidence);
+      Diagnostic.userLog("Alpha code length: " + codeLength(lnBestPoss, strains, n));
+      pAlpha = getProbAlpha(updateBeta, evidence, assignments, strains, approxLength, beta, executor);
+      final double[][] newXi = randomWalkXiFinder.maximize(assignments, strains, evidence);
       Diagnostic.userLog("Frobenius: " + Frobenius.frobeniusDistance(arith, xi, newXi));
       xi = newXi;
       Diagnostic.progress("Finished Iteration: " + emIterations);
       Diagnostic.info("Iteration " + emIterations + " beta: " + pAlpha);
-      results.add(new EmResult(xi, scores));
+      results.add(new EmResult(xi, Arrays.asList(scores)));
     }
     return results;
   }
@@ -92,6 +92,7 @@ public class MetaSnpCli extends LoggedCli {
     mFlags.registerOptional('v', VISUALISATION, "produce visualisation files");
     mFlags.registerOptional('i', ITERATIONS, Integer.class, CommonFlags.INT, "number of iterations to attempt convergence", 10);
     mFlags.registerOptional(XI_PRIORS, String.class, "FLOAT...", "initial values for the xi matrix");
+    CommonFlags.initThreadsFlag(mFlags);
     final Flag<String> betaType = mFlags.registerOptional(BETA, String.class, CommonFlags.STRING, "hypothesis probability method", "reestimate");
     betaType.setParameterRange(betaFlagValues());
     mFlags.setValidator(new Validator());
@@ -159,10 +160,10 @@ public class MetaSnpCli extends LoggedCli {
     final EmIterate.BetaType updateBeta = EmIterate.BetaType.valueOf(((String) mFlags.getValue(BETA)).toUpperCase(Locale.getDefault()));
 
     final double error = (Double) mFlags.getValue(ERROR_RATE);
+    final int threads = CommonFlags.parseThreads((Integer) mFlags.getValue(CommonFlags.THREADS_FLAG));
     int approxLength = 0; // number of lines of input approximates length of genome
     try (final MetaSnpReader reader = getReader(f)) {
-      final List<Integer> ref = new ArrayList<>();
-      final List<double[][]> evidence = new ArrayList<>();
+      MetaSnpEvidence evidence = null;
       final List<MetaSnpLine> lines = new ArrayList<>();
       MetaSnpLine line;
       while ((line = reader.nextLine()) != null) {
@@ -170,27 +171,30 @@ public class MetaSnpCli extends LoggedCli {
         final int refAllele = line.getReferenceIndex();
         int nonRefCount = 0;
         int total = 0;
-        final double[][] evidenceArray = new double[line.mCounts[0].length][line.mCounts.length];
-        for (int i = 0; i < evidenceArray.length; ++i) {
-          for (int j = 0; j < evidenceArray[i].length; ++j) {
-            evidenceArray[i][j] = line.mCounts[j][i];
+        for (int j = 0; j < line.mCounts.length; ++j) {
+          for (final double count : line.mCounts[j]) {
             if (j != refAllele) {
-              nonRefCount += line.mCounts[j][i];
+              nonRefCount += count;
             }
-            total += line.mCounts[j][i];
+            total += count;
           }
         }
         if (refAllele >= 0 && nonRefCount >= minFreq && nonRefCount < maxFreq && total >= minCov && total < maxCov) {
-          ref.add(refAllele);
-          evidence.add(evidenceArray);
+          if (evidence == null) {
+            evidence = new MetaSnpEvidence(line.mCounts[0].length);
+          }
+          evidence.addByAllele(refAllele, line.mCounts);
           lines.add(line);
         }
       }
       final PossibilityArithmetic arith = LogPossibility.SINGLETON;
       final int samples = reader.samples().size();
+      if (evidence == null) {
+        evidence = new MetaSnpEvidence(samples);
+      }
       final double[][] xiPriors = mFlags.isSet(XI_PRIORS) ? initXi(samples, strains, arith, (String) mFlags.getValue(XI_PRIORS)) : initXi(samples, strains, arith);
       Diagnostic.info(evidence.size() + "/" + approxLength + " positions passed initial thresholding");
-      final List<EmIterate.EmResult> iterations = EmIterate.iterate(ref, evidence, strains, approxLength, arith, new EmIterate.FixedIterations((Integer) mFlags.getValue(ITERATIONS)), updateBeta, error, xiPriors);
+      final List<EmIterate.EmResult> iterations = EmIterate.iterate(evidence, strains, approxLength, arith, new EmIterate.FixedIterations((Integer) mFlags.getValue(ITERATIONS)), updateBeta, error, xiPriors, threads);
       final EmIterate.EmResult result = iterations.get(iterations.size() - 1);
       final double[][] xi = result.mXi;
       try (PrintStream xiOut = new PrintStream(FileUtils.createOutputStream(new File(outputDirectory, XI_FILE)))) {
@@ -202,16 +206,16 @@ public class MetaSnpCli extends LoggedCli {
         }
         Diagnostic.info("Estimated strain proportions: " + StringUtils.LS + xiBytes);
       }
-      writeVcf(ref, lines, iterations.get(iterations.size() - 1), new File(outputDirectory, VCF_OUTPUT), arith);
+      writeVcf(evidence, lines, iterations.get(iterations.size() - 1), new File(outputDirectory, VCF_OUTPUT), arith);
       if (mFlags.isSet(VISUALISATION)) {
         final File visual = new File(outputDirectory, VISUALISATION_PREFIX);
         try (FileOutputStream visualStream = new FileOutputStream(visual)) {
-          outputVisualisation(ref, lines, evidence, result, visualStream);
+          outputVisualisation(lines, evidence, result, visualStream);
         }
         for (int i = 0; i < iterations.size(); ++i) {
           final File visualIt = new File(visual.getPath() + i);
           try (OutputStream visualStream = FileUtils.createOutputStream(visualIt)) {
-            outputVisualisation(ref, lines, evidence, iterations.get(i), visualStream);
+            outputVisualisation(lines, evidence, iterations.get(i), visualStream);
           }
         }
       }
@@ -240,9 +244,9 @@ public class MetaSnpCli extends LoggedCli {
     }
   }
 
-  static void outputVisualisation(List<Integer> refBytes, List<MetaSnpLine> lines, List<double[][]> evidence, EmIterate.EmResult result, OutputStream out) throws IOException {
-    for (int i = 0; i < refBytes.size(); ++i) {
-      final double[][] currentEvidence = evidence.get(i);
+  static void outputVisualisation(List<MetaSnpLine> lines, MetaSnpEvidence evidence, EmIterate.EmResult result, OutputStream out) throws IOException {
+    for (int i = 0; i < evidence.size(); ++i) {
+      final double[][] currentEvidence = evidence.evidence(i);
       final int[] currentAssignments = result.mAssignments.get(i).mCalls;
       final int[] totals = new int[currentEvidence.length];
       final int numAlleles = currentEvidence[0].length;
@@ -252,7 +256,7 @@ public class MetaSnpCli extends LoggedCli {
         }
       }
       for (byte allele = 0; allele < numAlleles; ++allele) {
-        if (allele == refBytes.get(i)) {
+        if (allele == evidence.ref(i)) {
           continue;
         }
         boolean unassigned = true;
@@ -291,7 +295,7 @@ public class MetaSnpCli extends LoggedCli {
     }
   }
 
-  static void writeVcf(List<Integer> refBytes, List<MetaSnpLine> lines, EmIterate.EmResult res, File out, PossibilityArithmetic arith) throws IOException {
+  static void writeVcf(MetaSnpEvidence evidence, List<MetaSnpLine> lines, EmIterate.EmResult res, File out, PossibilityArithmetic arith) throws IOException {
     final VcfHeader header = new VcfHeader();
     header.addCommonHeader();
     for (int i = 0; i < res.mAssignments.get(0).mCalls.length; ++i) {
@@ -304,7 +308,7 @@ public class MetaSnpCli extends LoggedCli {
       for (int i = 0; i < lines.size(); ++i) {
         final MetaSnpLine line = lines.get(i);
         final int[] assignments = res.mAssignments.get(i).mCalls;
-        final int ref = refBytes.get(i);
+        final int ref = evidence.ref(i);
         alts.clear();
         alts.add(ref);
         for (int assignment1 : assignments) {
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.metagenomics.metasnp;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reference allele and per sample allele counts for each interesting position, held
+ * in primitive arrays. The counts for a position are stored sample major with a fixed
+ * stride of <code>AlphaSelector.MAX_VALUE + 1</code> alleles per sample. Positions are
+ * grouped into chunks of contiguous counts, so the total number of counts is not limited
+ * by the maximum length of a single array.
+ */
+final class MetaSnpEvidence {
+
+  /** Number of count slots reserved for each sample of a position */
+  static final int STRIDE = AlphaSelector.MAX_VALUE + 1;
+
+  private static final int INITIAL_CAPACITY = 1 << 10;
+
+  /** Target number of counts in a full chunk */
+  private static final int CHUNK_COUNTS = 1 << 20;
+
+  private final int mSamples;
+  private final int mPositionStride;
+  private final int mChunkBits;
+  private final int mChunkMask;
+  private int[] mRef;
+  private byte[] mAlleles;
+  private double[][] mCounts;
+  private int mSize;
+
+  /**
+   * @param samples number of samples
+   */
+  MetaSnpEvidence(final int samples) {
+    if ((long) samples * STRIDE > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Too many samples: " + samples);
+    }
+    mSamples = samples;
+    mPositionStride = samples * STRIDE;
+    mChunkBits = chunkBits(mPositionStride);
+    mChunkMask = (1 << mChunkBits) - 1;
+    mRef = new int[INITIAL_CAPACITY];
+    mAlleles = new byte[INITIAL_CAPACITY];
+    mCounts = new double[1][(1 << Math.min(mChunkBits, 10)) * mPositionStride];
+  }
+
+  /**
+   * @param ref per position reference allele
+   * @param evidence per position evidence sample/allele = count
+   */
+  MetaSnpEvidence(final List<Integer> ref, final List<double[][]> evidence) {
+    this(evidence.isEmpty() ? 0 : evidence.get(0).length);
+    assert ref.size() == evidence.size();
+    for (int x = 0; x < ref.size(); ++x) {
+      add(ref.get(x), evidence.get(x));
+    }
+  }
+
+  // log2 of the number of positions in a chunk, as many as fit in the target chunk size but at least one
+  static int chunkBits(final int positionStride) {
+    int bits = 0;
+    while (bits < 30 && ((long) positionStride << (bits + 1)) <= CHUNK_COUNTS) {
+      ++bits;
+    }
+    return bits;
+  }
+
+  /**
+   * Append a position.
+   * @param ref reference allele
+   * @param counts allele counts, first index is sample, second index is allele
+   */
+  void add(final int ref, final double[][] counts) {
+    assert counts.length == mSamples;
+    final int alleles = counts.length == 0 ? 0 : counts[0].length;
+    final int offset = append(ref, alleles);
+    final double[] chunk = mCounts[mSize >>> mChunkBits];
+    for (int sample = 0; sample < mSamples; ++sample) {
+      System.arraycopy(counts[sample], 0, chunk, offset + sample * STRIDE, alleles);
+    }
+    ++mSize;
+  }
+
+  /**
+   * Append a position from counts in allele major order, as read from the input.
+   * @param ref reference allele
+   * @param counts allele counts, first index is allele, second index is sample
+   */
+  void addByAllele(final int ref, final double[][] counts) {
+    final int alleles = counts.length;
+    final int offset = append(ref, alleles);
+    final double[] chunk = mCounts[mSize >>> mChunkBits];
+    for (int allele = 0; allele < alleles; ++allele) {
+      assert counts[allele].length == mSamples;
+      for (int sample = 0, base = offset + allele; sample < mSamples; ++sample, base += STRIDE) {
+        chunk[base] = counts[allele][sample];
+      }
+    }
+    ++mSize;
+  }
+
+  // make room for the next position, returning the offset of its counts within its chunk
+  private int append(final int ref, final int alleles) {
+    if (alleles > STRIDE) {
+      throw new IllegalArgumentException("Too many alleles: " + alleles);
+    }
+    if (mSize == Integer.MAX_VALUE) {
+      throw new IllegalStateException("Too many positions");
+    }
+    if (mSize == mRef.length) {
+      final int capacity = (int) Math.min(Integer.MAX_VALUE, 2L * mRef.length);
+      mRef = Arrays.copyOf(mRef, capacity);
+      mAlleles = Arrays.copyOf(mAlleles, capacity);
+    }
+    final int chunk = mSize >>> mChunkBits;
+    if (chunk == mCounts.length) {
+      mCounts = Arrays.copyOf(mCounts, chunk * 2);
+    }
+    final int offset = offset(mSize);
+    if (mCounts[chunk] == null) {
+      mCounts[chunk] = new double[mPositionStride << mChunkBits];
+    } else if (offset == mCounts[chunk].length) {
+      // only the first chunk starts small, it grows until it is full size
+      mCounts[chunk] = Arrays.copyOf(mCounts[chunk], Math.min(mCounts[chunk].length * 2, mPositionStride << mChunkBits));
+    }
+    mRef[mSize] = ref;
+    mAlleles[mSize] = (byte) alleles;
+    return offset;
+  }
+
+  /**
+   * @return number of positions
+   */
+  int size() {
+    return mSize;
+  }
+
+  /**
+   * @return number of samples
+   */
+  int samples() {
+    return mSamples;
+  }
+
+  /**
+   * @param position the position
+   * @return the reference allele at the position
+   */
+  int ref(final int position) {
+    return mRef[position];
+  }
+
+  /**
+   * @param position the position
+   * @return number of alleles with counts at the position
+   */
+  int alleles(final int position) {
+    return mAlleles[position];
+  }
+
+  /**
+   * @param position the position
+   * @return index into <code>counts(position)</code> of the first count for the position
+   */
+  int offset(final int position) {
+    return (position & mChunkMask) * mPositionStride;
+  }
+
+  /**
+   * Underlying count storage holding the position, see <code>offset</code>. Not to be modified.
+   * @param position the position
+   * @return the counts
+   */
+  double[] counts(final int position) {
+    return mCounts[position >>> mChunkBits];
+  }
+
+  /**
+   * @param position the position
+   * @param sample the sample
+   * @param allele the allele
+   * @return the count of the allele in the sample at the position
+   */
+  double count(final int position, final int sample, final int allele) {
+    return counts(position)[offset(position) + sample * STRIDE + allele];
+  }
+
+  /**
+   * @param position the position
+   * @return a copy of the counts for the position, first index is sample, second index is allele
+   */
+  double[][] evidence(final int position) {
+    final int alleles = alleles(position);
+    final double[] counts = counts(position);
+    final int offset = offset(position);
+    final double[][] res = new double[mSamples][];
+    for (int sample = 0; sample < mSamples; ++sample) {
+      final int start = offset + sample * STRIDE;
+      res[sample] = Arrays.copyOfRange(counts, start, start + alleles);
+    }
+    return res;
+  }
+}
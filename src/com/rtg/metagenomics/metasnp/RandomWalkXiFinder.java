@@ -12,7 +12,6 @@
 package com.rtg.metagenomics.metasnp;
 
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 
@@ -65,29 +64,48 @@ public class RandomWalkXiFinder {
     return modifiedXi;
   }
 
-  private double[] kurtTransform(final int numStrains, final List<int[]> alpha, final List<double[][]> count, int sample) {
+  private double[] kurtTransform(final int numStrains, final int[] alpha, final MetaSnpEvidence count, int sample) {
     // We want to perform a massive product over all the positions.  Since the
     // product is commutative we can accumulate a count for each possible
     // combination of xi values.  This must be done in a way consistent with
     // the allSums procedure.
     final double[] powers = new double[1 << numStrains];
-    final Iterator<int[]> alphaIterator = alpha.iterator();
-    for (final double[][] cnt : count) {
-      final int[] a = alphaIterator.next();
-      for (int allele = 0; allele < cnt[sample].length; ++allele) {
+    for (int x = 0, a = 0; x < count.size(); ++x, a += numStrains) {
+      final double[] counts = count.counts(x);
+      final int base = count.offset(x) + sample * MetaSnpEvidence.STRIDE;
+      final int alleles = count.alleles(x);
+      for (int allele = 0; allele < alleles; ++allele) {
         int index = 0;
         for (int k = numStrains - 1; k >= 0; --k) {
           index <<= 1;
-          if (a[k] == allele) {
+          if (alpha[a + k] == allele) {
             ++index;
           }
         }
-        powers[index] += cnt[sample][allele];
+        powers[index] += counts[base + allele];
       }
     }
     return powers;
   }
-  
+
+  private static int[] flatten(final List<int[]> alpha) {
+    final int numStrains = alpha.get(0).length;
+    final int[] res = new int[alpha.size() * numStrains];
+    for (int x = 0; x < alpha.size(); ++x) {
+      System.arraycopy(alpha.get(x), 0, res, x * numStrains, numStrains);
+    }
+    return res;
+  }
+
+  private static MetaSnpEvidence evidence(final List<double[][]> evidence) {
+    // Reference alleles are not used when estimating xi
+    final MetaSnpEvidence res = new MetaSnpEvidence(evidence.get(0).length);
+    for (final double[][] e : evidence) {
+      res.add(0, e);
+    }
+    return res;
+  }
+
   private double[] allSums(final double[] xi) {
     // Given an array xi of length n compute an array gamma of length 2^n
     // comprising all possible sums of the elements of xi.  In particular, if
@@ -116,13 +134,17 @@ public class RandomWalkXiFinder {
   }
 
   XiScore maximizeSingleSample(final List<int[]> alpha, final List<double[][]> evidence, int sample) {
+    assert alpha.size() == evidence.size(); // indexed over positions x
+    return maximizeSingleSample(flatten(alpha), alpha.get(0).length, evidence(evidence), sample);
+  }
+
+  XiScore maximizeSingleSample(final int[] alpha, final int numStrains, final MetaSnpEvidence evidence, int sample) {
     // Let Xi=(xi_0,...,xi_n) satisfy 0 <= xi[i] <= 1, sum x[i]=1.
     // Maximize product_x product_a theta_x[a]^count_x[a] where
     //   theta_x[a] = sum_{alpha_x(i)=a} xi[i]
 
-    assert alpha.size() == evidence.size(); // indexed over positions x
-    
-    final int numStrains = alpha.get(0).length;
+    assert alpha.length == evidence.size() * numStrains; // indexed over positions x
+
     final double[] powers = kurtTransform(numStrains, alpha, evidence, sample);
 
     double best = mArith.zero();
@@ -171,11 +193,22 @@ public class RandomWalkXiFinder {
    * @return best estimate for xi in arithmetic
    */
   double[][] maximize(final List<int[]> alpha, final List<double[][]> evidence) {
+    return maximize(flatten(alpha), alpha.get(0).length, evidence(evidence));
+  }
+
+  /**
+   * Compute a best estimate for the ratio of species in each sample.
+   * @param alpha allele assignments, <code>numStrains</code> entries for each position
+   * @param numStrains number of strains
+   * @param evidence allele counts as evidenced in the reads
+   * @return best estimate for xi in arithmetic
+   */
+  double[][] maximize(final int[] alpha, final int numStrains, final MetaSnpEvidence evidence) {
     // John's theory says we can maximize each sample independently during this step.
-    final double[][] res = new double[evidence.get(0).length][];
+    final double[][] res = new double[evidence.samples()][];
     double p = mArith.one();
-    for (int sample = 0; sample < evidence.get(0).length; ++sample) {
-      final XiScore xi = maximizeSingleSample(alpha, evidence, sample);
+    for (int sample = 0; sample < evidence.samples(); ++sample) {
+      final XiScore xi = maximizeSingleSample(alpha, numStrains, evidence, sample);
       res[sample] = xi.mXi;
       p = mArith.multiply(p, xi.mScore);
     }
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 
 import com.reeltwo.jumble.annotations.TestClass;
+import com.rtg.alignment.AlignerMetrics;
 import com.rtg.calibrate.SamCalibrationInputs;
 import com.rtg.index.hash.ngs.OutputProcessor;
 import com.rtg.launcher.CommonFlags;
@@ -36,6 +37,7 @@ import com.rtg.ngs.blocking.MapQScoringReadBlockerSynch;
 import com.rtg.ngs.tempstage.AbstractTempFileWriter;
 import com.rtg.ngs.tempstage.PairedTempFileWriterImpl;
 import com.rtg.ngs.tempstage.SingleEndTempFileWriter;
+import com.rtg.reader.Arm;
 import com.rtg.reader.NamesInterface;
 import com.rtg.sam.SamFilterParams;
 import com.rtg.sam.SamMerger;
@@ -43,6 +45,7 @@ import com.rtg.sam.SamUtils;
 import com.rtg.util.IORunnable;
 import com.rtg.util.NullStreamUtils;
 import com.rtg.util.SimpleThreadPool;
+import com.rtg.util.Utils;
 import com.rtg.util.diagnostic.Diagnostic;
 import com.rtg.util.intervals.Range;
 import com.rtg.util.intervals.RangeList;
@@ -69,6 +72,7 @@ public abstract class AbstractMapOutputProcessor implements OutputProcessor {
   protected final ReadStatusTracker mUnmappedTracker;
   protected final List<HashingRegion> mRegions;
   private final boolean mPaired;
+  private final MapStatistics mStatistics;
 
   /**
    * @param param the parameters
@@ -92,6 +96,24 @@ public abstract class AbstractMapOutputProcessor implements OutputProcessor {
     }
     mPaired = paired;
     mRegions = new ArrayList<>();
+    mStatistics = stats;
+  }
+
+  /**
+   * Transfer the alignment cache counts accumulated by the temp file writers into the statistics.
+   * Must only be called after all the temp file writers have been closed.
+   */
+  protected void recordAlignmentCacheStatistics() {
+    final long hits = mSharedResources.alignmentCacheHits();
+    final long misses = mSharedResources.alignmentCacheMisses();
+    final long lookups = hits + misses;
+    if (lookups > 0) {
+      Diagnostic.userLog("Alignment cache hits: " + hits + "/" + lookups + " (" + Utils.realFormat(100.0 * hits / lookups, 1) + "%)");
+      if (mStatistics != null) {
+        mStatistics.set(MapStatisticsField.ALIGNMENT_CACHE_HITS, Arm.LEFT, hits);
+        mStatistics.set(MapStatisticsField.ALIGNMENT_CACHE_MISSES, Arm.LEFT, misses);
+      }
+    }
   }
 
   protected abstract FilterConcatIntermediateFiles filterConcatNonMated(MapQScoringReadBlocker blockerLeft, MapQScoringReadBlocker blockerRight, File[] tempFiles, SingleEndTopRandomImplementation.HitRecord[] hitsToKeep, NamesInterface templateNames, File outFile) throws IOException;
@@ -107,6 +129,18 @@ public abstract class AbstractMapOutputProcessor implements OutputProcessor {
 
   }
 
+  /**
+   * Write the per aligner counts accumulated by the temp file writers to the output directory,
+   * merged and for each thread.
+   * @throws IOException if an IO error occurs
+   */
+  protected void writeAlignerMetrics() throws IOException {
+    final AlignerMetrics metrics = mSharedResources.alignerMetrics();
+    if (!metrics.isEmpty()) {
+      metrics.write(new File(mParams.outputParams().directory(), AlignerMetrics.ALIGNER_METRICS_FILE_NAME), mSharedResources.threadAlignerMetrics());
+    }
+  }
+
   protected FilterConcatIntermediateFiles writeUnmapped(boolean isFinalUnmapped, boolean suppressSam, boolean unfiltered) throws IOException {
     mUnmappedTracker.preProcessUnMappedStatistics(mPaired);
     final ArrayList<File> retOutput = new ArrayList<>();
@@ -20,6 +20,7 @@ import java.io.PipedOutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import com.reeltwo.jumble.annotations.TestClass;
 import com.rtg.calibrate.Calibrator;
@@ -30,6 +31,7 @@ import com.rtg.launcher.globals.GlobalFlags;
 import com.rtg.reader.SequencesReader;
 import com.rtg.sam.BamIndexMerge;
 import com.rtg.sam.BamIndexer;
+import com.rtg.sam.ParallelBgzfOutputStream;
 import com.rtg.tabix.IndexingStreamCreator;
 import com.rtg.tabix.TabixIndexMerge;
 import com.rtg.tabix.TabixIndexer;
@@ -41,6 +43,8 @@ import com.rtg.util.diagnostic.OneShotTimer;
 import com.rtg.util.intervals.Range;
 import com.rtg.util.intervals.ReferenceRegions;
 import com.rtg.util.io.FileUtils;
+import com.rtg.util.metrics.MetricsRegistry;
+import com.rtg.util.metrics.PhaseTimer;
 
 import htsjdk.samtools.SAMFileHeader;
 
@@ -57,10 +61,16 @@ public abstract class AbstractMulticoreFilterConcat {
   // Each thread can zip 30MB/sec to end up writing 5MB/sec to disk. Disks can write ~50MB, so at most ~10 threads
   protected static final int MAX_FILTERCONCAT_THREADS = 10; //Integer.parseInt(System.getProperty("rtg.max_filterconcat_threads", "10"));
 
+  private static final PhaseTimer FILTER_CONCAT_TIMER = MetricsRegistry.global().phase("map.filter_concat");
+
   protected final NgsParams mParams;
 
   protected String mThreadNamePrefix = "";
 
+  // block compression for all the intermediate files is shared across all the threads
+  private ExecutorService mCompressionExecutor = null;
+  private int mCompressionThreads = 1;
+
   /**
    * Creates a new <code>AbstractMulticoreFilterConcat</code> instance.
    *
@@ -115,7 +125,7 @@ public abstract class AbstractMulticoreFilterConcat {
     if (createIndex && SamSingleEndOutputProcessor.canIndex(mParams, intermediate[0])) {
       final PipedInputStream pipeToIndexIn = new PipedInputStream(); //closed by IndexRunner
       final PipedOutputStream pipeToIndexOut = new PipedOutputStream(pipeToIndexIn); //closed by SubFilter via intStream
-      final OutputStream intStream = FileUtils.createTeedOutputStream(dataFile, pipeToIndexOut, samGzipIntFiles, false, samGzipIntFiles && (i == numThreads - 1));
+      final OutputStream intStream = createIntermediateStream(dataFile, pipeToIndexOut, samGzipIntFiles, samGzipIntFiles && (i == numThreads - 1));
       final File indexFilename = indexFileName(dataFile, mParams.outputParams().bam());
       intermediateIndexes[i] = indexFilename;
       final FileOutputStream indexOut = new FileOutputStream(indexFilename);
@@ -123,11 +133,45 @@ public abstract class AbstractMulticoreFilterConcat {
       final IndexingStreamCreator.IndexRunner indexRunner = new IndexingStreamCreator.IndexRunner(pipeToIndexIn, indexOut, indexer, i == 0, (int) mParams.searchParams().numberSequences(), dataFile.toString());
       outWrapper = new OutputWrapper(intStream, indexRunner);
     } else {
-      outWrapper = new OutputWrapper(FileUtils.createOutputStream(dataFile, samGzipIntFiles, samGzipIntFiles && (i == numThreads - 1)), null);
+      outWrapper = new OutputWrapper(createIntermediateStream(dataFile, null, samGzipIntFiles, samGzipIntFiles && (i == numThreads - 1)), null);
     }
     return outWrapper;
   }
 
+  /**
+   * Create the output stream for an intermediate file. Compressed output is block compressed
+   * on a pool shared by all the intermediate files, so compression is not limited by the
+   * number of files being written at once.
+   * @param dataFile the intermediate file
+   * @param indexPipe if non-null, compressed output is also sent to this stream for indexing
+   * @param compress true if the output should be block compressed
+   * @param terminate true if the output should have the block compressed terminator block
+   * @return the output stream
+   * @throws IOException if an error occurs.
+   */
+  protected OutputStream createIntermediateStream(File dataFile, OutputStream indexPipe, boolean compress, boolean terminate) throws IOException {
+    if (!compress) {
+      return indexPipe == null ? FileUtils.createOutputStream(dataFile, false, false) : FileUtils.createTeedOutputStream(dataFile, indexPipe, false, false, false);
+    }
+    final OutputStream fileOut = new FileOutputStream(dataFile);
+    final OutputStream sink = indexPipe == null ? fileOut : FileUtils.createTeedOutputStream(fileOut, indexPipe);
+    return new ParallelBgzfOutputStream(sink, compressionExecutor(), Math.max(2, mCompressionThreads), terminate);
+  }
+
+  private synchronized ExecutorService compressionExecutor() {
+    if (mCompressionExecutor == null) {
+      mCompressionExecutor = ParallelBgzfOutputStream.createExecutor(mCompressionThreads);
+    }
+    return mCompressionExecutor;
+  }
+
+  private synchronized void shutdownCompression() {
+    if (mCompressionExecutor != null) {
+      mCompressionExecutor.shutdownNow();
+      mCompressionExecutor = null;
+    }
+  }
+
   static File indexFileName(File dataFile, boolean bam) {
     if (bam) {
       return BamIndexer.indexFileName(dataFile);
@@ -162,8 +206,14 @@ public abstract class AbstractMulticoreFilterConcat {
     final boolean createIndex = mParams.outputParams().outputIndex() && (samGzipIntFiles || mParams.outputParams().bam()) && noLongSequences && !delayMerge;
     final ReferenceRegions referenceRegions = mParams.outputParams().calibrateRegions();
     final OneShotTimer timer = new OneShotTimer("filterConcat");
+    final PhaseTimer.Split split = FILTER_CONCAT_TIMER.start();
     final int numIntermediateFiles = numberIntermediateFiles(tempFiles.length, mParams.numberThreads());
-    final SimpleThreadPool pool = new SimpleThreadPool(Math.min(numIntermediateFiles, MAX_FILTERCONCAT_THREADS), mThreadNamePrefix + "FilterConcat", true);
+    // Logic to prevent crash if we somehow get here with -Z option and BAM output
+    // This should be prevented at the command line handling stage but wasn't in 3.3.2 or earlier
+    final boolean intFilesCompress = mParams.outputParams().bam() || samGzipIntFiles;
+    final int filterThreads = filterThreads(numIntermediateFiles, mParams.numberThreads(), intFilesCompress);
+    mCompressionThreads = compressionThreads(filterThreads, mParams.numberThreads());
+    final SimpleThreadPool pool = new SimpleThreadPool(filterThreads, mThreadNamePrefix + "FilterConcat", true);
     pool.enableBasicProgress(numIntermediateFiles);
     final File[] intermediate = new File[numIntermediateFiles];
     final File[] intermediateIndexes = createIndex ? new File[numIntermediateFiles] : null;
@@ -177,9 +227,6 @@ public abstract class AbstractMulticoreFilterConcat {
       intermediate[i] = File.createTempFile("TEMP_FILTER_" + regionRanges[i].getStart() + "-" + regionRanges[i].getEnd() + "_", mParams.outputParams().bam() ? ".bam" : (".sam" + (samGzipIntFiles ? FileUtils.GZ_SUFFIX : "")), subFiles[0].getParentFile());
       //System.err.println(intermediate[i]);
 
-      // Logic to prevent crash if we somehow get here with -Z option and BAM output
-      // This should be prevented at the command line handling stage but wasn't in 3.3.2 or earlier
-      final boolean intFilesCompress = mParams.outputParams().bam() || samGzipIntFiles;
       final OutputWrapper outWrapper = createStreams(numIntermediateFiles, intermediate, intermediateIndexes, intFilesCompress, createIndex, i);
       final OutputStream intCalStream;
       if (calibrate) {
@@ -201,9 +248,13 @@ public abstract class AbstractMulticoreFilterConcat {
       //filter.setAddBamTerminator(mParams.outputParams().bam() && (i == numThreads - 1)); no longer required here, determined by outputstream
       pool.execute(new SubFilter(filter, outWrapper, intCalStream, referenceRegions, mParams.searchParams().reader().copy(), subFiles, header));
     }
-    pool.terminate();
+    try {
+      pool.terminate();
 
-    postProcessIntermediateFiles(numIntermediateFiles, intermediate, intermediateIndexes, header, createIndex);
+      postProcessIntermediateFiles(numIntermediateFiles, intermediate, intermediateIndexes, header, createIndex);
+    } finally {
+      shutdownCompression();
+    }
 
     if (!delayMerge) {
       final ArrayList<Long> dataFileSizes = new ArrayList<>();
@@ -228,6 +279,7 @@ public abstract class AbstractMulticoreFilterConcat {
       }
     }
     timer.stopLog();
+    split.stop();
     return new FilterConcatIntermediateFiles(intermediate, intermediateCal, intermediateIndexes);
   }
 
@@ -235,6 +287,17 @@ public abstract class AbstractMulticoreFilterConcat {
     return Math.min(numberRegions, numberThreads);
   }
 
+  // When the intermediate files are block compressed the filter threads get at most half the threads
+  // and the compression pool the rest, so together they use no more than requested
+  static int filterThreads(int numberFiles, int numberThreads, boolean compress) {
+    final int threads = Math.min(numberFiles, MAX_FILTERCONCAT_THREADS);
+    return compress ? Math.min(threads, Math.max(1, numberThreads / 2)) : threads;
+  }
+
+  static int compressionThreads(int filterThreads, int numberThreads) {
+    return Math.max(1, numberThreads - filterThreads);
+  }
+
   static void mergeCalibration(File outFile, ReferenceRegions referenceRegions, File[] intermediateCal) throws IOException {
     final File outCal = new File(outFile.getPath() + CommonFlags.RECALIBRATE_EXTENSION);
     final Calibrator cal = new Calibrator(CovariateEnum.getCovariates(CovariateEnum.DEFAULT_COVARIATES, null), referenceRegions);
@@ -318,11 +381,13 @@ public abstract class AbstractMulticoreFilterConcat {
             indexThread.join();
           } catch (final InterruptedException e) {
             throw new IOException("Execution was interrupted", e);
-          } finally {
-            indexProxy.checkError();
           }
         }
       }
+      // Not in the finally, so an indexing failure cannot replace an exception from filtering
+      if (mIndexRunner != null) {
+        indexProxy.checkError();
+      }
       for (final File f : mFiles) {
         if (f.exists() && !f.delete()) {
           Diagnostic.userLog("Failed to delete temporary file: " + f.getPath());
@@ -29,6 +29,7 @@ public abstract class AbstractSdfOutputProcessor extends AbstractMapOutputProces
   final NgsParams mParams;
 
   private final boolean mOutputSdf;
+  private final boolean mOutputMappedSdf;
 
 
   /**
@@ -44,6 +45,7 @@ public abstract class AbstractSdfOutputProcessor extends AbstractMapOutputProces
     super(param, stats, paired, outputAlignments);
     mParams = param;
     mOutputSdf = param.outputParams().sdf();
+    mOutputMappedSdf = param.outputParams().sdfMapped();
   }
 
   @Override
@@ -54,12 +56,14 @@ public abstract class AbstractSdfOutputProcessor extends AbstractMapOutputProces
       final int maxLength = reader.maxLength();
       final byte[] dataBuffer = new byte[maxLength];
       final byte[] qualityBuffer = new byte[maxLength];
-      try (SdfWriterWrapper alignments = new SdfWriterWrapper(mParams.file(ALIGNMENTS_SDF_FILE), reader, false);
+      try (SdfWriterWrapper alignments = mOutputMappedSdf ? new SdfWriterWrapper(mParams.file(ALIGNMENTS_SDF_FILE), reader, false) : null;
            SdfWriterWrapper unmapped = new SdfWriterWrapper(mParams.file(UNMAPPED_SDF_FILE), reader, false)) {
         for (long seq = 0; seq < reader.numberSequences(); ++seq) {
           if (!mUnmappedTracker.getStatus((int) seq, ReadStatusTracker.UNMAPPED_FIRST)
             || !mUnmappedTracker.getStatus((int) seq, ReadStatusTracker.UNMAPPED_SECOND)) {
-            alignments.writeSequence(seq, dataBuffer, qualityBuffer);
+            if (alignments != null) {
+              alignments.writeSequence(seq, dataBuffer, qualityBuffer);
+            }
           } else {
             unmapped.writeSequence(seq, dataBuffer, qualityBuffer);
           }
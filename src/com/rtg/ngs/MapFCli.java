@@ -36,6 +36,9 @@ public class MapFCli extends ParamsCli<NgsParams> {
 
   private static final int DEFAULT_WORD_SIZE = 22;
 
+  /** Flag to suppress writing the SDF containing the reads that mapped */
+  public static final String NO_MAPPED_SDF_FLAG = "Xno-mapped-sdf";
+
   @Override
   public String moduleName() {
     return "mapf";
@@ -98,6 +101,7 @@ public class MapFCli extends ParamsCli<NgsParams> {
     MapFlags.initPairedEndFlags(flags);
     MapFlags.initAlignerPenaltyFlags(flags);
     SamCommandHelper.initSamRg(flags);
+    flags.registerOptional(NO_MAPPED_SDF_FLAG, "do not write the SDF containing reads that mapped").setCategory(CommonFlagCategories.UTILITY);
   }
 
   static class MapfFlagsValidator implements Validator {
@@ -164,6 +168,7 @@ public class MapFCli extends ParamsCli<NgsParams> {
     .calibrate(false)
     .svprep(false)
     .sdf(true)
+    .sdfMapped(!flags.isSet(NO_MAPPED_SDF_FLAG))
     .outputReadNames(flags.isSet(MapFlags.OUTPUT_READ_NAMES_FLAG));
 
     if (rg != null) {
@@ -36,6 +36,8 @@ public class MapFilterPairedMapStatistics extends PairedEndMapStatistics {
       case UNMAPPED_UNMATED_POOR:
       case UNMAPPED_NO_HITS:
       case TOTAL_READS:
+      case ALIGNMENT_CACHE_HITS:
+      case ALIGNMENT_CACHE_MISSES:
         break;
       default:
         throw new UnsupportedOperationException("Field " + field + " is not supported for this command");
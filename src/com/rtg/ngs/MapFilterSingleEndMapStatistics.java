@@ -34,6 +34,8 @@ public class MapFilterSingleEndMapStatistics extends SingleEndMapStatistics {
       case UNMAPPED_NO_HITS:
       case UNMAPPED_UNMATED_POOR:
       case TOTAL_READS:
+      case ALIGNMENT_CACHE_HITS:
+      case ALIGNMENT_CACHE_MISSES:
         break;
       default:
         throw new UnsupportedOperationException("Field " + field + " is not supported for this command");
@@ -41,6 +41,12 @@ public enum MapStatisticsField {
   /** Key for statistic total number of unmapped reads due to xc E, expected value in form {@link Long} */
   UNMAPPED_UNMATED_TOO_MANY,
 
+  //alignment stats
+  /** Key for statistic total number of alignments found in the alignment cache, expected value in form {@link Long} */
+  ALIGNMENT_CACHE_HITS,
+  /** Key for statistic total number of alignments not found in the alignment cache, expected value in form {@link Long} */
+  ALIGNMENT_CACHE_MISSES,
+
   //Bad stats
   /** Key for statistic total number of missing reads from first in pair, expected value in form {@link Long} */
   MISSING
@@ -83,6 +83,7 @@ public class NgsOutputParams extends IntegralAbstract {
   private final boolean mSam;
 
   private final boolean mSdf;
+  private final boolean mSdfMapped;
 
   private final boolean mUnify;
 
@@ -127,6 +128,7 @@ public class NgsOutputParams extends IntegralAbstract {
     mBam = builder.mBam;
     mSam = builder.mSam;
     mSdf = builder.mSdf;
+    mSdfMapped = builder.mSdfMapped;
     mUnify = builder.mUnify;
     mKeepIntermediate = builder.mKeepIntermediate;
     mMergeMatchResults = builder.mMergeMatchResults;
@@ -393,6 +395,14 @@ public class NgsOutputParams extends IntegralAbstract {
     return mSdf;
   }
 
+  /**
+   * whether SDF output should include the reads that mapped
+   * @return true if should output mapped reads to SDF
+   */
+  public boolean sdfMapped() {
+    return mSdfMapped;
+  }
+
   /**
    * whether should unify SAM/BAM output
    * @return true if should
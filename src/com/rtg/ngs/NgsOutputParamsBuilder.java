@@ -43,6 +43,7 @@ public class NgsOutputParamsBuilder {
   protected boolean mSam = true;
 
   protected boolean mSdf = false;
+  protected boolean mSdfMapped = true;
 
   protected boolean mMergeMatchResults = true;
 
@@ -169,6 +170,16 @@ public class NgsOutputParamsBuilder {
     return this;
   }
 
+  /**
+   * When writing SDF output, also write the reads that mapped
+   * @param val the value
+   * @return this builder, so calls can be chained.
+   */
+  public NgsOutputParamsBuilder sdfMapped(final boolean val) {
+    mSdfMapped = val;
+    return this;
+  }
+
   /**
    * Unify SAM/BAM output
    * @param val the value
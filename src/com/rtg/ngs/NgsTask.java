@@ -29,19 +29,26 @@ import com.rtg.calibrate.Calibrator;
 import com.rtg.calibrate.ChrStats;
 import com.rtg.index.Index;
 import com.rtg.index.IndexSet;
+import com.rtg.index.IndexUtils;
 import com.rtg.index.hash.ngs.HashFunctionFactory;
 import com.rtg.index.hash.ngs.NgsHashFunction;
 import com.rtg.index.hash.ngs.NgsHashLoop;
 import com.rtg.index.hash.ngs.NgsHashLoopImpl;
 import com.rtg.index.hash.ngs.OutputProcessor;
+import com.rtg.index.hash.ngs.QueuedReadCall;
+import com.rtg.index.hash.ngs.ReadCall;
 import com.rtg.index.hash.ngs.ReadCallImplementation;
 import com.rtg.index.hash.ngs.ReadEncoder;
 import com.rtg.index.hash.ngs.TemplateCall;
 import com.rtg.index.hash.ngs.TemplateCallImplementation;
 import com.rtg.index.params.CreateParams;
+import com.rtg.index.params.ParamsUtils;
 import com.rtg.launcher.CommonFlags;
+import com.rtg.launcher.HashingRegion;
 import com.rtg.launcher.ISequenceParams;
 import com.rtg.launcher.ParamsTask;
+import com.rtg.launcher.globals.CoreGlobalFlags;
+import com.rtg.launcher.globals.GlobalFlags;
 import com.rtg.ngs.longread.LongReadTask;
 import com.rtg.position.output.PositionParams;
 import com.rtg.reader.CgUtils;
@@ -54,17 +61,25 @@ import com.rtg.report.ReportType;
 import com.rtg.usage.UsageMetric;
 import com.rtg.util.Environment;
 import com.rtg.util.MathUtils;
+import com.rtg.util.SimpleThreadPool;
+import com.rtg.util.SizeSplit;
+import com.rtg.util.StringUtils;
 import com.rtg.util.cli.CommandLine;
 import com.rtg.util.diagnostic.Diagnostic;
 import com.rtg.util.diagnostic.OneShotTimer;
 import com.rtg.util.diagnostic.SlimException;
 import com.rtg.util.io.FileUtils;
+import com.rtg.util.metrics.MetricsRegistry;
+import com.rtg.util.metrics.PhaseTimer;
 
 /**
  * Takes reads and a template and generates mappings.
  */
 public class NgsTask extends ParamsTask<NgsParams, MapStatistics> {
 
+  private static final PhaseTimer INDEX_BUILD_TIMER = MetricsRegistry.global().phase("map.index_build");
+  private static final PhaseTimer TEMPLATE_SCAN_TIMER = MetricsRegistry.global().phase("map.template_scan");
+
   /**
    * Construct a new build and search.
    * @param params parameters for the build and search.
@@ -112,6 +127,7 @@ public class NgsTask extends ParamsTask<NgsParams, MapStatistics> {
   protected void exec() throws IOException {
     Diagnostic.developerLog("NGSParams" + LS + mParams);
     //make all the components we need
+    MetricsRegistry.global().reset();
     final OneShotTimer fullTimer = new OneShotTimer("total_time");
     assert mParams.searchParams().numberSequences() < Integer.MAX_VALUE : mParams.buildFirstParams().numberSequences();
     if (mParams.useLongReadMapping()) {
@@ -123,6 +139,7 @@ public class NgsTask extends ParamsTask<NgsParams, MapStatistics> {
     System.gc();
     logMemStats("Free memory post-GC ");
     fullTimer.stopLog();
+    MetricsRegistry.global().writeToDirectory(mParams.directory());
     chrStatsCheck();
   }
 
@@ -210,10 +227,14 @@ public class NgsTask extends ParamsTask<NgsParams, MapStatistics> {
       throw new SlimException("Read dataset too large, try running in multiple smaller chunks using --start-read and --end-read parameters");
     }
 
+    final PhaseTimer.Split buildSplit = INDEX_BUILD_TIMER.start();
     final Index index = LongReadTask.build(posParams, usageMetric, params.indexFilter());
+    buildSplit.stop();
     final OutputFilter filter = params.outputParams().outFilter();
     try (OutputProcessor outProcessor = filter.makeProcessor(params, statistic)) {
+      final PhaseTimer.Split scanSplit = TEMPLATE_SCAN_TIMER.start();
       LongReadTask.search(posParams, outProcessor, index);
+      scanSplit.stop();
       outProcessor.finish();
     }
   }
@@ -241,6 +262,7 @@ public class NgsTask extends ParamsTask<NgsParams, MapStatistics> {
     Diagnostic.developerLog("Index params: " + indexParams);
     final NgsHashLoopImpl hashLoop = new NgsHashLoopImpl(params.buildFirstParams().numberSequences(), params.outputParams().progress(), 0x3FFFFL, ((pMask + 1L) << threadBits) - 1L);
     hashLoop.setThreadPadding(params.calculateThreadPadding());
+    hashLoop.setReadPrefetch(numberThreads > 1 && GlobalFlags.getBooleanValue(CoreGlobalFlags.MAP_READ_PREFETCH_FLAG));
     usageMetric.setMetric(indexThenSearchShortReads(params, hashLoop, statistics, indexParams));
   }
 
@@ -262,7 +284,10 @@ public class NgsTask extends ParamsTask<NgsParams, MapStatistics> {
     if (indexes.size() > INDEX_USAGE_REPORTING_THRESHOLD) {
       Diagnostic.warning("Selected parameters produce " + indexes.size() + " indexes (this is high and could be slow to run).");
     }
-    final ReadCallImplementation rci = new ReadCallImplementation(indexes);
+    final int numberQueues = queuedIndexQueues(params, indexParams, indexes.size(), availableMemory());
+    final QueuedReadCall queued = numberQueues > 0 ? new QueuedReadCall(indexes.size(), indexParams, numberQueues, params.numberThreads()) : null;
+    logIndexMemory(indexParams, indexes.size(), numberQueues);
+    final ReadCall rci = queued != null ? queued : new ReadCallImplementation(indexes);
     final TemplateCallImplementation tci = new TemplateCallImplementation(params, indexParams.size(), indexes, null);
 
     final NgsHashFunction hf = hashFunctionFactory.create(rci, tci);
@@ -270,36 +295,136 @@ public class NgsTask extends ParamsTask<NgsParams, MapStatistics> {
     final long numberReads = params.buildFirstParams().numberSequences() + (params.paired() ? params.buildSecondParams().numberSequences() : 0);
     hf.setReadSequences(numberReads);
 
-    final long totalLength = index(params, shl, indexParams, indexes, hf);
+    final PhaseTimer.Split buildSplit = INDEX_BUILD_TIMER.start();
+    final long totalLength = queued != null ? index(params, shl, queued, indexes, hf, hashFunctionFactory, indexParams.size()) : index(params, shl, indexParams, indexes, hf);
+    buildSplit.stop();
     final OutputFilter filter = params.outputParams().outFilter();
     try (OutputProcessor outProcessor = filter.makeProcessor(params, statistics)) {
       tci.setOutputProcessor(outProcessor);
 
+      final PhaseTimer.Split scanSplit = TEMPLATE_SCAN_TIMER.start();
       search(params, shl, indexes, tci, hf);
+      scanSplit.stop();
       outProcessor.finish();
     }
     return totalLength;
   }
 
+  // Queue the hashes for a radix partitioned parallel freeze, rather than scanning the reads once for each pass
+  static boolean useQueuedIndex(NgsParams params, CreateParams indexParams) {
+    return indexParams.compressHashes() && params.numberThreads() > 1 && GlobalFlags.getBooleanValue(CoreGlobalFlags.MAP_QUEUED_INDEX_FLAG);
+  }
+
+  /**
+   * Decide how many queues (one for each thread and arm) the hashes are spread over when building the
+   * indexes in a single pass. The queues are held alongside the indexes, which have already been
+   * allocated, so fall back to the two pass build if the queues will not fit in the memory remaining.
+   * @param params mapping parameters
+   * @param indexParams relevant index creation params
+   * @param windows the number of indexes
+   * @param availableBytes memory available for the queues
+   * @return the number of queues, or 0 if the indexes should be built in two passes.
+   */
+  static int queuedIndexQueues(NgsParams params, CreateParams indexParams, int windows, long availableBytes) {
+    if (!useQueuedIndex(params, indexParams)) {
+      return 0;
+    }
+    final int numberQueues = params.numberThreads() * (params.paired() ? 2 : 1);
+    final long queueBytes = windows * IndexUtils.queueBytes(indexParams, numberQueues);
+    if (queueBytes > availableBytes) {
+      Diagnostic.userLog("Index queues need " + StringUtils.commas(queueBytes) + " bytes but only " + StringUtils.commas(availableBytes) + " bytes are available, building indexes in two passes");
+      return 0;
+    }
+    return numberQueues;
+  }
+
+  private static long availableMemory() {
+    final Runtime rt = Runtime.getRuntime();
+    return rt.maxMemory() - (rt.totalMemory() - rt.freeMemory());
+  }
+
+  // The queues are held alongside all the indexes until they are frozen, so count them in the peak
+  private static void logIndexMemory(CreateParams indexParams, int windows, int numberQueues) {
+    final StringBuilder sb = new StringBuilder();
+    IndexUtils.memToString(sb, indexParams, numberQueues);
+    sb.append(ParamsUtils.memToString("Total_indexes", windows * IndexUtils.bytes(indexParams, numberQueues), windows));
+    Diagnostic.userLog("Index memory estimate" + LS + sb);
+  }
+
   private static long index(NgsParams params, NgsHashLoop shl, CreateParams indexParams, IndexSet indexes, NgsHashFunction hf) throws IOException {
     Diagnostic.developerLog("index start");
     long totalLength = 0;
     for (int pass = 1; pass <= (indexParams.compressHashes() ? 2 : 1); ++pass) {
-      totalLength = 0; //only count for one pass
-      if (params.paired()) {
-        final boolean cgFlip = params.buildFirstParams().reader().getPrereadType() == PrereadType.CG && params.buildFirstParams().reader().minLength() == CgUtils.CG_RAW_READ_LENGTH;
-        final long l1 = shl.readLoop(params.buildFirstParams(), hf, ReadEncoder.PAIRED_FIRST, false);
-        final long l2 = shl.readLoop(params.buildSecondParams(), hf, ReadEncoder.PAIRED_SECOND, cgFlip);
-        totalLength += l1 + l2;
+      totalLength = readPass(params, shl, hf); //only count for one pass
+      indexes.freeze(params.numberThreads());
+    }
+    return totalLength;
+  }
 
-      } else {
-        totalLength += shl.readLoop(params.buildFirstParams(), hf, ReadEncoder.SINGLE_END, false);
+  private static long index(NgsParams params, NgsHashLoop shl, QueuedReadCall queued, IndexSet indexes, NgsHashFunction hf, HashFunctionFactory factory, long maxId) throws IOException {
+    Diagnostic.developerLog("queued index start");
+    final OneShotTimer queueTimer = new OneShotTimer("Index_queue");
+    final long totalLength = readPass(params, shl, queued, indexes, hf, factory, maxId);
+    queueTimer.stopLog();
+    queued.freeze(indexes);
+    return totalLength;
+  }
+
+  // Each thread hashes a contiguous range of reads into its own queue. The queues for the first arm
+  // come before those for the second, so the values in each bucket are in the same order as a serial scan.
+  private static long readPass(NgsParams params, NgsHashLoop shl, QueuedReadCall queued, IndexSet indexes, NgsHashFunction hf, HashFunctionFactory factory, long maxId) throws IOException {
+    final int numberThreads = params.numberThreads();
+    final NgsHashFunction[] hashFunctions = new NgsHashFunction[numberThreads * (params.paired() ? 2 : 1)];
+    for (int q = 0; q < hashFunctions.length; ++q) {
+      hashFunctions[q] = factory.create(queued.queue(q), new TemplateCallImplementation(params, maxId, indexes, null));
+      if (!hashFunctions[q].shareReadSequences(hf)) {
+        Diagnostic.developerLog("hash function cannot share reads, queueing from a single thread");
+        return readPass(params, shl, hf);
       }
-      indexes.freeze(params.numberThreads());
+    }
+    final long[] lengths = new long[hashFunctions.length];
+    final SimpleThreadPool pool = new SimpleThreadPool(numberThreads, "IndexQueue", true);
+    if (params.paired()) {
+      final boolean cgFlip = params.buildFirstParams().reader().getPrereadType() == PrereadType.CG && params.buildFirstParams().reader().minLength() == CgUtils.CG_RAW_READ_LENGTH;
+      readPass(pool, shl, params.buildFirstParams(), hashFunctions, 0, numberThreads, lengths, ReadEncoder.PAIRED_FIRST, false);
+      readPass(pool, shl, params.buildSecondParams(), hashFunctions, numberThreads, numberThreads, lengths, ReadEncoder.PAIRED_SECOND, cgFlip);
+    } else {
+      readPass(pool, shl, params.buildFirstParams(), hashFunctions, 0, numberThreads, lengths, ReadEncoder.SINGLE_END, false);
+    }
+    pool.terminate();
+    long totalLength = 0;
+    for (final long length : lengths) {
+      totalLength += length;
     }
     return totalLength;
   }
 
+  private static void readPass(SimpleThreadPool pool, NgsHashLoop shl, ISequenceParams sequences, NgsHashFunction[] hashFunctions, int firstQueue, int numberThreads, long[] lengths, ReadEncoder encoder, boolean reverse) {
+    final SizeSplit ss = new SizeSplit((int) sequences.numberSequences(), numberThreads);
+    for (int i = 0; i < numberThreads; ++i) {
+      final int q = firstQueue + i;
+      final HashingRegion region = new HashingRegion(sequences.region().getStart() + ss.start(i), sequences.region().getStart() + ss.start(i + 1));
+      if (region.getEnd() > region.getStart()) {
+        pool.execute(() -> {
+          try (ISequenceParams sub = sequences.subSequence(region)) {
+            lengths[q] = shl.readLoop(sub, hashFunctions[q], encoder, reverse);
+          }
+        });
+      }
+    }
+  }
+
+  private static long readPass(NgsParams params, NgsHashLoop shl, NgsHashFunction hf) throws IOException {
+    if (params.paired()) {
+      final boolean cgFlip = params.buildFirstParams().reader().getPrereadType() == PrereadType.CG && params.buildFirstParams().reader().minLength() == CgUtils.CG_RAW_READ_LENGTH;
+      final long l1 = shl.readLoop(params.buildFirstParams(), hf, ReadEncoder.PAIRED_FIRST, false);
+      final long l2 = shl.readLoop(params.buildSecondParams(), hf, ReadEncoder.PAIRED_SECOND, cgFlip);
+      return l1 + l2;
+    } else {
+      return shl.readLoop(params.buildFirstParams(), hf, ReadEncoder.SINGLE_END, false);
+    }
+  }
+
   /**
    * Runs a search on the supplied template and indexes
    * @param params search parameters
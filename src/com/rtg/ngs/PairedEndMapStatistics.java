@@ -167,6 +167,11 @@ public class PairedEndMapStatistics extends AbstractStatistics implements MapSta
       appendValue(sb, unmatedReads, totalReads, "unmated reads", formatLength2);
       appendValue(sb, mappedReads, totalReads, "mapped reads", formatLength2);
       appendValue(sb, mBothUnmapped, totalReads, "unmapped reads", formatLength2);
+      final long cacheHits = totalValue(MapStatisticsField.ALIGNMENT_CACHE_HITS);
+      final long cacheLookups = cacheHits + totalValue(MapStatisticsField.ALIGNMENT_CACHE_MISSES);
+      if (cacheLookups > 0) {
+        appendValue(sb, cacheHits, cacheLookups, "alignment cache hits", String.format("%d", cacheLookups).length());
+      }
     }
     return sb.toString();
   }
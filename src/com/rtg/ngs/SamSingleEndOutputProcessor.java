@@ -81,6 +81,7 @@ public class SamSingleEndOutputProcessor extends AbstractMapOutputProcessor {
     Diagnostic.developerLog(mTopN.histogram());
     final FilterConcatIntermediateFiles alignmentIntFiles = writeAlignments();
 
+    recordAlignmentCacheStatistics();
     final FilterConcatIntermediateFiles unmappedIntFiles;
     if (mOutputUnmapped) {
       unmappedIntFiles = writeUnmapped(!mParams.outputParams().unify(), false, false);
@@ -93,6 +94,7 @@ public class SamSingleEndOutputProcessor extends AbstractMapOutputProcessor {
     }
     mUnmappedTracker.calculateStatistics(false, false);
     mReportMerger.blendReportData().write(new File(mParams.outputParams().directory(), MapReportData.MAP_REPORT_FILE_NAME));
+    writeAlignerMetrics();
 
   }
   @Override
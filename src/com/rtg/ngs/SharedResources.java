@@ -12,7 +12,11 @@
 package com.rtg.ngs;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.rtg.alignment.AlignerMetrics;
 import com.rtg.ngs.blocking.MapQScoringReadBlocker;
 import com.rtg.ngs.blocking.MapQScoringReadBlockerSynch;
 import com.rtg.reader.NamesInterface;
@@ -92,6 +96,10 @@ public class SharedResources {
   private final SAMFileHeader mFileHeader;
   private PairedTopRandomImplementation mPairedEndTopRandom = null;
   private SingleEndTopRandomImplementation mSingleEndTopRandom = null;
+  private final AtomicLong mAlignmentCacheHits = new AtomicLong();
+  private final AtomicLong mAlignmentCacheMisses = new AtomicLong();
+  private final AlignerMetrics mAlignerMetrics = new AlignerMetrics();
+  private final List<AlignerMetrics> mThreadAlignerMetrics = new ArrayList<>();
 
   SharedResources(SequencesReader first, SequencesReader second, SequencesReader template,
                   MapQScoringReadBlocker blocker, NamesInterface templateNames, SAMFileHeader header, SAMFileHeader headerNoDict) {
@@ -172,6 +180,57 @@ public class SharedResources {
     return mSingleEndTopRandom;
   }
 
+  /**
+   * Accumulate the alignment cache counts of a temp file writer.
+   * @param hits number of alignments found in the cache
+   * @param misses number of alignments that had to be computed
+   */
+  public void addAlignmentCacheCounts(long hits, long misses) {
+    mAlignmentCacheHits.addAndGet(hits);
+    mAlignmentCacheMisses.addAndGet(misses);
+  }
+
+  /**
+   * @return total number of alignments found in temp file writer alignment caches
+   */
+  public long alignmentCacheHits() {
+    return mAlignmentCacheHits.get();
+  }
+
+  /**
+   * @return total number of alignments computed by temp file writers
+   */
+  public long alignmentCacheMisses() {
+    return mAlignmentCacheMisses.get();
+  }
+
+  /**
+   * Add the per aligner counts of one temp file writer, which each belong to one thread.
+   * @param metrics counts from the writer
+   */
+  public void addAlignerMetrics(AlignerMetrics metrics) {
+    synchronized (mThreadAlignerMetrics) {
+      mThreadAlignerMetrics.add(metrics);
+    }
+    mAlignerMetrics.merge(metrics);
+  }
+
+  /**
+   * @return per aligner counts merged from all temp file writers
+   */
+  public AlignerMetrics alignerMetrics() {
+    return mAlignerMetrics;
+  }
+
+  /**
+   * @return per aligner counts of each temp file writer, in the order the writers finished
+   */
+  public List<AlignerMetrics> threadAlignerMetrics() {
+    synchronized (mThreadAlignerMetrics) {
+      return new ArrayList<>(mThreadAlignerMetrics);
+    }
+  }
+
   /**
    * Return the names of all template sequences.
    * @return template names
@@ -35,6 +35,8 @@ public class SingleEndMapStatistics extends AbstractStatistics implements MapSta
   private long mUnmappedUnmatedPoor = 0;  //XC D
   private long mUnmappedTopN = 0;  //XC C
   private long mUnmappedNoHits = 0;
+  private long mAlignmentCacheHits = 0;
+  private long mAlignmentCacheMisses = 0;
   protected long mTotal = 0;
 
   /**
@@ -58,6 +60,8 @@ public class SingleEndMapStatistics extends AbstractStatistics implements MapSta
     case UNMAPPED_TOPN: mUnmappedTopN++; break;
     case UNMAPPED_UNMATED_POOR: mUnmappedUnmatedPoor++; break;
     case UNMAPPED_UNMATED_TOO_MANY: mUnmappedUnmatedTooMany++; break;
+    case ALIGNMENT_CACHE_HITS: mAlignmentCacheHits++; break;
+    case ALIGNMENT_CACHE_MISSES: mAlignmentCacheMisses++; break;
     case MISSING: mMissing++ ; break;
     case TOTAL_READS: mTotal++; break;
     default:
@@ -103,9 +107,23 @@ public class SingleEndMapStatistics extends AbstractStatistics implements MapSta
     appendValue(sb, MapStatisticsField.UNMAPPED_NO_HITS, "unmapped with no hits (XC = A)", formatLength);
 
     appendValue(sb, MapStatisticsField.TOTAL_READS, "total", formatLength);
+    final long cacheLookups = mAlignmentCacheHits + mAlignmentCacheMisses;
+    if (cacheLookups > 0) {
+      sb.append(StringUtils.LS);
+      appendValue(sb, mAlignmentCacheHits, cacheLookups, "alignment cache hits", String.format("%d", cacheLookups).length());
+    }
     return sb.toString();
   }
 
+  private void appendValue(StringBuilder sb, long value, long total, String msg, int formatLength) {
+    String formatStr = "%" + formatLength + "d";
+    final String valueFormat = String.format(formatStr, value);
+    formatStr = "%5s";
+    final String percentFormat = String.format(formatStr, percentString(100.0 * value / total));
+    final String str = valueFormat + " " + percentFormat + "% " + msg;
+    sb.append(str).append(StringUtils.LS);
+  }
+
   @Override
   public void reset() {
     mUnmappedNoHits = 0;
@@ -120,6 +138,8 @@ public class SingleEndMapStatistics extends AbstractStatistics implements MapSta
     mUnmappedUnmatedTooMany = 0;   //XC E
     mUnmappedUnmatedPoor = 0;  //XC D
     mUnmappedTopN = 0;  //XC C
+    mAlignmentCacheHits = 0;
+    mAlignmentCacheMisses = 0;
     mTotal = 0;
   }
 
@@ -143,6 +163,8 @@ public class SingleEndMapStatistics extends AbstractStatistics implements MapSta
     case UNMAPPED_TOPN: res = mUnmappedTopN; break;
     case UNMAPPED_UNMATED_POOR: res = mUnmappedUnmatedPoor; break;
     case UNMAPPED_UNMATED_TOO_MANY: res = mUnmappedUnmatedTooMany; break;
+    case ALIGNMENT_CACHE_HITS: res = mAlignmentCacheHits; break;
+    case ALIGNMENT_CACHE_MISSES: res = mAlignmentCacheMisses; break;
     case MISSING: res = mMissing; break;
     case TOTAL_READS: res = mTotal; break;
     default:
@@ -175,6 +197,8 @@ public class SingleEndMapStatistics extends AbstractStatistics implements MapSta
     case UNMAPPED_TOPN: mUnmappedTopN = value; break;
     case UNMAPPED_UNMATED_POOR: mUnmappedUnmatedPoor = value; break;
     case UNMAPPED_UNMATED_TOO_MANY: mUnmappedUnmatedTooMany = value; break;
+    case ALIGNMENT_CACHE_HITS: mAlignmentCacheHits = value; break;
+    case ALIGNMENT_CACHE_MISSES: mAlignmentCacheMisses = value; break;
     case MISSING: mMissing = value ; break;
     case TOTAL_READS: mTotal = value; break;
     default:
@@ -181,6 +181,7 @@ public class TopNPairedEndOutputProcessorSync extends AbstractMapOutputProcessor
       mSharedResources.getPairedEndTopRandom().finish();
     }
 
+    recordAlignmentCacheStatistics();
     final FilterConcatIntermediateFiles unmappedIntFiles;
     if (mOutputUnmapped) {
       unmappedIntFiles = writeUnmapped(!mParams.outputParams().unify(), false, false);
@@ -199,6 +200,7 @@ public class TopNPairedEndOutputProcessorSync extends AbstractMapOutputProcessor
     }
     mUnmappedTracker.calculateStatistics(true, false);
     mReportMerger.blendReportData().write(new File(mParams.outputParams().directory(), MapReportData.MAP_REPORT_FILE_NAME));
+    writeAlignerMetrics();
   }
 
   protected FilterConcatIntermediateFiles writeUnmated() throws IOException {
@@ -369,7 +371,7 @@ public class TopNPairedEndOutputProcessorSync extends AbstractMapOutputProcessor
     protected OutputWrapper createStreams(int numThreads, File[] intermediate, File[] intermediateIndexes, boolean samGzipIntFiles, boolean createIndex, int i) throws IOException {
       //Don't want to index files yet due to need to post-process intermediate files.
       if (mAugmenterMerger != null) {
-        return new OutputWrapper(FileUtils.createOutputStream(intermediate[i], samGzipIntFiles, samGzipIntFiles && (i == numThreads - 1)), null);
+        return new OutputWrapper(createIntermediateStream(intermediate[i], null, samGzipIntFiles, samGzipIntFiles && (i == numThreads - 1)), null);
       }
       return super.createStreams(numThreads, intermediate, intermediateIndexes, samGzipIntFiles, createIndex, i);
     }
@@ -380,10 +382,10 @@ public class TopNPairedEndOutputProcessorSync extends AbstractMapOutputProcessor
         return;
       }
       //read in and update with pseudo-pairing information, and re-write intermediate files, write index files if needed also
-      final SimpleThreadPool pool = new SimpleThreadPool(Math.min(numThreads, MAX_FILTERCONCAT_THREADS), mThreadNamePrefix + "FilterConcat-PostProcessing", true);
+      final boolean samGzipIntFiles = mParams.outputParams().isCompressOutput();
+      final SimpleThreadPool pool = new SimpleThreadPool(filterThreads(numThreads, mParams.numberThreads(), samGzipIntFiles), mThreadNamePrefix + "FilterConcat-PostProcessing", true);
       pool.enableBasicProgress(numThreads);
       final File[] intermediateTempFiles = new File[numThreads];
-      final boolean samGzipIntFiles = mParams.outputParams().isCompressOutput();
       final UnmatedAugmenter au = mAugmenterMerger.blend();
       for (int i = 0; i < numThreads; ++i) {
         intermediateTempFiles[i] = new File(intermediate[i].getParent(), intermediate[i].getName() + ".augment");
@@ -454,11 +456,13 @@ public class TopNPairedEndOutputProcessorSync extends AbstractMapOutputProcessor
               indexThread.join();
             } catch (final InterruptedException e) {
               throw new IOException("Execution was interrupted", e);
-            } finally {
-              mIndexProxy.checkError();
             }
           }
         }
+        // Not in the finally, so an indexing failure cannot replace an exception from augmenting
+        if (mIndexProxy != null) {
+          mIndexProxy.checkError();
+        }
         if (!(mIntermediateFile.canWrite() && mIntermediateFile.delete() && mIntermediateAugmentFile.renameTo(mIntermediateFile))) {
           throw new SlimException("Unable to rename intermediate file: \"" + mIntermediateAugmentFile + "\" to \"" + mIntermediateFile + "\"");
         }
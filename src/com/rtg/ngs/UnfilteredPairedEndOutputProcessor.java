@@ -153,6 +153,8 @@ public class UnfilteredPairedEndOutputProcessor extends AbstractSdfOutputProcess
       }
     }
 
+    recordAlignmentCacheStatistics();
+    writeAlignerMetrics();
     final FilterConcatIntermediateFiles unmappedIntFiles;
     if (mOutputUnmapped) {
       unmappedIntFiles = writeUnmapped();
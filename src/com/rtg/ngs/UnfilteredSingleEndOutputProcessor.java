@@ -105,6 +105,8 @@ public class UnfilteredSingleEndOutputProcessor extends AbstractSdfOutputProcess
         }
       }
     }
+    recordAlignmentCacheStatistics();
+    writeAlignerMetrics();
     final FilterConcatIntermediateFiles unmappedIntFiles;
     if (mOutputUnmapped) {
       unmappedIntFiles = writeUnmapped();
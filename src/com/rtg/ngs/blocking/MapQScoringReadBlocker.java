@@ -12,7 +12,7 @@
 package com.rtg.ngs.blocking;
 
 import java.io.Closeable;
-import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import com.rtg.util.License;
 import com.rtg.util.diagnostic.Diagnostic;
@@ -23,6 +23,9 @@ import com.rtg.util.diagnostic.Diagnostic;
  * approximate mapping quality score using the same calculation that
  * <code>BWA</code> uses.
  *
+ * The state for each read is packed into a single <code>long</code>, holding the best and
+ * next best scores in the low two bytes, followed by the counts at those scores. This lets
+ * the state be read consistently without locking, and updated atomically by subclasses.
  */
 public class MapQScoringReadBlocker implements Closeable {
 
@@ -78,12 +81,72 @@ public class MapQScoringReadBlocker implements Closeable {
     return (23 < G_LOG_N[n]) ? 0 : 23 - G_LOG_N[n];
   }
 
+  private static final int SCORE2_SHIFT = 8;
+  private static final int COUNT1_SHIFT = 16;
+  private static final int COUNT2_SHIFT = 32;
+  private static final long INITIAL_STATE = 0xFFFFL; // both scores 0xFF, both counts 0
+
+  static int score1(long state) {
+    return (int) state & 0xFF;
+  }
+
+  static int score2(long state) {
+    return (int) (state >>> SCORE2_SHIFT) & 0xFF;
+  }
+
+  static int count1(long state) {
+    return (int) (state >>> COUNT1_SHIFT) & MAX_COUNT;
+  }
+
+  static int count2(long state) {
+    return (int) (state >>> COUNT2_SHIFT) & MAX_COUNT;
+  }
+
+  private static long pack(int score1, int score2, int count1, int count2) {
+    return score1 | (long) score2 << SCORE2_SHIFT | (long) count1 << COUNT1_SHIFT | (long) count2 << COUNT2_SHIFT;
+  }
+
+  private static int clampScore(int score) {
+    return (score > MAX_SCORE) ? 0xFF : (score & 0xFF);
+  }
+
+  /**
+   * Compute the state resulting from a hit with the given score.
+   * @param state the current state
+   * @param score the score of the hit
+   * @return the new state
+   */
+  static long increment(final long state, final int score) {
+    final int currentScore = score1(state);
+    final int currentScore2 = score2(state);
+    if (score < currentScore) {       // New best score, old best becomes second best
+      return pack(clampScore(score), currentScore, 1, count1(state));
+    } else if (score == currentScore) { // Another hit at the best score
+      final int count = count1(state);
+      return count == MAX_COUNT ? state : pack(currentScore, currentScore2, count + 1, count2(state));
+    } else if (score < currentScore2) { // New second best score
+      return pack(currentScore, clampScore(score), count1(state), 1);
+    } else if (score == currentScore2) { // Another hit at second best score
+      final int count = count2(state);
+      return count == MAX_COUNT ? state : pack(currentScore, currentScore2, count1(state), count + 1);
+    } // score > currentScore2 is a no-op
+    return state;
+  }
+
+  /**
+   * The value returned by <code>increment</code> for a hit.
+   * @param state the state before the hit
+   * @param newState the state after the hit
+   * @param score the score of the hit
+   * @return the count at the current best score or -1 if the hit was not at the best score
+   */
+  static int incrementResult(final long state, final long newState, final int score) {
+    return score <= score1(state) ? count1(newState) : -1;
+  }
+
   private final String mTitle;
   private final int mThreshold;  // Count limit for best score
-  private final byte[] mScore1; // Current best score treated as unsigned here
-  private final byte[] mScore2; // Current next best score treated as unsigned here
-  private final short[] mCount1; // Count at current score treated as unsigned here
-  private final short[] mCount2; // Count at next best score treated as unsigned here
+  protected final AtomicLongArray mState; // Packed scores and counts, treated as unsigned here
 
   /**
   * Copy constructor for making a non-synchronized version from a synchronized one
@@ -92,10 +155,7 @@ public class MapQScoringReadBlocker implements Closeable {
   public MapQScoringReadBlocker(MapQScoringReadBlocker source) {
     mTitle = source.mTitle;
     mThreshold = source.mThreshold;
-    mScore1 = source.mScore1;
-    mScore2 = source.mScore2;
-    mCount1 = source.mCount1;
-    mCount2 = source.mCount2;
+    mState = source.mState;
   }
 
   /**
@@ -113,12 +173,10 @@ public class MapQScoringReadBlocker implements Closeable {
     }
     mTitle = title;
     mThreshold = threshold + 1;
-    mCount1 = new short[count];
-    mCount2 = new short[count];
-    mScore1 = new byte[count];
-    mScore2 = new byte[count];
-    Arrays.fill(mScore1, (byte) 0xFF);
-    Arrays.fill(mScore2, (byte) 0xFF);
+    mState = new AtomicLongArray(count);
+    for (int i = 0; i < count; ++i) {
+      mState.lazySet(i, INITIAL_STATE);
+    }
   }
 
   /**
@@ -140,7 +198,7 @@ public class MapQScoringReadBlocker implements Closeable {
    * @return the number of records written, or the threshold.
    */
   public final int getCount1(int r) {
-    return mCount1[r] & MAX_COUNT;
+    return count1(mState.get(r));
   }
 
   /**
@@ -149,7 +207,7 @@ public class MapQScoringReadBlocker implements Closeable {
    * @return the score.
    */
   public final int getScore1(int r) {
-    return mScore1[r] & 0xFF;
+    return score1(mState.get(r));
   }
 
   /**
@@ -161,7 +219,7 @@ public class MapQScoringReadBlocker implements Closeable {
    * @return the number of records written, or the threshold.
    */
   final int getCount2(int r) {
-    return mCount2[r] & MAX_COUNT;
+    return count2(mState.get(r));
   }
 
   /**
@@ -170,7 +228,7 @@ public class MapQScoringReadBlocker implements Closeable {
    * @return the score.
    */
   public final int getScore2(int r) {
-    return mScore2[r] & 0xFF;
+    return score2(mState.get(r));
   }
 
   /**
@@ -178,11 +236,12 @@ public class MapQScoringReadBlocker implements Closeable {
    * @param r Read identifier
    * @return the score
    */
-  public int getTerminationScore(int r) {
-    if (getCount1(r) > 1) {
-      return getScore1(r);
+  public final int getTerminationScore(int r) {
+    final long state = mState.get(r);
+    if (count1(state) > 1) {
+      return score1(state);
     }
-    return getScore2(r);
+    return score2(state);
   }
 
   /**
@@ -194,28 +253,12 @@ public class MapQScoringReadBlocker implements Closeable {
    */
   public int increment(final int r, int score) {
     //System.err.println("increment(" + r + "," + score + ")");
-    final int currentScore = mScore1[r] & 0xFF;
-    final int currentScore2 = mScore2[r] & 0xFF;
-    if (score < currentScore) {       // New best score, old best becomes second best
-      mScore2[r] = mScore1[r];
-      mCount2[r] = mCount1[r];
-      mScore1[r] = (byte) ((score > MAX_SCORE) ? 0xFF : (score & 0xFF));
-      mCount1[r] = 1;
-      return 1;
-    } else if (score == currentScore) { // Another hit at the best score
-      if (mCount1[r] != -1) {
-        mCount1[r]++;
-      }
-      return getCount1(r);
-    } else if (score < currentScore2) { // New second best score
-      mScore2[r] = (byte) ((score > MAX_SCORE) ? 0xFF : (score & 0xFF));
-      mCount2[r] = 1;
-    } else if (score == currentScore2) { // Another hit at second best score
-      if (mCount2[r] != -1) {
-        mCount2[r]++;
-      }
-    } // score > currentScore2 is a no-op
-    return -1;
+    final long state = mState.get(r);
+    final long newState = increment(state, score);
+    if (newState != state) {
+      mState.lazySet(r, newState);
+    }
+    return incrementResult(state, newState, score);
   }
 
   /**
@@ -235,9 +278,10 @@ public class MapQScoringReadBlocker implements Closeable {
    * @return a MAPQ value
    */
   public final int getMapQ(final int r) {
-    final int bestCount = mCount1[r] & MAX_COUNT;
-    final int nextCount = mCount2[r] & MAX_COUNT;
-    final int bestScore = mScore1[r] & 0xFF;
+    final long state = mState.get(r);
+    final int bestCount = count1(state);
+    final int nextCount = count2(state);
+    final int bestScore = score1(state);
     return approxMapQ(bestCount, nextCount, bestScore, MAX_SCORE); // MAX_SCORE should actually be the per read max score derived from the user -e/-E max (incorporating current read length where appropriate)
   }
 
@@ -248,10 +292,11 @@ public class MapQScoringReadBlocker implements Closeable {
    * @param score the score to check
    * @return true if blocked
    */
-  public boolean isBlocked1(final int r, int score) {
-    final int currentScore = mScore1[r] & 0xFF;
+  public final boolean isBlocked1(final int r, int score) {
+    final long state = mState.get(r);
+    final int currentScore = score1(state);
     return (score > currentScore)
-    || ((score == currentScore) && (mCount1[r] & MAX_COUNT) >= mThreshold);
+    || ((score == currentScore) && count1(state) >= mThreshold);
   }
 
   /**
@@ -260,7 +305,7 @@ public class MapQScoringReadBlocker implements Closeable {
    * @return true if read is blocked
    */
   public boolean isBlocked(final int r) {
-    return (mCount1[r] & MAX_COUNT) >= mThreshold;
+    return getCount1(r) >= mThreshold;
   }
 
   /**
@@ -270,18 +315,19 @@ public class MapQScoringReadBlocker implements Closeable {
    * @param score the score to check
    * @return true if blocked
    */
-  public boolean isBlocked2(final int r, int score) {
-    final int currentScore = mScore2[r] & 0xFF;
+  public final boolean isBlocked2(final int r, int score) {
+    final long state = mState.get(r);
+    final int currentScore = score2(state);
     return (score > currentScore)
-    || ((score == currentScore) && (mCount2[r] & MAX_COUNT) >= NEXT_LIMIT);
+    || ((score == currentScore) && count2(state) >= NEXT_LIMIT);
   }
 
   @Override
   public void close() {
     if (License.isDeveloper()) {
       final int[] h = new int[MAX_COUNT + 1];
-      for (final int k : mCount1) {
-        h[k & MAX_COUNT]++;
+      for (int i = 0; i < mState.length(); ++i) {
+        h[getCount1(i)]++;
       }
       Diagnostic.developerLog("Statistics of " + mTitle);
       long sum = 0;
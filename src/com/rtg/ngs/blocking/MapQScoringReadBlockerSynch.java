@@ -12,20 +12,14 @@
 package com.rtg.ngs.blocking;
 
 /**
- * Synchronized version of MapQScoringReadBlocker.  This is slightly
- * slower than MapQScoringReadBlocker, so should not be used in
- * single-threaded situations.
+ * Thread safe version of MapQScoringReadBlocker.  The packed state for
+ * each read is updated with a compare and set, so no locks are taken,
+ * but this is slightly slower than MapQScoringReadBlocker, so should not
+ * be used in single-threaded situations.
  *
  */
 public class MapQScoringReadBlockerSynch extends MapQScoringReadBlocker {
 
-  private static final int NUMBER_OF_THREAD_LOCKS = 1 << 16;
-  private static final int THREAD_LOCK_MASK = NUMBER_OF_THREAD_LOCKS - 1;
-
-  /* Array of locks for multiple threads */
-  private final Object[] mThreadLocks;
-
-
   /**
    * Creates a counter for <code>count</code> records blocking at <code>
    * threshold</code>.
@@ -36,10 +30,6 @@ public class MapQScoringReadBlockerSynch extends MapQScoringReadBlocker {
    */
   public MapQScoringReadBlockerSynch(final int count, final int threshold, final String title) {
     super(count, threshold, title);
-    mThreadLocks = new Object[NUMBER_OF_THREAD_LOCKS];
-    for (int i = 0; i < mThreadLocks.length; ++i) {
-      mThreadLocks[i] = new Object();
-    }
   }
 
   /**
@@ -63,36 +53,13 @@ public class MapQScoringReadBlockerSynch extends MapQScoringReadBlocker {
   }
   @Override
   public int increment(final int r, final int score) {
-    // sync the rest of the function
-    synchronized (mThreadLocks[r & THREAD_LOCK_MASK]) {
-      return super.increment(r, score);
-    }
-  }
-
-  @Override
-  public boolean isBlocked1(final int r, final int score) {
-    // sync the rest of the function
-    synchronized (mThreadLocks[r & THREAD_LOCK_MASK]) {
-      return super.isBlocked1(r, score);
-    }
-  }
-
-  @Override
-  public boolean isBlocked2(final int r, final int score) {
-    // sync the rest of the function
-    synchronized (mThreadLocks[r & THREAD_LOCK_MASK]) {
-      return super.isBlocked2(r, score);
-    }
-  }
-
-  @Override
-  public int getTerminationScore(int r) {
-    synchronized (mThreadLocks[r & THREAD_LOCK_MASK]) {
-      if (getCount1(r) > 1) {
-        return getScore1(r);
+    while (true) {
+      final long state = mState.get(r);
+      final long newState = increment(state, score);
+      if (newState == state || mState.compareAndSet(r, state, newState)) {
+        return incrementResult(state, newState, score);
       }
     }
-    return getScore2(r);
   }
 
   @Override
@@ -17,6 +17,8 @@ import java.io.OutputStream;
 import java.util.Comparator;
 
 import com.reeltwo.jumble.annotations.TestClass;
+import com.rtg.alignment.AlignerMetrics;
+import com.rtg.alignment.AlignerMetricsSource;
 import com.rtg.alignment.BidirectionalEditDistance;
 import com.rtg.alignment.EditDistanceFactory;
 import com.rtg.launcher.globals.GlobalFlags;
@@ -26,6 +28,7 @@ import com.rtg.ngs.NgsParams;
 import com.rtg.ngs.SharedResources;
 import com.rtg.ngs.blocking.MapQScoringReadBlocker;
 import com.rtg.pairedend.ReadStatusListener;
+import com.rtg.reader.ReadHelper;
 import com.rtg.reader.SequencesReader;
 import com.rtg.util.IntegerOrPercentage;
 import com.rtg.util.MaxShiftFactor;
@@ -67,6 +70,8 @@ public abstract class AbstractTempFileWriter implements Closeable {
   private int mLastReadLengthMaxShiftValue = -1;
 
   private final MaxShiftFactor mMaxShiftFactor;
+  private final AlignmentCache mAlignmentCache = new AlignmentCache();
+  private final ReadBatch mReadBatch = new ReadBatch();
 
   /**
    * Construct a new writer.
@@ -112,6 +117,7 @@ public abstract class AbstractTempFileWriter implements Closeable {
       throw new IllegalArgumentException();
     }
     mTemplateId = templateId;
+    mAlignmentCache.clear();
     if (templateId == Long.MAX_VALUE) {
       //      Diagnostic.developerLog("AbstractSamAlignmentWriter Long.MAX_VALUE");
       mTemplate = null;
@@ -151,7 +157,35 @@ public abstract class AbstractTempFileWriter implements Closeable {
     final int score = maxMismatches.getValue(length) * mSubstitutionPenalty;
     final int leastScore = USE_BLOCKERS_FOR_EARLY_TERM ? Math.min(mSharedResources.getBlocker().getTerminationScore(readId), score) : score;
 
-    return mMrEd.calculateEditDistance(read, length, mTemplate, start - mTemplateOffset, rc, leastScore, mLastReadLengthMaxShiftValue, left);
+    final int[] cached = mAlignmentCache.get(readId, start, rc, left, leastScore);
+    if (cached != null) {
+      return cached;
+    }
+    return mAlignmentCache.put(readId, start, rc, left, leastScore, mMrEd.calculateEditDistance(read, length, mTemplate, start - mTemplateOffset, rc, leastScore, mLastReadLengthMaxShiftValue, left));
+  }
+
+  /**
+   * Fetch both arms of a batch of reads that are about to be aligned, so that they are
+   * read once in read id order and shared by all the alignments made for them. Replaces
+   * any previously fetched batch.
+   * @param readIds read identifiers, may contain duplicates
+   * @param size number of read identifiers in use
+   * @throws IOException if an I/O error occurs
+   */
+  public void prefetchReads(int[] readIds, int size) throws IOException {
+    mReadBatch.load(mFirstReader, mSecondReader, readIds, size);
+  }
+
+  /**
+   * Get a read, using the prefetched batch where possible.
+   * @param first true for the first arm
+   * @param readId read identifier
+   * @return the read, must not be modified
+   * @throws IOException if an I/O error occurs
+   */
+  protected byte[] getRead(boolean first, int readId) throws IOException {
+    final byte[] read = mReadBatch.get(first, readId);
+    return read != null ? read : ReadHelper.getRead(first ? mFirstReader : mSecondReader, readId);
   }
 
   public MapQScoringReadBlocker getBlocker() {
@@ -177,6 +211,7 @@ public abstract class AbstractTempFileWriter implements Closeable {
    */
   @Override
   public void close() throws IOException {
+    mSharedResources.addAlignmentCacheCounts(mAlignmentCache.hits(), mAlignmentCache.misses());
     mSharedResources.close();
 
     if (mTemplateReader != null) {
@@ -191,6 +226,11 @@ public abstract class AbstractTempFileWriter implements Closeable {
       mSecondReader.close();
       mSecondReader = null;
     }
+    if (mMrEd instanceof AlignerMetricsSource) {
+      final AlignerMetrics metrics = new AlignerMetrics();
+      ((AlignerMetricsSource) mMrEd).addMetrics(metrics);
+      mSharedResources.addAlignerMetrics(metrics);
+    }
     if (DUMP_ALIGNMENT_STATS && mMrEd != null) {
       mMrEd.logStats();
     }
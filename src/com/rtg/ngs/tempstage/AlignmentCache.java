@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.ngs.tempstage;
+
+import java.util.Arrays;
+
+/**
+ * Small direct mapped cache of alignment results for a single template. The same read is
+ * frequently aligned more than once at the same position (for example when it takes part in
+ * several candidate matings, or is first tried as a mate and later as an unmated hit), so
+ * remembering recent results avoids repeating the edit distance calculation.
+ * Not thread safe, each temp file writer holds its own instance.
+ */
+final class AlignmentCache {
+
+  static final int DEFAULT_BITS = 12;
+
+  private final int mMask;
+  private final int[] mReadIds;
+  private final int[] mStarts;
+  private final int[] mFlags;
+  private final int[] mMaxScores;
+  private final int[][] mActions;
+
+  private long mHits = 0;
+  private long mMisses = 0;
+
+  AlignmentCache() {
+    this(DEFAULT_BITS);
+  }
+
+  /**
+   * @param bits log base 2 of the number of entries in the cache
+   */
+  AlignmentCache(final int bits) {
+    final int size = 1 << bits;
+    mMask = size - 1;
+    mReadIds = new int[size];
+    mStarts = new int[size];
+    mFlags = new int[size];
+    mMaxScores = new int[size];
+    mActions = new int[size][];
+    clear();
+  }
+
+  /**
+   * Forget all cached alignments, must be called whenever the template changes.
+   */
+  void clear() {
+    Arrays.fill(mReadIds, -1);
+    Arrays.fill(mActions, null);
+  }
+
+  private static int flags(final boolean rc, final boolean left) {
+    return (rc ? 1 : 0) | (left ? 2 : 0);
+  }
+
+  private int slot(final int readId, final int start, final int flags) {
+    int h = readId * 0x9E3779B1 + start * 0x85EBCA6B + flags;
+    h ^= h >>> 15;
+    return h & mMask;
+  }
+
+  /**
+   * Retrieve a previously computed alignment.
+   * @param readId read identifier
+   * @param start start position on template
+   * @param rc true if aligning the reverse complement
+   * @param left true if the read is the left arm
+   * @param maxScore the maximum score the alignment was computed with
+   * @return the cached actions array, or null if no alignment is cached. The result must not be modified.
+   */
+  int[] get(final int readId, final int start, final boolean rc, final boolean left, final int maxScore) {
+    final int flags = flags(rc, left);
+    final int s = slot(readId, start, flags);
+    if (mReadIds[s] == readId && mStarts[s] == start && mFlags[s] == flags && mMaxScores[s] == maxScore) {
+      ++mHits;
+      return mActions[s];
+    }
+    ++mMisses;
+    return null;
+  }
+
+  /**
+   * Remember an alignment, replacing any alignment occupying the same slot.
+   * @param readId read identifier
+   * @param start start position on template
+   * @param rc true if aligning the reverse complement
+   * @param left true if the read is the left arm
+   * @param maxScore the maximum score the alignment was computed with
+   * @param actions the actions array, this is copied
+   * @return the cached copy of the actions array
+   */
+  int[] put(final int readId, final int start, final boolean rc, final boolean left, final int maxScore, final int[] actions) {
+    final int flags = flags(rc, left);
+    final int s = slot(readId, start, flags);
+    final int[] copy = Arrays.copyOf(actions, actions.length);
+    mReadIds[s] = readId;
+    mStarts[s] = start;
+    mFlags[s] = flags;
+    mMaxScores[s] = maxScore;
+    mActions[s] = copy;
+    return copy;
+  }
+
+  /** @return number of lookups which found an alignment */
+  long hits() {
+    return mHits;
+  }
+
+  /** @return number of lookups which did not find an alignment */
+  long misses() {
+    return mMisses;
+  }
+}
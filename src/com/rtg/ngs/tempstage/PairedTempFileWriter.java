@@ -63,6 +63,16 @@ public interface PairedTempFileWriter extends Closeable {
    */
   void pairResultRight(MatedHitInfo hitInfo) throws IOException;
 
+  /**
+   * Notify the alignment writer of the reads about to be passed to
+   * <code>pairResultLeft</code>, so that it can fetch them together.
+   *
+   * @param readIds read identifiers, may contain duplicates
+   * @param size number of read identifiers in use
+   * @exception IOException if an I/O error occurs
+   */
+  void prefetchReads(int[] readIds, int size) throws IOException;
+
   /**
    * Closes mated output
    * @throws IOException if an IO exception occurs
@@ -93,7 +93,7 @@ public class PairedTempFileWriterImpl extends AbstractTempFileWriter implements
       score1 = matedHitInfo.getAlignmentScoreLeft();
     } else {
       ++mMatedNonCachedAlignment;
-      read1 = ReadHelper.getRead(!matedHitInfo.isFirstRight() ? mFirstReader : mSecondReader, matedHitInfo.getReadId());
+      read1 = getRead(!matedHitInfo.isFirstRight(), matedHitInfo.getReadId());
       bufferActionsLeft(calculateEditDistance(read1, read1.length, matedHitInfo.getTemplateStartLeft(), matedHitInfo.isReverseComplementLeft(), mMatedMaxMismatches, !matedHitInfo.isFirstRight(), readId));
       score1 = ActionsHelper.alignmentScore(mActionsBufferLeft);
       matedHitInfo.setAlignmentScoreLeft(score1);
@@ -117,7 +117,7 @@ public class PairedTempFileWriterImpl extends AbstractTempFileWriter implements
       score2 = matedHitInfo.getAlignmentScoreRight();
     } else {
       ++mMatedNonCachedAlignment;
-      read2 = ReadHelper.getRead(matedHitInfo.isFirstRight() ? mFirstReader : mSecondReader, matedHitInfo.getReadId());
+      read2 = getRead(matedHitInfo.isFirstRight(), matedHitInfo.getReadId());
       bufferActionsRight(calculateEditDistance(read2, read2.length, matedHitInfo.getTemplateStartRight(), matedHitInfo.isReverseComplementRight(), mMatedMaxMismatches, matedHitInfo.isFirstRight(), readId));
       score2 = ActionsHelper.alignmentScore(mActionsBufferRight);
       matedHitInfo.setAlignmentScoreRight(score2);
@@ -132,7 +132,7 @@ public class PairedTempFileWriterImpl extends AbstractTempFileWriter implements
       if (matchResult == null) { //
         if (read1 == null) { // Score from another potential mating was used, still need to recalc alignment since that wasn't cached
           //Diagnostic.developerLog("Recalculating left alignment for read " + readId + " at pos " + matedHitInfo.mTemplateStartLeft);
-          read1 = ReadHelper.getRead(!matedHitInfo.isFirstRight() ? mFirstReader : mSecondReader, matedHitInfo.getReadId());
+          read1 = getRead(!matedHitInfo.isFirstRight(), matedHitInfo.getReadId());
           bufferActionsLeft(calculateEditDistance(read1, read1.length, matedHitInfo.getTemplateStartLeft(), matedHitInfo.isReverseComplementLeft(), mMatedMaxMismatches, !matedHitInfo.isFirstRight(), readId));
           if (mActionsBufferLeft[ActionsHelper.ALIGNMENT_SCORE_INDEX] == Integer.MAX_VALUE) {
             return false;
@@ -145,7 +145,7 @@ public class PairedTempFileWriterImpl extends AbstractTempFileWriter implements
       if (mateResult == null) {
         if (read2 == null) { // Score from another potential mating was used, still need to recalc alignment since that wasn't cached
           //Diagnostic.developerLog("Recalculating right alignment for read " + readId + " at pos " + matedHitInfo.mTemplateStartRight);
-          read2 = ReadHelper.getRead(matedHitInfo.isFirstRight() ? mFirstReader : mSecondReader, matedHitInfo.getReadId());
+          read2 = getRead(matedHitInfo.isFirstRight(), matedHitInfo.getReadId());
           bufferActionsRight(calculateEditDistance(read2, read2.length, matedHitInfo.getTemplateStartRight(), matedHitInfo.isReverseComplementRight(), mMatedMaxMismatches, matedHitInfo.isFirstRight(), readId));
         }
         if (mActionsBufferRight[ActionsHelper.ALIGNMENT_SCORE_INDEX] == Integer.MAX_VALUE) {
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.ngs.tempstage;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.rtg.reader.ReadHelper;
+import com.rtg.reader.SequencesReader;
+
+/**
+ * Holds both arms of a batch of paired reads, fetched once in increasing read id order, so
+ * that the alignments for all the candidate matings of a window position can share them
+ * rather than each fetching the read again.
+ * Not thread safe, each temp file writer holds its own instance.
+ */
+final class ReadBatch {
+
+  private int[] mReadIds = new int[0];
+  private byte[][] mFirst = new byte[0][];
+  private byte[][] mSecond = new byte[0][];
+  private int mSize = 0;
+
+  /**
+   * Replace the contents of the batch with the given reads.
+   * @param first reader for the first arm
+   * @param second reader for the second arm, may be null
+   * @param readIds read identifiers, may contain duplicates and be in any order. Not modified.
+   * @param size number of read identifiers in use
+   * @throws IOException if an I/O error occurs
+   */
+  void load(final SequencesReader first, final SequencesReader second, final int[] readIds, final int size) throws IOException {
+    if (mReadIds.length < size) {
+      mReadIds = new int[size];
+      mFirst = new byte[size][];
+      mSecond = new byte[size][];
+    }
+    System.arraycopy(readIds, 0, mReadIds, 0, size);
+    Arrays.sort(mReadIds, 0, size);
+    mSize = 0;
+    for (int i = 0; i < size; ++i) {
+      final int readId = mReadIds[i];
+      if (mSize > 0 && mReadIds[mSize - 1] == readId) {
+        continue;
+      }
+      mReadIds[mSize] = readId;
+      mFirst[mSize] = ReadHelper.getRead(first, readId);
+      mSecond[mSize] = second == null ? null : ReadHelper.getRead(second, readId);
+      ++mSize;
+    }
+    Arrays.fill(mFirst, mSize, mFirst.length, null);
+    Arrays.fill(mSecond, mSize, mSecond.length, null);
+  }
+
+  /**
+   * Get a read from the batch.
+   * @param first true for the first arm
+   * @param readId read identifier
+   * @return the read, or null if it is not in the batch. The result must not be modified.
+   */
+  byte[] get(final boolean first, final int readId) {
+    final int i = Arrays.binarySearch(mReadIds, 0, mSize, readId);
+    if (i < 0) {
+      return null;
+    }
+    return first ? mFirst[i] : mSecond[i];
+  }
+
+  /** @return number of distinct reads in the batch */
+  int size() {
+    return mSize;
+  }
+}
@@ -19,12 +19,17 @@ import java.nio.channels.Channels;
 import java.nio.channels.WritableByteChannel;
 
 import com.reeltwo.jumble.annotations.TestClass;
+import com.rtg.util.metrics.Counter;
+import com.rtg.util.metrics.MetricsRegistry;
 
 /**
  */
 @TestClass("com.rtg.ngs.tempstage.TempRecordNioTest")
 public class TempRecordWriterNio implements TempRecordWriter {
 
+  private static final Counter RECORDS = MetricsRegistry.global().counter("map.temp_records");
+  private static final Counter BYTES = MetricsRegistry.global().counter("map.temp_bytes");
+
   private final WritableByteChannel mOutChannel;
   private final ByteBuffer mBuffer;
 
@@ -42,6 +47,8 @@ public class TempRecordWriterNio implements TempRecordWriter {
     mBuffer.clear();
     rec.writeNio(mBuffer);
     mBuffer.flip();
+    RECORDS.increment();
+    BYTES.add(mBuffer.remaining());
     mOutChannel.write(mBuffer);
   }
 
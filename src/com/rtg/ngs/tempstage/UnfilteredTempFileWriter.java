@@ -26,7 +26,6 @@ import com.rtg.ngs.SharedResources;
 import com.rtg.ngs.blocking.ReadBlocker;
 import com.rtg.pairedend.ReadStatusListener;
 import com.rtg.pairedend.UnfilteredHitInfo;
-import com.rtg.reader.ReadHelper;
 import com.rtg.util.IntegerOrPercentage;
 
 
@@ -97,7 +96,7 @@ public class UnfilteredTempFileWriter extends AbstractTempFileWriter {
     }
 
     //mMatedNonCachedAlignment++;
-    final byte[] readHit = ReadHelper.getRead(hit.first() ? mFirstReader : mSecondReader, hit.readId());
+    final byte[] readHit = getRead(hit.first(), hit.readId());
     bufferActionsHit(calculateEditDistance(readHit, readHit.length, hit.templateStart(), hit.reverseComplement(), mUnmatedMaxMismatches, hit.first(), hit.readId()));
     mListener.addStatus(hit.readId(), hit.first() ? ReadStatusTracker.UNMATED_COMPUTE_ALIGNMENT_FIRST : ReadStatusTracker.UNMATED_COMPUTE_ALIGNMENT_SECOND);
 
@@ -137,7 +136,7 @@ public class UnfilteredTempFileWriter extends AbstractTempFileWriter {
       scoreHit = hit.score();
     } else {
       //mMatedNonCachedAlignment++;
-      readHit = ReadHelper.getRead(hit.first() ? mFirstReader : mSecondReader, hit.readId());
+      readHit = getRead(hit.first(), hit.readId());
       bufferActionsHit(calculateEditDistance(readHit, readHit.length, hit.templateStart(), hit.reverseComplement(), maxMaxMismatches, hit.first(), hit.readId()));
       mListener.addStatus(hit.readId(), hit.first() ? ReadStatusTracker.UNMATED_COMPUTE_ALIGNMENT_FIRST : ReadStatusTracker.UNMATED_COMPUTE_ALIGNMENT_SECOND);
 
@@ -162,7 +161,7 @@ public class UnfilteredTempFileWriter extends AbstractTempFileWriter {
         scoreMate = mate.score();
       } else {
         //mMatedNonCachedAlignment++;
-        readMate = ReadHelper.getRead(mate.first() ? mFirstReader : mSecondReader, hit.readId());
+        readMate = getRead(mate.first(), hit.readId());
         bufferActionsMate(calculateEditDistance(readMate, readMate.length, mate.templateStart(), mate.reverseComplement(), maxMaxMismatches, mate.first(), mate.readId()));
         mListener.addStatus(hit.readId(), mate.first() ? ReadStatusTracker.UNMATED_COMPUTE_ALIGNMENT_FIRST : ReadStatusTracker.UNMATED_COMPUTE_ALIGNMENT_SECOND);
 
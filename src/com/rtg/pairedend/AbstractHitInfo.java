@@ -27,10 +27,6 @@ public abstract class AbstractHitInfo<T extends AbstractHitInfo<T>> {
   int mAlignmentScore; // For caching alignment score
   AlignmentResult mAlignment; // For additionally caching a full alignment that was "good enough" to result in a pair being output
 
-  // we keep a linked list of hits, sorted by increasing mTemplateStart.
-  private T mNext;
-  private T mPrev;
-
   /**
    * @param first true if hit is from &quot;left&quot; read arm. That is, first in sequencing
    * @param reverseComplement true if read hit on reverse frame
@@ -44,8 +40,6 @@ public abstract class AbstractHitInfo<T extends AbstractHitInfo<T>> {
     mTemplateStart = templateStart;
     mAlignmentScore = -1;
     mAlignment = null;
-    mNext = null;
-    mPrev = null;
   }
 
   /**
@@ -58,45 +52,6 @@ public abstract class AbstractHitInfo<T extends AbstractHitInfo<T>> {
     mAlignment = alignment;
   }
 
-  /**
-   * Insert <code>nextHit</code> after this one.
-   *
-   * @param nextHit must be non-null and have template start less than or equal to this one.
-   */
-  void insertHit(T nextHit) {
-    link(nextHit);
-    mNext = nextHit;
-  }
-
-  @SuppressWarnings("unchecked")
-  private T thisT() {
-    return (T) this;
-  }
-
-  /**
-   * By separating this part out it prevents the necessity of an unchecked cast
-   * to <code>T</code> when assigning to <code>mNext</code> while still allowing
-   * <code>mNext</code> to be private.
-   */
-  private void link(AbstractHitInfo<T> nextHit) {
-    assert nextHit.mNext == null;
-    assert nextHit.mPrev == null;
-    assert nextHit.mTemplateStart >= mTemplateStart;
-    nextHit.mNext = mNext;
-    if (mNext != null) {
-      mNext.setPrev(nextHit.thisT());
-    }
-    nextHit.mPrev = thisT();
-  }
-
-  void setNext(T nextHit) {
-    mNext = nextHit;
-  }
-
-  void setPrev(T prev) {
-    mPrev = prev;
-  }
-
   /**
    * @return the alignment result associated with this hit
    */
@@ -139,14 +94,6 @@ public abstract class AbstractHitInfo<T extends AbstractHitInfo<T>> {
     return mTemplateStart;
   }
 
-  T next() {
-    return mNext;
-  }
-
-  T prev() {
-    return mPrev;
-  }
-
   boolean isPair(AbstractHitInfo<T> other) {
     return other != null && mReadId == other.mReadId && mFirst != other.mFirst;
   }
@@ -12,7 +12,6 @@
 package com.rtg.pairedend;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Properties;
@@ -60,20 +59,56 @@ public abstract class AbstractSlidingWindowCollector<T extends AbstractHitInfo<T
   protected SequencesReader mLeftReader;
   protected SequencesReader mRightReader;
 
+  static final int NONE = -1;
+  private static final long EMPTY = -1;
+  private static final int FIRST = 1;
+  private static final int REVERSE = 2;
+  private static final int INITIAL_HITS = 1024;
+  private static final int INITIAL_SLOT_HITS = 4;
+
+  /*
+   * Hits are held in parallel primitive columns indexed by a hit handle. Handles of
+   * released hits are kept on a free list threaded through <code>mHitNext</code>.
+   * <code>mHitInfo</code> holds a reusable hit object per handle, for passing to the writer.
+   */
+  private int[] mHitReadId = new int[INITIAL_HITS];
+  private int[] mHitStart = new int[INITIAL_HITS];
+  private byte[] mHitFlags = new byte[INITIAL_HITS];
+  private int[] mHitNext = new int[INITIAL_HITS];
+  private int[] mHitPrev = new int[INITIAL_HITS];
+  private T[] mHitInfo;
+  private int mHitsAllocated = 0;
+  private int mFreeHit = NONE;
+
   /**
-   * A hash table of opposite-end HitInfo objects.
-   * Each entry is a linked list, sorted by increasing template start order.
+   * An open addressing hash table keyed on read id and arm, using linear probing.
+   * Each entry holds the first and last handles of a linked list of the hits for
+   * that read arm, sorted by increasing template start order.
    */
-  private final AbstractHitInfo<T>[] mReadsLookup;
-  private final AbstractHitInfo<T>[] mReadsLookupReverse;
-  final int mReadsLookupMask;
+  private long[] mReadsLookupKey;
+  private int[] mReadsLookup;
+  private int[] mReadsLookupReverse;
+  private int mReadsLookupSize = 0;
+  int mReadsLookupMask;
 
   static final int DONT_KNOW_YET = Integer.MIN_VALUE;
   int mCurrentReferencePosition = DONT_KNOW_YET;
 
-  final ArrayList<T>[] mReadsWindow; // the sliding window, contains unmated hits
+  final int[][] mReadsWindow; // the sliding window, handles of unmated hits
   final int[] mReadsWindowInUse;
 
+  /*
+   * Candidate matings for the window position being flushed. The mates for hit i of the
+   * position are <code>mBatchMates[mBatchEnd[i - 1] .. mBatchEnd[i])</code>, and
+   * <code>mBatchOverloaded[i]</code> is set when there are more than the overload limit.
+   * <code>mBatchReadIds</code> holds the reads of just those hits that have candidates.
+   */
+  private int[] mBatchMates = new int[INITIAL_HITS];
+  private int[] mBatchEnd = new int[INITIAL_SLOT_HITS];
+  private int[] mBatchReadIds = new int[INITIAL_SLOT_HITS];
+  private boolean[] mBatchSkipped = new boolean[INITIAL_SLOT_HITS];
+  private boolean[] mBatchOverloaded = new boolean[INITIAL_SLOT_HITS];
+
   final int[] mRightPairCounts = new int[5000];
   int mLeftOverloadCount = 0;
   int mRightOverloadCount = 0;
@@ -124,22 +159,22 @@ public abstract class AbstractSlidingWindowCollector<T extends AbstractHitInfo<T
     }
     Diagnostic.developerLog("Setting max read hits to: " + mReadOverloadLimit);
 
-    @SuppressWarnings("unchecked")
-    final ArrayList<T>[] readsWindow = (ArrayList<T>[]) new ArrayList<?>[mWindowSize];
-    mReadsWindow = readsWindow;
+    mReadsWindow = new int[mWindowSize][INITIAL_SLOT_HITS];
     mReadsWindowInUse = new int[mWindowSize];
-    for (int i = 0; i < mWindowSize; ++i) {
-      mReadsWindow[i] = new ArrayList<>();
-    }
 
-    final int hashTableSize = nextPowerOfTwo(mWindowSize * HASHTABLE_FACTOR);
-    mReadsLookupMask = hashTableSize - 1;
-    @SuppressWarnings("unchecked")
-    final AbstractHitInfo<T>[] readsLookup = (AbstractHitInfo<T>[]) new AbstractHitInfo<?>[hashTableSize];
-    mReadsLookup = readsLookup;
     @SuppressWarnings("unchecked")
-    final AbstractHitInfo<T>[] readsLookupReverse = (AbstractHitInfo<T>[]) new AbstractHitInfo<?>[hashTableSize];
-    mReadsLookupReverse = readsLookupReverse;
+    final T[] hitInfo = (T[]) new AbstractHitInfo<?>[INITIAL_HITS];
+    mHitInfo = hitInfo;
+    allocateLookup(nextPowerOfTwo(mWindowSize * HASHTABLE_FACTOR));
+  }
+
+  private void allocateLookup(int hashTableSize) {
+    mReadsLookupMask = hashTableSize - 1;
+    mReadsLookupKey = new long[hashTableSize];
+    Arrays.fill(mReadsLookupKey, EMPTY);
+    mReadsLookup = new int[hashTableSize];
+    mReadsLookupReverse = new int[hashTableSize];
+    mReadsLookupSize = 0;
   }
 
   static int calculateExtraMaxHitsPerPosition(double genomeLength, double numReads) {
@@ -159,10 +194,6 @@ public abstract class AbstractSlidingWindowCollector<T extends AbstractHitInfo<T
   }
 
 
-  void setReadLookup(int i, T hit) {
-    mReadsLookup[i] = hit;
-  }
-
   protected static int nextPowerOfTwo(int x0) {
     int x = x0;
     x |= x >> 1;
@@ -173,17 +204,121 @@ public abstract class AbstractSlidingWindowCollector<T extends AbstractHitInfo<T
     return x + 1;
   }
 
-  // Calculate an index into <code>mReadsLookup</code> hash table.
+  // Calculate the home index into <code>mReadsLookup</code> hash table.
   int readHash(long readId, boolean first) {
     return ((int) readId & mReadsLookupMask) ^ (first ? 1 : 0);
   }
 
-  private T getHitInfo(int i) {
-    final T ret;
+  private static long lookupKey(int readId, boolean first) {
+    return ((long) readId << 1) | (first ? 1 : 0);
+  }
+
+  // Index of the entry for the given read arm in the lookup, or NONE
+  private int findLookup(int readId, boolean first) {
+    final long key = lookupKey(readId, first);
+    int i = readHash(readId, first);
+    long k;
+    while ((k = mReadsLookupKey[i]) != EMPTY) {
+      if (k == key) {
+        return i;
+      }
+      i = (i + 1) & mReadsLookupMask;
+    }
+    return NONE;
+  }
+
+  private void addLookup(int readId, boolean first, int head, int tail) {
+    if (2 * (mReadsLookupSize + 1) > mReadsLookup.length) {
+      final long[] keys = mReadsLookupKey;
+      final int[] heads = mReadsLookup;
+      final int[] tails = mReadsLookupReverse;
+      allocateLookup(2 * keys.length);
+      for (int i = 0; i < keys.length; ++i) {
+        if (keys[i] != EMPTY) {
+          addLookup((int) (keys[i] >>> 1), (keys[i] & 1) != 0, heads[i], tails[i]);
+        }
+      }
+    }
+    int i = readHash(readId, first);
+    while (mReadsLookupKey[i] != EMPTY) {
+      i = (i + 1) & mReadsLookupMask;
+    }
+    mReadsLookupKey[i] = lookupKey(readId, first);
+    mReadsLookup[i] = head;
+    mReadsLookupReverse[i] = tail;
+    ++mReadsLookupSize;
+  }
+
+  // Remove an entry from the lookup, shifting back later entries in the same probe sequence
+  private void removeLookup(int index) {
+    int hole = index;
+    int i = index;
+    while (true) {
+      i = (i + 1) & mReadsLookupMask;
+      final long key = mReadsLookupKey[i];
+      if (key == EMPTY) {
+        break;
+      }
+      final int home = readHash(key >>> 1, (key & 1) != 0);
+      final boolean homeInRange = hole <= i ? home > hole && home <= i : home > hole || home <= i;
+      if (!homeInRange) {
+        mReadsLookupKey[hole] = key;
+        mReadsLookup[hole] = mReadsLookup[i];
+        mReadsLookupReverse[hole] = mReadsLookupReverse[i];
+        hole = i;
+      }
+    }
+    mReadsLookupKey[hole] = EMPTY;
+    --mReadsLookupSize;
+  }
+
+  private int allocateHit() {
+    final int h;
+    if (mFreeHit != NONE) {
+      h = mFreeHit;
+      mFreeHit = mHitNext[h];
+    } else {
+      if (mHitsAllocated == mHitReadId.length) {
+        final int size = 2 * mHitsAllocated;
+        mHitReadId = Arrays.copyOf(mHitReadId, size);
+        mHitStart = Arrays.copyOf(mHitStart, size);
+        mHitFlags = Arrays.copyOf(mHitFlags, size);
+        mHitNext = Arrays.copyOf(mHitNext, size);
+        mHitPrev = Arrays.copyOf(mHitPrev, size);
+        mHitInfo = Arrays.copyOf(mHitInfo, size);
+      }
+      h = mHitsAllocated++;
+      if (mHitInfo[h] == null) {
+        mHitInfo[h] = createHitInfo();
+      }
+    }
+    return h;
+  }
+
+  private void freeHit(int h) {
+    mHitNext[h] = mFreeHit;
+    mFreeHit = h;
+  }
+
+  private void freeHits(int[] hits, int size) {
+    for (int i = 0; i < size; ++i) {
+      freeHit(hits[i]);
+    }
+  }
+
+  String windowStart(int i) {
+    return mReadsWindowInUse[i] > 0 ? "" + mHitStart[mReadsWindow[i][0]] : "unknown";
+  }
+
+  T hitInfo(int hit) {
+    return mHitInfo[hit];
+  }
+
+  private int getHitInfo(int i) {
     if (mReadsWindowInUse[i] == getMaxHitsPerPosition()) {
       ++mMaxHitsExceededCount;
       if (mMaxHitsExceededCount < 5) {
-        Diagnostic.developerLog("Max hits per position exceeded at template: " + mReferenceId + " templateStart: " + (mReadsWindow[i].size() > 0 ? "" + mReadsWindow[i].get(0).mTemplateStart : "unknown"));
+        Diagnostic.developerLog("Max hits per position exceeded at template: " + mReferenceId + " templateStart: " + windowStart(i));
       }
       if (mMaxHitsExceededCount == 5) {
         Diagnostic.developerLog("Truncated reporting of max hits per position");
@@ -192,21 +327,30 @@ public abstract class AbstractSlidingWindowCollector<T extends AbstractHitInfo<T
       mReadsWindowInUse[i] = -1; // Blacklist the position until it slides off
     }
     if (mReadsWindowInUse[i] == -1) {
-      ret = null;
-    } else {
-      if (mReadsWindowInUse[i] < mReadsWindow[i].size()) {
-        ret = mReadsWindow[i].get(mReadsWindowInUse[i]);
-      } else {
-        ret = createHitInfo();
-        mReadsWindow[i].add(ret);
-      }
-      mReadsWindowInUse[i]++;
+      return NONE;
     }
-    return ret;
+    if (mReadsWindowInUse[i] == mReadsWindow[i].length) {
+      mReadsWindow[i] = Arrays.copyOf(mReadsWindow[i], 2 * mReadsWindow[i].length);
+    }
+    final int hit = allocateHit();
+    mReadsWindow[i][mReadsWindowInUse[i]++] = hit;
+    return hit;
   }
 
   private void returnHitInfo(int i) {
-    mReadsWindowInUse[i]--;
+    freeHit(mReadsWindow[i][--mReadsWindowInUse[i]]);
+  }
+
+  // Link <code>hit</code> into a hit list after <code>previous</code>
+  private void insertAfter(int previous, int hit) {
+    assert mHitStart[hit] >= mHitStart[previous];
+    final int next = mHitNext[previous];
+    mHitNext[hit] = next;
+    if (next != NONE) {
+      mHitPrev[next] = hit;
+    }
+    mHitPrev[hit] = previous;
+    mHitNext[previous] = hit;
   }
 
 
@@ -250,54 +394,62 @@ public abstract class AbstractSlidingWindowCollector<T extends AbstractHitInfo<T
       flushToPosition(templateStart);
       // buffer indexes updated in flushToPosition
     }
+    addHit(first, reverseComplement, readId, templateStart);
+  }
 
-    // add hit to current position in window
+  /**
+   * Add a hit to the current position in the window and to the lookup.
+   * @param first true if this match report is for the read end that was first in sequencing
+   * @param reverseComplement true if the match is on the reverse complement of the template
+   * @param readId the 0-based read identifier
+   * @param templateStart the 0-base template start position on the forward strand
+   * @return the hit, or null if it was discarded
+   */
+  T addHit(final boolean first, final boolean reverseComplement, int readId, final int templateStart) {
     final int windPos = windowPosition(templateStart);
-    final T hit = getHitInfo(windPos);
-    if (hit != null) {
-      hit.setValues(first, reverseComplement, readId, templateStart);
+    final int hit = getHitInfo(windPos);
+    T ret = null;
+    if (hit != NONE) {
+      mHitReadId[hit] = readId;
+      mHitStart[hit] = templateStart;
+      mHitFlags[hit] = (byte) ((first ? FIRST : 0) | (reverseComplement ? REVERSE : 0));
+      mHitNext[hit] = NONE;
+      mHitPrev[hit] = NONE;
+      ret = mHitInfo[hit];
+      ret.setValues(first, reverseComplement, readId, templateStart);
 
       // add hit to lookup map
-      final int hash = readHash(readId, first);
-
-      @SuppressWarnings("unchecked")
-      T list = (T) mReadsLookupReverse[hash];
-      if (list == null) {
-        mReadsLookup[hash] = hit;
-        mReadsLookupReverse[hash] = hit;
-      } else if (templateStart > list.templateStart()) {
-        list.insertHit(hit);
-        mReadsLookupReverse[hash] = hit;
+      final int index = findLookup(readId, first);
+      if (index == NONE) {
+        addLookup(readId, first, hit, hit);
       } else {
-        boolean same;
-        while (!(same = same(list, hit)) && list.prev() != null && list.prev().templateStart() >= templateStart) {
-          list = list.prev();
-        }
-        if (same) {
-          returnHitInfo(windPos); // Return it to the pool
-          ++mDuplicateCount;
+        int list = mReadsLookupReverse[index];
+        if (templateStart > mHitStart[list]) {
+          insertAfter(list, hit);
+          mReadsLookupReverse[index] = hit;
         } else {
-          if (list.prev() != null) {
-            list.prev().insertHit(hit);
-            if (hit.next() == null) {
-              mReadsLookupReverse[hash] = hit;
-            }
+          boolean same;
+          while (!(same = mHitStart[list] == templateStart && mHitFlags[list] == mHitFlags[hit]) && mHitPrev[list] != NONE && mHitStart[mHitPrev[list]] >= templateStart) {
+            list = mHitPrev[list];
+          }
+          if (same) {
+            returnHitInfo(windPos); // Return it to the pool
+            ret = null;
+            ++mDuplicateCount;
           } else {
-            hit.setNext(list);
-            list.setPrev(hit);
-            mReadsLookup[hash] = hit;
+            if (mHitPrev[list] != NONE) {
+              insertAfter(mHitPrev[list], hit);
+            } else {
+              mHitNext[hit] = list;
+              mHitPrev[list] = hit;
+              mReadsLookup[index] = hit;
+            }
           }
         }
       }
     }
     ++mHitCount;
-  }
-
-  private boolean same(T first, T second) {
-    return first.mTemplateStart == second.mTemplateStart
-        && first.mReadId == second.mReadId
-        && first.mReverseComplement == second.mReverseComplement
-        && first.mFirst == second.mFirst;
+    return ret;
   }
 
   /**
@@ -324,74 +476,61 @@ public abstract class AbstractSlidingWindowCollector<T extends AbstractHitInfo<T
     writerNextTemplateId(templateId);
 
     //assert mReadsLookup.size() == 0;
-    Arrays.fill(mReadsLookup, null);
-    Arrays.fill(mReadsLookupReverse, null);
+    Arrays.fill(mReadsLookupKey, EMPTY);
+    mReadsLookupSize = 0;
+    // every hit has been flushed, so all handles are free
+    mHitsAllocated = 0;
+    mFreeHit = NONE;
+    for (int i = 0; i < mWindowSize; ++i) {
+      mReadsWindowInUse[i] = 0;
+    }
   }
 
-  void findNewMates(final ArrayList<T> hits, int size) throws IOException {
-
-    nextHit:
+  /**
+   * Offer each hit at a window position to the writer along with each of its candidate mates.
+   * The candidates for all the hits are gathered first, so the writer can fetch the reads
+   * of the hits that have candidates together, then checked in the same order as they were found.
+   * @param hits handles of the hits at the window position
+   * @param size number of hits
+   * @throws IOException if an I/O error occurs
+   */
+  void findNewMates(final int[] hits, int size) throws IOException {
+    if (mBatchEnd.length < size) {
+      final int length = Math.max(size, 2 * mBatchEnd.length);
+      mBatchEnd = new int[length];
+      mBatchReadIds = new int[length];
+      mBatchSkipped = new boolean[length];
+      mBatchOverloaded = new boolean[length];
+    }
+    int batchSize = 0;
+    int prefetchSize = 0;
     for (int i = 0; i < size; ++i) {
-      final T hit = hits.get(i);
-      //      boolean mated = hit.getLeftReads() != null;
-
-      // find right mate
-      // if there is a right mate
-      // send pair result to writer
-      // link right to left
-      final long readId = hit.readId();
-      @SuppressWarnings("unchecked")
-      T thisSide = (T) mReadsLookup[readHash(readId, hit.first())];
-      int thisSideCount = 0;
-      while (thisSide != null) {
-        if (thisSide.readId() == hit.readId() && thisSide.first() == hit.first()) {
-          ++thisSideCount;
-        }
-        if (thisSideCount > mReadOverloadLimit) {
-          ++mLeftOverloadCount;
-          continue nextHit;
-        }
-        thisSide = thisSide.next();
+      final int start = batchSize;
+      batchSize = gatherMates(i, hits[i], batchSize);
+      mBatchEnd[i] = batchSize;
+      if (!mBatchSkipped[i] && batchSize > start) {
+        mBatchReadIds[prefetchSize++] = mHitReadId[hits[i]];
       }
+    }
+    if (prefetchSize > 0) {
+      prefetchReads(mBatchReadIds, prefetchSize);
+    }
 
-      final int hash = readHash(readId, !hit.first());
+    for (int i = 0; i < size; ++i) {
+      if (mBatchSkipped[i]) {
+        continue;
+      }
+      final T hit = mHitInfo[hits[i]];
+      final int start = i == 0 ? 0 : mBatchEnd[i - 1];
       int pairCount = 0;
-      @SuppressWarnings("unchecked")
-      T mate = (T) mReadsLookup[hash];
-      while (mate != null) {
-
-        if (mate.readId() == readId         // the list may contain other read ids too, ignore them
-            && mate.first() != hit.first()  // process only the real mates
-            && orientationCorrect(hit, mate)) {
-
-          final int mateReadLength;
-          final int hitReadLength;
-          //Unfortunately these read lengths are approximations of the alignment length, so the thresholding isn't based on the ultimate template length :(
-          if (mLeftReader.getPrereadType() == PrereadType.CG) {
-            // we adjust because the most common CG alignment size along the template depends on gap/overlap structure
-            final int expectedCgReadLength = mLeftReader.maxLength() == CgUtils.CG_RAW_READ_LENGTH ? CgUtils.CG_EXPECTED_LENGTH : CgUtils.CG2_EXPECTED_LENGTH;
-            mateReadLength = expectedCgReadLength;
-            hitReadLength = expectedCgReadLength;
-          } else {
-            mateReadLength = mate.first() ? mLeftReader.length(readId) : mRightReader.length(readId);
-            hitReadLength = hit.first() ? mLeftReader.length(readId) : mRightReader.length(readId);
-          }
-          final int fragmentLength = InsertHelper.calculateFragmentLength(mate.templateStart(), mateReadLength, hit.templateStart(), hitReadLength);
-          assert mMaxFragmentLength == mWindowSize - (mWindowSize - mMaxFragmentLength);
-          if (fragmentLength >= mMinFragmentLength && fragmentLength <= mMaxFragmentLength) {  // only process if length is within specified fragment bounds
-            assert hit.isPair(mate);
-            ++pairCount;
-            if (pairCount <= mReadOverloadLimit) {
-              if (!checkPair(hit, mate)) {
-                break;
-              }
-            } else {
-              ++mRightOverloadCount;
-              break;
-            }
-          }
-        }
-        mate = mate.next();
+      boolean rejected = false;
+      for (int j = start; j < mBatchEnd[i] && !rejected; ++j) {
+        ++pairCount;
+        rejected = !checkPair(hit, mHitInfo[mBatchMates[j]]);
+      }
+      if (mBatchOverloaded[i] && !rejected) {
+        ++pairCount;
+        ++mRightOverloadCount;
       }
       if (pairCount < mRightPairCounts.length) {
         mRightPairCounts[pairCount]++;
@@ -401,6 +540,66 @@ public abstract class AbstractSlidingWindowCollector<T extends AbstractHitInfo<T
     }
   }
 
+  // Append the candidate mates of one hit to the batch, returning the new batch size
+  private int gatherMates(final int i, final int hit, int batchSize) throws IOException {
+    final int readId = mHitReadId[hit];
+    final boolean first = (mHitFlags[hit] & FIRST) != 0;
+    mBatchSkipped[i] = false;
+    mBatchOverloaded[i] = false;
+
+    // the lookup lists only contain hits for the one read arm
+    final int thisIndex = findLookup(readId, first);
+    int thisSide = thisIndex == NONE ? NONE : mReadsLookup[thisIndex];
+    int thisSideCount = 0;
+    while (thisSide != NONE) {
+      ++thisSideCount;
+      if (thisSideCount > mReadOverloadLimit) {
+        ++mLeftOverloadCount;
+        mBatchSkipped[i] = true;
+        return batchSize;
+      }
+      thisSide = mHitNext[thisSide];
+    }
+
+    final int mateIndex = findLookup(readId, !first);
+    int pairCount = 0;
+    int mate = mateIndex == NONE ? NONE : mReadsLookup[mateIndex];
+    while (mate != NONE) {
+
+      if (orientationCorrect(hit, mate)) {
+
+        final int mateReadLength;
+        final int hitReadLength;
+        //Unfortunately these read lengths are approximations of the alignment length, so the thresholding isn't based on the ultimate template length :(
+        if (mLeftReader.getPrereadType() == PrereadType.CG) {
+          // we adjust because the most common CG alignment size along the template depends on gap/overlap structure
+          final int expectedCgReadLength = mLeftReader.maxLength() == CgUtils.CG_RAW_READ_LENGTH ? CgUtils.CG_EXPECTED_LENGTH : CgUtils.CG2_EXPECTED_LENGTH;
+          mateReadLength = expectedCgReadLength;
+          hitReadLength = expectedCgReadLength;
+        } else {
+          mateReadLength = !first ? mLeftReader.length(readId) : mRightReader.length(readId);
+          hitReadLength = first ? mLeftReader.length(readId) : mRightReader.length(readId);
+        }
+        final int fragmentLength = InsertHelper.calculateFragmentLength(mHitStart[mate], mateReadLength, mHitStart[hit], hitReadLength);
+        assert mMaxFragmentLength == mWindowSize - (mWindowSize - mMaxFragmentLength);
+        if (fragmentLength >= mMinFragmentLength && fragmentLength <= mMaxFragmentLength) {  // only process if length is within specified fragment bounds
+          assert mHitInfo[hit].isPair(mHitInfo[mate]);
+          ++pairCount;
+          if (pairCount > mReadOverloadLimit) {
+            mBatchOverloaded[i] = true;
+            break;
+          }
+          if (batchSize == mBatchMates.length) {
+            mBatchMates = Arrays.copyOf(mBatchMates, 2 * batchSize);
+          }
+          mBatchMates[batchSize++] = mate;
+        }
+      }
+      mate = mHitNext[mate];
+    }
+    return batchSize;
+  }
+
   /**
    * @param hit the hit.
    * @param mate its mate.
@@ -408,11 +607,13 @@ public abstract class AbstractSlidingWindowCollector<T extends AbstractHitInfo<T
    *
    */
   //TODO get correct for other machine types
-  private boolean orientationCorrect(final T hit, final T mate) {
-    if (hit.mFirst) {
-      return mMachineOrientation.orientationOkay(hit.mTemplateStart, hit.mReverseComplement, mate.mTemplateStart, mate.mReverseComplement);
+  private boolean orientationCorrect(final int hit, final int mate) {
+    final boolean hitReverse = (mHitFlags[hit] & REVERSE) != 0;
+    final boolean mateReverse = (mHitFlags[mate] & REVERSE) != 0;
+    if ((mHitFlags[hit] & FIRST) != 0) {
+      return mMachineOrientation.orientationOkay(mHitStart[hit], hitReverse, mHitStart[mate], mateReverse);
     } else {
-      return mMachineOrientation.orientationOkay(mate.mTemplateStart, mate.mReverseComplement, hit.mTemplateStart, hit.mReverseComplement);
+      return mMachineOrientation.orientationOkay(mHitStart[mate], mateReverse, mHitStart[hit], hitReverse);
     }
   }
 
@@ -427,38 +628,34 @@ public abstract class AbstractSlidingWindowCollector<T extends AbstractHitInfo<T
    * Clear all the hits at a position in the window that is about to slide out.
    * Clears the slot in the window along with any other hits
    * in the hash table that have a position that will also be cleared.
-   * @param hits the hit list
+   * @param windowIndex the position in the window
    * @param size the number of currently used elements
    */
-  void clearHits(final ArrayList<T> hits, int size) {
-    final int count = hits.size();
+  void clearHits(final int windowIndex, int size) {
+    final int[] hits = mReadsWindow[windowIndex];
     for (int i = 0; i < size; ++i) {
-      final T hit = hits.get(i);
-      final long readId = hit.readId();
-      final int hash = readHash(readId, hit.first());
-      @SuppressWarnings("unchecked")
-      T head = (T) mReadsLookup[hash];
-      final int templateStart = hit.templateStart();
-      while (head != null && head.templateStart() <= templateStart) {
-        head = head.next();
+      final int hit = hits[i];
+      final int index = findLookup(mHitReadId[hit], (mHitFlags[hit] & FIRST) != 0);
+      if (index == NONE) {
+        continue; // already cleared by an earlier hit for the same read arm
       }
-      mReadsLookup[hash] = head;
-      if (head != null) {
-        head.setPrev(null);
-        if (head.next() == null) {
-          mReadsLookupReverse[hash] = head;
-        }
+      int head = mReadsLookup[index];
+      final int templateStart = mHitStart[hit];
+      while (head != NONE && mHitStart[head] <= templateStart) {
+        head = mHitNext[head];
+      }
+      if (head != NONE) {
+        mHitPrev[head] = NONE;
+        mReadsLookup[index] = head;
       } else {
-        mReadsLookupReverse[hash] = null;
+        removeLookup(index);
       }
     }
+    freeHits(hits, size);
 
-    // Chop down memory used by the list
-    if (count > ARRAY_SIZE_TRIM_LIMIT) {
-      // Ideally I want cut the list to ARRAY_SIZE_TRIM_LIMIT size, but Java
-      // doesn't provide a nice way to do so.  Instead we end up with a
-      // capacity of 0 and another array allocation when an add is attempted
-      hits.trimToSize();
+    // Chop down memory used by the slot
+    if (hits.length > ARRAY_SIZE_TRIM_LIMIT) {
+      mReadsWindow[windowIndex] = new int[INITIAL_SLOT_HITS];
     }
   }
 
@@ -466,50 +663,40 @@ public abstract class AbstractSlidingWindowCollector<T extends AbstractHitInfo<T
    * Clear all the hits at an active position within the window. Clears the slot
    * in the window, along with their entries in the hash table (and no others).
    */
-  private void removeHits(final ArrayList<T> hits, int size) {
-    final int count = hits.size();
+  private void removeHits(final int[] hits, int size) {
     for (int i = 0; i < size; ++i) {
-      final T hit = hits.get(i);
-      final long readId = hit.readId();
-      final int hash = readHash(readId, hit.first());
-      @SuppressWarnings("unchecked")
-      T head = (T) mReadsLookup[hash];
-      T previous = null;
-      final int templateStart = hit.templateStart();
-      while (head != null && head.templateStart() < templateStart) {
+      final int hit = hits[i];
+      final int index = findLookup(mHitReadId[hit], (mHitFlags[hit] & FIRST) != 0);
+      if (index == NONE) {
+        continue; // already removed by an earlier hit for the same read arm
+      }
+      int head = mReadsLookup[index];
+      int previous = NONE;
+      final int templateStart = mHitStart[hit];
+      while (head != NONE && mHitStart[head] < templateStart) {
         previous = head;
-        head = head.next();
+        head = mHitNext[head];
       }
-      while (head != null && head.templateStart() == templateStart) {
-        head = head.next();
+      while (head != NONE && mHitStart[head] == templateStart) {
+        head = mHitNext[head];
       }
-      if (previous == null) {
-        mReadsLookup[hash] = head;
-        if (head != null) {
-          head.setPrev(null);
+      if (previous == NONE) {
+        if (head != NONE) {
+          mHitPrev[head] = NONE;
+          mReadsLookup[index] = head;
         } else {
-          mReadsLookupReverse[hash] = null;
+          removeLookup(index);
         }
       } else {
-        previous.setNext(head);
-        if (head != null) {
-          head.setPrev(previous);
+        mHitNext[previous] = head;
+        if (head != NONE) {
+          mHitPrev[head] = previous;
         } else {
-          mReadsLookupReverse[hash] = previous;
+          mReadsLookupReverse[index] = previous;
         }
       }
     }
-    //    System.err.println(hits.size() + " " + mReadsLookup.size());
-    //hits.clear();
-
-
-    // Chop down memory used by the list
-    if (count > ARRAY_SIZE_TRIM_LIMIT) {
-      // Ideally I want cut the list to ARRAY_SIZE_TRIM_LIMIT size, but Java
-      // doesn't provide a nice way to do so.  Instead we end up with a
-      // capacity of 0 and another array allocation when an add is attempted
-      hits.trimToSize();
-    }
+    freeHits(hits, size);
   }
 
   /**
@@ -556,49 +743,55 @@ public abstract class AbstractSlidingWindowCollector<T extends AbstractHitInfo<T
    */
   public boolean integrity() {
     assert mReadsLookupMask == mReadsLookup.length - 1;
-    // check contents of arrays/hashmaps are consistent
+    // check contents of window and lookup are consistent
     for (int i = 0; i < mReadsWindow.length; ++i) {
-      final ArrayList<T> hits = mReadsWindow[i];
+      final int[] hits = mReadsWindow[i];
       assert hits != null;
       for (int j = 0; j < mReadsWindowInUse[i]; ++j) {
-        final T hit = hits.get(j);
-        assert hit != null;
-        final int hash = readHash(hit.readId(), hit.first());
-        @SuppressWarnings("unchecked")
-        T others = (T) mReadsLookup[hash]; //.get(hit.readId() | (hit.first() ? (1L << 62) : 0L));
-
-        assert others != null;
+        final int hit = hits[j];
+        assert hit >= 0 && hit < mHitsAllocated;
+        final int index = findLookup(mHitReadId[hit], (mHitFlags[hit] & FIRST) != 0);
+        assert index != NONE;
+        int others = mReadsLookup[index];
         boolean seen = false;
-        while (others != null) {
+        while (others != NONE) {
           if (others == hit) {
             seen = true;
           }
-          others = others.next();
+          others = mHitNext[others];
         }
         assert seen;
       }
     }
 
-    for (final AbstractHitInfo<T> hit0 : mReadsLookup) {
-      @SuppressWarnings("unchecked")
-      T hit = (T) hit0;
-      T prevHit = null;
-      while (hit != null) {
-        final ArrayList<T> others = mReadsWindow[windowPosition(hit.templateStart())];
-        assert others != null;
+    int entries = 0;
+    for (int index = 0; index < mReadsLookupKey.length; ++index) {
+      if (mReadsLookupKey[index] == EMPTY) {
+        continue;
+      }
+      ++entries;
+      int hit = mReadsLookup[index];
+      int prevHit = NONE;
+      assert hit != NONE;
+      while (hit != NONE) {
+        assert lookupKey(mHitReadId[hit], (mHitFlags[hit] & FIRST) != 0) == mReadsLookupKey[index];
+        final int slot = windowPosition(mHitStart[hit]);
         boolean seen = false;
-        for (final T other : others) {
-          if (other == hit) {
+        for (int j = 0; j < mReadsWindowInUse[slot]; ++j) {
+          if (mReadsWindow[slot][j] == hit) {
             seen = true;
           }
         }
         assert seen;
         // check that they are in ascending templateStart order
-        assert prevHit == null || prevHit.templateStart() <= hit.templateStart();
+        assert prevHit == NONE || mHitStart[prevHit] <= mHitStart[hit];
+        assert mHitPrev[hit] == prevHit;
         prevHit = hit;
-        hit = hit.next();
+        hit = mHitNext[hit];
       }
+      assert mReadsLookupReverse[index] == prevHit;
     }
+    assert entries == mReadsLookupSize;
 
     return true;
   }
@@ -616,6 +809,14 @@ public abstract class AbstractSlidingWindowCollector<T extends AbstractHitInfo<T
 
   abstract void writerNextTemplateId(long templateId) throws IOException;
 
+  /**
+   * Tell the writer which reads the next batch of <code>checkPair</code> calls will use.
+   * @param readIds read identifiers, may contain duplicates
+   * @param size number of read identifiers in use
+   * @throws IOException if an I/O error occurs
+   */
+  abstract void prefetchReads(int[] readIds, int size) throws IOException;
+
   /**
    * @return Maximum number of hits at a given position in the sliding window collector
    */
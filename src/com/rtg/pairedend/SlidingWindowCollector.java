@@ -92,7 +92,7 @@ public class SlidingWindowCollector extends AbstractSlidingWindowCollector<HitIn
     if (mMatedReadsWindowInUse[i] == getMaxHitsPerPosition() - 1) {
       ++mMaxMatedHitsExceededCount;
       if (mMaxMatedHitsExceededCount < 5) {
-        Diagnostic.userLog("Max mated hits per position exceeded at template: " + mReferenceId + " templateStart: " + (mReadsWindow[i].size() > 0 ? "" + mReadsWindow[i].get(0).mTemplateStart : "unknown"));
+        Diagnostic.userLog("Max mated hits per position exceeded at template: " + mReferenceId + " templateStart: " + windowStart(i));
       }
     }
     if (mMatedReadsWindowInUse[i] == getMaxHitsPerPosition()) {
@@ -167,14 +167,13 @@ public class SlidingWindowCollector extends AbstractSlidingWindowCollector<HitIn
 
       final int windowIndex = windowPosition(mCurrentReferencePosition);
 //      System.err.println("flushing position " + mCurrentReferencePosition);
-      final ArrayList<HitInfo> hits = mReadsWindow[windowIndex];
       if (mReadsWindowInUse[windowIndex] > 0) {
 
         // output left side of mates (this can find mates at the same position, so do this before outputting right side of mates)
-        findNewMates(hits, mReadsWindowInUse[windowIndex]);
+        findNewMates(mReadsWindow[windowIndex], mReadsWindowInUse[windowIndex]);
 
         // clear processed hits
-        clearHits(hits, mReadsWindowInUse[windowIndex]);
+        clearHits(windowIndex, mReadsWindowInUse[windowIndex]);
         mReadsWindowInUse[windowIndex] = 0;
       } else {
         mReadsWindowInUse[windowIndex] = 0;
@@ -194,6 +193,11 @@ public class SlidingWindowCollector extends AbstractSlidingWindowCollector<HitIn
     mAlignmentWriter.nextTemplateId(templateId);
   }
 
+  @Override
+  void prefetchReads(int[] readIds, int size) throws IOException {
+    mAlignmentWriter.prefetchReads(readIds, size);
+  }
+
   @Override
   public Properties getStatistics() {
     final Properties stats = super.getStatistics();
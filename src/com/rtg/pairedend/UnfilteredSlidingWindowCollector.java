@@ -12,7 +12,6 @@
 package com.rtg.pairedend;
 
 import java.io.IOException;
-import java.util.ArrayList;
 
 import com.rtg.ngs.SharedResources;
 import com.rtg.ngs.tempstage.UnfilteredTempFileWriter;
@@ -65,14 +64,14 @@ public class UnfilteredSlidingWindowCollector extends AbstractSlidingWindowColle
 
       //System.err.println("flushing position " + mCurrentTemplatePosition);
       if (mReadsWindowInUse[windowIndex] > 0) {
-        final ArrayList<UnfilteredHitInfo> hits = mReadsWindow[windowIndex];
+        final int[] hits = mReadsWindow[windowIndex];
 
         findNewMates(hits, mReadsWindowInUse[windowIndex]);
 
         //output all hits at this location that are ok due to mating (previously set by findNewMates)
         // - also checks if it's ok even if unmated.
         for (int i = 0; i < mReadsWindowInUse[windowIndex]; ++i) {
-          final UnfilteredHitInfo hit = hits.get(i);
+          final UnfilteredHitInfo hit = hitInfo(hits[i]);
           if (hit.score() == -1) {
             //ask alignment writer to calculate edit distance & see if this hit passes unmated threshold
             mWriter.checkUnmatedScore(hit);
@@ -83,7 +82,7 @@ public class UnfilteredSlidingWindowCollector extends AbstractSlidingWindowColle
         }
 
         // clear processed hits
-        clearHits(hits, mReadsWindowInUse[windowIndex]);
+        clearHits(windowIndex, mReadsWindowInUse[windowIndex]);
       }
       mReadsWindowInUse[windowIndex] = 0;
     }
@@ -93,4 +92,9 @@ public class UnfilteredSlidingWindowCollector extends AbstractSlidingWindowColle
   void writerNextTemplateId(long templateId) throws IOException {
     mWriter.nextTemplateId(templateId);
   }
+
+  @Override
+  void prefetchReads(int[] readIds, int size) throws IOException {
+    mWriter.prefetchReads(readIds, size);
+  }
 }
@@ -136,7 +136,7 @@ public abstract class ProteinOutputProcessor implements OutputProcessor {
   protected final SharedStatusCollector mSharedStatusCollector;
   protected final MapStatistics mStatistics;
   private final boolean mEnableReadCache;
-  private final byte[] mProteinWorkspace; // = new byte[100]; // Used when not using the read cache
+  private final byte[] mProteinWorkspace; // read translated into protein for the current hit
 
   private long mNumberOfAlignments = 0;
   private long mNumberCacheHits = 0;
@@ -206,6 +206,9 @@ public abstract class ProteinOutputProcessor implements OutputProcessor {
       mChildren = new ArrayList<>();
       assert mRead.numberSequences() <= Integer.MAX_VALUE;
       mSharedStatusCollector = new SharedStatusCollector((int) mRead.numberSequences(), mStatistics);
+      if (mEnableReadCache) {
+        mSharedStatusCollector.setReadCache(new TranslatedReadCache(mRead, mParams.numberThreads()));
+      }
     } else {
       // this is a child, so remember who its master is.
       mMaster = master;
@@ -286,21 +289,18 @@ public abstract class ProteinOutputProcessor implements OutputProcessor {
     final int genomeFrame = INTERNAL_ENCODED_FRAME_TO_NATURAL_FRAME[r % FRAMES.length];
     final Frame frames = FRAMES_MAPPING[genomeFrame + 3];
     //Diagnostic.developerLog("readId: " + readId);
+    final byte[] readProtein = mProteinWorkspace;
+    final int cachedLength = mEnableReadCache ? mSharedStatusCollector.getReadProtein(r, readProtein) : -1;
     final int plen;
-    byte[] readProtein = mEnableReadCache ? mSharedStatusCollector.getReadProtein(r) : null;
-    if (readProtein == null) {
-      // get read, convert to protein, put it in the cache
+    if (cachedLength < 0) {
+      // get read, convert to protein
       final int rlen = mRead.read(readId, mReadWorkspace);
       plen = (rlen - Math.abs(genomeFrame) + 1) / 3;
-      readProtein = mEnableReadCache ? new byte[plen] : mProteinWorkspace;
       for (int j = 0, i = 0; j < plen; ++j, i += 3) {
         readProtein[j] = frames.code(mReadWorkspace, rlen, i);
       }
-      if (mEnableReadCache) {
-        mSharedStatusCollector.putReadProtein(r, readProtein);
-      }
     } else {
-      plen = readProtein.length;
+      plen = cachedLength;
       ++mNumberCacheHits;
     }
 
@@ -13,6 +13,7 @@ package com.rtg.protein;
 
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,11 +28,13 @@ import com.rtg.index.hash.ngs.ReadEncoder;
 import com.rtg.index.hash.ngs.TemplateCallImplementation;
 import com.rtg.index.params.CreateParams;
 import com.rtg.index.params.CreateParams.CreateParamsBuilder;
+import com.rtg.index.params.ParamsUtils;
 import com.rtg.launcher.HashingRegion;
 import com.rtg.launcher.ISequenceParams;
 import com.rtg.ngs.NgsParams;
 import com.rtg.ngs.NgsTask;
 import com.rtg.reader.SequencesReader;
+import com.rtg.util.StringUtils;
 import com.rtg.util.diagnostic.Diagnostic;
 
 /**
@@ -164,6 +167,7 @@ public final class ProteinReadIndexer {
       final ReadLengthHashingState rlhs = createHashingState(virtualReadLength, params, indexParamsBuilder, longReadCount, frames, outProcessor, numValues);
       lengthFunctions.put(META_CHUNKED_KEY, rlhs);
     }
+    Diagnostic.userLog("Estimated usage of memory" + StringUtils.LS + memToString(params, lengthFunctions.values()));
     final long totalLength = ProteinReadIndexer.indexVariableLengths(params.buildFirstParams(), lengthFunctions, params.compressHashes(), params.numberThreads(), buckets, params.mapXMetaChunkSize(), params.mapXMetaChunkOverlap());
     int num = 0;
     final int total = lengthFunctions.size();
@@ -176,6 +180,30 @@ public final class ProteinReadIndexer {
     return totalLength;
   }
 
+  /**
+   * Describe the memory used by the indexes of each read length and by the translated read cache.
+   * The read cache is held in direct memory outside the Java heap.
+   * @param params search parameters
+   * @param states hashing state for each read length
+   * @return the memory description
+   * @throws IOException if an I/O error occurs
+   */
+  static String memToString(final NgsParams params, final Collection<ReadLengthHashingState> states) throws IOException {
+    long indexBytes = 0;
+    for (final ReadLengthHashingState state : states) {
+      final IndexSet indexes = state.getIndexes();
+      for (int i = 0; i < indexes.size(); ++i) {
+        indexBytes += indexes.get(i).bytes();
+      }
+    }
+    final StringBuilder sb = new StringBuilder();
+    sb.append(ParamsUtils.memToString("Indexes", indexBytes));
+    if (params.enableProteinReadCache()) {
+      sb.append(ParamsUtils.memToString("Read_cache_direct", TranslatedReadCache.bytes(params.buildFirstParams().reader())));
+    }
+    return sb.toString();
+  }
+
   /**
    * Returns start positions (protein space) for each chunk given DNA read length and overlap size
    * @param length the length of the read in DNA space
@@ -13,8 +13,8 @@ package com.rtg.protein;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
-import com.rtg.mode.TranslatedFrame;
 import com.rtg.ngs.MapStatistics;
 import com.rtg.reader.Arm;
 import com.rtg.ngs.MapStatisticsField;
@@ -24,13 +24,13 @@ import com.rtg.util.io.IOUtils;
 
 /**
  * This class stores the status of individual reads,
- * and caches the protein-and-frame version of each read.
+ * and optionally holds the protein-and-frame version of each read.
  *
  */
 public class SharedStatusCollector {
-  //Sync locks for status array in superclass object
-  private static final int NUMBER_OF_THREAD_LOCKS = 1 << 16;
-  private static final int THREAD_LOCK_MASK = NUMBER_OF_THREAD_LOCKS - 1;
+  // status bytes are packed four to an int and updated without locking
+  private static final int STATUS_PER_INT_BITS = 2;
+  private static final int STATUS_PER_INT_MASK = (1 << STATUS_PER_INT_BITS) - 1;
 
   private static final byte TAB = (byte) '\t';
   private static final byte[] LS = StringUtils.LS.getBytes();
@@ -50,59 +50,56 @@ public class SharedStatusCollector {
   private static final byte EXCEEDS_E_SCORE_THRESHOLD_CHAR = (byte) 'g';
   private static final byte EXCEEDS_BIT_SCORE_THRESHOLD_CHAR = (byte) 'h';
 
-  // stores the status of the reads
-  private final byte[] mReadsStatus;
+  private final int mNumberOfReads;
 
-  /* Array of locks for multiple threads */
-  private final Object[] mThreadLocks;
+  // stores the status of the reads
+  private final AtomicIntegerArray mReadsStatus;
 
   /**
-   * A cache for the protein version of each read-frame combination.
-   * This is indexed by read id and frame number.
+   * A cache for the protein version of each read-frame combination, or null if not caching.
    */
-  private final byte[][] mReadCacheProtein;
+  private TranslatedReadCache mReadCacheProtein = null;
 
   private final MapStatistics mStatistics;
 
   SharedStatusCollector(int numberOfReads, MapStatistics statistics) {
-    mReadsStatus = new byte[numberOfReads];
+    mNumberOfReads = numberOfReads;
+    mReadsStatus = new AtomicIntegerArray((numberOfReads + STATUS_PER_INT_MASK) >> STATUS_PER_INT_BITS);
     mStatistics = statistics;
-    mReadCacheProtein = new byte[numberOfReads * TranslatedFrame.values().length][];
-    mThreadLocks = new Object[NUMBER_OF_THREAD_LOCKS];
-    for (int i = 0; i < mThreadLocks.length; ++i) {
-      mThreadLocks[i] = new Object();
-    }
   }
 
   void setStatus(int readId, byte status) {
-    synchronized (mThreadLocks[readId & THREAD_LOCK_MASK]) {
-      mReadsStatus[readId] |= status;
-    }
+    final int index = readId >> STATUS_PER_INT_BITS;
+    final int bits = (status & 0xFF) << ((readId & STATUS_PER_INT_MASK) << 3);
+    int current;
+    do {
+      current = mReadsStatus.get(index);
+      if ((current & bits) == bits) {
+        return;
+      }
+    } while (!mReadsStatus.compareAndSet(index, current, current | bits));
   }
 
   /**
-   * @param r read id and frame number
-   * @return read translated into protein space, or null if not translated yet.
+   * Set the cache holding the protein version of each read in each frame.
+   * @param cache the cache
    */
-  protected final byte[] getReadProtein(int r) {
-    return mReadCacheProtein[r];
+  final void setReadCache(TranslatedReadCache cache) {
+    mReadCacheProtein = cache;
   }
 
   /**
-   * Initialize the protein version of a read for a given frame.
-   * This can be used by multiple threads, provided they all put the
-   * same data in there, and it remains constant after it has been set.
-   *
    * @param r read id and frame number
-   * @param protein the read translated into protein.  Must be non-null.
+   * @param dest array to receive the read translated into protein space
+   * @return length of the translated read, or -1 if there is no read cache.
    */
-  protected final void putReadProtein(int r, byte[] protein) {
-    mReadCacheProtein[r] = protein;
+  protected final int getReadProtein(int r, byte[] dest) {
+    return mReadCacheProtein == null ? -1 : mReadCacheProtein.get(r, dest);
   }
 
   void writeUnmapped(final OutputStream unmapped, NamesInterface readsNames, long readIdOffset) throws IOException {
-    for (int i = 0; i < mReadsStatus.length; ++i) {
-      final byte status = mReadsStatus[i];
+    for (int i = 0; i < mNumberOfReads; ++i) {
+      final byte status = getStatus(i);
       if ((status & RESULT_WRITTEN) == RESULT_WRITTEN) {
         continue;
       }
@@ -133,7 +130,8 @@ public class SharedStatusCollector {
 
   protected void calculateStatistics() {
     if (mStatistics != null) {
-      for (final byte status : mReadsStatus) {
+      for (int i = 0; i < mNumberOfReads; ++i) {
+        final byte status = getStatus(i);
         mStatistics.increment(MapStatisticsField.TOTAL_READS, Arm.LEFT);
         if ((status & RESULT_WRITTEN) != 0) {
           mStatistics.increment(MapStatisticsField.UNMATED_UNIQUE_READS, Arm.LEFT);
@@ -148,7 +146,7 @@ public class SharedStatusCollector {
     }
   }
   protected byte getStatus(int read) {
-    return mReadsStatus[read];
+    return (byte) (mReadsStatus.get(read >> STATUS_PER_INT_BITS) >>> ((read & STATUS_PER_INT_MASK) << 3));
   }
 
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.protein;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.rtg.mode.Frame;
+import com.rtg.mode.TranslatedFrame;
+import com.rtg.reader.SequencesReader;
+import com.rtg.util.SimpleThreadPool;
+import com.rtg.util.SizeSplit;
+import com.rtg.util.diagnostic.Diagnostic;
+import com.rtg.util.diagnostic.OneShotTimer;
+
+/**
+ * Holds every read translated into protein in each of the six frames.
+ * All translations are held off-heap in a small number of large direct buffers, the
+ * six frames of a read being stored contiguously starting at a per-read offset. This avoids
+ * allocating a separate array for every read and frame. The cache is filled in parallel
+ * when constructed and is read only afterwards, so it can be shared between threads.
+ */
+final class TranslatedReadCache {
+
+  private static final int NUMBER_FRAMES = TranslatedFrame.values().length;
+
+  static final int DEFAULT_SLAB_BITS = 30;
+
+  private final int mSlabBits;
+  private final long mSlabMask;
+  private final int[] mReadLengths;
+  private final long[] mReadOffsets;
+  private final ByteBuffer[] mSlabs;
+
+  /**
+   * Translate all the reads.
+   * @param reader reads in nucleotide space
+   * @param numberThreads number of threads to use when translating
+   * @throws IOException if an I/O error occurs
+   */
+  TranslatedReadCache(final SequencesReader reader, final int numberThreads) throws IOException {
+    this(reader, numberThreads, DEFAULT_SLAB_BITS);
+  }
+
+  TranslatedReadCache(final SequencesReader reader, final int numberThreads, final int slabBits) throws IOException {
+    final OneShotTimer timer = new OneShotTimer("MapX_read_cache");
+    mSlabBits = slabBits;
+    mSlabMask = (1L << slabBits) - 1;
+    final long numberReads = reader.numberSequences();
+    assert numberReads <= Integer.MAX_VALUE;
+    mReadLengths = reader.sequenceLengths(0, numberReads);
+    mReadOffsets = new long[mReadLengths.length];
+    final long slabSize = 1L << slabBits;
+    final long offset = layout(mReadLengths, mReadOffsets, slabBits);
+    final int numberSlabs = (int) ((offset + slabSize - 1) >>> slabBits);
+    mSlabs = new ByteBuffer[numberSlabs];
+    for (int s = 0; s < numberSlabs; ++s) {
+      mSlabs[s] = ByteBuffer.allocateDirect((int) Math.min(slabSize, offset - ((long) s << slabBits)));
+    }
+    Diagnostic.developerLog("Read cache of " + offset + " bytes in " + numberSlabs + " slabs");
+    if (mReadLengths.length > 0) {
+      fill(reader, numberThreads);
+    }
+    timer.stopLog();
+  }
+
+  /**
+   * Compute the number of bytes of direct memory the cache will allocate for the reads.
+   * This memory is outside the Java heap.
+   * @param reader reads in nucleotide space
+   * @return the number of bytes
+   * @throws IOException if an I/O error occurs
+   */
+  static long bytes(final SequencesReader reader) throws IOException {
+    return layout(reader.sequenceLengths(0, reader.numberSequences()), null, DEFAULT_SLAB_BITS);
+  }
+
+  // Place the translations of each read, returning the total length of the slabs
+  private static long layout(final int[] readLengths, final long[] readOffsets, final int slabBits) {
+    final long slabSize = 1L << slabBits;
+    final long slabMask = slabSize - 1;
+    long offset = 0;
+    for (int i = 0; i < readLengths.length; ++i) {
+      final int size = translatedSize(readLengths[i]);
+      if (size > slabSize) {
+        throw new IllegalArgumentException("Read " + i + " is too long to cache");
+      }
+      // do not let the frames of a read straddle two slabs
+      if ((offset & slabMask) + size > slabSize) {
+        offset = (offset | slabMask) + 1;
+      }
+      if (readOffsets != null) {
+        readOffsets[i] = offset;
+      }
+      offset += size;
+    }
+    return offset;
+  }
+
+  /**
+   * @return the number of bytes of direct memory held by the cache.
+   */
+  long bytes() {
+    long total = 0;
+    for (final ByteBuffer slab : mSlabs) {
+      total += slab.capacity();
+    }
+    return total;
+  }
+
+  private void fill(final SequencesReader reader, final int numberThreads) throws IOException {
+    final int threads = Math.max(1, Math.min(numberThreads, mReadLengths.length));
+    final SimpleThreadPool pool = new SimpleThreadPool(threads, "ReadCache", true);
+    final SizeSplit ss = new SizeSplit(mReadLengths.length, threads);
+    for (int t = 0; t < threads; ++t) {
+      final int start = ss.start(t);
+      final int end = ss.start(t + 1);
+      final SequencesReader threadReader = reader.copy();
+      pool.execute(() -> fill(threadReader, start, end));
+    }
+    pool.terminate();
+  }
+
+  private static int frameLength(final int rlen, final int frame) {
+    return Math.max(0, (rlen - Math.abs(ProteinOutputProcessor.INTERNAL_ENCODED_FRAME_TO_NATURAL_FRAME[frame]) + 1) / 3);
+  }
+
+  private static int translatedSize(final int rlen) {
+    int size = 0;
+    for (int f = 0; f < NUMBER_FRAMES; ++f) {
+      size += frameLength(rlen, f);
+    }
+    return size;
+  }
+
+  private void fill(final SequencesReader reader, final int start, final int end) throws IOException {
+    final byte[] dna = new byte[(int) reader.maxLength()];
+    final byte[] protein = new byte[dna.length];
+    for (int i = start; i < end; ++i) {
+      final int rlen = reader.read(i, dna);
+      final ByteBuffer slab = mSlabs[(int) (mReadOffsets[i] >>> mSlabBits)].duplicate();
+      slab.position((int) (mReadOffsets[i] & mSlabMask));
+      for (int f = 0; f < NUMBER_FRAMES; ++f) {
+        final Frame frame = ProteinOutputProcessor.FRAMES_MAPPING[ProteinOutputProcessor.INTERNAL_ENCODED_FRAME_TO_NATURAL_FRAME[f] + 3];
+        final int plen = frameLength(rlen, f);
+        for (int j = 0, k = 0; j < plen; ++j, k += 3) {
+          protein[j] = frame.code(dna, rlen, k);
+        }
+        slab.put(protein, 0, plen);
+      }
+    }
+  }
+
+  /**
+   * Copy the translation of a read in a frame into the supplied array.
+   * @param r read id and frame number
+   * @param dest destination, must be large enough to hold the translation
+   * @return length of the translation
+   */
+  int get(final int r, final byte[] dest) {
+    final int readId = r / NUMBER_FRAMES;
+    final int frame = r - readId * NUMBER_FRAMES;
+    final int rlen = mReadLengths[readId];
+    long offset = mReadOffsets[readId];
+    for (int f = 0; f < frame; ++f) {
+      offset += frameLength(rlen, f);
+    }
+    final int plen = frameLength(rlen, frame);
+    // a duplicate gives this thread its own position for the bulk copy
+    final ByteBuffer slab = mSlabs[(int) (offset >>> mSlabBits)].duplicate();
+    slab.position((int) (offset & mSlabMask));
+    slab.get(dest, 0, plen);
+    return plen;
+  }
+}
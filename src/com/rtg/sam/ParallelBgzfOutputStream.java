@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.sam;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Output stream producing block compressed (BGZF) output, where the blocks are deflated in
+ * parallel on a pool of threads and written to the underlying stream in order.
+ * The output is a valid BGZF file that can be read and indexed as if it had been written by a
+ * single threaded block compressed output stream. Not thread safe, a single thread must do all
+ * the writing.
+ */
+public class ParallelBgzfOutputStream extends OutputStream {
+
+  /** Maximum amount of uncompressed data in a block, chosen so a block always fits when stored */
+  static final int BLOCK_SIZE = 0xff00;
+
+  static final int DEFAULT_COMPRESSION_LEVEL = 5;
+
+  private static final int HEADER_SIZE = 18;
+  private static final int FOOTER_SIZE = 8;
+  private static final int MAX_BLOCK_SIZE = 1 << 16;
+
+  /** The empty block that marks the end of a BGZF file */
+  static final byte[] EOF_BLOCK = {
+    0x1f, (byte) 0x8b, 0x08, 0x04, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xff, 0x06, 0x00, 0x42, 0x43, 0x02, 0x00,
+    0x1b, 0x00, 0x03, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00
+  };
+
+  private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(DEFAULT_COMPRESSION_LEVEL, true));
+  private static final ThreadLocal<Deflater> STORER = ThreadLocal.withInitial(() -> new Deflater(Deflater.NO_COMPRESSION, true));
+
+  private final OutputStream mOut;
+  private final ExecutorService mExecutor;
+  private final boolean mOwnExecutor;
+  private final int mMaxPending;
+  private final boolean mTerminate;
+  private final ArrayDeque<Future<byte[]>> mPending = new ArrayDeque<>();
+  private byte[] mBuffer = new byte[BLOCK_SIZE];
+  private int mBufferUsed = 0;
+  private boolean mClosed = false;
+
+  /**
+   * Create a stream with its own compression threads.
+   * @param out stream to write compressed output to
+   * @param numberThreads number of compression threads
+   * @param terminate true to write the end of file block when closed
+   */
+  public ParallelBgzfOutputStream(OutputStream out, int numberThreads, boolean terminate) {
+    this(out, createExecutor(numberThreads), true, 4 * Math.max(1, numberThreads), terminate);
+  }
+
+  /**
+   * Create a stream which compresses on a shared executor.
+   * @param out stream to write compressed output to
+   * @param executor executor to run compression on, not shut down when this stream is closed
+   * @param maxPending maximum number of blocks waiting to be written before the writer waits
+   * @param terminate true to write the end of file block when closed
+   */
+  public ParallelBgzfOutputStream(OutputStream out, ExecutorService executor, int maxPending, boolean terminate) {
+    this(out, executor, false, maxPending, terminate);
+  }
+
+  private ParallelBgzfOutputStream(OutputStream out, ExecutorService executor, boolean ownExecutor, int maxPending, boolean terminate) {
+    if (maxPending < 1) {
+      throw new IllegalArgumentException();
+    }
+    mOut = out;
+    mExecutor = executor;
+    mOwnExecutor = ownExecutor;
+    mMaxPending = maxPending;
+    mTerminate = terminate;
+  }
+
+  /**
+   * Create an executor suitable for sharing between several streams.
+   * The threads are daemon threads, so an executor that is not shut down does not prevent exit.
+   * @param numberThreads number of compression threads
+   * @return the executor
+   */
+  public static ExecutorService createExecutor(int numberThreads) {
+    final AtomicInteger count = new AtomicInteger();
+    return Executors.newFixedThreadPool(Math.max(1, numberThreads), r -> {
+      final Thread t = new Thread(r, "BgzfCompress-" + count.getAndIncrement());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (mBufferUsed == BLOCK_SIZE) {
+      submitBlock();
+    }
+    mBuffer[mBufferUsed++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    int pos = off;
+    int remaining = len;
+    while (remaining > 0) {
+      if (mBufferUsed == BLOCK_SIZE) {
+        submitBlock();
+      }
+      final int n = Math.min(remaining, BLOCK_SIZE - mBufferUsed);
+      System.arraycopy(b, pos, mBuffer, mBufferUsed, n);
+      mBufferUsed += n;
+      pos += n;
+      remaining -= n;
+    }
+  }
+
+  /**
+   * Ends the current block and writes out all blocks compressed so far.
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public void flush() throws IOException {
+    if (mBufferUsed > 0) {
+      submitBlock();
+    }
+    while (!mPending.isEmpty()) {
+      writeNextBlock();
+    }
+    mOut.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (mClosed) {
+      return;
+    }
+    mClosed = true;
+    try (final OutputStream out = mOut) {
+      flush();
+      if (mTerminate) {
+        out.write(EOF_BLOCK);
+      }
+    } finally {
+      for (final Future<byte[]> f : mPending) {
+        f.cancel(true);
+      }
+      if (mOwnExecutor) {
+        mExecutor.shutdownNow();
+      }
+    }
+  }
+
+  private void submitBlock() throws IOException {
+    final byte[] data = mBuffer;
+    final int length = mBufferUsed;
+    mPending.add(mExecutor.submit(() -> compressBlock(data, length)));
+    mBuffer = new byte[BLOCK_SIZE];
+    mBufferUsed = 0;
+    while (mPending.size() > mMaxPending) {
+      writeNextBlock();
+    }
+  }
+
+  private void writeNextBlock() throws IOException {
+    final byte[] block;
+    try {
+      block = mPending.peek().get();
+    } catch (final InterruptedException e) {
+      throw new IOException("Execution was interrupted", e);
+    } catch (final ExecutionException e) {
+      throw new IOException("Block compression failed", e.getCause());
+    }
+    mPending.remove();
+    mOut.write(block);
+  }
+
+  /**
+   * Compress data into a complete BGZF block.
+   * @param data uncompressed data
+   * @param length number of bytes of data, at most <code>BLOCK_SIZE</code>
+   * @return the block
+   */
+  static byte[] compressBlock(byte[] data, int length) {
+    assert length <= BLOCK_SIZE;
+    final byte[] buffer = new byte[MAX_BLOCK_SIZE];
+    int compressedLength = deflate(DEFLATER.get(), data, length, buffer);
+    if (compressedLength < 0) {
+      // incompressible data, stored is guaranteed to fit
+      compressedLength = deflate(STORER.get(), data, length, buffer);
+      assert compressedLength >= 0;
+    }
+    final int blockSize = HEADER_SIZE + compressedLength + FOOTER_SIZE;
+    buffer[0] = 0x1f;
+    buffer[1] = (byte) 0x8b;
+    buffer[2] = 8; // deflate
+    buffer[3] = 4; // extra field present
+    // modification time, extra flags are zero
+    buffer[9] = (byte) 0xff; // unknown operating system
+    buffer[10] = 6; // length of extra field
+    buffer[12] = 'B';
+    buffer[13] = 'C';
+    buffer[14] = 2; // length of block size subfield
+    putShort(buffer, 16, blockSize - 1);
+    final CRC32 crc = new CRC32();
+    crc.update(data, 0, length);
+    putInt(buffer, HEADER_SIZE + compressedLength, (int) crc.getValue());
+    putInt(buffer, HEADER_SIZE + compressedLength + 4, length);
+    final byte[] block = new byte[blockSize];
+    System.arraycopy(buffer, 0, block, 0, blockSize);
+    return block;
+  }
+
+  // deflate into buffer after the header, returning -1 if it does not fit in a block
+  private static int deflate(Deflater deflater, byte[] data, int length, byte[] buffer) {
+    deflater.reset();
+    deflater.setInput(data, 0, length);
+    deflater.finish();
+    final int available = MAX_BLOCK_SIZE - HEADER_SIZE - FOOTER_SIZE;
+    final int compressedLength = deflater.deflate(buffer, HEADER_SIZE, available);
+    return deflater.finished() ? compressedLength : -1;
+  }
+
+  private static void putShort(byte[] b, int pos, int v) {
+    b[pos] = (byte) v;
+    b[pos + 1] = (byte) (v >>> 8);
+  }
+
+  private static void putInt(byte[] b, int pos, int v) {
+    b[pos] = (byte) v;
+    b[pos + 1] = (byte) (v >>> 8);
+    b[pos + 2] = (byte) (v >>> 16);
+    b[pos + 3] = (byte) (v >>> 24);
+  }
+}
@@ -12,29 +12,43 @@
 package com.rtg.sam;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.util.Collection;
 
 import com.reeltwo.jumble.annotations.TestClass;
 import com.rtg.calibrate.Calibrator;
 import com.rtg.launcher.CommonFlags;
 import com.rtg.reader.SequencesReader;
+import com.rtg.tabix.IndexingStreamCreator;
 import com.rtg.tabix.TabixIndexer;
+import com.rtg.util.IORunnableProxy;
 import com.rtg.util.SingletonPopulatorFactory;
 import com.rtg.util.StringUtils;
 import com.rtg.util.diagnostic.Diagnostic;
 import com.rtg.util.io.FileUtils;
+import com.rtg.util.metrics.Counter;
+import com.rtg.util.metrics.MetricsRegistry;
+import com.rtg.util.metrics.PhaseTimer;
 
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMFileWriter;
+import htsjdk.samtools.SAMFileWriterFactory;
 import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMSequenceRecord;
 
 /**
  */
 @TestClass("com.rtg.sam.SamMergeCliTest")
 public class SamMerger {
 
+  private static final PhaseTimer MERGE_TIMER = MetricsRegistry.global().phase("sam.merge");
+  private static final Counter RECORDS_IN = MetricsRegistry.global().counter("sam.merge_records_in");
+  private static final Counter RECORDS_OUT = MetricsRegistry.global().counter("sam.merge_records_out");
+
   private final boolean mCreateIndex;
   private final boolean mGzip;
   private final boolean mLegacy;
@@ -76,6 +90,7 @@ public class SamMerger {
    * @throws java.io.IOException if an IO error occurs
    */
   public void mergeSamFiles(Collection<File> samFiles, Collection<File> calibrationFiles, File output, OutputStream out, SequencesReader reference, SAMFileHeader header, boolean writeHeader, boolean terminateBlockedGzip) throws IOException {
+    final PhaseTimer.Split split = MERGE_TIMER.start();
     final boolean isStdio = FileUtils.isStdio(output);
     if (!isStdio) {
       if (calibrationFiles.size() > 0) {
@@ -90,7 +105,9 @@ public class SamMerger {
     final long recordsIn;
     final long recordsOut;
     final SingletonPopulatorFactory<SAMRecord> pf = new SingletonPopulatorFactory<>(new SamRecordPopulator());
-    final SamReadingContext context = new SamReadingContext(samFiles, mNumberThreads, mFilterParams, header, reference);
+    final boolean parallelCompression = !isStdio && useParallelCompression(output, header);
+    final int readerThreads = readerThreads(mNumberThreads, parallelCompression);
+    final SamReadingContext context = new SamReadingContext(samFiles, readerThreads, mFilterParams, header, reference);
     try (final ThreadedMultifileIterator<SAMRecord> it = new ThreadedMultifileIterator<>(context, pf)) {
       header.setSortOrder(SAMFileHeader.SortOrder.coordinate);
       if (mAddProgramRecord) {
@@ -98,21 +115,22 @@ public class SamMerger {
       }
       SamUtils.updateRunId(header);
 
-      try (SamOutput so = SamOutput.getSamOutput(output, out, header, mGzip, true, writeHeader, terminateBlockedGzip, mCreateIndex, reference)) {
-        alignmentOutputFile = so.getOutFile();
-        try (SAMFileWriter writer = so.getWriter()) {
-          while (it.hasNext()) {
-            final SAMRecord rec = it.next();
-            if (mLegacy) {
-              SamUtils.convertToLegacyCigar(rec);
-            }
-            writer.addAlignment(rec);
+      if (parallelCompression) {
+        alignmentOutputFile = output;
+        writeBlockCompressed(it, output, header, writeHeader, terminateBlockedGzip, mNumberThreads - readerThreads);
+      } else {
+        try (SamOutput so = SamOutput.getSamOutput(output, out, header, mGzip, true, writeHeader, terminateBlockedGzip, mCreateIndex, reference)) {
+          alignmentOutputFile = so.getOutFile();
+          try (SAMFileWriter writer = so.getWriter()) {
+            writeRecords(it, writer);
           }
         }
       }
       recordsIn = it.getTotalRecordsCount();
       recordsOut = it.getTotalRecordsCount() - it.getFilteredRecordsCount() - it.getDuplicateRecordsCount() - it.getInvalidRecordsCount();
     }
+    RECORDS_IN.add(recordsIn);
+    RECORDS_OUT.add(recordsOut);
     if (!isStdio) {
       if (calibrationFiles.size() > 0 && calibrationFiles.size() == samFiles.size()) {
         final Calibrator c = new Calibrator(Calibrator.getCovariateSet(calibrationFiles.iterator().next()), null);
@@ -147,5 +165,92 @@ public class SamMerger {
         }
       }
     }
+    split.stop();
+  }
+
+  private void writeRecords(ThreadedMultifileIterator<SAMRecord> it, SAMFileWriter writer) {
+    while (it.hasNext()) {
+      final SAMRecord rec = it.next();
+      if (mLegacy) {
+        SamUtils.convertToLegacyCigar(rec);
+      }
+      writer.addAlignment(rec);
+    }
+  }
+
+  // Block compressed SAM or BAM output to a file that needs no renaming can be compressed on multiple threads
+  private boolean useParallelCompression(File output, SAMFileHeader header) {
+    if (mNumberThreads <= 1) {
+      return false;
+    }
+    if (output.getName().endsWith(SamUtils.BAM_SUFFIX)) {
+      return true;
+    }
+    if (!mGzip || !FileUtils.isGzipFilename(output)) {
+      return false;
+    }
+    if (mCreateIndex) {
+      for (final SAMSequenceRecord seq : header.getSequenceDictionary().getSequences()) {
+        if (seq.getSequenceLength() > TabixIndexer.MAXIMUM_REFERENCE_LENGTH) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  // When compressing in parallel the readers get half the threads, so reading and compression together use no more than requested
+  static int readerThreads(int numberThreads, boolean parallelCompression) {
+    return parallelCompression ? Math.max(1, numberThreads / 2) : numberThreads;
+  }
+
+  /*
+   * Write output with blocks compressed in parallel. When indexing, the index is built by a
+   * separate thread from the compressed blocks as they are written, rather than by reading
+   * the file back afterwards.
+   */
+  private void writeBlockCompressed(ThreadedMultifileIterator<SAMRecord> it, File output, SAMFileHeader header, boolean writeHeader, boolean terminate, int compressionThreads) throws IOException {
+    final boolean bam = output.getName().endsWith(SamUtils.BAM_SUFFIX);
+    // The compressed stream also closes the file, this covers failures before it has been created
+    try (OutputStream file = new FileOutputStream(output)) {
+      final OutputStream sink;
+      final IORunnableProxy indexProxy;
+      if (mCreateIndex) {
+        final PipedInputStream pipeToIndexIn = new PipedInputStream(); //closed by IndexRunner
+        final PipedOutputStream pipeToIndexOut = new PipedOutputStream(pipeToIndexIn); //closed with the output stream
+        sink = FileUtils.createTeedOutputStream(file, pipeToIndexOut);
+        final File indexFile = bam ? BamIndexer.indexFileName(output) : TabixIndexer.indexFileName(output);
+        final TabixIndexer.IndexerFactory indexer = bam ? null : new TabixIndexer.SamIndexerFactory();
+        indexProxy = new IORunnableProxy(new IndexingStreamCreator.IndexRunner(pipeToIndexIn, new FileOutputStream(indexFile), indexer, writeHeader, header.getSequenceDictionary().size(), output.toString()));
+      } else {
+        sink = file;
+        indexProxy = null;
+      }
+      final Thread indexThread = indexProxy == null ? null : new Thread(indexProxy);
+      try {
+        if (indexThread != null) {
+          indexThread.start();
+        }
+        final SAMFileWriterFactory factory = new SAMFileWriterFactory();
+        try (OutputStream compressed = new ParallelBgzfOutputStream(sink, compressionThreads, terminate);
+             SAMFileWriter writer = bam
+          ? factory.makeBAMWriter(header, true, compressed, writeHeader, false, true) //terminate flag irrelevant when preBlockCompressed true
+          : factory.makeSAMWriter(header, true, compressed, writeHeader)) {
+          writeRecords(it, writer);
+        }
+      } finally {
+        if (indexThread != null) {
+          try {
+            indexThread.join();
+          } catch (final InterruptedException e) {
+            throw new IOException("Execution was interrupted", e);
+          }
+        }
+      }
+      // Not in the finally, so an indexing failure cannot replace an exception from writing
+      if (indexProxy != null) {
+        indexProxy.checkError();
+      }
+    }
   }
 }
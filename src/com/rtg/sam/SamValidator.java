@@ -11,15 +11,23 @@
  */
 package com.rtg.sam;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.rtg.mode.DNA;
 import com.rtg.mode.DnaUtils;
@@ -47,6 +55,11 @@ import htsjdk.samtools.SamReader;
  */
 public final class SamValidator {
 
+  /** Number of records gathered before they are checked when using multiple threads */
+  static final int BATCH_SIZE = 1 << 14;
+  /** Number of records checked by each task */
+  private static final int CHUNK_SIZE = 1 << 10;
+
   private final boolean mValidate;
   private final boolean mShowConsensus;
   private final boolean mPrintHistograms;
@@ -58,7 +71,6 @@ public final class SamValidator {
   private final boolean mIgnoreFragmentSizeProblems;
   private final boolean mPerFileStats;
 
-  private final SuperCigarValidator mSuperCigarValidator;
   private final HashSet<String> mExpectedMates = new HashSet<>();
   private long mFormatProblems = 0;
   private long mExceptionProblems = 0;
@@ -72,6 +84,11 @@ public final class SamValidator {
   private final int mGapOpenPenalty;
   private final int mGapExtendPenalty;
   private final boolean mPenaltiesSet;
+  private int mThreads = 1;
+  private RecordChecker mChecker;
+  // Each worker thread reads from its own copy of the left and right readers
+  private final List<SequencesReader> mWorkerReaders = new ArrayList<>();
+  private final ThreadLocal<SequencesReader[]> mWorkerReaderPair = ThreadLocal.withInitial(this::copyReaders);
 
   //CHECKSTYLE:OFF
   SamValidator(PrintStream out, PrintStream err, boolean validate, boolean showConsensus, boolean printHistograms, boolean ignoreCgFragmentSize, boolean perFileStats, NgsParams params, boolean penaltiesSet) {
@@ -90,7 +107,7 @@ public final class SamValidator {
     mGapOpenPenalty = params.gapOpenPenalty();
     mGapExtendPenalty = params.gapExtendPenalty();
 
-    mSuperCigarValidator = new SuperCigarValidator(mUnknownsPenalty > 0 ? 1 : 0);
+    mChecker = new RecordChecker(mErr, mCurrentVariables, null, null);
   }
 
   /**
@@ -108,6 +125,14 @@ public final class SamValidator {
     this(out, err, validate, showConsensus, printHistograms, false, perFileStats, params, penaltiesSet);
   }
 
+  /**
+   * Set the number of threads used to check records. Output does not depend on the number of threads.
+   * @param threads number of threads
+   */
+  void setThreads(final int threads) {
+    mThreads = threads;
+  }
+
   void checkSAMAlign(File templateDir, Collection<File> samFiles, File leftReadsDir, File rightReadsDir) throws IOException {
     try (final SequencesReader tr = SequencesReaderFactory.createDefaultSequencesReaderCheckEmpty(templateDir);
          final SequencesReader lr = SequencesReaderFactory.createMemorySequencesReader(leftReadsDir, false, LongRange.NONE);
@@ -133,24 +158,14 @@ public final class SamValidator {
       }
       mSingleEnded = mLeftReader != null && mRightReader == null;
 
-      for (final File samFile : samFiles) {
-        mExpectedMates.clear();
-        try (InputStream bis = FileUtils.createInputStream(samFile, false)) {
-          try (SamReader read = SamUtils.makeSamReader(bis, tr)) {
-            processRecords(read, cgData, countPerRead, pairedRead);
-            if (mValidate) {
-              for (final String mate : mExpectedMates) {
-                mErr.println("Missing mate: " + mate);
-              }
-            }
-
-            if (mPerFileStats || samFiles.size() == 1) {
-              printStats(samFile, mCurrentVariables);
-            }
-          }
+      final ExecutorService executor = mThreads > 1 ? Executors.newFixedThreadPool(mThreads) : null;
+      try {
+        checkFiles(samFiles, cgData, countPerRead, pairedRead, executor);
+      } finally {
+        if (executor != null) {
+          executor.shutdownNow();
+          closeWorkerReaders();
         }
-        mTotalVariables.addToTotal(mCurrentVariables);
-        mCurrentVariables = new SamStatsVariables();
       }
       if (samFiles.size() > 1) {
         printStats(null, mTotalVariables);
@@ -159,6 +174,29 @@ public final class SamValidator {
     }
   }
 
+  private void checkFiles(Collection<File> samFiles, boolean cgData, int[] countPerRead, boolean[] pairedRead, ExecutorService executor) throws IOException {
+    for (final File samFile : samFiles) {
+      mExpectedMates.clear();
+      mChecker = new RecordChecker(mErr, mCurrentVariables, mLeftReader, mRightReader);
+      try (InputStream bis = FileUtils.createInputStream(samFile, false)) {
+        try (SamReader read = SamUtils.makeSamReader(bis, mTemplateReader)) {
+          processRecords(read, cgData, countPerRead, pairedRead, executor);
+          if (mValidate) {
+            for (final String mate : mExpectedMates) {
+              mErr.println("Missing mate: " + mate);
+            }
+          }
+
+          if (mPerFileStats || samFiles.size() == 1) {
+            printStats(samFile, mCurrentVariables);
+          }
+        }
+      }
+      mTotalVariables.addToTotal(mCurrentVariables);
+      mCurrentVariables = new SamStatsVariables();
+    }
+  }
+
   private void printStats(File samFile, SamStatsVariables variables) {
     if (samFile != null) {
       mOut.println("Stats for file: " + samFile.getPath());
@@ -173,7 +211,7 @@ public final class SamValidator {
     mOut.println();
   }
 
-  int[] processRecords(SamReader read, boolean cgData, int[] countPerRead, boolean[] pairedRead) throws IOException {
+  int[] processRecords(SamReader read, boolean cgData, int[] countPerRead, boolean[] pairedRead, ExecutorService executor) throws IOException {
     int prevTemplatePosition = 0;
     String prevTemplateName = null;
     byte[] currTemplate = null;
@@ -181,6 +219,7 @@ public final class SamValidator {
     boolean firstRecord = true;
     final SequencesIterator tempit = mTemplateReader.iterator();
     tempit.seek(0);
+    final RecordBatch batch = executor == null ? null : new RecordBatch();
 
     for (final SAMRecord aRead : read) {
       final SAMRecord samRec;
@@ -214,115 +253,142 @@ public final class SamValidator {
       } catch (final NumberFormatException nfe) {
         throw new NoTalkbackSlimException(ErrorType.FILE_READ_ERROR, "Only unrenamed sam files are supported.");
       }
-      if (!"*".equals(samRec.getBaseQualityString())) {
-        if (samRec.getBaseQualities().length != samRec.getReadLength()) {
-          mErr.print("Read length and quality length differ " + samRec.getSAMString().trim());
-        }
-      }
       final boolean first = !samRec.getReadPairedFlag() || samRec.getFirstOfPairFlag();
       if (mValidate) {
         if (first && mLeftReader != null && readId >= mLeftReader.numberSequences() || !first && mRightReader != null && readId >= mRightReader.numberSequences()) {
           throw new NoTalkbackSlimException("Reads SDF doesn't match sam file - not enough reads");
         }
       }
-      if ("*".equals(refName)) {        // unmapped record
-        mCurrentVariables.mUnmappedRecords++;
-        if (mValidate) {
-          if (!matchesRawRead(read(readId, first), qual(readId, first), samRec, cgData)) {
-            mErr.println("Read doesn't match expected value from SDF file " + samRec.getSAMString().trim());
-          }
+      final boolean mapped = !"*".equals(refName);
+      if (mapped && !refName.equals(prevTemplateName)) {
+        if (batch != null) {
+          checkBatch(batch, executor, cgData);
         }
-        // TODO probably more stuff can be checked here, and may need to handle unmated stuff
-      } else {  // mapped record
-        if (!refName.equals(prevTemplateName)) {
-          prevTemplateName = refName;
-          prevTemplatePosition = 0;
-          if (currTemplate != null) {
-            accumulatePileUp(pileUp, currTemplate.length);
-          }
-          pileUp = null;
-          while (!tempit.currentName().equals(samRec.getReferenceName())) {
-            if (!tempit.nextSequence()) {
-              throw new NoTalkbackSlimException(ErrorType.FILE_READ_ERROR, "Sequence for " + samRec.getReferenceName() + " not found in template.");
-            }
-            if (!tempit.currentName().equals(samRec.getReferenceName())) {
-              mErr.println("Template \"" + tempit.currentName() + "\" had no hits");
-            }
+        prevTemplateName = refName;
+        prevTemplatePosition = 0;
+        if (currTemplate != null) {
+          accumulatePileUp(pileUp, currTemplate.length);
+        }
+        pileUp = null;
+        while (!tempit.currentName().equals(samRec.getReferenceName())) {
+          if (!tempit.nextSequence()) {
+            throw new NoTalkbackSlimException(ErrorType.FILE_READ_ERROR, "Sequence for " + samRec.getReferenceName() + " not found in template.");
           }
-          currTemplate = new byte[tempit.currentLength()];
-          mSuperCigarValidator.setTemplate(currTemplate);
-          if (mShowConsensus) {
-            pileUp = new PileUp(currTemplate.length);
+          if (!tempit.currentName().equals(samRec.getReferenceName())) {
+            mErr.println("Template \"" + tempit.currentName() + "\" had no hits");
           }
-          tempit.readCurrent(currTemplate);
-        }
-        final int expectedRet = isAtExpectedRef(currTemplate, samRec, pileUp);
-        if (expectedRet == -1) {
-          mErr.println("Alignment mismatch " + samRec.getSAMString().trim());
         }
-        if (samRec.getReadPairedFlag() && (samRec.getAlignmentStart() < samRec.getMateAlignmentStart() || (samRec.getAlignmentStart() == samRec.getMateAlignmentStart() && samRec.getFirstOfPairFlag()))) {
-          mCurrentVariables.mPairOrientations[(samRec.getFlags() >> 4) & 3]++;
+        currTemplate = new byte[tempit.currentLength()];
+        if (mShowConsensus) {
+          pileUp = new PileUp(currTemplate.length);
         }
-        if (mValidate) {
-          validate(samRec, prevTemplatePosition, readId, first, cgData);
-          if (mPenaltiesSet) {
-            checkAlignmentScore(samRec, mCurrentVariables.mAlignmentScores, expectedRet);
-          }
+        tempit.readCurrent(currTemplate);
+      }
+      if (batch == null) {
+        mChecker.check(samRec, readId, first, cgData, currTemplate, prevTemplatePosition, pileUp);
+      } else {
+        // A batch only ever spans a single template, so these are the same for every record in it
+        batch.mTemplate = currTemplate;
+        batch.mPrevTemplatePosition = prevTemplatePosition;
+        batch.mPileUp = pileUp;
+        batch.add(samRec, readId, first);
+        if (batch.mSize == BATCH_SIZE) {
+          checkBatch(batch, executor, cgData);
         }
-        accumulateAlignmentCounts(samRec, mCurrentVariables.mIH, SamUtils.ATTRIBUTE_IH);
-        accumulateAlignmentCounts(samRec, mCurrentVariables.mNH, SamUtils.ATTRIBUTE_NH);
+      }
+      if (mapped) {
         if (countPerRead != null) {
           countPerRead[readId]++;
         }
         if (pairedRead != null && samRec.getReadPairedFlag() && samRec.getProperPairFlag() && !samRec.getMateUnmappedFlag()) {
           pairedRead[readId] = true;
         }
-        final int readLength = samRec.getReadLength();
-        if (mCurrentVariables.mMaxReadLength < readLength) {
-          mCurrentVariables.mMaxReadLength = readLength;
-        }
-        if (mCurrentVariables.mMinReadLength > readLength) {
-          mCurrentVariables.mMinReadLength = readLength;
-        }
-        if (samRec.getReadPairedFlag() && samRec.getProperPairFlag()) {
-          final Integer insertSize = samRec.getInferredInsertSize();
-          if (mCurrentVariables.mMaxInsertSize < insertSize) {
-            mCurrentVariables.mMaxInsertSize = insertSize;
-          }
-          if (mCurrentVariables.mMinInsertSize > Math.abs(insertSize)) {
-            mCurrentVariables.mMinInsertSize = Math.abs(insertSize);
-          }
-          if (mCurrentVariables.mInsertSizes != null && (samRec.getAlignmentStart() < samRec.getMateAlignmentStart() || (samRec.getAlignmentStart() == samRec.getMateAlignmentStart() && samRec.getFirstOfPairFlag()))) {
-            final Integer isCount;
-            if (!mCurrentVariables.mInsertSizes.containsKey(insertSize)) {
-              isCount = 1;
-            } else {
-              isCount = mCurrentVariables.mInsertSizes.get(insertSize) + 1;
-            }
-            mCurrentVariables.mInsertSizes.put(insertSize, isCount);
-          }
-        }
       }
     } // end of SAM file
+    if (batch != null) {
+      checkBatch(batch, executor, cgData);
+    }
     if (currTemplate != null) {
       accumulatePileUp(pileUp, currTemplate.length);
     }
     return countPerRead;
   }
 
-  private void accumulateAlignmentCounts(SAMRecord samRec, SortedMap<Integer, Integer> map, String attribute) {
-    if (map != null) {
-      final Integer recordCount = samRec.getIntegerAttribute(attribute);
-      if (recordCount != null) {
-        final Integer mapCount;
-        if (!map.containsKey(recordCount)) {
-          mapCount = 1;
-        } else {
-          mapCount = map.get(recordCount) + 1;
+  private static final class RecordBatch {
+    private final SAMRecord[] mRecords = new SAMRecord[BATCH_SIZE];
+    private final int[] mReadIds = new int[BATCH_SIZE];
+    private final boolean[] mFirst = new boolean[BATCH_SIZE];
+    private int mSize = 0;
+    private byte[] mTemplate;
+    private int mPrevTemplatePosition;
+    private PileUp mPileUp;
+
+    private void add(SAMRecord record, int readId, boolean first) {
+      mRecords[mSize] = record;
+      mReadIds[mSize] = readId;
+      mFirst[mSize] = first;
+      ++mSize;
+    }
+
+    private void clear() {
+      Arrays.fill(mRecords, 0, mSize, null);
+      mSize = 0;
+    }
+  }
+
+  /**
+   * Check the records of a batch in chunks on the executor. Each chunk accumulates
+   * its own statistics and messages, which are merged in record order so that the
+   * output is the same as checking the records one at a time.
+   */
+  private void checkBatch(final RecordBatch batch, final ExecutorService executor, final boolean cgData) {
+    final List<Future<RecordChecker>> futures = new ArrayList<>();
+    for (int start = 0; start < batch.mSize; start += CHUNK_SIZE) {
+      final int s = start;
+      final int end = Math.min(batch.mSize, start + CHUNK_SIZE);
+      futures.add(executor.submit(() -> {
+        final SequencesReader[] readers = mWorkerReaderPair.get();
+        final RecordChecker checker = new RecordChecker(readers[0], readers[1]);
+        for (int i = s; i < end; ++i) {
+          checker.check(batch.mRecords[i], batch.mReadIds[i], batch.mFirst[i], cgData, batch.mTemplate, batch.mPrevTemplatePosition, batch.mPileUp);
+        }
+        return checker;
+      }));
+    }
+    try {
+      for (final Future<RecordChecker> f : futures) {
+        f.get().merge(batch.mPileUp);
+      }
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    } catch (final InterruptedException e) {
+      throw new NoTalkbackSlimException("Interrupted while checking records.");
+    }
+    batch.clear();
+  }
+
+  private SequencesReader[] copyReaders() {
+    final SequencesReader[] readers = {mLeftReader == null ? null : mLeftReader.copy(), mRightReader == null ? null : mRightReader.copy()};
+    synchronized (mWorkerReaders) {
+      for (final SequencesReader reader : readers) {
+        if (reader != null) {
+          mWorkerReaders.add(reader);
         }
-        map.put(recordCount, mapCount);
       }
     }
+    return readers;
+  }
+
+  private void closeWorkerReaders() throws IOException {
+    synchronized (mWorkerReaders) {
+      for (final SequencesReader reader : mWorkerReaders) {
+        reader.close();
+      }
+      mWorkerReaders.clear();
+    }
   }
 
   private void accumulatePileUp(final PileUp pileUp, final int templateLength) {
@@ -434,88 +500,6 @@ public final class SamValidator {
     }
   }
 
-  private void checkAlignmentScore(SAMRecord samRec, SortedMap<Integer, Integer> alignmentScoreMap, int computedScore) {
-    final Integer as = samRec.getIntegerAttribute(SamUtils.ATTRIBUTE_ALIGNMENT_SCORE);
-    if (alignmentScoreMap != null) {
-      if (as == null) {
-        if (!samRec.getReadUnmappedFlag()) {
-          mErr.println("Record has no alignment score: " + samRec.getSAMString().trim());
-        }
-      } else {
-        final Integer ascount;
-        if (!alignmentScoreMap.containsKey(as)) {
-          ascount = 1;
-        } else {
-          ascount = alignmentScoreMap.get(as) + 1;
-        }
-        alignmentScoreMap.put(as, ascount);
-      }
-    }
-    if (mPenaltiesSet && computedScore != Integer.MIN_VALUE && as != null && !as.equals(computedScore)) {
-      final String superCigar = samRec.getStringAttribute(SamUtils.CG_SUPER_CIGAR);
-      if (superCigar == null) {
-        mErr.println("Record's " + SamUtils.ATTRIBUTE_ALIGNMENT_SCORE + ": " + as + " disagreed with computed score: " + computedScore + ", " + samRec.getSAMString().trim());
-      }
-    }
-  }
-
-  private void validate(SAMRecord samRec, int prevTemplatePosition, int readId, boolean first, boolean cgData) {
-    if (samRec.getAlignmentStart() < prevTemplatePosition) {
-      mErr.println("Ordering error: " + samRec.getSAMString().trim());
-    }
-    if (samRec.getReadPairedFlag()) {
-      if (samRec.getFirstOfPairFlag() == samRec.getSecondOfPairFlag()) {
-        mErr.println("Mates from same side " + samRec.getSAMString().trim());
-      }
-      final String mateRef = samRec.getMateReferenceName();
-      if (!samRec.getMateUnmappedFlag() && !"*".equals(mateRef)) {
-        if (!mateRef.equals(samRec.getReferenceName())) {
-          mErr.println("Mate ref name not same as record ref name " + samRec.getSAMString().trim());
-        }
-        final String mateKey = samRec.getMateAlignmentStart() + ":" + samRec.getAlignmentStart() + ":" + samRec.getReadName() + samRec.getSecondOfPairFlag() + samRec.getReadNegativeStrandFlag() + samRec.getMateNegativeStrandFlag() + samRec.getInferredInsertSize();
-        if (!mExpectedMates.remove(mateKey)) {
-          final String key = samRec.getAlignmentStart() + ":" + samRec.getMateAlignmentStart() + ":" + samRec.getReadName() + samRec.getFirstOfPairFlag() + samRec.getMateNegativeStrandFlag() + samRec.getReadNegativeStrandFlag() + -samRec.getInferredInsertSize();
-          mExpectedMates.add(key);
-        }
-      }   //else the mate is unmapped...
-    }
-    if (!matchesRawRead(read(readId, first), qual(readId, first), samRec, cgData)) {
-      mErr.println("Read doesn't match expected value from SDF " + samRec.getSAMString().trim());
-    }
-    final Integer ih = samRec.getIntegerAttribute(SamUtils.ATTRIBUTE_IH);
-    if (ih != null && ih <= 0) {
-      mErr.println("IH value invalid " + samRec.getSAMString().trim());
-    }
-    final Integer nh = samRec.getIntegerAttribute(SamUtils.ATTRIBUTE_NH);
-    if (nh != null) {
-      if (nh <= 0) {
-        mErr.println("NH value invalid " + samRec.getSAMString().trim());
-      } else if (ih != null && nh < ih) {
-        mErr.println("NH should be greater than or equal to IH " + samRec.getSAMString().trim());
-      }
-    }
-  }
-
-  private boolean matchesGotohCg(byte[] read, byte[] quality, SAMRecord record) {
-    mSuperCigarValidator.setTemplateStart(record.getAlignmentStart() - 1);
-    try {
-      mSuperCigarValidator.setData(record, read, quality);
-      mSuperCigarValidator.parse();
-    } catch (final IllegalStateException ise) {
-      mErr.println(ise.getMessage());
-      return false;
-    } catch (final BadSuperCigarException bce) {
-      mErr.println(bce.getMessage() + ", " + record.getSAMString().trim());
-      return false;
-    }
-    if (!mSuperCigarValidator.isValid()) {
-      mErr.println(mSuperCigarValidator.getInvalidReason());
-      return false;
-    }
-
-    return true;
-  }
-
   /**
    * Check the read as represented in the sam file against the raw read
    * @param read raw read data
@@ -525,43 +509,7 @@ public final class SamValidator {
    * @return true if data match
    */
   boolean matchesRawRead(byte[] read, byte[] quality, SAMRecord record, boolean cgData) {
-    if (read == null) {
-      return true;
-    }
-    final SamSequence s;
-    if (cgData) {
-      if (record.getStringAttribute(SamUtils.CG_SUPER_CIGAR) != null) {
-        return matchesGotohCg(read, quality, record);
-      }
-      s = CgSamBamSequenceDataSource.unrollCgRead(record);
-    } else {
-      s = new SamSequence(record);
-    }
-    final byte[] recordBytes = s.getReadBases();
-    final byte[] recordQualities = s.getBaseQualities();
-    if (read.length != recordBytes.length) {
-      return false;
-    } else if (quality != null && quality.length != recordQualities.length) {
-      return false;
-    }
-    if (record.getReadNegativeStrandFlag()) {
-      for (int i = 0; i < read.length; ++i) {
-        if (DnaUtils.getBase(DNA.complement(read[i])) != Character.toUpperCase((char) recordBytes[recordBytes.length - i - 1])) {
-          return false;
-        } else if (quality != null && i < recordQualities.length && quality[i] != recordQualities[recordBytes.length - i - 1]) {
-          return false;
-        }
-      }
-    } else {
-      for (int i = 0; i < read.length; ++i) {
-        if (DnaUtils.getBase(read[i]) != Character.toUpperCase((char) recordBytes[i])) {
-          return false;
-        } else if (quality != null && i < recordQualities.length && quality[i] != recordQualities[i]) {
-          return false;
-        }
-      }
-    }
-    return true;
+    return mChecker.matchesRawRead(read, quality, record, cgData);
   }
 
   /**
@@ -572,139 +520,7 @@ public final class SamValidator {
    * @return -1 if the sam record is invalid, integer min value if score should be ignored, otherwise the computed alignment score.
    */
   public int isAtExpectedRef(final byte[] template, final SAMRecord samRecord, final PileUp pileUp) {
-    if (samRecord.getAlignmentStart() < 1 || samRecord.getAlignmentStart() > template.length) {
-      mErr.println("Match start position exceeds template limits");
-      return -1;
-    }
-    final byte[] read = samRecord.getReadBases();
-    final String cigar = samRecord.getCigarString();
-
-    int n = 0;
-    int rPos = 0;
-    int tPos = samRecord.getAlignmentStart() - 1;
-    int mismatches = 0;
-
-    char prevChar = (char) -1;
-    int score = 0;
-    boolean ignoreScore = false;
-
-    for (int i = 0; i < cigar.length(); ++i) {
-      final char c = cigar.charAt(i);
-      if (Character.isDigit(c)) {
-        n = 10 * n + c - '0';
-      } else {
-        assert n > 0;
-        for (int j = 0; j < n; ++j) {
-          if (tPos >= template.length && c != SamUtils.CIGAR_SOFT_CLIP) {
-            mErr.println("Template length exceeded but read does not indicate soft clipping, " + samRecord);
-            return -1;
-          }
-          if (c == SamUtils.CIGAR_SAME_OR_MISMATCH) { //match OR mismatch
-            if (rPos >= read.length) {
-              mErr.println("Match went off end of read, " + samRecord);
-              return -1;
-            }
-            final int nt = Character.toUpperCase((char) read[rPos]);
-            final int refNt = DnaUtils.getBase(template[tPos]);
-            mCurrentVariables.mTotalMatches++;
-            if (pileUp != null) {
-              pileUp.add((char) nt, tPos);
-            }
-            if (nt == 'N' || refNt == 'N') { //if either are unknown
-              ++mismatches;
-              mCurrentVariables.mTotalMismatches++;
-              score += mUnknownsPenalty;
-            } else if (!(nt == refNt)) { // if nt are different
-              ++mismatches;
-              mCurrentVariables.mTotalMismatches++;
-              score += mMismatchPenalty;
-            }
-            ++tPos;
-            ++rPos;
-          } else if (c == SamUtils.CIGAR_SAME) { //match
-            if (rPos >= read.length) {
-              mErr.println("Match went off end of read, " + samRecord);
-              return -1;
-            }
-            final int nt = Character.toUpperCase((char) read[rPos]);
-            final int refNt = DnaUtils.getBase(template[tPos]);
-            mCurrentVariables.mTotalMatches++;
-            if (pileUp != null) {
-              pileUp.add((char) nt, tPos);
-            }
-            if (nt == 'N' || refNt == 'N') {
-              score += mUnknownsPenalty;
-            } else if (nt != refNt) { // if nt are different or, both are N, or either are N, mismatch.
-              mErr.println("Expected match " + (char) refNt + " was " + (char) nt + ", rpos=" + rPos + ", " + samRecord);
-              return -1;
-            }
-            ++tPos;
-            ++rPos;
-          } else if (c == SamUtils.CIGAR_MISMATCH) { //mismatch
-            if (rPos >= read.length) {
-              mErr.println("Match went off end of read, " + samRecord);
-              return -1;
-            }
-            final int nt = Character.toUpperCase((char) read[rPos]);
-            final int refNt = DnaUtils.getBase(template[tPos]);
-            mCurrentVariables.mTotalMatches++;
-            if (pileUp != null) {
-              pileUp.add((char) nt, tPos);
-            }
-
-            if (nt == 'N' || refNt == 'N') {
-              score += mUnknownsPenalty;
-            } else if (nt != refNt) {
-              score += mMismatchPenalty;
-            } else {
-              mErr.println("Expected mismatch " + samRecord);
-              return -1;
-            }
-            mCurrentVariables.mTotalMismatches++;
-            ++mismatches;
-            ++tPos;
-            ++rPos;
-          } else if (c == SamUtils.CIGAR_DELETION_FROM_REF) {
-            ++tPos;
-            ++mismatches;
-            if (prevChar != SamUtils.CIGAR_DELETION_FROM_REF) {
-              score += mGapOpenPenalty;
-            }
-            score += mGapExtendPenalty;
-          } else if (c == SamUtils.CIGAR_GAP_IN_READ) { // skip used in CG reads
-            ++tPos;
-          } else if (c == SamUtils.CIGAR_INSERTION_INTO_REF) {
-            ++mismatches;
-            ++rPos;
-            if (prevChar != SamUtils.CIGAR_INSERTION_INTO_REF) {
-              score += mGapOpenPenalty;
-            }
-            score += mGapExtendPenalty;
-          } else if (c == SamUtils.CIGAR_SOFT_CLIP) { // soft-clipping bases in read ignored for position
-            ++rPos; // NM field does not count soft clip, hence don't increment mismatches
-            ignoreScore = true;
-          } else {
-            assert false;
-          }
-          prevChar = c;
-        }
-        n = 0;
-      }
-    }
-    boolean ok = true;
-    if (samRecord.getIntegerAttribute(SamUtils.ATTRIBUTE_NUM_MISMATCHES) != null) {
-      final Integer samnm = samRecord.getIntegerAttribute(SamUtils.ATTRIBUTE_NUM_MISMATCHES);
-      if (samnm == null) {
-        mErr.println("SAM record did not contain " + SamUtils.ATTRIBUTE_NUM_MISMATCHES + " attribute. " + samRecord);
-        return -1;
-      }
-      ok = samnm == mismatches;
-    }
-    if (!ok) {
-      dumpFaulty(template, samRecord, mErr); // Attempt to print the faulty alignment
-      mErr.println("Observed mismatches: " + mismatches + " Claimed mismatches: " + samRecord.getIntegerAttribute(SamUtils.ATTRIBUTE_NUM_MISMATCHES));
-    }
-    return ignoreScore ? Integer.MIN_VALUE : ok ? score : -1;
+    return mChecker.isAtExpectedRef(template, samRecord, pileUp);
   }
 
   private static char readNt(final byte[] read, final int p) {
@@ -776,12 +592,429 @@ public final class SamValidator {
     }
   }
 
-  private byte[] read(final int readId, final boolean first) {
-    return ReadHelper.getRead(first ? mLeftReader : mRightReader, readId);
-  }
+  /**
+   * Performs the per record checks. A checker either writes straight to the validator
+   * state, or when used by a worker thread buffers its messages, statistics, pile-up
+   * contributions and mate keys until they are merged back in record order.
+   */
+  private final class RecordChecker {
+    private final PrintStream mErrors;
+    private final ByteArrayOutputStream mBuffer;
+    private final SamStatsVariables mVariables;
+    private final SequencesReader mLeft;
+    private final SequencesReader mRight;
+    private final SuperCigarValidator mSuperCigarValidator = new SuperCigarValidator(mUnknownsPenalty > 0 ? 1 : 0);
+    private final List<String> mMateKeys = new ArrayList<>();
+    private int[] mPileUpPositions = null;
+    private char[] mPileUpBases = null;
+    private int mPileUpSize = 0;
+    private byte[] mTemplate = null;
 
-  private byte[] qual(final int readId, final boolean first) {
-    return ReadHelper.getQual(first ? mLeftReader : mRightReader, readId);
+    RecordChecker(PrintStream err, SamStatsVariables variables, SequencesReader left, SequencesReader right) {
+      mErrors = err;
+      mBuffer = null;
+      mVariables = variables;
+      mLeft = left;
+      mRight = right;
+    }
+
+    RecordChecker(SequencesReader left, SequencesReader right) {
+      mBuffer = new ByteArrayOutputStream();
+      mErrors = new PrintStream(mBuffer);
+      mVariables = new SamStatsVariables();
+      mLeft = left;
+      mRight = right;
+    }
+
+    void check(SAMRecord samRec, int readId, boolean first, boolean cgData, byte[] template, int prevTemplatePosition, PileUp pileUp) {
+      if (!"*".equals(samRec.getBaseQualityString())) {
+        if (samRec.getBaseQualities().length != samRec.getReadLength()) {
+          mErrors.print("Read length and quality length differ " + samRec.getSAMString().trim());
+        }
+      }
+      if ("*".equals(samRec.getReferenceName())) {        // unmapped record
+        mVariables.mUnmappedRecords++;
+        if (mValidate) {
+          if (!matchesRawRead(read(readId, first), qual(readId, first), samRec, cgData)) {
+            mErrors.println("Read doesn't match expected value from SDF file " + samRec.getSAMString().trim());
+          }
+        }
+        // TODO probably more stuff can be checked here, and may need to handle unmated stuff
+        return;
+      }
+      if (template != mTemplate) {
+        mTemplate = template;
+        mSuperCigarValidator.setTemplate(template);
+      }
+      final int expectedRet = isAtExpectedRef(template, samRec, pileUp);
+      if (expectedRet == -1) {
+        mErrors.println("Alignment mismatch " + samRec.getSAMString().trim());
+      }
+      if (samRec.getReadPairedFlag() && (samRec.getAlignmentStart() < samRec.getMateAlignmentStart() || (samRec.getAlignmentStart() == samRec.getMateAlignmentStart() && samRec.getFirstOfPairFlag()))) {
+        mVariables.mPairOrientations[(samRec.getFlags() >> 4) & 3]++;
+      }
+      if (mValidate) {
+        validate(samRec, prevTemplatePosition, readId, first, cgData);
+        if (mPenaltiesSet) {
+          checkAlignmentScore(samRec, mVariables.mAlignmentScores, expectedRet);
+        }
+      }
+      accumulateAlignmentCounts(samRec, mVariables.mIH, SamUtils.ATTRIBUTE_IH);
+      accumulateAlignmentCounts(samRec, mVariables.mNH, SamUtils.ATTRIBUTE_NH);
+      final int readLength = samRec.getReadLength();
+      if (mVariables.mMaxReadLength < readLength) {
+        mVariables.mMaxReadLength = readLength;
+      }
+      if (mVariables.mMinReadLength > readLength) {
+        mVariables.mMinReadLength = readLength;
+      }
+      if (samRec.getReadPairedFlag() && samRec.getProperPairFlag()) {
+        final Integer insertSize = samRec.getInferredInsertSize();
+        if (mVariables.mMaxInsertSize < insertSize) {
+          mVariables.mMaxInsertSize = insertSize;
+        }
+        if (mVariables.mMinInsertSize > Math.abs(insertSize)) {
+          mVariables.mMinInsertSize = Math.abs(insertSize);
+        }
+        if (mVariables.mInsertSizes != null && (samRec.getAlignmentStart() < samRec.getMateAlignmentStart() || (samRec.getAlignmentStart() == samRec.getMateAlignmentStart() && samRec.getFirstOfPairFlag()))) {
+          final Integer isCount;
+          if (!mVariables.mInsertSizes.containsKey(insertSize)) {
+            isCount = 1;
+          } else {
+            isCount = mVariables.mInsertSizes.get(insertSize) + 1;
+          }
+          mVariables.mInsertSizes.put(insertSize, isCount);
+        }
+      }
+    }
+
+    /**
+     * Merge buffered results into the validator.
+     * @param pileUp pile-up for the template of the checked records, may be null
+     */
+    void merge(PileUp pileUp) {
+      assert mBuffer != null;
+      mErrors.flush();
+      if (mBuffer.size() > 0) {
+        mErr.print(mBuffer.toString());
+      }
+      mCurrentVariables.addToTotal(mVariables);
+      for (int i = 0; i < mMateKeys.size(); i += 2) {
+        if (!mExpectedMates.remove(mMateKeys.get(i))) {
+          mExpectedMates.add(mMateKeys.get(i + 1));
+        }
+      }
+      for (int i = 0; i < mPileUpSize; ++i) {
+        pileUp.add(mPileUpBases[i], mPileUpPositions[i]);
+      }
+    }
+
+    private void expectMate(String mateKey, String key) {
+      if (mBuffer == null) {
+        if (!mExpectedMates.remove(mateKey)) {
+          mExpectedMates.add(key);
+        }
+      } else {
+        mMateKeys.add(mateKey);
+        mMateKeys.add(key);
+      }
+    }
+
+    private void addPileUp(PileUp pileUp, char nt, int position) {
+      if (mBuffer == null) {
+        pileUp.add(nt, position);
+      } else {
+        if (mPileUpPositions == null) {
+          mPileUpPositions = new int[CHUNK_SIZE];
+          mPileUpBases = new char[CHUNK_SIZE];
+        } else if (mPileUpSize == mPileUpPositions.length) {
+          mPileUpPositions = Arrays.copyOf(mPileUpPositions, 2 * mPileUpSize);
+          mPileUpBases = Arrays.copyOf(mPileUpBases, 2 * mPileUpSize);
+        }
+        mPileUpPositions[mPileUpSize] = position;
+        mPileUpBases[mPileUpSize] = nt;
+        ++mPileUpSize;
+      }
+    }
+
+    private void accumulateAlignmentCounts(SAMRecord samRec, SortedMap<Integer, Integer> map, String attribute) {
+      if (map != null) {
+        final Integer recordCount = samRec.getIntegerAttribute(attribute);
+        if (recordCount != null) {
+          final Integer mapCount;
+          if (!map.containsKey(recordCount)) {
+            mapCount = 1;
+          } else {
+            mapCount = map.get(recordCount) + 1;
+          }
+          map.put(recordCount, mapCount);
+        }
+      }
+    }
+
+    private void checkAlignmentScore(SAMRecord samRec, SortedMap<Integer, Integer> alignmentScoreMap, int computedScore) {
+      final Integer as = samRec.getIntegerAttribute(SamUtils.ATTRIBUTE_ALIGNMENT_SCORE);
+      if (alignmentScoreMap != null) {
+        if (as == null) {
+          if (!samRec.getReadUnmappedFlag()) {
+            mErrors.println("Record has no alignment score: " + samRec.getSAMString().trim());
+          }
+        } else {
+          final Integer ascount;
+          if (!alignmentScoreMap.containsKey(as)) {
+            ascount = 1;
+          } else {
+            ascount = alignmentScoreMap.get(as) + 1;
+          }
+          alignmentScoreMap.put(as, ascount);
+        }
+      }
+      if (mPenaltiesSet && computedScore != Integer.MIN_VALUE && as != null && !as.equals(computedScore)) {
+        final String superCigar = samRec.getStringAttribute(SamUtils.CG_SUPER_CIGAR);
+        if (superCigar == null) {
+          mErrors.println("Record's " + SamUtils.ATTRIBUTE_ALIGNMENT_SCORE + ": " + as + " disagreed with computed score: " + computedScore + ", " + samRec.getSAMString().trim());
+        }
+      }
+    }
+
+    private void validate(SAMRecord samRec, int prevTemplatePosition, int readId, boolean first, boolean cgData) {
+      if (samRec.getAlignmentStart() < prevTemplatePosition) {
+        mErrors.println("Ordering error: " + samRec.getSAMString().trim());
+      }
+      if (samRec.getReadPairedFlag()) {
+        if (samRec.getFirstOfPairFlag() == samRec.getSecondOfPairFlag()) {
+          mErrors.println("Mates from same side " + samRec.getSAMString().trim());
+        }
+        final String mateRef = samRec.getMateReferenceName();
+        if (!samRec.getMateUnmappedFlag() && !"*".equals(mateRef)) {
+          if (!mateRef.equals(samRec.getReferenceName())) {
+            mErrors.println("Mate ref name not same as record ref name " + samRec.getSAMString().trim());
+          }
+          final String mateKey = samRec.getMateAlignmentStart() + ":" + samRec.getAlignmentStart() + ":" + samRec.getReadName() + samRec.getSecondOfPairFlag() + samRec.getReadNegativeStrandFlag() + samRec.getMateNegativeStrandFlag() + samRec.getInferredInsertSize();
+          final String key = samRec.getAlignmentStart() + ":" + samRec.getMateAlignmentStart() + ":" + samRec.getReadName() + samRec.getFirstOfPairFlag() + samRec.getMateNegativeStrandFlag() + samRec.getReadNegativeStrandFlag() + -samRec.getInferredInsertSize();
+          expectMate(mateKey, key);
+        }   //else the mate is unmapped...
+      }
+      if (!matchesRawRead(read(readId, first), qual(readId, first), samRec, cgData)) {
+        mErrors.println("Read doesn't match expected value from SDF " + samRec.getSAMString().trim());
+      }
+      final Integer ih = samRec.getIntegerAttribute(SamUtils.ATTRIBUTE_IH);
+      if (ih != null && ih <= 0) {
+        mErrors.println("IH value invalid " + samRec.getSAMString().trim());
+      }
+      final Integer nh = samRec.getIntegerAttribute(SamUtils.ATTRIBUTE_NH);
+      if (nh != null) {
+        if (nh <= 0) {
+          mErrors.println("NH value invalid " + samRec.getSAMString().trim());
+        } else if (ih != null && nh < ih) {
+          mErrors.println("NH should be greater than or equal to IH " + samRec.getSAMString().trim());
+        }
+      }
+    }
+
+    private boolean matchesGotohCg(byte[] read, byte[] quality, SAMRecord record) {
+      mSuperCigarValidator.setTemplateStart(record.getAlignmentStart() - 1);
+      try {
+        mSuperCigarValidator.setData(record, read, quality);
+        mSuperCigarValidator.parse();
+      } catch (final IllegalStateException ise) {
+        mErrors.println(ise.getMessage());
+        return false;
+      } catch (final BadSuperCigarException bce) {
+        mErrors.println(bce.getMessage() + ", " + record.getSAMString().trim());
+        return false;
+      }
+      if (!mSuperCigarValidator.isValid()) {
+        mErrors.println(mSuperCigarValidator.getInvalidReason());
+        return false;
+      }
+
+      return true;
+    }
+
+    boolean matchesRawRead(byte[] read, byte[] quality, SAMRecord record, boolean cgData) {
+      if (read == null) {
+        return true;
+      }
+      final SamSequence s;
+      if (cgData) {
+        if (record.getStringAttribute(SamUtils.CG_SUPER_CIGAR) != null) {
+          return matchesGotohCg(read, quality, record);
+        }
+        s = CgSamBamSequenceDataSource.unrollCgRead(record);
+      } else {
+        s = new SamSequence(record);
+      }
+      final byte[] recordBytes = s.getReadBases();
+      final byte[] recordQualities = s.getBaseQualities();
+      if (read.length != recordBytes.length) {
+        return false;
+      } else if (quality != null && quality.length != recordQualities.length) {
+        return false;
+      }
+      if (record.getReadNegativeStrandFlag()) {
+        for (int i = 0; i < read.length; ++i) {
+          if (DnaUtils.getBase(DNA.complement(read[i])) != Character.toUpperCase((char) recordBytes[recordBytes.length - i - 1])) {
+            return false;
+          } else if (quality != null && i < recordQualities.length && quality[i] != recordQualities[recordBytes.length - i - 1]) {
+            return false;
+          }
+        }
+      } else {
+        for (int i = 0; i < read.length; ++i) {
+          if (DnaUtils.getBase(read[i]) != Character.toUpperCase((char) recordBytes[i])) {
+            return false;
+          } else if (quality != null && i < recordQualities.length && quality[i] != recordQualities[i]) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+
+    int isAtExpectedRef(final byte[] template, final SAMRecord samRecord, final PileUp pileUp) {
+      if (samRecord.getAlignmentStart() < 1 || samRecord.getAlignmentStart() > template.length) {
+        mErrors.println("Match start position exceeds template limits");
+        return -1;
+      }
+      final byte[] read = samRecord.getReadBases();
+      final String cigar = samRecord.getCigarString();
+
+      int n = 0;
+      int rPos = 0;
+      int tPos = samRecord.getAlignmentStart() - 1;
+      int mismatches = 0;
+
+      char prevChar = (char) -1;
+      int score = 0;
+      boolean ignoreScore = false;
+
+      for (int i = 0; i < cigar.length(); ++i) {
+        final char c = cigar.charAt(i);
+        if (Character.isDigit(c)) {
+          n = 10 * n + c - '0';
+        } else {
+          assert n > 0;
+          for (int j = 0; j < n; ++j) {
+            if (tPos >= template.length && c != SamUtils.CIGAR_SOFT_CLIP) {
+              mErrors.println("Template length exceeded but read does not indicate soft clipping, " + samRecord);
+              return -1;
+            }
+            if (c == SamUtils.CIGAR_SAME_OR_MISMATCH) { //match OR mismatch
+              if (rPos >= read.length) {
+                mErrors.println("Match went off end of read, " + samRecord);
+                return -1;
+              }
+              final int nt = Character.toUpperCase((char) read[rPos]);
+              final int refNt = DnaUtils.getBase(template[tPos]);
+              mVariables.mTotalMatches++;
+              if (pileUp != null) {
+                addPileUp(pileUp, (char) nt, tPos);
+              }
+              if (nt == 'N' || refNt == 'N') { //if either are unknown
+                ++mismatches;
+                mVariables.mTotalMismatches++;
+                score += mUnknownsPenalty;
+              } else if (!(nt == refNt)) { // if nt are different
+                ++mismatches;
+                mVariables.mTotalMismatches++;
+                score += mMismatchPenalty;
+              }
+              ++tPos;
+              ++rPos;
+            } else if (c == SamUtils.CIGAR_SAME) { //match
+              if (rPos >= read.length) {
+                mErrors.println("Match went off end of read, " + samRecord);
+                return -1;
+              }
+              final int nt = Character.toUpperCase((char) read[rPos]);
+              final int refNt = DnaUtils.getBase(template[tPos]);
+              mVariables.mTotalMatches++;
+              if (pileUp != null) {
+                addPileUp(pileUp, (char) nt, tPos);
+              }
+              if (nt == 'N' || refNt == 'N') {
+                score += mUnknownsPenalty;
+              } else if (nt != refNt) { // if nt are different or, both are N, or either are N, mismatch.
+                mErrors.println("Expected match " + (char) refNt + " was " + (char) nt + ", rpos=" + rPos + ", " + samRecord);
+                return -1;
+              }
+              ++tPos;
+              ++rPos;
+            } else if (c == SamUtils.CIGAR_MISMATCH) { //mismatch
+              if (rPos >= read.length) {
+                mErrors.println("Match went off end of read, " + samRecord);
+                return -1;
+              }
+              final int nt = Character.toUpperCase((char) read[rPos]);
+              final int refNt = DnaUtils.getBase(template[tPos]);
+              mVariables.mTotalMatches++;
+              if (pileUp != null) {
+                addPileUp(pileUp, (char) nt, tPos);
+              }
+
+              if (nt == 'N' || refNt == 'N') {
+                score += mUnknownsPenalty;
+              } else if (nt != refNt) {
+                score += mMismatchPenalty;
+              } else {
+                mErrors.println("Expected mismatch " + samRecord);
+                return -1;
+              }
+              mVariables.mTotalMismatches++;
+              ++mismatches;
+              ++tPos;
+              ++rPos;
+            } else if (c == SamUtils.CIGAR_DELETION_FROM_REF) {
+              ++tPos;
+              ++mismatches;
+              if (prevChar != SamUtils.CIGAR_DELETION_FROM_REF) {
+                score += mGapOpenPenalty;
+              }
+              score += mGapExtendPenalty;
+            } else if (c == SamUtils.CIGAR_GAP_IN_READ) { // skip used in CG reads
+              ++tPos;
+            } else if (c == SamUtils.CIGAR_INSERTION_INTO_REF) {
+              ++mismatches;
+              ++rPos;
+              if (prevChar != SamUtils.CIGAR_INSERTION_INTO_REF) {
+                score += mGapOpenPenalty;
+              }
+              score += mGapExtendPenalty;
+            } else if (c == SamUtils.CIGAR_SOFT_CLIP) { // soft-clipping bases in read ignored for position
+              ++rPos; // NM field does not count soft clip, hence don't increment mismatches
+              ignoreScore = true;
+            } else {
+              assert false;
+            }
+            prevChar = c;
+          }
+          n = 0;
+        }
+      }
+      boolean ok = true;
+      if (samRecord.getIntegerAttribute(SamUtils.ATTRIBUTE_NUM_MISMATCHES) != null) {
+        final Integer samnm = samRecord.getIntegerAttribute(SamUtils.ATTRIBUTE_NUM_MISMATCHES);
+        if (samnm == null) {
+          mErrors.println("SAM record did not contain " + SamUtils.ATTRIBUTE_NUM_MISMATCHES + " attribute. " + samRecord);
+          return -1;
+        }
+        ok = samnm == mismatches;
+      }
+      if (!ok) {
+        dumpFaulty(template, samRecord, mErrors); // Attempt to print the faulty alignment
+        mErrors.println("Observed mismatches: " + mismatches + " Claimed mismatches: " + samRecord.getIntegerAttribute(SamUtils.ATTRIBUTE_NUM_MISMATCHES));
+      }
+      return ignoreScore ? Integer.MIN_VALUE : ok ? score : -1;
+    }
+
+    private byte[] read(final int readId, final boolean first) {
+      return ReadHelper.getRead(first ? mLeft : mRight, readId);
+    }
+
+    private byte[] qual(final int readId, final boolean first) {
+      return ReadHelper.getQual(first ? mLeft : mRight, readId);
+    }
   }
 
   static final class SamStatsVariables {
@@ -81,6 +81,7 @@ public final class SamValidatorCli extends AbstractCli {
     flags.registerOptional('D', DISTRIBUTIONS_FLAG, "display distributions of insert sizes, alignment scores and read hits").setCategory(REPORTING);
     flags.registerOptional(IGNORE_CG_FRAGMENT_LENGTH, "ignore unusual Complete Genomics fragment lengths.").setCategory(REPORTING);
     flags.registerOptional(PER_FILE_STATS, "output per-file statistics").setCategory(REPORTING);
+    CommonFlags.initThreadsFlag(flags);
 
     flags.registerOptional(GAP_OPEN_PENALTY_FLAG, Integer.class, CommonFlags.INT, "penalty for a gap open during alignment score checking").setCategory(REPORTING);
     flags.registerOptional(GAP_EXTEND_PENALTY_FLAG, Integer.class, CommonFlags.INT, "penalty for a gap extension during alignment score checking").setCategory(REPORTING);
@@ -144,6 +145,7 @@ public final class SamValidatorCli extends AbstractCli {
         left = reads;
         right = null;
       }
+      sv.setThreads(CommonFlags.parseThreads((Integer) flags.getValue(CommonFlags.THREADS_FLAG)));
       sv.checkSAMAlign(template, inputFiles, left, right);
     } finally {
       outps.flush();
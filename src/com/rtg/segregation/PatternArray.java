@@ -99,7 +99,8 @@ public class PatternArray extends IntegralAbstract {
 
   private final Pattern[] mPatterns;
 
-  private long[] mSignature = null;
+  // Written after mHash, so a non-null signature seen by any thread implies the hash is set
+  private volatile long[] mSignature = null;
 
   private int mHash;
 
@@ -307,9 +308,7 @@ public class PatternArray extends IntegralAbstract {
       return false;
     }
     final PatternArray that = (PatternArray) obj;
-    this.checkSignature();
-    that.checkSignature();
-    return Arrays.equals(this.mSignature, that.mSignature);
+    return Arrays.equals(this.checkSignature(), that.checkSignature());
   }
 
   /**
@@ -329,24 +328,29 @@ public class PatternArray extends IntegralAbstract {
 
   /**
    * Lazily compute a signature that is unique given possible flips of patterns, also compute the hash from this.
+   * Safe to call from multiple threads.
+   * @return the signature
    */
-  private void checkSignature() {
-    if (mSignature != null) {
-      return;
+  private long[] checkSignature() {
+    final long[] current = mSignature;
+    if (current != null) {
+      return current;
     }
-    mSignature = new long[Pattern.NUMBER_FLIPS];
+    final long[] signature = new long[Pattern.NUMBER_FLIPS];
     for (int i = 0; i < Pattern.NUMBER_FLIPS; ++i) {
-      mSignature[i] = signature(i);
+      signature[i] = signature(i);
     }
-    Arrays.sort(mSignature);
+    Arrays.sort(signature);
     final int prime = 31;
     long t = prime;
-    for (final long f : mSignature) {
+    for (final long f : signature) {
       t = t * prime + f;
     }
     final long tt = t * 3221225461L; //large prime < 2^32
     final long tx = tt + (tt >>> 32);
     mHash = (int) tx;
+    mSignature = signature;
+    return signature;
   }
 
   @Override
@@ -358,12 +362,13 @@ public class PatternArray extends IntegralAbstract {
   @Override
   public final boolean integrity() {
     Exam.assertNotNull(mPatterns);
-    if (mSignature != null) {
-      Exam.assertEquals(Pattern.NUMBER_FLIPS, mSignature.length);
+    final long[] signature = mSignature;
+    if (signature != null) {
+      Exam.assertEquals(Pattern.NUMBER_FLIPS, signature.length);
       final int n = length() * Pattern.NUMBER_BITS;
       final long mask = -1L << n;
       for (int i = 0; i < Pattern.NUMBER_FLIPS; ++i) {
-        Exam.assertEquals(0, mSignature[i] & mask);
+        Exam.assertEquals(0, signature[i] & mask);
       }
     }
     return true;
@@ -12,16 +12,24 @@
 
 package com.rtg.segregation;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableSet;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.reeltwo.jumble.annotations.TestClass;
 import com.rtg.util.Pair;
+import com.rtg.util.diagnostic.NoTalkbackSlimException;
 import com.rtg.util.integrity.Exam;
 import com.rtg.util.integrity.IntegralAbstract;
 
@@ -29,100 +37,156 @@ import com.rtg.util.integrity.IntegralAbstract;
  * Search for the lowest cost path through a sequence of blocks.
  */
 //TODO some serious testing especially of garbage collection
-@TestClass("com.rtg.segregation.SegregationVcfSearchTest")
+@TestClass({"com.rtg.segregation.SearchTest", "com.rtg.segregation.SegregationVcfSearchTest"})
 public class Search extends IntegralAbstract {
 
   private static final int ERROR_PENALTY = 1;
 
   private static final int REMOVE_THRESHOLD = 10000;
 
+  // Fewer ranked chains than this are always extended on the calling thread
+  private static final int PARALLEL_THRESHOLD = 16;
+
   private final int mNewPenalty;
 
   private final int mXOPenalty;
 
+  private final int mBeamWidth;
+
+  private final ExecutorService mExecutor;
+
+  private final int mThreads;
+
   static final int DEFAULT_NEW_PENALTY = 1000;
   static final int DEFAULT_XO_PENALTY = 100;
+  static final int DEFAULT_BEAM_WIDTH = 1000;
 
   Search(int newPenalty, int xOPenalty) {
+    this(newPenalty, xOPenalty, DEFAULT_BEAM_WIDTH, null, 1);
+  }
+
+  /**
+   * @param newPenalty penalty for starting a new block
+   * @param xOPenalty penalty for a cross over
+   * @param beamWidth maximum number of ranked chains retained after each block
+   * @param executor used to extend ranked chains in parallel, may be null to do all work on the calling thread
+   * @param threads number of parts the ranked chains are split into when running in parallel
+   */
+  Search(int newPenalty, int xOPenalty, int beamWidth, ExecutorService executor, int threads) {
+    if (beamWidth < 1) {
+      throw new IllegalArgumentException("Beam width must be positive: " + beamWidth);
+    }
     mNewPenalty = newPenalty;
     mXOPenalty = xOPenalty;
+    mBeamWidth = beamWidth;
+    mExecutor = threads > 1 ? executor : null;
+    mThreads = threads;
   }
 
-  private int mSearchContainderId = 0;
+  private long mSearchContainderId = 0;
 
   private  NavigableSet<SearchContainer> mRankedChains = new TreeSet<>();
 
+  /**
+   * A possible new search container, which is only given an identifier and built if it survives de-duplication.
+   */
+  private static final class Candidate {
+    private final SearchContainer mPrevious;
+    private final double mScore;
+    private final SearchContainer mLastOk;
+    private final PatternArray mPattern;
+    private final SearchType mType;
+    private final CrossOver mXo;
+    private long mId;
+
+    Candidate(SearchContainer previous, double score, SearchContainer lastOk, PatternArray pattern, SearchType type, CrossOver xo) {
+      mPrevious = previous;
+      mScore = score;
+      mLastOk = lastOk;
+      mPattern = pattern;
+      mType = type;
+      mXo = xo;
+    }
+
+    Pair<PatternArray, Boolean> key() {
+      return new Pair<>(mPattern, mType == SearchType.Error);
+    }
+
+    // Same order as the search containers that would be made
+    boolean betterThan(Candidate that) {
+      final int c = Double.compare(mScore, that.mScore);
+      return c < 0 || (c == 0 && mId < that.mId);
+    }
+  }
+
+  /**
+   * Candidates from a run of consecutive ranked chains, de-duplicated within the run.
+   * Identifiers are relative to the start of the run until the runs are merged.
+   */
+  private final class Extensions implements Callable<Extensions> {
+    private final List<SearchContainer> mChains;
+    private final SegregationBlock mBlock;
+    private final Map<Pair<PatternArray, Boolean>, Candidate> mBest = new HashMap<>();
+    private long mCount = 0;
+
+    Extensions(List<SearchContainer> chains, SegregationBlock block) {
+      mChains = chains;
+      mBlock = block;
+    }
+
+    void add(final Candidate candidate) {
+      candidate.mId = mCount++;
+      mBest.merge(candidate.key(), candidate, (earlier, later) -> later.betterThan(earlier) ? later : earlier);
+    }
+
+    @Override
+    public Extensions call() {
+      for (final SearchContainer sc : mChains) {
+        extend(this, sc, mBlock);
+      }
+      return this;
+    }
+  }
+
   void add(final SegregationBlock block) {
     //System.err.println("add " + block.toString());
-    final Map<Pair<PatternArray, Boolean>, SearchContainer> map = new HashMap<>();
     //Add a new break (possibly the first one) - use the best chain so far.
-    final SearchContainer n0;
+    final Extensions start = new Extensions(Collections.emptyList(), block);
     final PatternArray patterns = block.patterns();
     if (mRankedChains.isEmpty()) {
-      final SearchContainer n1 = new SearchContainer(null, block.count() * ERROR_PENALTY, null, block, patterns, SearchType.Error, null, mSearchContainderId);
-      add(map, n1);
-      n0 = new SearchContainer(null, 0, null, block, patterns, SearchType.New, null, mSearchContainderId);
+      start.add(new Candidate(null, block.count() * ERROR_PENALTY, null, patterns, SearchType.Error, null));
+      start.add(new Candidate(null, 0, null, patterns, SearchType.New, null));
     } else {
       final SearchContainer bestSoFar = mRankedChains.first();
-      n0 = new SearchContainer(bestSoFar, bestSoFar.score() + mNewPenalty, null, block, patterns, SearchType.New, null, mSearchContainderId);
+      start.add(new Candidate(bestSoFar, bestSoFar.score() + mNewPenalty, null, patterns, SearchType.New, null));
     }
-    add(map, n0);
 
     //Check everything so far.
-    for (final SearchContainer sc : mRankedChains) {
-      //System.err.println(">>" + sc.toString());
-      final SearchContainer good = sc.goodContainer();
-      if (good == null) {
-        final SearchContainer n1 = new SearchContainer(sc, sc.score(), null, block, patterns, SearchType.OK, null, mSearchContainderId);
-        add(map, n1);
-        continue;
-      }
-      //If last ok is cross over then do that
-      final CrossOver crossover;
-      if (sc.goodContainer().block().isXLike() != block.isXLike()) {
-        crossover = null;
-      } else {
-        crossover = PatternArray.crossover(sc.pattern(), patterns, block.isXLike());
-      }
-      if (crossover != null) {
-        //System.err.println("before=" + sc.pattern());
-        //System.err.println("after=" + patterns);
-        //System.err.println("cross=" + crossover);
-        //final SearchContainer n1 = new SearchContainer(sc, sc.score() + mXOPenalty, null, block,  patterns, SearchType.XO, crossover, mSearchContainderId);
-        final SearchContainer n1 = new SearchContainer(sc, sc.score() + mXOPenalty, null, block, crossover.pattern(), SearchType.XO, crossover, mSearchContainderId);
-        add(map, n1);
-      }
-
-      //If good is compatible then add an ok for each possible flip
-      //else add an error
-
-      boolean ok = false;
-      final PatternArray pa = good.pattern();
-      for (int flip = 0; flip < Pattern.NUMBER_FLIPS; ++flip) {
-        final PatternArray fi = pa.flipIntersect(patterns, flip);
-        if (fi == null) {
-          continue;
-        }
-        final SearchContainer n1 = new SearchContainer(sc, sc.score(), null, block, fi, SearchType.OK, null, mSearchContainderId);
-        add(map, n1);
-        ok = true;
-      }
+    final List<Extensions> parts = new ArrayList<>();
+    parts.add(start);
+    parts.addAll(extendAll(block));
 
-      if (!ok) {
-        //add an error case.
-        final SearchContainer n1 = new SearchContainer(sc, sc.score() + block.count() * ERROR_PENALTY, good, block, pa, SearchType.Error, null, mSearchContainderId);
-        add(map, n1);
+    //Merge in order of the ranked chains, so identifiers and surviving containers are as for a sequential search
+    final Map<Pair<PatternArray, Boolean>, Candidate> map = new HashMap<>();
+    for (final Extensions part : parts) {
+      for (final Candidate candidate : part.mBest.values()) {
+        candidate.mId += mSearchContainderId;
+        map.merge(candidate.key(), candidate, (earlier, later) -> later.betterThan(earlier) ? later : earlier);
       }
+      mSearchContainderId += part.mCount;
+    }
+    final NavigableSet<SearchContainer> newChains = new TreeSet<>();
+    for (final Candidate c : map.values()) {
+      newChains.add(new SearchContainer(c.mPrevious, c.mScore, c.mLastOk, block, c.mPattern, c.mType, c.mXo, c.mId));
     }
 
     //garbage collect entries when too many or too high a score
-    final NavigableSet<SearchContainer> newChains = new TreeSet<>(map.values());
     final double removeScore = newChains.first().score() + REMOVE_THRESHOLD;
     final Iterator<SearchContainer> it = newChains.descendingIterator();
     int remaining = newChains.size();
     while (it.hasNext()) {
       final SearchContainer next = it.next();
-      if (remaining > 1000 || next.score() > removeScore) {
+      if (remaining > mBeamWidth || next.score() > removeScore) {
         //System.err.println("##" + next.toString());
         it.remove();
         --remaining;
@@ -141,27 +205,70 @@ public class Search extends IntegralAbstract {
     mRankedChains = newChains;
   }
 
-  private void add(final Map<Pair<PatternArray, Boolean>, SearchContainer> map, final SearchContainer n0) {
-    //System.err.println("++ " + n0.toString());
-    final Pair<PatternArray, Boolean> key = n0.key();
-    final SearchContainer earlier = map.get(key);
-    final SearchContainer ni;
-    if (earlier != null) {
-      if (earlier.score() <= n0.score()) {
-        //best is already there do nothing
-        //System.err.println("-- " + n0.toString());
-        ni = null;
-      } else {
-        //System.err.println("-- " + earlier.toString());
-        ni = n0;
+  // Extend every ranked chain, splitting them into consecutive runs when working in parallel
+  private List<Extensions> extendAll(final SegregationBlock block) {
+    final List<SearchContainer> chains = new ArrayList<>(mRankedChains);
+    if (mExecutor == null || chains.size() < PARALLEL_THRESHOLD) {
+      return Collections.singletonList(new Extensions(chains, block).call());
+    }
+    final List<Future<Extensions>> futures = new ArrayList<>();
+    final int step = (chains.size() + mThreads - 1) / mThreads;
+    for (int i = 0; i < chains.size(); i += step) {
+      futures.add(mExecutor.submit(new Extensions(chains.subList(i, Math.min(chains.size(), i + step)), block)));
+    }
+    final List<Extensions> parts = new ArrayList<>();
+    for (final Future<Extensions> f : futures) {
+      try {
+        parts.add(f.get());
+      } catch (final ExecutionException e) {
+        throw new RuntimeException(e.getCause());
+      } catch (final InterruptedException e) {
+        throw new NoTalkbackSlimException("Interrupted while searching.");
       }
+    }
+    return parts;
+  }
+
+  private void extend(final Extensions out, final SearchContainer sc, final SegregationBlock block) {
+    //System.err.println(">>" + sc.toString());
+    final PatternArray patterns = block.patterns();
+    final SearchContainer good = sc.goodContainer();
+    if (good == null) {
+      out.add(new Candidate(sc, sc.score(), null, patterns, SearchType.OK, null));
+      return;
+    }
+    //If last ok is cross over then do that
+    final CrossOver crossover;
+    if (sc.goodContainer().block().isXLike() != block.isXLike()) {
+      crossover = null;
     } else {
-      ni = n0;
+      crossover = PatternArray.crossover(sc.pattern(), patterns, block.isXLike());
+    }
+    if (crossover != null) {
+      //System.err.println("before=" + sc.pattern());
+      //System.err.println("after=" + patterns);
+      //System.err.println("cross=" + crossover);
+      out.add(new Candidate(sc, sc.score() + mXOPenalty, null, crossover.pattern(), SearchType.XO, crossover));
     }
-    if (ni != null) {
-      map.put(n0.key(), n0);
+
+    //If good is compatible then add an ok for each possible flip
+    //else add an error
+
+    boolean ok = false;
+    final PatternArray pa = good.pattern();
+    for (int flip = 0; flip < Pattern.NUMBER_FLIPS; ++flip) {
+      final PatternArray fi = pa.flipIntersect(patterns, flip);
+      if (fi == null) {
+        continue;
+      }
+      out.add(new Candidate(sc, sc.score(), null, fi, SearchType.OK, null));
+      ok = true;
+    }
+
+    if (!ok) {
+      //add an error case.
+      out.add(new Candidate(sc, sc.score() + block.count() * ERROR_PENALTY, good, pa, SearchType.Error, null));
     }
-    ++mSearchContainderId;
   }
 
   /**
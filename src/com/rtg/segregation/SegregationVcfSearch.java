@@ -24,6 +24,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.rtg.bed.BedWriter;
 import com.rtg.launcher.AbstractCli;
@@ -77,6 +79,7 @@ public class SegregationVcfSearch extends AbstractCli {
   private static final String MOTHER_FLAG = "mother";
   private static final String NEW_PENALTY_FLAG = "Xnew-penalty";
   private static final String XO_PENALTY_FLAG = "Xxo-penalty";
+  private static final String BEAM_WIDTH_FLAG = "Xbeam-width";
 
   private PrintStream mOut = null;
   private BedWriter mBed = null;
@@ -88,6 +91,9 @@ public class SegregationVcfSearch extends AbstractCli {
   private Map<Pair<Sex, String>, ReferenceSequence> mPloidyMap;
   int mNewPenalty;
   int mXoPenalty;
+  private int mBeamWidth;
+  private int mThreads;
+  private ExecutorService mExecutor = null;
 
   @Override
   public String moduleName() {
@@ -114,6 +120,9 @@ public class SegregationVcfSearch extends AbstractCli {
     mFlags.registerRequired(MOTHER_FLAG, String.class, CommonFlags.STRING, "sample name of the mother").setCategory(INPUT_OUTPUT);
     mFlags.registerOptional(NEW_PENALTY_FLAG, Integer.class, CommonFlags.INT, "override penalty for new blocks").setCategory(CommonFlagCategories.SENSITIVITY_TUNING);
     mFlags.registerOptional(XO_PENALTY_FLAG, Integer.class, CommonFlags.INT, "override penalty for crossovers").setCategory(CommonFlagCategories.SENSITIVITY_TUNING);
+    mFlags.registerOptional(BEAM_WIDTH_FLAG, Integer.class, CommonFlags.INT, "maximum number of candidate phasings retained during the search", Search.DEFAULT_BEAM_WIDTH).setCategory(CommonFlagCategories.SENSITIVITY_TUNING);
+    CommonFlags.initThreadsFlag(mFlags);
+    mFlags.setValidator(flags -> flags.checkInRange(BEAM_WIDTH_FLAG, 1, Integer.MAX_VALUE));
 
     CommonFlags.initNoGzip(mFlags);
     CommonFlags.initIndexFlags(mFlags);
@@ -123,13 +132,27 @@ public class SegregationVcfSearch extends AbstractCli {
   protected int mainExec(OutputStream out, PrintStream err) throws IOException {
     mNewPenalty = mFlags.isSet(NEW_PENALTY_FLAG) ? (int) mFlags.getValue(NEW_PENALTY_FLAG) : Search.DEFAULT_NEW_PENALTY;
     mXoPenalty = mFlags.isSet(XO_PENALTY_FLAG) ? (int) mFlags.getValue(XO_PENALTY_FLAG) : Search.DEFAULT_XO_PENALTY;
+    mBeamWidth = (Integer) mFlags.getValue(BEAM_WIDTH_FLAG);
+    mThreads = CommonFlags.parseThreads((Integer) mFlags.getValue(CommonFlags.THREADS_FLAG));
+    mExecutor = mThreads > 1 ? Executors.newFixedThreadPool(mThreads) : null;
+    try {
+      search();
+    } finally {
+      if (mExecutor != null) {
+        mExecutor.shutdownNow();
+      }
+    }
+    return 0;
+  }
+
+  private void search() throws IOException {
     final File genomeFile = (File) mFlags.getValue(CommonFlags.TEMPLATE_FLAG);
     try (final SequencesReader sr = SequencesReaderFactory.createDefaultSequencesReader(genomeFile)) {
       mPloidyMap = constructPloidyMap(sr);
     }
     final boolean gzip = !mFlags.isSet(CommonFlags.NO_GZIP);
     final File bedFile = FileUtils.getZippedFileName(gzip, (File) mFlags.getValue(OUTPUT_REGIONS_FLAG));
-    mSearch = new Search(mNewPenalty, mXoPenalty);
+    mSearch = new Search(mNewPenalty, mXoPenalty, mBeamWidth, mExecutor, mThreads);
     try (final PrintStream outStream = new PrintStream(FileUtils.getZippedFileName(gzip, (File) mFlags.getValue(OUTPUT_FLAG)))) {
       mOut = outStream;
       try (final BedWriter bedOut = new BedWriter(FileUtils.createOutputStream(bedFile))) {
@@ -211,7 +234,6 @@ public class SegregationVcfSearch extends AbstractCli {
         Diagnostic.warning(TabixIndexer.getTabixWarningMessage(bedFile, e));
       }
     }
-    return 0;
   }
 
   static Map<Pair<Sex, String>, ReferenceSequence> constructPloidyMap(final SequencesReader sr) throws IOException {
@@ -240,7 +262,7 @@ public class SegregationVcfSearch extends AbstractCli {
     final Iterator<SearchContainer> it = bestResult.iterator();
     //TODO deal with X chromosome
     reg.iterate(it);
-    mSearch = new Search(mNewPenalty, mXoPenalty);
+    mSearch = new Search(mNewPenalty, mXoPenalty, mBeamWidth, mExecutor, mThreads);
   }
 
   private FamilyGt getFamilyGt(VcfRecord rec, int sampleFather, int sampleMother, Sex[] sexes, Map<Pair<Sex, String>, ReferenceSequence> ploidyMap) throws MismatchingPloidyException {
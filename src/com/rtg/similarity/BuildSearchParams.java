@@ -60,6 +60,8 @@ public class BuildSearchParams extends ModuleParams implements Integrity {
 
     protected boolean mUniqueWords;
 
+    protected int mNumberThreads = 1;
+
     /**
      * Sets the program mode.
      * @param mode program mode.
@@ -80,6 +82,16 @@ public class BuildSearchParams extends ModuleParams implements Integrity {
       return this;
     }
 
+    /**
+     * Sets the number of threads to use when computing similarity.
+     * @param numberThreads number of threads
+     * @return this builder, so calls can be chained.
+     */
+    public BuildSearchParamsBuilder numberThreads(int numberThreads) {
+      mNumberThreads = numberThreads;
+      return this;
+    }
+
     /**
      * Sets the parameters for doing build.
      * @param build the build parameters.
@@ -152,6 +164,8 @@ public class BuildSearchParams extends ModuleParams implements Integrity {
 
   private final boolean mUniqueWords;
 
+  private final int mNumberThreads;
+
   /**
    * Create a set of parameters to use from the builder.
    * @param builder the builder object.
@@ -164,6 +178,7 @@ public class BuildSearchParams extends ModuleParams implements Integrity {
     mCountParams = builder.mCountParams;
     mUniqueWords = builder.mUniqueWords;
     mIndexParams = builder.mIndexParams;
+    mNumberThreads = builder.mNumberThreads;
   }
 
   /**
@@ -275,6 +290,13 @@ public class BuildSearchParams extends ModuleParams implements Integrity {
     return mCountParams.file(name);
   }
 
+  /**
+   * @return number of threads to use for computing similarity.
+   */
+  public int numberThreads() {
+    return mNumberThreads;
+  }
+
   /**
    * Get a stream to the output file.
    * @param name file name
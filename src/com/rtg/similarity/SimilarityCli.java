@@ -191,6 +191,7 @@ public final class SimilarityCli extends ParamsCli<BuildSearchParams> {
     MapFlags.initStepSize(flags, "step size (Default is " + DEFAULT_STEP_SIZE + ")");
     flags.registerOptional(UNIQUE_WORDS, "count only unique words").setCategory(CommonFlagCategories.SENSITIVITY_TUNING);
     flags.registerOptional(MAX_READS_FLAG, Integer.class, CommonFlags.INT, "maximum number of reads to use from each input SDF").setCategory(CommonFlagCategories.UTILITY);
+    CommonFlags.initThreadsFlag(flags);
     flags.addRequiredSet(inFlag);
     flags.addRequiredSet(listFlag);
   }
@@ -234,6 +235,10 @@ public final class SimilarityCli extends ParamsCli<BuildSearchParams> {
   static void memToString(final StringBuilder sb, final BuildSearchParams buildSearchParams, final long bufferLength) {
     sb.append(ParamsUtils.memToString("Shared_buffer", bufferLength));
     sb.append(IndexUtils.memString(buildSearchParams.index()));
+    // Each similarity thread accumulates into its own dense matrix (fewer if they do not fit)
+    final long numSequences = buildSearchParams.build().sequences().directory() != null ? buildSearchParams.build().sequences().numberSequences() : buildSearchParams.sequences().size();
+    final int threads = buildSearchParams.numberThreads();
+    sb.append(ParamsUtils.memToString("Similarity_matrices", threads * SimilarityMatrix.bytes(numSequences), threads));
   }
 
   private static class IncrementalIdMap extends HashMap<Integer, Integer> {
@@ -289,7 +294,7 @@ public final class SimilarityCli extends ParamsCli<BuildSearchParams> {
       Diagnostic.userLog("Estimated usage of memory" + StringUtils.LS + memToString(params, bufferLength));
 
       // Make all the components we need
-      final IndexSimilarity index = new IndexSimilarity(params.index(), new UnfilteredFilterMethod(), params.uniqueWords(), 1);
+      final IndexSimilarity index = new IndexSimilarity(params.index(), new UnfilteredFilterMethod(), params.uniqueWords(), params.numberThreads());
 
       // Search the queries and write hits
       final long numSequences;
@@ -548,7 +553,8 @@ public final class SimilarityCli extends ParamsCli<BuildSearchParams> {
     final CountParams countParams = new CountParams(output, 1/*topn*/, 1/*min*/, false);
 
     final BuildSearchParamsBuilder builder = BuildSearchParams.builder()
-        .mode(pm).count(countParams).uniqueWords(mFlags.isSet(UNIQUE_WORDS));
+        .mode(pm).count(countParams).uniqueWords(mFlags.isSet(UNIQUE_WORDS))
+        .numberThreads(CommonFlags.parseThreads((Integer) mFlags.getValue(CommonFlags.THREADS_FLAG)));
 
     if (mFlags.isSet(INPUT_FLAG)) {
       final File subject = (File) mFlags.getValue(INPUT_FLAG);
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.util.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that many threads can add to cheaply. Updates are spread over
+ * internal cells when contended, so reading the total is relatively slow.
+ */
+public final class Counter {
+
+  private final LongAdder mCount = new LongAdder();
+
+  Counter() { }
+
+  /**
+   * Add one to the count.
+   */
+  public void increment() {
+    mCount.increment();
+  }
+
+  /**
+   * @param value amount to add to the count
+   */
+  public void add(final long value) {
+    mCount.add(value);
+  }
+
+  /**
+   * @return the current count
+   */
+  public long get() {
+    return mCount.sum();
+  }
+
+  void reset() {
+    mCount.reset();
+  }
+}
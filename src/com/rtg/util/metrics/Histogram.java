@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.util.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of non-negative values that many threads can record cheaply. Values are
+ * counted in power of two buckets, so quantiles are reported as the upper bound of the
+ * bucket they fall in, limited by the largest value seen.
+ */
+public final class Histogram {
+
+  private static final int BUCKETS = Long.SIZE;
+
+  private final LongAdder[] mBuckets = new LongAdder[BUCKETS];
+  private final LongAdder mCount = new LongAdder();
+  private final LongAdder mTotal = new LongAdder();
+  private final LongAccumulator mMax = new LongAccumulator(Math::max, 0);
+
+  Histogram() {
+    for (int i = 0; i < BUCKETS; ++i) {
+      mBuckets[i] = new LongAdder();
+    }
+  }
+
+  // Bucket 0 holds 0, bucket b holds values from 2^(b-1) to 2^b - 1
+  static int bucket(final long value) {
+    return value <= 0 ? 0 : BUCKETS - Long.numberOfLeadingZeros(value);
+  }
+
+  private static long upperBound(final int bucket) {
+    return bucket == 0 ? 0 : bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+  }
+
+  /**
+   * @param value value to record, negative values are recorded as zero
+   */
+  public void record(final long value) {
+    final long v = Math.max(0, value);
+    mBuckets[bucket(v)].increment();
+    mCount.increment();
+    mTotal.add(v);
+    mMax.accumulate(v);
+  }
+
+  /**
+   * @return number of values recorded
+   */
+  public long count() {
+    return mCount.sum();
+  }
+
+  /**
+   * @return sum of the values recorded
+   */
+  public long total() {
+    return mTotal.sum();
+  }
+
+  /**
+   * @return largest value recorded, or 0 if there are none
+   */
+  public long max() {
+    return mMax.get();
+  }
+
+  /**
+   * @return mean of the values recorded, or 0 if there are none
+   */
+  public double mean() {
+    final long count = count();
+    return count == 0 ? 0 : (double) total() / count;
+  }
+
+  /**
+   * @param q quantile between 0 and 1
+   * @return an upper bound on the value at the quantile, or 0 if there are no values
+   */
+  public long quantile(final double q) {
+    final long[] counts = new long[BUCKETS];
+    long count = 0;
+    for (int i = 0; i < BUCKETS; ++i) {
+      counts[i] = mBuckets[i].sum();
+      count += counts[i];
+    }
+    final long rank = Math.max(1, (long) Math.ceil(q * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; ++i) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(upperBound(i), max());
+      }
+    }
+    return 0;
+  }
+
+  void reset() {
+    for (final LongAdder b : mBuckets) {
+      b.reset();
+    }
+    mCount.reset();
+    mTotal.reset();
+    mMax.reset();
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.util.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.rtg.util.Environment;
+import com.rtg.util.StringUtils;
+import com.rtg.util.io.FileUtils;
+
+/**
+ * Named counters, histograms and phase timers. Metrics are created on first use and
+ * then held for the life of the registry, so the objects returned are best kept in
+ * static fields by the code updating them. Commands reset the global registry when
+ * they start and write it to their output directory when they finish.
+ */
+public final class MetricsRegistry {
+
+  /** The name of the metrics file */
+  public static final String METRICS_FILE_NAME = "metrics.tsv";
+
+  /** Metrics file format version */
+  public static final String VERSION = "performance metrics v1";
+
+  private static final String SEPARATOR = "\t";
+  private static final String MISSING = "-";
+
+  private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+  /**
+   * @return the registry shared by all commands
+   */
+  public static MetricsRegistry global() {
+    return GLOBAL;
+  }
+
+  private final Map<String, Counter> mCounters = new ConcurrentSkipListMap<>();
+  private final Map<String, Histogram> mHistograms = new ConcurrentSkipListMap<>();
+  private final Map<String, PhaseTimer> mPhases = new ConcurrentSkipListMap<>();
+
+  /**
+   * @param name name of the counter
+   * @return the counter with the name, created if necessary
+   */
+  public Counter counter(final String name) {
+    return mCounters.computeIfAbsent(name, k -> new Counter());
+  }
+
+  /**
+   * @param name name of the histogram
+   * @return the histogram with the name, created if necessary
+   */
+  public Histogram histogram(final String name) {
+    return mHistograms.computeIfAbsent(name, k -> new Histogram());
+  }
+
+  /**
+   * @param name name of the phase
+   * @return the timer for the phase, created if necessary
+   */
+  public PhaseTimer phase(final String name) {
+    return mPhases.computeIfAbsent(name, k -> new PhaseTimer());
+  }
+
+  /**
+   * Set every metric back to zero. The metrics themselves are kept, so existing
+   * references remain valid.
+   */
+  public void reset() {
+    for (final Counter c : mCounters.values()) {
+      c.reset();
+    }
+    for (final Histogram h : mHistograms.values()) {
+      h.reset();
+    }
+    for (final PhaseTimer p : mPhases.values()) {
+      p.reset();
+    }
+  }
+
+  /**
+   * @return true if nothing has been recorded since creation or the last reset
+   */
+  public boolean isEmpty() {
+    for (final Counter c : mCounters.values()) {
+      if (c.get() != 0) {
+        return false;
+      }
+    }
+    for (final Histogram h : mHistograms.values()) {
+      if (h.count() != 0) {
+        return false;
+      }
+    }
+    for (final PhaseTimer p : mPhases.values()) {
+      if (p.times().count() != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String row(final String name, final String type, final Histogram h) {
+    return name + SEPARATOR + type + SEPARATOR + h.count() + SEPARATOR + h.total() + SEPARATOR + String.format(Locale.ROOT, "%.1f", h.mean())
+      + SEPARATOR + h.max() + SEPARATOR + h.quantile(0.5) + SEPARATOR + h.quantile(0.9) + SEPARATOR + h.quantile(0.99);
+  }
+
+  /**
+   * Write the metrics with non-zero counts to a stream. Phase times are in nanoseconds.
+   * @param out stream to write to
+   */
+  public void write(final OutputStream out) {
+    final PrintStream ps = new PrintStream(out);
+    ps.print("#Version" + SEPARATOR + Environment.getVersion() + ", " + VERSION + StringUtils.LS);
+    ps.print("#name" + SEPARATOR + "type" + SEPARATOR + "count" + SEPARATOR + "total" + SEPARATOR + "mean" + SEPARATOR + "max"
+      + SEPARATOR + "p50" + SEPARATOR + "p90" + SEPARATOR + "p99" + StringUtils.LS);
+    for (final Map.Entry<String, Counter> e : mCounters.entrySet()) {
+      final long count = e.getValue().get();
+      if (count != 0) {
+        ps.print(e.getKey() + SEPARATOR + "counter" + SEPARATOR + count + SEPARATOR + count
+          + SEPARATOR + MISSING + SEPARATOR + MISSING + SEPARATOR + MISSING + SEPARATOR + MISSING + SEPARATOR + MISSING + StringUtils.LS);
+      }
+    }
+    for (final Map.Entry<String, Histogram> e : mHistograms.entrySet()) {
+      if (e.getValue().count() != 0) {
+        ps.print(row(e.getKey(), "histogram", e.getValue()) + StringUtils.LS);
+      }
+    }
+    for (final Map.Entry<String, PhaseTimer> e : mPhases.entrySet()) {
+      if (e.getValue().times().count() != 0) {
+        ps.print(row(e.getKey(), "phase", e.getValue().times()) + StringUtils.LS);
+      }
+    }
+    ps.flush();
+  }
+
+  /**
+   * Write the metrics to the metrics file in a directory, unless nothing has been recorded.
+   * @param directory output directory
+   * @throws IOException if an I/O problem occurs
+   */
+  public void writeToDirectory(final File directory) throws IOException {
+    if (!isEmpty()) {
+      try (OutputStream out = FileUtils.createOutputStream(new File(directory, METRICS_FILE_NAME), false)) {
+        write(out);
+      }
+    }
+  }
+}
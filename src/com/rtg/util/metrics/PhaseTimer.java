@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.util.metrics;
+
+/**
+ * Accumulates the elapsed times of a named phase of processing, which may run many
+ * times and on many threads at once. Times are in nanoseconds.
+ */
+public final class PhaseTimer {
+
+  /**
+   * One timing of the phase.
+   */
+  public final class Split {
+    private final long mStart = System.nanoTime();
+
+    private Split() { }
+
+    /**
+     * Record the time since this split was started.
+     */
+    public void stop() {
+      record(System.nanoTime() - mStart);
+    }
+  }
+
+  private final Histogram mTimes = new Histogram();
+
+  PhaseTimer() { }
+
+  /**
+   * @return a timing of the phase, started now
+   */
+  public Split start() {
+    return new Split();
+  }
+
+  /**
+   * @param nanos elapsed time of one execution of the phase, in nanoseconds
+   */
+  public void record(final long nanos) {
+    mTimes.record(nanos);
+  }
+
+  /**
+   * @return the distribution of elapsed times
+   */
+  public Histogram times() {
+    return mTimes;
+  }
+
+  void reset() {
+    mTimes.reset();
+  }
+}
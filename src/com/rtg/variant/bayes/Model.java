@@ -15,6 +15,8 @@ package com.rtg.variant.bayes;
 
 import java.util.Arrays;
 
+import com.rtg.launcher.globals.CoreGlobalFlags;
+import com.rtg.launcher.globals.GlobalFlags;
 import com.rtg.util.StringUtils;
 import com.rtg.util.Utils;
 import com.rtg.util.integrity.Exam;
@@ -41,6 +43,11 @@ public class Model<D extends Description> extends IntegralAbstract implements Mo
    */
   public static final double AMBIGUITY_THRESHOLD = VariantUtils.phredToProb(AMBIGUITY_PHRED);
 
+  /** Initial number of distinct pieces of evidence that can be held back before the table grows. */
+  static final int INITIAL_EVIDENCE_CLASSES = 16;
+
+  private static final boolean AGGREGATE_EVIDENCE = GlobalFlags.getBooleanValue(CoreGlobalFlags.VARIANT_AGGREGATE_EVIDENCE_FLAG);
+
   private static final String SPACES3 = "   ";
 
   private static final String SPACES4 = "    ";
@@ -55,6 +62,16 @@ public class Model<D extends Description> extends IntegralAbstract implements Mo
 
   protected boolean mFrozen = false;
 
+  private boolean mAggregate = AGGREGATE_EVIDENCE;
+
+  // Evidence held back, with the number of times it has been seen, so that it can be applied once per class.
+  // Classes are kept in the order first seen, and found by identity through an open addressing table of
+  // one plus their index in mClasses (zero for an empty slot), which is kept at most half full.
+  private EvidenceInterface[] mClasses = null;
+  private int[] mClassCounts = null;
+  private int[] mClassSlots = null;
+  private int mNumClasses = 0;
+
   protected boolean ambiguityShortCircuit(final EvidenceInterface evidence) {
     return evidence.mapError() >= AMBIGUITY_THRESHOLD; // || evidence.error() > MAX_BASE_ERROR;
   }
@@ -80,10 +97,21 @@ public class Model<D extends Description> extends IntegralAbstract implements Mo
    * @param m model to copy
    */
   protected Model(Model<D> m) {
+    m.flushEvidence();
     mHypotheses = m.mHypotheses;
     mStatistics = (Statistics<?>) m.mStatistics.copy();
     mPosteriors = Arrays.copyOf(m.mPosteriors, m.mPosteriors.length);
     mAlleleBalance = m.mAlleleBalance;
+    mAggregate = m.mAggregate;
+  }
+
+  /**
+   * Set whether identical pieces of evidence are accumulated and applied together.
+   * @param aggregate true to aggregate evidence
+   */
+  void setAggregateEvidence(final boolean aggregate) {
+    flushEvidence();
+    mAggregate = aggregate;
   }
 
   @Override
@@ -121,26 +149,118 @@ public class Model<D extends Description> extends IntegralAbstract implements Mo
     return mHypotheses.arithmetic();
   }
 
-  private void increment(EvidenceQ evidence) {
+  @Override
+  public void increment(EvidenceInterface evidence) {
+    assert !mFrozen : "This model has been frozen you should not be updating it any more";
+    incrementStatistics(evidence);
+    if (ambiguityShortCircuit(evidence)) {
+      return;
+    }
+    // EvidenceQ objects are shared for each combination of read nucleotide, qualities and state, so
+    // at high depth most evidence is a repeat of something already seen at this position
+    if (!mAggregate || !(evidence instanceof EvidenceQ) || !defer(evidence)) {
+      incrementPosteriors(evidence, 1);
+    }
+  }
+
+  private boolean defer(final EvidenceInterface evidence) {
+    if (mClasses == null) {
+      mClasses = new EvidenceInterface[INITIAL_EVIDENCE_CLASSES];
+      mClassCounts = new int[INITIAL_EVIDENCE_CLASSES];
+      mClassSlots = new int[2 * INITIAL_EVIDENCE_CLASSES];
+    }
+    final int mask = mClassSlots.length - 1;
+    int slot = slot(evidence, mask);
+    while (mClassSlots[slot] != 0) {
+      final int k = mClassSlots[slot] - 1;
+      if (mClasses[k] == evidence) {
+        ++mClassCounts[k];
+        return true;
+      }
+      slot = (slot + 1) & mask;
+    }
+    if (mNumClasses == mClasses.length) {
+      growClasses();
+      return defer(evidence);
+    }
+    mClasses[mNumClasses] = evidence;
+    mClassCounts[mNumClasses] = 1;
+    ++mNumClasses;
+    mClassSlots[slot] = mNumClasses;
+    return true;
+  }
+
+  private static int slot(final EvidenceInterface evidence, final int mask) {
+    final int h = System.identityHashCode(evidence) * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  private void growClasses() {
+    final int length = 2 * mClasses.length;
+    mClasses = Arrays.copyOf(mClasses, length);
+    mClassCounts = Arrays.copyOf(mClassCounts, length);
+    mClassSlots = new int[2 * length];
+    final int mask = mClassSlots.length - 1;
+    for (int k = 0; k < mNumClasses; ++k) {
+      int slot = slot(mClasses[k], mask);
+      while (mClassSlots[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      mClassSlots[slot] = k + 1;
+    }
+  }
+
+  /**
+   * @return the number of distinct pieces of evidence currently held back
+   */
+  int evidenceClasses() {
+    return mNumClasses;
+  }
+
+  /**
+   * Apply any evidence that has been held back to the posteriors.
+   */
+  protected final void flushEvidence() {
+    for (int k = 0; k < mNumClasses; ++k) {
+      incrementPosteriors(mClasses[k], mClassCounts[k]);
+      mClasses[k] = null;
+    }
+    if (mNumClasses > 0) {
+      Arrays.fill(mClassSlots, 0);
+    }
+    mNumClasses = 0;
+  }
+
+  /**
+   * Raise a possibility to the number of times a piece of evidence was seen.
+   * @param possibility the possibility for a single piece of evidence
+   * @param count number of times the evidence was seen
+   * @return the combined possibility
+   */
+  protected final double repeat(final double possibility, final int count) {
+    return count == 1 ? possibility : arithmetic().pow(possibility, count);
+  }
+
+  private void incrementPosteriors(EvidenceQ evidence, int count) {
     for (int i = 0; i < size(); ++i) {
       final double v = evidence.logEvidentialProbability(i);
       if (v > 0) {
         return;
       }
-      mPosteriors[i] = arithmetic().multiply(mPosteriors[i], arithmetic().ln2Poss(v));
+      mPosteriors[i] = arithmetic().multiply(mPosteriors[i], repeat(arithmetic().ln2Poss(v), count));
     }
   }
 
-  @Override
-  public void increment(EvidenceInterface evidence) {
-    assert !mFrozen : "This model has been frozen you should not be updating it any more";
-    incrementStatistics(evidence);
-    if (ambiguityShortCircuit(evidence)) {
-      return;
-    }
+  /**
+   * Update the posteriors with some number of identical pieces of evidence, which have already
+   * passed the ambiguity check.
+   * @param evidence the evidence
+   * @param count number of times the evidence was seen
+   */
+  protected void incrementPosteriors(EvidenceInterface evidence, int count) {
     if (evidence instanceof EvidenceQ) {
       // EvidenceQ objects have precomputed evidence probabilities
-      increment((EvidenceQ) evidence);
+      incrementPosteriors((EvidenceQ) evidence, count);
     } else {
       final double r = evidence.mapError();
       final double rc = 1.0 - r;
@@ -162,7 +282,7 @@ public class Model<D extends Description> extends IntegralAbstract implements Mo
         final double pr = prob * rc + pEr;
         //System.err.println("i=" + i + " pr=" + pr + " prob=" + prob + " rc=" + rc + " r=" + r + " pE=" + pE);
         //assert pr > 0.0; // : "pr=" + pr + " prob=" + prob + " rc=" + rc + " r=" + r + " pE=" + pE;
-        final double np = arithmetic().multiply(mPosteriors[i], arithmetic().prob2Poss(pr));
+        final double np = arithmetic().multiply(mPosteriors[i], repeat(arithmetic().prob2Poss(pr), count));
         //assert arithmetic().isValidPoss(np);
         mPosteriors[i] = np;
       }
@@ -172,6 +292,7 @@ public class Model<D extends Description> extends IntegralAbstract implements Mo
   @Override
   public void freeze() {
     assert !mFrozen : "Should only freeze once";
+    flushEvidence();
     mFrozen = true;
     final PossibilityArithmetic arithmetic = arithmetic();
     for (int hyp = 0; hyp < mPosteriors.length; ++hyp) {
@@ -209,6 +330,7 @@ public class Model<D extends Description> extends IntegralAbstract implements Mo
   @Override
   public double posteriorLn0(int hyp) {
     assert mFrozen : "You should freeze the model before calling posterior methods";
+    flushEvidence();
     return arithmetic().poss2Ln(mPosteriors[hyp]);
   }
 
@@ -239,6 +361,7 @@ public class Model<D extends Description> extends IntegralAbstract implements Mo
 
   @Override
   public double p(int code) {
+    flushEvidence();
     return mPosteriors[code];
   }
 
@@ -254,6 +377,7 @@ public class Model<D extends Description> extends IntegralAbstract implements Mo
 
   @Override
   public void toString(StringBuilder sb) {
+    flushEvidence();
     sb.append("Model");
     //mStatistics.toString(sb);
     sb.append(LS);
@@ -12,6 +12,7 @@
 package com.rtg.variant.bayes.multisample;
 
 
+import com.rtg.mode.DNA;
 import com.rtg.reference.Ploidy;
 import com.rtg.reference.Sex;
 import com.rtg.reference.SexMemo;
@@ -99,9 +100,11 @@ public class IndividualSampleFactory<D extends Description> {
   IndividualSampleProcessor<?> make(final String name, final byte[] template, int start, int end) {
     final ReferenceBasedBuffer<ModelInterface<D>> result;
     final ReferenceBasedBuffer<IndelDetector> indelDetector;
+    final boolean[] deferrable;
     final SequenceNameLocusSimple region = new SequenceNameLocusSimple(name, start, end);
     final int parBoundary = PAR_AWARE ? mSexMemo.getParBoundary(mSex, region) : -1;
     if (parBoundary == -1) {
+      deferrable = deferrable(selectFactory(name, start), selectFactory(name, start));
       result = new ReferenceBasedBuffer<>(end - start, selectFactory(name, start), template, start);
       indelDetector = new ReferenceBasedBuffer<>(end - start, IndelDetectorFactory.SINGLETON, template, start);
     } else {
@@ -109,15 +112,25 @@ public class IndividualSampleFactory<D extends Description> {
       Diagnostic.developerLog("Creating a " + mSex + " PAR-aware boundary chunk " + region + " crossing at " + (parBoundary + 1)
           + " from " + mSexMemo.getEffectivePloidy(mSex, name, start)
           + " to " + mSexMemo.getEffectivePloidy(mSex, name, end));
+      deferrable = deferrable(selectFactory(name, start), selectFactory(name, end));
       result = new SwitchingReferenceBasedBuffer<>(end - start, selectFactory(name, start), selectFactory(name, end), parBoundary, template, start);
       indelDetector = new SwitchingReferenceBasedBuffer<>(end - start, selectIndelFactory(name, start), selectIndelFactory(name, end), parBoundary, template, start);
     }
-    final EvidenceMatcher<ModelInterface<D>> matcherCurrent = new EvidenceMatcher<>(result, new EvidenceQFactory());
+    final EvidenceMatcher<ModelInterface<D>> matcherCurrent = new EvidenceMatcher<>(result, new EvidenceQFactory(), deferrable);
     final IndelMatcher indelMatcher = new IndelMatcher(indelDetector);
     final SamToMatch toMatch = new SamToMatchCigar(mParams, new CigarParserModel(matcherCurrent, indelMatcher, start, end, mParams), mChooser);
     return new IndividualSampleProcessor<>(template, matcherCurrent, indelMatcher, toMatch);
   }
 
+  // Reads matching the reference can only be deferred where the models count them as matching their reference
+  static boolean[] deferrable(final ModelFactory<?, ?> first, final ModelFactory<?, ?> second) {
+    final boolean[] res = new boolean[DNA.values().length];
+    for (int nt = 0; nt < DNA.values().length - 1; ++nt) {
+      res[nt + 1] = first.make(nt).reference() == nt && second.make(nt).reference() == nt;
+    }
+    return res;
+  }
+
   private ModelFactory<D, ?> selectFactory(final String name, int pos) {
     switch (getEffectivePloidy(name, pos)) {
       case HAPLOID:
@@ -58,6 +58,19 @@ public class IndividualSampleProcessor<D extends Description> {
     return mMatcherCurrent.step(start);
   }
 
+  /**
+   * @param start position on reference
+   * @return true if no evidence differing from the reference has been seen at the position
+   */
+  boolean hasOnlyRefCoverage(final int start) {
+    final ModelInterface<D> model = mMatcherCurrent.peek(start);
+    return model == null || model.statistics().nonRefCount() == 0;
+  }
+
+  void skip(final int start) {
+    mMatcherCurrent.skip(start);
+  }
+
   IndelDetector stepIndel(final int start) {
     return mMatcherIndel.step(start);
   }
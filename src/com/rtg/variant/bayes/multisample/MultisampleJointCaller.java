@@ -19,6 +19,7 @@ import java.util.List;
 import com.rtg.variant.Variant;
 import com.rtg.variant.bayes.Description;
 import com.rtg.variant.bayes.ModelInterface;
+import com.rtg.variant.bayes.multisample.multithread.MultisampleStatistics;
 import com.rtg.variant.bayes.snp.HypothesesPrior;
 
 /**
@@ -46,4 +47,10 @@ public interface MultisampleJointCaller extends Closeable {
    */
   void endOfSequence();
 
+  /**
+   * Supply statistics in which the caller can record counts of the work it does.
+   * @param statistics statistics for the whole run
+   */
+  default void setStatistics(MultisampleStatistics statistics) {
+  }
 }
@@ -39,7 +39,6 @@ import com.rtg.scheduler.ExecutorSequential;
 import com.rtg.scheduler.ExecutorThreaded;
 import com.rtg.scheduler.Job;
 import com.rtg.scheduler.JobFactory;
-import com.rtg.scheduler.JobStatistics;
 import com.rtg.scheduler.Result;
 import com.rtg.scheduler.Scheduler;
 import com.rtg.scheduler.SchedulerSynchronized;
@@ -58,6 +57,7 @@ import com.rtg.util.intervals.ReferenceRegions;
 import com.rtg.util.intervals.RegionRestriction;
 import com.rtg.util.intervals.StatusInterval;
 import com.rtg.util.machine.MachineType;
+import com.rtg.util.metrics.MetricsRegistry;
 import com.rtg.variant.Variant;
 import com.rtg.variant.Variant.VariantFilter;
 import com.rtg.variant.VariantAlignmentRecord;
@@ -108,7 +108,7 @@ public class MultisampleTask<V extends VariantStatistics> extends ParamsTask<Var
   private static final int MIN_CALLS_FOR_COVERAGE_WARNING = 50; // Only warn for non-trivial datasets
   private static final double COVERAGE_WARNING_THRESHOLD = 1.0;
 
-  private final JobStatistics<JobIdMultisample> mJobStatistics = new MultisampleStatistics();
+  private final MultisampleStatistics mJobStatistics = new MultisampleStatistics();
   private final OutputStream mBedOut;
   private final SexMemo mSexMemo;
   private final List<VcfAnnotator> mAnnotators = new ArrayList<>();
@@ -223,7 +223,7 @@ public class MultisampleTask<V extends VariantStatistics> extends ParamsTask<Var
             final int oldpos = pos;
             do {
               for (final IndividualSampleProcessor<?> ssProcessor1 : ssProcessors) {
-                ssProcessor1.step(pos);
+                ssProcessor1.skip(pos);
               }
               for (final IndividualSampleProcessor<?> ssProcessor : ssProcessors) {
                 ssProcessor.stepIndel(pos);
@@ -240,6 +240,14 @@ public class MultisampleTask<V extends VariantStatistics> extends ParamsTask<Var
             if (v != null) {
               calls.add(v);
             }
+            if (mParams.callLevel() != VariantOutputLevel.ALL && hasOnlyRefCoverage(ssProcessors, pos)) {
+              // No call will be made, so avoid making models for the position
+              for (final IndividualSampleProcessor<?> ssProcessor : ssProcessors) {
+                ssProcessor.skip(pos);
+              }
+              ++pos;
+              continue;
+            }
             models.clear();
             for (final IndividualSampleProcessor<?> ssProcessor : ssProcessors) {
               models.add(ssProcessor.step(pos));
@@ -278,6 +286,15 @@ public class MultisampleTask<V extends VariantStatistics> extends ParamsTask<Var
     return maxReadLen;
   }
 
+  private static boolean hasOnlyRefCoverage(final IndividualSampleProcessor<?>[] ssProcessors, final int pos) {
+    for (final IndividualSampleProcessor<?> ssProcessor : ssProcessors) {
+      if (!ssProcessor.hasOnlyRefCoverage(pos)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   // Sets the status of any positions within the interval to SKIP if they are contained within a no-call range entry (one without metadata)
   private static void addRangeStatuses(StatusInterval statusInterval, List<RangeList.RangeData<String>> ranges, int startIndex, int endPos) {
     for (int rangeIndex = startIndex; rangeIndex < ranges.size(); ++rangeIndex) {
@@ -746,6 +763,7 @@ public class MultisampleTask<V extends VariantStatistics> extends ParamsTask<Var
     }
 
     mConfig = mConfigurator.getConfig(mParams, mStatistics);
+    mConfig.getJointCaller().setStatistics(mJobStatistics);
     final VariantAlleleTrigger variantAlleleTrigger = new VariantAlleleTrigger(mParams.minVariantAllelicDepth(), mParams.minVariantAllelicFraction());
     final DecomposerType trimSplitType = mParams.trimSplit();
     if (trimSplitType == DecomposerType.NONE || mParams.callLevel() == VariantOutputLevel.ALL) {
@@ -798,6 +816,7 @@ public class MultisampleTask<V extends VariantStatistics> extends ParamsTask<Var
   @SuppressWarnings("try")
   protected void exec() throws IOException {
     try {
+      MetricsRegistry.global().reset();
       SamUtils.checkUberHeaderAgainstReference(mReferenceSequences, mParams.uberHeader(), !mParams.ignoreIncompatibleSamHeaders());
       init();
       final Map<String, Long> sequenceNameMap = ReaderUtils.getSequenceNameMap(mReferenceSequences);
@@ -820,6 +839,9 @@ public class MultisampleTask<V extends VariantStatistics> extends ParamsTask<Var
         }
       }
       logRecordCounts();
+      if (mJobStatistics.getScreenSkipped() + mJobStatistics.getScreenPassed() > 0) {
+        Diagnostic.userLog(mJobStatistics.getScreenSkipped() + " sites skipped joint calling after screening, " + mJobStatistics.getScreenPassed() + " sites passed screening");
+      }
       mStatistics.setExcessiveCoverageCount(mExcessiveCoverageCount);
       mStatistics.setExcessiveHypothesesCount(mExcessiveHypothesesCount);
       mStatistics.setNoHypothesesCount(mNoHypothesesCount);
@@ -829,7 +851,9 @@ public class MultisampleTask<V extends VariantStatistics> extends ParamsTask<Var
       if (mExcessiveCoverageCount > MIN_CALLS_FOR_COVERAGE_WARNING && excessCoverageFraction > COVERAGE_WARNING_THRESHOLD) {
         Diagnostic.warning("A large fraction of sites had coverage much higher than expected!  Check that input alignments have been calibrated with correct regions or that an appropriate --" + AbstractMultisampleCli.COVERAGE_BYPASS_FLAG + " value is supplied.");
       }
-
+      if (mParams.outputParams() != null) {
+        MetricsRegistry.global().writeToDirectory(mParams.directory());
+      }
     } finally {
       try (VcfWriter ignored1 = mOut;
            OutputStream ignored2 = mBedOut;
@@ -53,15 +53,12 @@ public class ModelCancerAllele<D extends Description> extends Model<D> {
   public void freeze() {
     // Avoid doing the allele balance calculation.
     assert !mFrozen : "Should only freeze once";
+    flushEvidence();
     mFrozen = true;
   }
 
   @Override
-  public void increment(final EvidenceInterface evidence) {
-    incrementStatistics(evidence);
-    if (ambiguityShortCircuit(evidence)) {
-      return; // todo do we want this?
-    }
+  protected void incrementPosteriors(final EvidenceInterface evidence, final int count) {
     final double r = evidence.mapError();
     final double rc = 1.0 - r;
     if (rc <= 0.0) {
@@ -82,7 +79,7 @@ public class ModelCancerAllele<D extends Description> extends Model<D> {
       }
       // Adjust for mapQ
       final double pr = prob * rc + pEr;
-      mPosteriors[hyp] = arithmetic().multiply(mPosteriors[hyp], arithmetic().prob2Poss(pr));
+      mPosteriors[hyp] = arithmetic().multiply(mPosteriors[hyp], repeat(arithmetic().prob2Poss(pr), count));
     }
   }
 
@@ -93,6 +90,7 @@ public class ModelCancerAllele<D extends Description> extends Model<D> {
 
   @Override
   public void toString(final StringBuilder sb) {
+    flushEvidence();
     sb.append("Allele Cancer Model").append(LS);
     final FormatReal fmt = new FormatReal(4, 3);
     final int pad = hypotheses().maxNameLength();
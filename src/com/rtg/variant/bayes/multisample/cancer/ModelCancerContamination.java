@@ -62,55 +62,96 @@ public class ModelCancerContamination<S extends Hypotheses<? extends Description
     // Avoid doing the allele balance calculation of the standard model since it doesn't play
     // well with the cross-product hypotheses used in this model.
     assert !mFrozen : "Should only freeze once";
+    flushEvidence();
     mFrozen = true;
   }
 
-  private double[] oneDprob(final EvidenceInterface evidence) {
+  /** Per thread working storage for an update, grown as needed. */
+  private static final class Scratch {
+    private int[] mClass = new int[0];
+    private double[] mDistinct = new double[0];
+    private double[] mTable = new double[0];
+
+    private void ensureCapacity(final int size) {
+      if (mClass.length < size) {
+        mClass = new int[size];
+        mDistinct = new double[size];
+      }
+    }
+  }
+
+  private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+  /**
+   * Find the distinct values of the probability of the evidence under each sub-hypothesis.
+   * @return the number of distinct values, which are in <code>mDistinct</code> with <code>mClass</code> mapping each sub-hypothesis to its value
+   */
+  private int distinctProbabilities(final EvidenceInterface evidence, final Scratch scratch) {
     final Code code = mSubHypotheses.code();
-    final double[] probs = new double[mSubHypotheses.size()];
-    for (int i = 0; i < probs.length; ++i) {
+    final int size = mSubHypotheses.size();
+    scratch.ensureCapacity(size);
+    final double[] distinct = scratch.mDistinct;
+    int n = 0;
+    for (int i = 0; i < size; ++i) {
       final double a = Math.max(0, evidence.probability(code.a(i)));
       final double b = Math.max(0, evidence.probability(code.bc(i)));
-      probs[i] = 0.5 * (a + b);
+      final double prob = 0.5 * (a + b);
+      int j = 0;
+      while (j < n && distinct[j] != prob) {
+        ++j;
+      }
+      if (j == n) {
+        distinct[n++] = prob;
+      }
+      scratch.mClass[i] = j;
     }
-    return probs;
+    return n;
   }
 
   @Override
-  public void increment(final EvidenceInterface evidence) {
-    incrementStatistics(evidence);
-    if (ambiguityShortCircuit(evidence)) {
-      return;
-    }
+  protected void incrementPosteriors(final EvidenceInterface evidence, final int count) {
     final double r = evidence.mapError();
     final double rc = 1.0 - r;
     // Avoid case where mapq is 0 which gives a NaN
     if (rc <= 0.0) {
       return;
     }
-    final double[] probs = oneDprob(evidence);
+    final Scratch scratch = SCRATCH.get();
+    final int n = distinctProbabilities(evidence, scratch);
     final double pE = evidence.pe();
     final double pEr = r * pE;
+    // The probability under a normal x cancer hypothesis is a linear mix of the probabilities under
+    // the normal and cancer sub-hypotheses, so it only has to be converted for each pair of distinct
+    // values. For SNP evidence there are at most three distinct values whatever the ploidy.
+    if (scratch.mTable.length < n * n) {
+      scratch.mTable = new double[n * n];
+    }
+    final double[] table = scratch.mTable;
+    for (int j = 0; j < n; ++j) {
+      for (int k = 0; k < n; ++k) {
+        final double prob = scratch.mDistinct[j] * mContamination + scratch.mDistinct[k] * mContaminationM;
+        // Adjust for mapQ - see theory in scoring.tex
+        table[j * n + k] = prob <= 0.0 ? Double.NaN : repeat(arithmetic().prob2Poss(prob * rc + pEr), count);
+      }
+    }
+    final int[] cls = scratch.mClass;
     final Code code = hypotheses().code();
     for (int i = 0; i < size(); ++i) {
-      final int a = code.a(i);
-      final int b = code.bc(i);
       // The cross-product is normal x cancer
-      final double prob = probs[a] * mContamination + probs[b] * mContaminationM;
+      final double poss = table[cls[code.a(i)] * n + cls[code.bc(i)]];
       // Phred scores of 0 can result in 0 probability, just skip them
-      if (prob <= 0.0) {
+      if (Double.isNaN(poss)) {
         return;
       }
-      // Adjust for mapQ - see theory in scoring.tex
-      final double pr = prob * rc + pEr;
-      final double np = arithmetic().multiply(mPosteriors[i], arithmetic().prob2Poss(pr));
-      assert arithmetic().isValidPoss(np); //: System.err.println("np=" + np + " mPosteriors[i]=" + mPosteriors[i] + " i=" + i + " pr=" + pr + " prob=" + prob + " rc=" + rc + " r=" + r + " pE=" + pE);
+      final double np = arithmetic().multiply(mPosteriors[i], poss);
+      assert arithmetic().isValidPoss(np);
       mPosteriors[i] = np;
     }
   }
 
   @Override
   public void toString(final StringBuilder sb) {
+    flushEvidence();
     sb.append("Contaminated Cancer Model");
     final FormatReal fmt = new FormatReal(4, 3);
     sb.append(" contamination=").append(fmt.format(mContamination));
@@ -48,34 +48,43 @@ final class CommonFormulas {
    * @return the new A value.
    */
   static Factor<?> forwardA(final Factor<?> eu, final Factor<?> ev, final Hypotheses<?> ha, final int aIndex, final double[][][] c, final MendelianAlleleProbability m) {
-    final Hypotheses<?> uhyp = eu.hypotheses();
+    final Code code = CommonFormulas.maxCode(eu.hypotheses(), ev.hypotheses());
+    final TransmissionTensor t = new TransmissionTensor(m, code, eu.size(), ev.size(), ha.size() == 0 ? 1 : ha.size(), eu.arithmetic());
+    return forwardA(eu, ev, ha, aIndex, c, t);
+  }
+
+  /**
+   * As for <code>forwardA</code> above, but taking the Mendelian table already evaluated.
+   * @param eu <code>E(u)</code> values for the FATHER
+   * @param ev <code>E(v)</code> values for the MOTHER
+   * @param ha the hypotheses
+   * @param aIndex index into c of the current child.
+   * @param c <code>C(j,k)_b</code> intermediate values from all siblings (in possibility space).
+   * @param t Mendelian table in possibility space.
+   * @return the new A value.
+   */
+  static Factor<?> forwardA(final Factor<?> eu, final Factor<?> ev, final Hypotheses<?> ha, final int aIndex, final double[][][] c, final TransmissionTensor t) {
     final int usize = eu.size();
-    final Hypotheses<?> vhyp = ev.hypotheses();
     final int vsize = ev.size();
     final MutableFactor<?> a = new MutableFactor<>(ha, ha.arithmetic(), ha.size() == 0 ? 1 : ha.size());
-    final Code code = CommonFormulas.maxCode(uhyp, vhyp);
     final int size = a.size();
+    assert t.fatherSize() == usize && t.motherSize() == vsize && t.childSize() == size;
     final PossibilityArithmetic arith = eu.arithmetic();
-    for (int h = 0; h < size; ++h) {
-      double v = arith.zero();
-      for (int j = 0; j < usize; ++j) {
-        final double euj = eu.p(j);
-        for (int k = 0; k < vsize; ++k) {
-          final double evk = ev.p(k);
-          final double mjkh = arith.ln2Poss(m.probabilityLn(code, j, k, h));
-          final double ee = arith.multiply(euj, evk);
-          double p = arith.multiply(ee, mjkh);
-          for (int b = 0; b < c.length; ++b) {
-            if (b != aIndex) {
-              p = arith.multiply(p, c[b][j][k]);
-              //System.err.println("h=" + h + " j=" + j + " k=" + k + " v=" + String.format("%1.4f", arith.poss2Prob(p)));
-            }
+    for (int j = 0; j < usize; ++j) {
+      final double euj = eu.p(j);
+      for (int k = 0; k < vsize; ++k) {
+        // The contribution of the parents and the other siblings does not depend on the child hypothesis
+        double p = arith.multiply(euj, ev.p(k));
+        for (int b = 0; b < c.length; ++b) {
+          if (b != aIndex) {
+            p = arith.multiply(p, c[b][j][k]);
           }
-          v = arith.add(v, p);
         }
-
+        final int offset = t.offset(j, k);
+        for (int h = 0; h < size; ++h) {
+          a.set(h, arith.add(a.p(h), arith.multiply(p, t.poss(offset + h))));
+        }
       }
-      a.set(h, v);
     }
     return a;
   }
@@ -127,22 +136,28 @@ final class CommonFormulas {
    * @return <code>C(j, k)_x</code>.
    */
   static double[][] backwardC(int fatherSize, int motherSize, Code code, final Factor<?> d, final MendelianAlleleProbability m) {
-    //System.err.println("father=" + father);
-    //System.err.println("mother=" + mother);
-    //System.err.println("M=" + m);
-    //final Hypotheses<?> hyp = d.hypotheses();
+    return backwardC(new TransmissionTensor(m, code, fatherSize, motherSize, d.size(), d.arithmetic()), d);
+  }
+
+  /**
+   * @param t Mendelian table in possibility space, covering the father, mother and child hypotheses.
+   * @param d <code>D(b)</code> combination of model with below values.
+   * @return <code>C(j, k)_x</code>.
+   */
+  static double[][] backwardC(final TransmissionTensor t, final Factor<?> d) {
     final int size = d.size();
+    assert t.childSize() == size;
     final PossibilityArithmetic arith = d.arithmetic();
-    final double[][] c;
-    c = new double[fatherSize][motherSize];
-    for (int j = 0; j < fatherSize; ++j) {
-      for (int k = 0; k < motherSize; ++k) {
+    final double[][] c = new double[t.fatherSize()][t.motherSize()];
+    for (int j = 0; j < c.length; ++j) {
+      final double[] cj = c[j];
+      for (int k = 0; k < cj.length; ++k) {
+        final int offset = t.offset(j, k);
         double v = arith.zero();
         for (int h = 0; h < size; ++h) {
-          final double t = arith.multiply(d.p(h), arith.ln2Poss(m.probabilityLn(code, j, k, h)));
-          v = arith.add(v, t);
+          v = arith.add(v, arith.multiply(d.p(h), t.poss(offset + h)));
         }
-        c[j][k] = v;
+        cj[k] = v;
       }
     }
     return c;
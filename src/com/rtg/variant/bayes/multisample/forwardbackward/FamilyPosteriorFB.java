@@ -292,8 +292,9 @@ public class FamilyPosteriorFB extends AbstractFamilyPosterior {
         final BContainer b =  bs[mSampleIds[Family.FIRST_CHILD_INDEX + a]];
         mD[a] = CommonFormulas.computeD(s, b);
         // mDenovoNonrefPrior, mLogDenovoNonrefPrior
-        final MendelianAlleleProbability m = MendelianAlleleProbabilityFactory.COMBINED.getMendelianAlleleProbability(mFatherPloidy, mMotherPloidy, model.hypotheses().ploidy(), mLogDenovoRefPrior, mLogDenovoNonrefPrior, model.reference());
-        mC[a] = CommonFormulas.backwardC(mFatherA.size(), mMotherA.size(), CommonFormulas.maxCode(mFatherHypotheses, mMotherHypotheses) , mD[a], m);
+        final TransmissionTensor m = TransmissionTensor.get(MendelianAlleleProbabilityFactory.COMBINED, mFatherPloidy, mMotherPloidy, model.hypotheses().ploidy(), mLogDenovoRefPrior, mLogDenovoNonrefPrior, model.reference(),
+          CommonFormulas.maxCode(mFatherHypotheses, mMotherHypotheses), mFatherA.size(), mMotherA.size(), mD[a].size(), mD[a].arithmetic());
+        mC[a] = CommonFormulas.backwardC(m, mD[a]);
       }
     }
   }
@@ -308,7 +309,9 @@ public class FamilyPosteriorFB extends AbstractFamilyPosterior {
       final Factor<?>[] ret = new Factor<?>[childSize];
       for (int a = 0; a < childSize; ++a) {
         final ModelInterface<?> model = mChildren.get(a);
-        final MendelianAlleleProbability m = mDenovoSubstitutionFactory.getMendelianAlleleProbability(mFatherPloidy, mMotherPloidy, model.hypotheses().ploidy(), mLogDenovoRefPrior, mLogDenovoNonrefPrior, model.reference());
+        final int hypSize = model.hypotheses().size() == 0 ? 1 : model.hypotheses().size();
+        final TransmissionTensor m = TransmissionTensor.get(mDenovoSubstitutionFactory, mFatherPloidy, mMotherPloidy, model.hypotheses().ploidy(), mLogDenovoRefPrior, mLogDenovoNonrefPrior, model.reference(),
+          CommonFormulas.maxCode(mFatherE.hypotheses(), mMotherE.hypotheses()), mFatherE.size(), mMotherE.size(), hypSize, mFatherE.arithmetic());
         final Factor<?> av = CommonFormulas.forwardA(mFatherE, mMotherE, model.hypotheses(), a, mC, m);
         ret[a] = av;
         //mChildMarginal[a] = CommonFormulas.dot(av, d[a]);
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+
+package com.rtg.variant.bayes.multisample.forwardbackward;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.rtg.reference.Ploidy;
+import com.rtg.variant.bayes.Code;
+import com.rtg.variant.bayes.multisample.family.MendelianAlleleProbability;
+import com.rtg.variant.bayes.multisample.family.MendelianAlleleProbabilityFactory;
+import com.rtg.variant.util.arithmetic.PossibilityArithmetic;
+
+/**
+ * The Mendelian table <code>M(j, k, h)</code> for one father, mother and child configuration,
+ * evaluated for every combination of hypotheses and held in possibility space.
+ * The table depends only on the ploidies, the code, the reference and the de novo priors, so
+ * tables are shared between all the families and positions with the same configuration.
+ */
+final class TransmissionTensor {
+
+  // Bound on the number of distinct configurations held, the cache is emptied when this is reached
+  private static final int MAX_CACHED = 1000;
+
+  private static final Map<Key, TransmissionTensor> CACHE = new ConcurrentHashMap<>();
+
+  private static final class Key {
+    private final MendelianAlleleProbabilityFactory mFactory;
+    private final Ploidy mFather;
+    private final Ploidy mMother;
+    private final Ploidy mChild;
+    private final long mLogRefDenovoPrior;
+    private final long mLogNonRefDenovoPrior;
+    private final int mRef;
+    private final Class<?> mCodeClass;
+    private final int mCodeSize;
+    private final int mCodeRangeSize;
+    private final int mFatherSize;
+    private final int mMotherSize;
+    private final int mChildSize;
+    private final PossibilityArithmetic mArithmetic;
+
+    Key(MendelianAlleleProbabilityFactory factory, Ploidy father, Ploidy mother, Ploidy child, double logRefDenovoPrior, double logNonRefDenovoPrior, int ref, Code code, int fatherSize, int motherSize, int childSize, PossibilityArithmetic arith) {
+      mFactory = factory;
+      mFather = father;
+      mMother = mother;
+      mChild = child;
+      mLogRefDenovoPrior = Double.doubleToLongBits(logRefDenovoPrior);
+      mLogNonRefDenovoPrior = Double.doubleToLongBits(logNonRefDenovoPrior);
+      mRef = ref;
+      mCodeClass = code.getClass();
+      mCodeSize = code.size();
+      mCodeRangeSize = code.rangeSize();
+      mFatherSize = fatherSize;
+      mMotherSize = motherSize;
+      mChildSize = childSize;
+      mArithmetic = arith;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key that = (Key) obj;
+      return mFactory == that.mFactory && mFather == that.mFather && mMother == that.mMother && mChild == that.mChild
+        && mLogRefDenovoPrior == that.mLogRefDenovoPrior && mLogNonRefDenovoPrior == that.mLogNonRefDenovoPrior
+        && mRef == that.mRef && mCodeClass == that.mCodeClass && mCodeSize == that.mCodeSize && mCodeRangeSize == that.mCodeRangeSize
+        && mFatherSize == that.mFatherSize && mMotherSize == that.mMotherSize && mChildSize == that.mChildSize
+        && mArithmetic == that.mArithmetic;
+    }
+
+    @Override
+    public int hashCode() {
+      int h = System.identityHashCode(mFactory);
+      h = 31 * h + mFather.ordinal();
+      h = 31 * h + mMother.ordinal();
+      h = 31 * h + mChild.ordinal();
+      h = 31 * h + Long.hashCode(mLogRefDenovoPrior);
+      h = 31 * h + Long.hashCode(mLogNonRefDenovoPrior);
+      h = 31 * h + mRef;
+      h = 31 * h + mCodeSize;
+      h = 31 * h + mCodeRangeSize;
+      h = 31 * h + mFatherSize;
+      h = 31 * h + mMotherSize;
+      h = 31 * h + mChildSize;
+      return h;
+    }
+  }
+
+  /**
+   * Get the table for a configuration, computing it if it has not been seen before.
+   * @param factory source of the Mendelian probabilities
+   * @param father ploidy of father
+   * @param mother ploidy of mother
+   * @param child ploidy of child
+   * @param logRefDenovoPrior prior for de novo mutations when parents are ref
+   * @param logNonRefDenovoPrior prior for de novo mutations when parents are not ref
+   * @param ref ref allele code
+   * @param code code covering the hypotheses of both parents
+   * @param fatherSize number of father hypotheses
+   * @param motherSize number of mother hypotheses
+   * @param childSize number of child hypotheses
+   * @param arith arithmetic the table values are held in
+   * @return the table
+   */
+  static TransmissionTensor get(MendelianAlleleProbabilityFactory factory, Ploidy father, Ploidy mother, Ploidy child, double logRefDenovoPrior, double logNonRefDenovoPrior, int ref, Code code, int fatherSize, int motherSize, int childSize, PossibilityArithmetic arith) {
+    final Key key = new Key(factory, father, mother, child, logRefDenovoPrior, logNonRefDenovoPrior, ref, code, fatherSize, motherSize, childSize, arith);
+    final TransmissionTensor cached = CACHE.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    final MendelianAlleleProbability m = factory.getMendelianAlleleProbability(father, mother, child, logRefDenovoPrior, logNonRefDenovoPrior, ref);
+    final TransmissionTensor tensor = new TransmissionTensor(m, code, fatherSize, motherSize, childSize, arith);
+    if (CACHE.size() >= MAX_CACHED) {
+      CACHE.clear();
+    }
+    CACHE.put(key, tensor);
+    return tensor;
+  }
+
+  private final int mFatherSize;
+  private final int mMotherSize;
+  private final int mChildSize;
+  private final double[] mPoss;
+
+  /**
+   * @param m Mendelian table
+   * @param code code covering the hypotheses of both parents
+   * @param fatherSize number of father hypotheses
+   * @param motherSize number of mother hypotheses
+   * @param childSize number of child hypotheses
+   * @param arith arithmetic the table values are held in
+   */
+  TransmissionTensor(MendelianAlleleProbability m, Code code, int fatherSize, int motherSize, int childSize, PossibilityArithmetic arith) {
+    mFatherSize = fatherSize;
+    mMotherSize = motherSize;
+    mChildSize = childSize;
+    mPoss = new double[fatherSize * motherSize * childSize];
+    int i = 0;
+    for (int j = 0; j < fatherSize; ++j) {
+      for (int k = 0; k < motherSize; ++k) {
+        for (int h = 0; h < childSize; ++h) {
+          mPoss[i++] = arith.ln2Poss(m.probabilityLn(code, j, k, h));
+        }
+      }
+    }
+  }
+
+  int fatherSize() {
+    return mFatherSize;
+  }
+
+  int motherSize() {
+    return mMotherSize;
+  }
+
+  int childSize() {
+    return mChildSize;
+  }
+
+  /**
+   * @param j father hypothesis
+   * @param k mother hypothesis
+   * @return index in <code>poss</code> of the value for child hypothesis 0, values for the other child hypotheses follow it
+   */
+  int offset(int j, int k) {
+    return (j * mMotherSize + k) * mChildSize;
+  }
+
+  /**
+   * @param index index of a value
+   * @return the value in possibility space
+   */
+  double poss(int index) {
+    return mPoss[index];
+  }
+}
@@ -13,14 +13,27 @@
 package com.rtg.variant.bayes.multisample.multithread;
 
 import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.rtg.scheduler.JobStatistics;
 import com.rtg.util.diagnostic.SpyTimer;
+import com.rtg.util.metrics.MetricsRegistry;
+import com.rtg.util.metrics.PhaseTimer;
 
 /**
+ * Accumulates the time spent in each type of variant calling job, both for the log
+ * and for the metrics registry.
  */
 public class MultisampleStatistics implements JobStatistics<JobIdMultisample> {
 
+  private static final PhaseTimer[] JOB_TIMERS = new PhaseTimer[JobType.values().length];
+  static {
+    for (final JobType type : JobType.values()) {
+      JOB_TIMERS[type.ordinal()] = MetricsRegistry.global().phase("variant.job." + type.toString().toLowerCase(Locale.ROOT));
+    }
+  }
+
   private final SpyTimer[] mSpies = new SpyTimer[JobType.values().length];
   {
     for (final JobType type : JobType.values()) {
@@ -28,14 +41,44 @@ public class MultisampleStatistics implements JobStatistics<JobIdMultisample> {
     }
   }
 
+  private final AtomicLong mScreenSkipped = new AtomicLong();
+  private final AtomicLong mScreenPassed = new AtomicLong();
+
   @Override
   public void increment(JobIdMultisample id, long nanoTime) {
     mSpies[id.type().ordinal()].increment(nanoTime);
+    JOB_TIMERS[id.type().ordinal()].record(nanoTime);
+  }
+
+  /**
+   * Record the outcome of screening a site before joint calling.
+   * @param skipped true if the joint calling was skipped
+   */
+  public void incrementScreened(boolean skipped) {
+    if (skipped) {
+      mScreenSkipped.incrementAndGet();
+    } else {
+      mScreenPassed.incrementAndGet();
+    }
+  }
+
+  /**
+   * @return number of sites where the joint calling was skipped by screening
+   */
+  public long getScreenSkipped() {
+    return mScreenSkipped.get();
+  }
+
+  /**
+   * @return number of sites which passed screening and were jointly called
+   */
+  public long getScreenPassed() {
+    return mScreenPassed.get();
   }
 
   @Override
   public String toString() {
-    return Arrays.toString(mSpies);
+    return Arrays.toString(mSpies) + " screened skipped=" + mScreenSkipped.get() + " passed=" + mScreenPassed.get();
   }
 
 }
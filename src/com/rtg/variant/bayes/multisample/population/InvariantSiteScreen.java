@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.variant.bayes.multisample.population;
+
+import java.util.List;
+
+import com.rtg.variant.bayes.Code;
+import com.rtg.variant.bayes.Description;
+import com.rtg.variant.bayes.Hypotheses;
+import com.rtg.variant.bayes.ModelInterface;
+import com.rtg.variant.bayes.multisample.HaploidDiploidHypotheses;
+import com.rtg.variant.bayes.snp.HypothesesPrior;
+
+/**
+ * Conservative screen for sites at which every sample must be called as the reference, so
+ * that the joint calling (EM re-estimation of priors and pedigree forward backward) can be
+ * skipped.
+ *
+ * The joint callers only change the priors that are combined with the likelihoods of each
+ * sample. For each sample and non-reference hypothesis, the odds against the reference are
+ * bounded by the likelihood ratio from the model multiplied by the largest prior ratio the
+ * joint caller can use. That is the prior ratio from the supplied priors, or from the priors
+ * after a Hardy-Weinberg update in which every sample was called as the reference, which is
+ * the only update EM can make while all calls are reference. With a pedigree the prior ratio
+ * is taken as at least one, as transmission probabilities are at most one. If the bounds
+ * sum to <code>S</code> over all samples, the odds of any configuration other than all
+ * reference are at most <code>exp(S) - 1</code>. When that is below one half, every sample
+ * has a reference posterior over one half, so every call is the reference and the site is
+ * not interesting.
+ */
+final class InvariantSiteScreen {
+
+  // The odds of any non-reference configuration are at most exp(S) - 1 for a sum of odds S, so keep that below 1/2
+  private static final double MAX_ODDS_SUM = Math.log(1.5);
+
+  private final boolean mPedigree;
+  private final boolean mReestimate;
+  private final HwEstimator mEstimator = new HwEstimator();
+
+  /**
+   * @param pedigree true if the joint caller includes pedigree transmission
+   * @param reestimate true if the joint caller re-estimates priors using EM
+   */
+  InvariantSiteScreen(boolean pedigree, boolean reestimate) {
+    mPedigree = pedigree;
+    mReestimate = reestimate;
+  }
+
+  /**
+   * Test if the joint calling of a site can be skipped.
+   * @param models the frozen models for each sample
+   * @param hypotheses the hypotheses containing the current priors
+   * @param <D> the type of the description
+   * @param <T> the type of the hypotheses prior
+   * @return true if every sample is certain to be called as the reference
+   */
+  <D extends Description, T extends HypothesesPrior<D>> boolean canSkip(List<ModelInterface<?>> models, HaploidDiploidHypotheses<T> hypotheses) {
+    if (hypotheses.haploid().reference() == Hypotheses.NO_HYPOTHESIS) {
+      return false;
+    }
+    final double[] haploidBound = logPriorRatios(hypotheses.haploid());
+    final double[] diploidBound = logPriorRatios(hypotheses.diploid());
+    if (mReestimate) {
+      final HaploidDiploidHypotheses<HypothesesPrior<D>> updated = referenceUpdate(models, hypotheses);
+      max(haploidBound, logPriorRatios(updated.haploid()));
+      max(diploidBound, logPriorRatios(updated.diploid()));
+    }
+    double sum = 0;
+    for (final ModelInterface<?> model : models) {
+      final int size = model.size();
+      if (size == 0) {
+        continue; // No calls are made for these, e.g. female on Y chromosome
+      }
+      final double[] bound = model.haploid() ? haploidBound : diploidBound;
+      final int ref = model.reference();
+      if (bound.length != size || ref < 0) {
+        return false;
+      }
+      final double refLn = model.posteriorLn0(ref);
+      for (int h = 0; h < size; ++h) {
+        if (h != ref) {
+          sum += Math.exp(model.posteriorLn0(h) - refLn + bound[h]);
+        }
+      }
+      if (sum > MAX_ODDS_SUM) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Log ratio of the prior of each hypothesis to the prior of the reference
+  private double[] logPriorRatios(HypothesesPrior<?> hyp) {
+    final int ref = hyp.reference();
+    final double refLn = hyp.arithmetic().poss2Ln(hyp.p(ref));
+    final double[] res = new double[hyp.size()];
+    for (int i = 0; i < res.length; ++i) {
+      res[i] = hyp.arithmetic().poss2Ln(hyp.p(i)) - refLn;
+      if (mPedigree) {
+        res[i] = Math.max(res[i], 0);
+      }
+    }
+    return res;
+  }
+
+  private static void max(double[] a, double[] b) {
+    for (int i = 0; i < a.length; ++i) {
+      a[i] = Math.max(a[i], b[i]);
+    }
+  }
+
+  // The priors computed by HwEstimator if every sample is called as the reference
+  private <D extends Description, T extends HypothesesPrior<D>> HaploidDiploidHypotheses<HypothesesPrior<D>> referenceUpdate(List<ModelInterface<?>> models, HaploidDiploidHypotheses<T> hypotheses) {
+    final int[] haploidCounts = new int[hypotheses.haploid().size()];
+    int haploidTotal = 0;
+    final DescriptionCounts dc = hypotheses.getDescriptionCounts();
+    if (dc != null) {
+      for (int i = 0; i < haploidCounts.length; ++i) {
+        haploidCounts[i] += dc.getCount(i);
+      }
+      haploidTotal += dc.getTotalCount();
+    }
+    final Code code = hypotheses.diploid().code();
+    final int ref = hypotheses.haploid().reference();
+    for (final ModelInterface<?> model : models) {
+      if (model.size() == 0) {
+        continue;
+      }
+      if (model.haploid()) {
+        haploidCounts[ref]++;
+        ++haploidTotal;
+      } else {
+        final int diploidRef = hypotheses.diploid().reference();
+        haploidCounts[code.a(diploidRef)]++;
+        haploidCounts[code.bc(diploidRef)]++;
+        haploidTotal += 2;
+      }
+    }
+    return mEstimator.computeNewPriors(hypotheses, haploidCounts, haploidTotal);
+  }
+}
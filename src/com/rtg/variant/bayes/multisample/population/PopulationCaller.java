@@ -15,6 +15,8 @@ package com.rtg.variant.bayes.multisample.population;
 
 import java.util.List;
 
+import com.rtg.launcher.globals.CoreGlobalFlags;
+import com.rtg.launcher.globals.GlobalFlags;
 import com.rtg.util.MathUtils;
 import com.rtg.variant.VariantOutputLevel;
 import com.rtg.variant.VariantParams;
@@ -29,6 +31,7 @@ import com.rtg.variant.bayes.multisample.HypothesisScores;
 import com.rtg.variant.bayes.multisample.MultisampleJointScorer;
 import com.rtg.variant.bayes.multisample.PriorContainer;
 import com.rtg.variant.bayes.multisample.forwardbackward.BContainer;
+import com.rtg.variant.bayes.multisample.multithread.MultisampleStatistics;
 import com.rtg.variant.bayes.snp.HypothesesPrior;
 
 /**
@@ -37,10 +40,16 @@ import com.rtg.variant.bayes.snp.HypothesesPrior;
  */
 public class PopulationCaller extends AbstractMultisampleCaller implements MultisampleJointScorer {
 
+  private static final boolean INVARIANT_SCREEN = GlobalFlags.getBooleanValue(CoreGlobalFlags.POPULATION_INVARIANT_SCREEN);
+
   private final MultisampleJointScorer mFamilyCaller;
 
   private final VariantParams mParams;
 
+  private final InvariantSiteScreen mScreen;
+
+  private MultisampleStatistics mStatistics = null;
+
   /**
    * @param params variant params
    */
@@ -55,6 +64,12 @@ public class PopulationCaller extends AbstractMultisampleCaller implements Multi
   public PopulationCaller(VariantParams params, MultisampleJointScorer familyCaller) {
     mParams = params;
     mFamilyCaller = familyCaller;
+    mScreen = INVARIANT_SCREEN ? new InvariantSiteScreen(familyCaller != null, params.maxEmIterations() != 0) : null;
+  }
+
+  @Override
+  public void setStatistics(MultisampleStatistics statistics) {
+    mStatistics = statistics;
   }
 
   /**
@@ -135,6 +150,16 @@ public class PopulationCaller extends AbstractMultisampleCaller implements Multi
 
   @Override
   protected <D extends Description, T extends HypothesesPrior<D>> ComparisonResult makeSamples(List<ModelInterface<?>> models, HaploidDiploidHypotheses<T> hypotheses) {
+    if (mScreen != null && mParams.callLevel() != VariantOutputLevel.ALL) {
+      // Avoid the joint calling where it cannot produce an interesting call
+      final boolean skip = mScreen.canSkip(models, hypotheses);
+      if (mStatistics != null) {
+        mStatistics.incrementScreened(skip);
+      }
+      if (skip) {
+        return null;
+      }
+    }
     final BContainer[] bs = mFamilyCaller != null ? mFamilyCaller.makeInitialBs(models) : null;
     final HypothesisScores calls;
 
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.variant.bayes.snp;
+
+import java.util.Arrays;
+
+import com.rtg.variant.bayes.EvidenceAcceptor;
+
+/**
+ * Holds the evidence seen at a position as the primitive values it was matched with, in place
+ * of a full evidence acceptor. The evidence can later be replayed, in its original order, into
+ * an acceptor.
+ */
+final class DeferredEvidence {
+
+  private static final int STRIDE = 5;
+  private static final int UNMAPPED = -1;
+
+  private int[] mEvidence = new int[4 * STRIDE];
+  private int mLength = 0;
+
+  private void ensureCapacity() {
+    if (mLength + STRIDE > mEvidence.length) {
+      mEvidence = Arrays.copyOf(mEvidence, mEvidence.length * 2);
+    }
+  }
+
+  /**
+   * Record a piece of evidence, the arguments are as for <code>MatcherInterface.match</code>.
+   * @param readNt nucleotide on read (1 based)
+   * @param readBasesLeft number of bases on the read to the left of this position
+   * @param readBasesRight number of bases on the read to the right of this position
+   * @param mapQ mapping quality
+   * @param phred quality of the read base
+   * @param stateIndex index of the read state
+   */
+  void add(int readNt, int readBasesLeft, int readBasesRight, int mapQ, int phred, int stateIndex) {
+    ensureCapacity();
+    mEvidence[mLength] = readNt;
+    mEvidence[mLength + 1] = readBasesLeft;
+    mEvidence[mLength + 2] = readBasesRight;
+    mEvidence[mLength + 3] = mapQ;
+    mEvidence[mLength + 4] = (phred << 8) | stateIndex;
+    mLength += STRIDE;
+  }
+
+  /**
+   * Record an unmapped read placed at this position.
+   */
+  void addUnmapped() {
+    ensureCapacity();
+    mEvidence[mLength] = UNMAPPED;
+    mLength += STRIDE;
+  }
+
+  /**
+   * @return true if no evidence is held
+   */
+  boolean isEmpty() {
+    return mLength == 0;
+  }
+
+  /**
+   * Increment an acceptor with all the evidence held, in the order it was added, and then clear this.
+   * @param factory used to create the evidence
+   * @param acceptor to receive the evidence
+   */
+  void replay(CachedEvidenceFactory factory, EvidenceAcceptor acceptor) {
+    for (int i = 0; i < mLength; i += STRIDE) {
+      if (mEvidence[i] == UNMAPPED) {
+        acceptor.increment(factory.evidence(0, 0, 0, 0, 0, 0, 0, true));
+      } else {
+        final int phredState = mEvidence[i + 4];
+        acceptor.increment(factory.evidence(mEvidence[i] - 1, mEvidence[i + 1], mEvidence[i + 2], mEvidence[i + 3], phredState >>> 8, phredState & 0xFF, 0, false));
+      }
+    }
+    clear();
+  }
+
+  /**
+   * Discard all the evidence held.
+   */
+  void clear() {
+    mLength = 0;
+  }
+}
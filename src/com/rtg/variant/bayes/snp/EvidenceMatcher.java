@@ -11,6 +11,8 @@
  */
 package com.rtg.variant.bayes.snp;
 
+import java.util.ArrayList;
+
 import com.rtg.util.StringUtils;
 import com.rtg.variant.bayes.EvidenceAcceptor;
 import com.rtg.variant.bayes.EvidenceInterface;
@@ -23,6 +25,9 @@ public class EvidenceMatcher<D extends EvidenceAcceptor> implements MatcherInter
 
   private final ReferenceBasedBuffer<D> mBuffer;
   private final CachedEvidenceFactory mCachedEvidenceFactory;
+  private final boolean[] mDeferrable;
+  private final ReferenceBasedBuffer<DeferredEvidence> mDeferred;
+  private final ArrayList<DeferredEvidence> mFree = new ArrayList<>();
 
   /**
    * Construct a new evidence matcher.
@@ -30,21 +35,41 @@ public class EvidenceMatcher<D extends EvidenceAcceptor> implements MatcherInter
    * @param evidenceFactory factory for retrieving cached evidence objects
    */
   public EvidenceMatcher(final ReferenceBasedBuffer<D> buffer, CachedEvidenceFactory evidenceFactory) {
+    this(buffer, evidenceFactory, null);
+  }
+
+  /**
+   * Construct a new evidence matcher which defers making the acceptor for a position while all
+   * the evidence there matches the reference. Until the acceptor is made, the evidence is held in
+   * a compact form, and it is replayed into the acceptor when evidence not matching the reference
+   * arrives or the acceptor is requested by <code>step</code>.
+   * @param buffer manages per-position <code>EvidenceAcceptor</code> s
+   * @param evidenceFactory factory for retrieving cached evidence objects
+   * @param deferrable indexed by template nucleotide, true if reads with that nucleotide can be
+   * deferred at positions with that nucleotide. Null to make acceptors for all evidence.
+   */
+  public EvidenceMatcher(final ReferenceBasedBuffer<D> buffer, CachedEvidenceFactory evidenceFactory, boolean[] deferrable) {
     mBuffer = buffer;
     mCachedEvidenceFactory = evidenceFactory;
+    mDeferrable = deferrable;
+    mDeferred = deferrable == null ? null : new ReferenceBasedBuffer<>(1, ref -> mFree.isEmpty() ? new DeferredEvidence() : mFree.remove(mFree.size() - 1), buffer.mTemplate, buffer.base());
   }
 
   @Override
   public void match(int refPosition, int readBasesLeft, int readBasesRight, int readNt, int mapQ, int phred, int stateIndex) {
     if (readNt > 0) {
-      final EvidenceInterface ev = mCachedEvidenceFactory.evidence(readNt - 1, readBasesLeft, readBasesRight, mapQ, phred, stateIndex, 0, false);
-      match(refPosition, ev);
+      if (mDeferred != null && readNt == mBuffer.mTemplate[refPosition] && mDeferrable[readNt] && mBuffer.getExisting(refPosition) == null) {
+        mDeferred.get(refPosition).add(readNt, readBasesLeft, readBasesRight, mapQ, phred, stateIndex);
+      } else {
+        final EvidenceInterface ev = mCachedEvidenceFactory.evidence(readNt - 1, readBasesLeft, readBasesRight, mapQ, phred, stateIndex, 0, false);
+        match(refPosition, ev);
+      }
     }
   }
 
   @Override
   public void match(int refPosition, EvidenceInterface evid) {
-    final D acceptor = mBuffer.get(refPosition);
+    final D acceptor = acceptor(refPosition);
     if (acceptor != null) {
       acceptor.increment(evid);
     }
@@ -52,8 +77,32 @@ public class EvidenceMatcher<D extends EvidenceAcceptor> implements MatcherInter
 
   @Override
   public void unmapped(int refPosition) {
-    final EvidenceInterface ev = mCachedEvidenceFactory.evidence(0, 0, 0, 0, 0, 0, 0, true);
-    match(refPosition, ev);
+    if (mDeferred != null && mBuffer.getExisting(refPosition) == null) {
+      mDeferred.get(refPosition).addUnmapped();
+    } else {
+      final EvidenceInterface ev = mCachedEvidenceFactory.evidence(0, 0, 0, 0, 0, 0, 0, true);
+      match(refPosition, ev);
+    }
+  }
+
+  // Get the acceptor for a position, making it and replaying any deferred evidence if necessary
+  private D acceptor(int refPosition) {
+    if (mDeferred != null && mBuffer.getExisting(refPosition) == null) {
+      final D acceptor = mBuffer.get(refPosition);
+      final DeferredEvidence deferred = mDeferred.getExisting(refPosition);
+      if (deferred != null && acceptor != null) {
+        deferred.replay(mCachedEvidenceFactory, acceptor);
+      }
+      return acceptor;
+    }
+    return mBuffer.get(refPosition);
+  }
+
+  private void release(DeferredEvidence deferred) {
+    if (deferred != null) {
+      deferred.clear();
+      mFree.add(deferred);
+    }
   }
 
   @Override
@@ -69,10 +118,44 @@ public class EvidenceMatcher<D extends EvidenceAcceptor> implements MatcherInter
    * @return the <code>EvidenceAcceptor</code>
    */
   public D step(final int ref) {
+    checkBase(ref);
+    if (mDeferred != null) {
+      acceptor(ref);
+      release(mDeferred.stepExisting());
+    }
+    return mBuffer.step();
+  }
+
+  /**
+   * Get the EvidenceAcceptor for the current position if it has been made.
+   * When evidence is being deferred, there is no acceptor while all the evidence
+   * at the position matches the reference.
+   *
+   * @param ref position in reference
+   * @return the <code>EvidenceAcceptor</code>, or null if none has been made
+   */
+  public D peek(final int ref) {
+    checkBase(ref);
+    return mBuffer.getExisting(ref);
+  }
+
+  /**
+   * Move to the next position without making an EvidenceAcceptor for the current position.
+   *
+   * @param ref position in reference
+   */
+  public void skip(final int ref) {
+    checkBase(ref);
+    mBuffer.stepExisting();
+    if (mDeferred != null) {
+      release(mDeferred.stepExisting());
+    }
+  }
+
+  private void checkBase(final int ref) {
     if (ref != mBuffer.base()) {
       throw new IllegalStateException("ref=" + ref + " != base=" + mBuffer.base());
     }
-    return mBuffer.step();
   }
 
   @Override
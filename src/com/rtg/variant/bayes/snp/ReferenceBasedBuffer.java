@@ -80,6 +80,16 @@ public class ReferenceBasedBuffer<D> extends IntegralAbstract {
     return res;
   }
 
+  /**
+   * Get the object specified by index if it has already been made.
+   * @param index in range of external indices, used to retrieve from buffer.
+   * @return object held in buffer, or null if none has been made.
+   * @throws IllegalArgumentException if index less than the current base.
+   */
+  public D getExisting(final int index) {
+    return mBuffer[find(index)];
+  }
+
   // Make a D that is appropriate to the current position on the reference
   protected D make(int index) {
     final int nt = mTemplate[index] - 1;
@@ -93,16 +103,21 @@ public class ReferenceBasedBuffer<D> extends IntegralAbstract {
    * @return current first object in buffer.
    */
   public D step() {
+    final int index = mBase;
+    final D theObj = stepExisting();
+    return theObj != null ? theObj : make(index);
+  }
+
+  /**
+   * Step the base up by one location and return the object at the
+   * (old) base position if one has been made.<br> The buffer at this point is nulled.
+   * @return current first object in buffer, or null if none has been made.
+   */
+  public D stepExisting() {
     final int i = find(mBase);
     assert i == mCurrent;
-    final D theObj = mBuffer[i];
-    final D res;
-    if (theObj != null) {
-      res = theObj;
-      mBuffer[i] = null;
-    } else {
-      res = make(mBase);
-    }
+    final D res = mBuffer[i];
+    mBuffer[i] = null;
     ++mBase;
     ++mCurrent;
     if (mCurrent == mBuffer.length) {
@@ -22,12 +22,12 @@ import com.rtg.bed.BedHeader;
 import com.rtg.bed.BedReader;
 import com.rtg.bed.BedRecord;
 import com.rtg.bed.BedWriter;
-import com.rtg.util.QuickSort;
-import com.rtg.util.QuickSortDoubleIntProxy;
 import com.rtg.util.StringUtils;
 import com.rtg.util.array.ArrayUtils;
 import com.rtg.util.diagnostic.Diagnostic;
+import com.rtg.util.diagnostic.NoTalkbackSlimException;
 import com.rtg.util.intervals.SequenceNameLocus;
+import com.rtg.util.intervals.SequenceNameLocusComparator;
 import com.rtg.util.intervals.SequenceNameLocusSimple;
 
 /**
@@ -76,6 +76,52 @@ public class RegionDataset {
     }
   }
 
+  /**
+   * Reads a single numeric column from a BED file whose regions must exactly match those of an
+   * existing dataset. The new dataset shares the region column of the existing dataset rather
+   * than holding its own copy, so it is cheap to build for many inputs over the same regions.
+   * @param file the bed file
+   * @param column empty column to load the values into
+   * @param template dataset containing the expected regions
+   * @return the dataset
+   * @throws IOException if there was a problem reading the input
+   */
+  public static RegionDataset readFromBed(File file, NumericColumn column, RegionDataset template) throws IOException {
+    try (BedReader br = BedReader.openBedReader(null, file, 0)) {
+      final int index = Arrays.asList(getColumnNames(br.getHeader())).indexOf(column.getName());
+      if (index == -1) {
+        throw new IOException("Input file: " + file + " does not contain the expected column: " + column.getName());
+      }
+      final RegionColumn regions = template.regions();
+      int row = 0;
+      while (br.hasNext()) {
+        final BedRecord rec = br.next();
+        if (row >= regions.size()) {
+          throw new NoTalkbackSlimException("Number of regions in " + file + " exceeds the expected " + regions.size());
+        }
+        if (SequenceNameLocusComparator.SINGLETON.compare(rec, regions.get(row)) != 0) {
+          throw new NoTalkbackSlimException("Region differs from the expected " + regions.get(row) + " at row " + row + " of " + file);
+        }
+        final String[] annotations = rec.getAnnotations();
+        if (index < annotations.length) {
+          column.add(annotations[index]);
+        } else {
+          column.add(Double.NaN);
+        }
+        ++row;
+      }
+      if (row != regions.size()) {
+        throw new NoTalkbackSlimException("Number of regions in " + file + " is less than the expected " + regions.size());
+      }
+      final RegionDataset dataset = new RegionDataset(new String[0]);
+      dataset.mRegions = regions;
+      dataset.addColumn(column);
+      Diagnostic.userLog("Read dataset containing " + dataset.size() + " regions and " + dataset.columns() + " columns from " + file);
+      dataset.integrity();
+      return dataset;
+    }
+  }
+
   private static void loadBedRecords(BedReader br, RegionDataset dataset, boolean addNewColumns) throws IOException {
     String sequenceName = null;
     while (br.hasNext()) {
@@ -282,26 +328,82 @@ public class RegionDataset {
    * @return the median
    */
   public double weightedMedian(final int col) {
-    final NumericColumn column = asNumeric(col);
-    final double[] values = column.getValues();
-    final int[] weights = new int[size()];
-    double tot = 0;
+    final double[] values = asNumeric(col).getValues();
+    final int[] weights = new int[values.length];
     for (int i = 0; i < values.length; ++i) {
       weights[i] = mRegions.get(i).getLength();
-      tot += weights[i];
+    }
+    return weightedMedian(values, weights);
+  }
+
+  /**
+   * Computes a weighted median by selection rather than a full sort. The result is the smallest
+   * value at which the cumulative weight reaches half the total weight.
+   * @param values the values, reordered by this method
+   * @param weights the weight of each value, reordered along with the values
+   * @return the median, or <code>Double.NaN</code> if there are no values
+   */
+  static double weightedMedian(final double[] values, final int[] weights) {
+    if (values.length == 0) {
+      return Double.NaN;
+    }
+    double tot = 0;
+    for (final int w : weights) {
+      tot += w;
     }
     final double mid = tot / 2;
-    QuickSort.sort(new QuickSortDoubleIntProxy(values, weights));
-    tot = 0;
-    for (int i = 0; i < values.length; ++i) {
-      tot += weights[i];
-      if (tot >= mid) {
-        return values[i];
+    int lo = 0;
+    int hi = values.length;
+    if (mid <= 0) {
+      double min = values[0];
+      for (final double v : values) {
+        if (Double.compare(v, min) < 0) {
+          min = v;
+        }
+      }
+      return min;
+    }
+    // Invariant: the weight of all values ordered before those in [lo, hi) is less than mid
+    double below = 0;
+    while (lo < hi) {
+      final double pivot = values[(lo + hi) >>> 1];
+      int lt = lo;
+      int gt = hi;
+      int i = lo;
+      double ltWeight = 0;
+      double eqWeight = 0;
+      while (i < gt) {
+        final int c = Double.compare(values[i], pivot);
+        if (c < 0) {
+          ltWeight += weights[i];
+          swap(values, weights, lt++, i++);
+        } else if (c > 0) {
+          swap(values, weights, i, --gt);
+        } else {
+          eqWeight += weights[i++];
+        }
+      }
+      if (below + ltWeight >= mid) {
+        hi = lt;
+      } else if (below + ltWeight + eqWeight >= mid) {
+        return pivot;
+      } else {
+        below += ltWeight + eqWeight;
+        lo = gt;
       }
     }
     return Double.NaN;
   }
 
+  private static void swap(final double[] values, final int[] weights, final int a, final int b) {
+    final double v = values[a];
+    values[a] = values[b];
+    values[b] = v;
+    final int w = weights[a];
+    weights[a] = weights[b];
+    weights[b] = w;
+  }
+
   /**
    * Computes the mean of a column, weighted by region length
    * @param col the column to operate on
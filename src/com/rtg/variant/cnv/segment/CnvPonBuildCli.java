@@ -23,7 +23,12 @@ import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.rtg.bed.BedUtils;
 import com.rtg.bed.BedWriter;
@@ -38,12 +43,12 @@ import com.rtg.util.cli.Flag;
 import com.rtg.util.diagnostic.Diagnostic;
 import com.rtg.util.diagnostic.NoTalkbackSlimException;
 import com.rtg.util.io.FileUtils;
+import com.rtg.util.io.IOUtils;
 import com.rtg.variant.cnv.preprocess.AddGc;
 import com.rtg.variant.cnv.preprocess.Column;
 import com.rtg.variant.cnv.preprocess.GcNormalize;
 import com.rtg.variant.cnv.preprocess.NumericColumn;
 import com.rtg.variant.cnv.preprocess.RegionDataset;
-import com.rtg.variant.cnv.preprocess.SimpleJoin;
 import com.rtg.variant.cnv.preprocess.StringColumn;
 import com.rtg.variant.cnv.preprocess.WeightedMedianNormalize;
 
@@ -82,6 +87,7 @@ public class CnvPonBuildCli extends AbstractCli {
     mFlags.registerOptional(SegmentCli.GCBINS_FLAG, Integer.class, INT, "number of bins when applying GC correction", 10).setCategory(SENSITIVITY_TUNING);
     mFlags.registerOptional(SegmentCli.COV_COLUMN_NAME, String.class, STRING, "name of the coverage column in input data", SegmentCli.DEFAULT_COLUMN_NAME).setCategory(SENSITIVITY_TUNING);
     mFlags.registerOptional(LABEL_COLUMN_NAME, String.class, STRING, "if set, include region labels using the named column from the input data").setCategory(SENSITIVITY_TUNING);
+    CommonFlags.initThreadsFlag(mFlags);
     final Flag<File> covFlag = mFlags.registerRequired(File.class, FILE, "coverage BED file").setCategory(INPUT_OUTPUT);
     covFlag.setMaxCount(Integer.MAX_VALUE);
     mFlags.setValidator(flags -> flags.checkInRange(SegmentCli.GCBINS_FLAG, 0, Integer.MAX_VALUE)
@@ -89,25 +95,33 @@ public class CnvPonBuildCli extends AbstractCli {
     );
   }
 
-  private NumericColumn normalize(final File coverageFile, final boolean gcCorrect, final int gcbins, RegionDataset typicalSample) throws IOException {
-    Diagnostic.info("Normalizing and G+C correcting " + coverageFile);
-    final String coverageColumnName = (String) mFlags.getValue(SegmentCli.COV_COLUMN_NAME);
-    final RegionDataset coverageData = RegionDataset.readFromBed(coverageFile, Collections.singletonList(new NumericColumn(coverageColumnName)));
-    if (typicalSample.size() != coverageData.size()) {
-      throw new NoTalkbackSlimException("Number of regions in " + coverageFile + " does not match a previous input file");
-    }
+  private static NumericColumn normalize(final File coverageFile, final String coverageColumnName, final boolean gcCorrect, final int gcbins, RegionDataset typicalSample) throws IOException {
+    // Regions are checked against, and shared with, the typical sample
+    final RegionDataset coverageData = RegionDataset.readFromBed(coverageFile, new NumericColumn(coverageColumnName), typicalSample);
     final int covCol = coverageData.columnId(coverageColumnName);
-    if (covCol == -1) {
-      throw new NoTalkbackSlimException("Could not find column named " + coverageColumnName + " in " + coverageFile);
-    }
     if (gcCorrect) {
-      new SimpleJoin(typicalSample, "").process(coverageData); // Join in pre-computed GC content columns
+      for (final Column col : typicalSample.getColumns()) { // Join in pre-computed GC content columns
+        coverageData.addColumn(col);
+      }
       new GcNormalize(covCol, gcbins).process(coverageData);
     }
     new WeightedMedianNormalize(coverageData.columns() - 1).process(coverageData);
     return coverageData.asNumeric(coverageData.columns() - 1);
   }
 
+  private static void accumulate(final double[] sum, final Future<NumericColumn> result) throws IOException {
+    try {
+      final NumericColumn covData = result.get();
+      for (int k = 0; k < sum.length; ++k) {
+        sum[k] += covData.get(k);
+      }
+    } catch (final ExecutionException e) {
+      IOUtils.rethrow(e.getCause());
+    } catch (final InterruptedException e) {
+      throw new NoTalkbackSlimException("Interrupted while normalizing coverage.");
+    }
+  }
+
   private void writeBedHeader(final BedWriter bw) throws IOException {
     bw.writeln(VERSION_STRING + ", CNV panel BED output " + CNV_PON_OUTPUT_VERSION);
     if (CommandLine.getCommandLine() != null) {
@@ -127,12 +141,26 @@ public class CnvPonBuildCli extends AbstractCli {
         Diagnostic.info("Computing per-region G+C content");
         gcCorrector.process(typicalSample);
       }
+      final String coverageColumnName = (String) mFlags.getValue(SegmentCli.COV_COLUMN_NAME);
+      final int threads = CommonFlags.parseThreads((Integer) mFlags.getValue(CommonFlags.THREADS_FLAG));
       final double[] sum = new double[typicalSample.size()];
-      for (final Object coverageFile : mFlags.getAnonymousValues(0)) {
-        final NumericColumn covData = normalize((File) coverageFile, gcCorrector != null, gcbins, typicalSample);
-        for (int k = 0; k < sum.length; ++k) {
-          sum[k] += covData.get(k);
+      // Inputs are normalized concurrently, but summed in input order so the result does not depend on the number of threads
+      final ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+        final ArrayDeque<Future<NumericColumn>> pending = new ArrayDeque<>();
+        for (final Object coverageFile : mFlags.getAnonymousValues(0)) {
+          final File file = (File) coverageFile;
+          Diagnostic.info("Normalizing and G+C correcting " + file);
+          pending.add(executor.submit(() -> normalize(file, coverageColumnName, gcCorrector != null, gcbins, typicalSample)));
+          while (pending.size() > threads) {
+            accumulate(sum, pending.remove());
+          }
+        }
+        while (!pending.isEmpty()) {
+          accumulate(sum, pending.remove());
         }
+      } finally {
+        executor.shutdownNow();
       }
       typicalSample.getColumns().removeIf((Column col) -> !col.getName().equals(labelColumn));
       final int n = mFlags.getAnonymousValues(0).size();
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.variant.sv;
+
+import com.rtg.sam.SamUtils;
+
+import htsjdk.samtools.SAMRecord;
+
+/**
+ * Open addressing table of the minimal mate alignment information for one side of a pair,
+ * keyed by a fingerprint of the read name. The fingerprint is a 64 bit hash of the name
+ * together with the 32 bit <code>String</code> hash code, so read names themselves are
+ * never retained.
+ */
+final class MateStore {
+
+  private static final int INITIAL_CAPACITY = 1 << 10;
+  private static final long EMPTY = 0;
+
+  private long[] mKeys;
+  private int[] mChecks;
+  private int[] mRefIndex;
+  private int[] mAlignStart;
+  private int[] mAlignEnd;
+  private int[] mAlignmentScore;
+  private boolean[] mReverse;
+  private int mMask;
+  private int mSize;
+
+  MateStore() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  private void allocate(final int capacity) {
+    mKeys = new long[capacity];
+    mChecks = new int[capacity];
+    mRefIndex = new int[capacity];
+    mAlignStart = new int[capacity];
+    mAlignEnd = new int[capacity];
+    mAlignmentScore = new int[capacity];
+    mReverse = new boolean[capacity];
+    mMask = capacity - 1;
+    mSize = 0;
+  }
+
+  /**
+   * 64 bit hash of a read name, never equal to the empty marker.
+   * @param name read name
+   * @return the fingerprint
+   */
+  static long fingerprint(final String name) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < name.length(); ++i) {
+      h ^= name.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    // Final avalanche so that the low bits used for the slot depend on every character
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h == EMPTY ? 1 : h;
+  }
+
+  private int slot(final long key, final int check) {
+    int i = (int) key & mMask;
+    while (mKeys[i] != EMPTY && (mKeys[i] != key || mChecks[i] != check)) {
+      i = (i + 1) & mMask;
+    }
+    return i;
+  }
+
+  /**
+   * Record the alignment of a read, replacing any existing entry with the same name.
+   * @param record the alignment
+   */
+  void put(final SAMRecord record) {
+    final String name = record.getReadName();
+    final Integer as = record.getIntegerAttribute(SamUtils.ATTRIBUTE_ALIGNMENT_SCORE);
+    put(fingerprint(name), name.hashCode(), record.getReferenceIndex(), record.getAlignmentStart(), record.getAlignmentEnd(), record.getReadNegativeStrandFlag(), as == null ? Integer.MIN_VALUE : as);
+  }
+
+  private void put(final long key, final int check, final int refIndex, final int alignStart, final int alignEnd, final boolean reverse, final int alignmentScore) {
+    if (4L * (mSize + 1) > 3L * mKeys.length) {
+      resize();
+    }
+    final int i = slot(key, check);
+    if (mKeys[i] == EMPTY) {
+      mKeys[i] = key;
+      mChecks[i] = check;
+      ++mSize;
+    }
+    mRefIndex[i] = refIndex;
+    mAlignStart[i] = alignStart;
+    mAlignEnd[i] = alignEnd;
+    mReverse[i] = reverse;
+    mAlignmentScore[i] = alignmentScore;
+  }
+
+  private void resize() {
+    final long[] keys = mKeys;
+    final int[] checks = mChecks;
+    final int[] refIndex = mRefIndex;
+    final int[] alignStart = mAlignStart;
+    final int[] alignEnd = mAlignEnd;
+    final int[] alignmentScore = mAlignmentScore;
+    final boolean[] reverse = mReverse;
+    if (keys.length >= 1 << 30) {
+      throw new IllegalStateException("Too many unmated records");
+    }
+    allocate(keys.length * 2);
+    for (int i = 0; i < keys.length; ++i) {
+      if (keys[i] != EMPTY) {
+        put(keys[i], checks[i], refIndex[i], alignStart[i], alignEnd[i], reverse[i], alignmentScore[i]);
+      }
+    }
+  }
+
+  /**
+   * Find the entry for a read name.
+   * @param name read name
+   * @return the entry, or -1 if there is none
+   */
+  int find(final String name) {
+    final int i = slot(fingerprint(name), name.hashCode());
+    return mKeys[i] == EMPTY ? -1 : i;
+  }
+
+  /**
+   * Add all the entries from another store to this, replacing any with the same name.
+   * @param other the other store
+   */
+  void putAll(final MateStore other) {
+    for (int i = 0; i < other.mKeys.length; ++i) {
+      if (other.mKeys[i] != EMPTY) {
+        put(other.mKeys[i], other.mChecks[i], other.mRefIndex[i], other.mAlignStart[i], other.mAlignEnd[i], other.mReverse[i], other.mAlignmentScore[i]);
+      }
+    }
+  }
+
+  /**
+   * Remove all entries and release the memory they used.
+   */
+  void clear() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * @return number of entries held
+   */
+  int size() {
+    return mSize;
+  }
+
+  int refIndex(final int entry) {
+    return mRefIndex[entry];
+  }
+
+  int alignStart(final int entry) {
+    return mAlignStart[entry];
+  }
+
+  int alignEnd(final int entry) {
+    return mAlignEnd[entry];
+  }
+
+  boolean reverse(final int entry) {
+    return mReverse[entry];
+  }
+
+  /**
+   * @param entry the entry
+   * @return the alignment score, or <code>Integer.MIN_VALUE</code> if it was not present
+   */
+  int alignmentScore(final int entry) {
+    return mAlignmentScore[entry];
+  }
+}
@@ -16,6 +16,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -99,45 +100,34 @@ public final class UnmatedAugmenter {
     }
   }
 
-  // Contains minimal mate alignment information
-  private static class CutRecord {
-    final int mRefIndex;
-    final int mAlignStart;
-    final int mAlignEnd;
-    final boolean mReverse;
-    final int mAlignmentScore;
-
-    CutRecord(SAMRecord r) {
-      mRefIndex = r.getReferenceIndex();
-      mAlignStart = r.getAlignmentStart();
-      mAlignEnd = r.getAlignmentEnd();
-      mReverse = r.getReadNegativeStrandFlag();
-      mAlignmentScore = as(r);
-    }
-
-    private static int as(SAMRecord rec) {
-      final Integer ii = rec.getIntegerAttribute(SamUtils.ATTRIBUTE_ALIGNMENT_SCORE);
-      if (ii == null) {
-        return Integer.MIN_VALUE;
-      }
-      return ii;
-    }
-  }
-
-  private final HashMap<String, CutRecord> mLeftSide;
-  private final HashMap<String, CutRecord> mRightSide;
+  private final MateStore mLeftSide;
+  private final MateStore mRightSide;
   private final HashMap<String, MachineType> mRgMachineTypes;
+  private final boolean mSinglePass;
 
   int mAugmentedUnmated = 0;
   int mAugmentedUnmapped = 0;
+  long mDirectRecords = 0; // single pass records written without being held back
+  long mHeldRecords = 0; // single pass records held in a temporary file
 
   /**
    * Constructor
    */
   public UnmatedAugmenter() {
-    mLeftSide = new HashMap<>();
-    mRightSide = new HashMap<>();
+    this(false);
+  }
+
+  /**
+   * Constructor
+   * @param singlePass if true, files are augmented with a single pass over the input. Records
+   * that cannot be augmented when they are first read are held in a temporary file alongside
+   * the output until the rest of the input has been seen.
+   */
+  public UnmatedAugmenter(boolean singlePass) {
+    mLeftSide = new MateStore();
+    mRightSide = new MateStore();
     mRgMachineTypes = new HashMap<>();
+    mSinglePass = singlePass;
   }
 
   /**
@@ -151,6 +141,8 @@ public final class UnmatedAugmenter {
     mRgMachineTypes.putAll(other.mRgMachineTypes);
     mAugmentedUnmapped += other.mAugmentedUnmapped;
     mAugmentedUnmated += other.mAugmentedUnmated;
+    mDirectRecords += other.mDirectRecords;
+    mHeldRecords += other.mHeldRecords;
     return this;
   }
 
@@ -161,9 +153,9 @@ public final class UnmatedAugmenter {
   public void addRecord(SAMRecord record) {
     if (isAugmentableUnmated(record)) {
       if (record.getFirstOfPairFlag()) {
-        mLeftSide.put(record.getReadName(), new CutRecord(record));
+        mLeftSide.put(record);
       } else {
-        mRightSide.put(record.getReadName(), new CutRecord(record));
+        mRightSide.put(record);
       }
     }
   }
@@ -218,6 +210,10 @@ public final class UnmatedAugmenter {
    * @throws IOException when an IO error occurs
    */
   void augmentMixed(File file, File output, ReadGroupStatsCalculator calc) throws IOException {
+    if (mSinglePass) {
+      augmentMixedSinglePass(file, output, calc);
+      return;
+    }
     // First pass, collect mated stats and augmentable unmated info
     try (RecordIterator<SAMRecord> it = new ThreadedMultifileIterator<>(Collections.singletonList(file), new SingletonPopulatorFactory<>(new SamRecordPopulator()))) {
       setupReadGroups(it.header(), calc);
@@ -259,6 +255,10 @@ public final class UnmatedAugmenter {
    * @throws IOException when an IO error occurs
    */
   public void augmentUnmated(File unmatedFile, File unmatedOutputFile, ReadGroupStatsCalculator calc) throws IOException {
+    if (mSinglePass) {
+      augmentUnmatedSinglePass(unmatedFile, unmatedOutputFile, calc);
+      return;
+    }
     // First pass, collect augmentable unmated info
     try (RecordIterator<SAMRecord> it1 = new ThreadedMultifileIterator<>(Collections.singletonList(unmatedFile), new SingletonPopulatorFactory<>(new SamRecordPopulator()))) {
       setupReadGroups(it1.header(), calc);
@@ -279,6 +279,150 @@ public final class UnmatedAugmenter {
     }
   }
 
+  // As for augmentMixed, holding back the unmapped records and the unmated records whose mate is yet to be seen
+  private void augmentMixedSinglePass(File file, File output, ReadGroupStatsCalculator calc) throws IOException {
+    final File spill = temporaryFile(output);
+    try {
+      try (RecordIterator<SAMRecord> it = open(file)) {
+        setupReadGroups(it.header(), calc);
+        try (SAMFileWriter writer = makeWriter(it.header(), SamUtils.getSamType(file), FileUtils.createOutputStream(output, FileUtils.isGzipFilename(file) || SamUtils.getSamType(file) == SamReader.Type.BAM_TYPE), false)) {
+          try (SAMFileWriter spillWriter = makeTemporaryWriter(it.header(), spill)) {
+            while (it.hasNext()) {
+              final SAMRecord record = it.next();
+              if (record.getProperPairFlag()) {
+                calc.addRecord(record);
+                writer.addAlignment(record);
+                ++mDirectRecords;
+              } else {
+                addRecord(record);
+                if (record.getReadUnmappedFlag() || !isResolved(record)) {
+                  spillWriter.addAlignment(record);
+                  ++mHeldRecords;
+                } else {
+                  updateUnmatedRecord(record);
+                  calc.addRecord(record);
+                  writer.addAlignment(record);
+                  ++mDirectRecords;
+                }
+              }
+            }
+          }
+
+          calc.calculate(); // Ensure insert size stats have been computed
+
+          // The output is re-sorted, so the held records can simply follow the others
+          try (RecordIterator<SAMRecord> it2 = open(spill)) {
+            while (it2.hasNext()) {
+              final SAMRecord record = it2.next();
+              if (record.getReadUnmappedFlag()) {
+                updateUnmappedRecord(record, calc, null);
+              } else {
+                updateUnmatedRecord(record);
+                calc.addRecord(record);
+              }
+              writer.addAlignment(record);
+            }
+          }
+        }
+      }
+    } finally {
+      deleteTemporaryFile(spill);
+    }
+  }
+
+  // As for augmentUnmated, holding back the records whose mate is yet to be seen. Records go
+  // straight to the output until the first one is held. After that the records augmented as
+  // they are read go to one temporary file and the held records to another, both in input
+  // (coordinate) order. The two are then merged back into input order, so the output needs
+  // no re-sorting.
+  private void augmentUnmatedSinglePass(File unmatedFile, File unmatedOutputFile, ReadGroupStatsCalculator calc) throws IOException {
+    final File resolved = temporaryFile(unmatedOutputFile);
+    final File spill = temporaryFile(unmatedOutputFile);
+    try {
+      try (RecordIterator<SAMRecord> it = open(unmatedFile)) {
+        final SAMFileHeader header = it.header();
+        setupReadGroups(header, calc);
+        try (SAMFileWriter writer = makeWriter(header, SamUtils.getSamType(unmatedFile), FileUtils.createOutputStream(unmatedOutputFile, FileUtils.isGzipFilename(unmatedFile) || SamUtils.getSamType(unmatedFile) == SamReader.Type.BAM_TYPE), true)) {
+          long[] held = new long[1024]; // positions of the held records among those from the first held record on
+          int numberHeld = 0;
+          long numberFollowing = 0;
+          try (SAMFileWriter resolvedWriter = makeTemporaryWriter(header, resolved);
+               SAMFileWriter spillWriter = makeTemporaryWriter(header, spill)) {
+            while (it.hasNext()) {
+              final SAMRecord r = it.next();
+              addRecord(r);
+              if (isResolved(r)) {
+                updateUnmatedRecord(r);
+                if (numberHeld == 0) {
+                  calc.addRecord(r);
+                  writer.addAlignment(r);
+                } else {
+                  resolvedWriter.addAlignment(r);
+                }
+                ++mDirectRecords;
+              } else {
+                if (numberHeld == held.length) {
+                  held = Arrays.copyOf(held, held.length * 2);
+                }
+                held[numberHeld++] = numberFollowing;
+                spillWriter.addAlignment(r);
+                ++mHeldRecords;
+              }
+              if (numberHeld > 0) {
+                ++numberFollowing;
+              }
+            }
+          }
+
+          try (RecordIterator<SAMRecord> resolvedIt = open(resolved);
+               RecordIterator<SAMRecord> spillIt = open(spill)) {
+            int h = 0;
+            for (long i = 0; i < numberFollowing; ++i) {
+              final SAMRecord r;
+              if (h < numberHeld && held[h] == i) {
+                r = spillIt.next();
+                updateUnmatedRecord(r);
+                ++h;
+              } else {
+                r = resolvedIt.next();
+              }
+              calc.addRecord(r);
+              writer.addAlignment(r);
+            }
+          }
+        }
+      }
+    } finally {
+      deleteTemporaryFile(resolved);
+      deleteTemporaryFile(spill);
+    }
+  }
+
+  // True if nothing later in the input can change the augmentation of the record
+  private boolean isResolved(SAMRecord record) {
+    return !isAugmentableUnmated(record) || mateSide(record).find(record.getReadName()) >= 0;
+  }
+
+  private static RecordIterator<SAMRecord> open(File file) throws IOException {
+    return new ThreadedMultifileIterator<>(Collections.singletonList(file), new SingletonPopulatorFactory<>(new SamRecordPopulator()));
+  }
+
+  private static File temporaryFile(File output) throws IOException {
+    return File.createTempFile("svprep", ".bam", output.getAbsoluteFile().getParentFile());
+  }
+
+  // Records in temporary files keep their input order, which is checked against the sort order
+  // of the input header, and are only compressed lightly
+  private static SAMFileWriter makeTemporaryWriter(SAMFileHeader header, File file) {
+    return new SAMFileWriterFactory().makeBAMWriter(header.clone(), true, file, 1);
+  }
+
+  private static void deleteTemporaryFile(File file) throws IOException {
+    if (file.exists() && !file.delete()) {
+      throw new IOException("Failed to delete temporary file: " + file.getPath());
+    }
+  }
+
   private void setupReadGroups(SAMFileHeader header, ReadGroupStatsCalculator calc) {
     calc.setupReadGroups(header);
     for (final SAMReadGroupRecord srgr : header.getReadGroups()) {
@@ -309,31 +453,35 @@ public final class UnmatedAugmenter {
     }
   }
 
+  // The store holding the other side of the pair of a record
+  private MateStore mateSide(SAMRecord record) {
+    return record.getFirstOfPairFlag() ? mRightSide : mLeftSide;
+  }
+
   /**
    * Update pair mapping information on an unmated SAM record based on the mapped location of it's mate..
    * @param record record to update.
    */
   public void updateUnmatedRecord(SAMRecord record) {
     if (isAugmentableUnmated(record)) {
-      final CutRecord pair;
-      if (record.getFirstOfPairFlag()) {
-        pair = mRightSide.get(record.getReadName());
-      } else {
-        pair = mLeftSide.get(record.getReadName());
-      }
-      if (pair != null) { //NOTE: pair is only put in map if nh == 1
+      final MateStore mates = mateSide(record);
+      final int pair = mates.find(record.getReadName());
+      if (pair >= 0) { //NOTE: pair is only put in map if nh == 1
         mAugmentedUnmated++;
-        record.setMateReferenceIndex(pair.mRefIndex);
-        record.setMateAlignmentStart(pair.mAlignStart);
-        record.setMateNegativeStrandFlag(pair.mReverse);
+        final int mateRefIndex = mates.refIndex(pair);
+        final int mateStart = mates.alignStart(pair);
+        final int mateEnd = mates.alignEnd(pair);
+        record.setMateReferenceIndex(mateRefIndex);
+        record.setMateAlignmentStart(mateStart);
+        record.setMateNegativeStrandFlag(mates.reverse(pair));
         record.setMateUnmappedFlag(false);
-        final int as = pair.mAlignmentScore;
+        final int as = mates.alignmentScore(pair);
         if (as >= 0) {
           record.setAttribute(SamUtils.ATTRIBUTE_MATE_ALIGNMENT_SCORE, as);
         }
-        record.setAttribute(SamUtils.ATTRIBUTE_MATE_END, pair.mAlignEnd);
-        if (pair.mRefIndex == record.getReferenceIndex()) {
-          final int tlen = InsertHelper.tlen(record.getFirstOfPairFlag(), record.getAlignmentStart(), record.getAlignmentEnd() - record.getAlignmentStart() + 1, pair.mAlignStart, pair.mAlignEnd - pair.mAlignStart + 1);
+        record.setAttribute(SamUtils.ATTRIBUTE_MATE_END, mateEnd);
+        if (mateRefIndex == record.getReferenceIndex()) {
+          final int tlen = InsertHelper.tlen(record.getFirstOfPairFlag(), record.getAlignmentStart(), record.getAlignmentEnd() - record.getAlignmentStart() + 1, mateStart, mateEnd - mateStart + 1);
           record.setInferredInsertSize(tlen);
         } else {
           record.setInferredInsertSize(0);
@@ -349,19 +497,19 @@ public final class UnmatedAugmenter {
    */
   public void updateUnmappedRecord(SAMRecord record, ReadGroupStatsCalculator calc, ReferenceGenome referenceGenome) {
     assert record.getReadUnmappedFlag();
-    final CutRecord mate;
-    if (record.getFirstOfPairFlag()) {
-      mate = mRightSide.get(record.getReadName());
-    } else {
-      mate = mLeftSide.get(record.getReadName());
-    }
-    if (mate != null) { //other side was mapped NOTE: mate only in map if nh==1
+    final MateStore mates = mateSide(record);
+    final int mate = mates.find(record.getReadName());
+    if (mate >= 0) { //other side was mapped NOTE: mate only in map if nh==1
       mAugmentedUnmapped++;
-      record.setMateReferenceIndex(mate.mRefIndex);
-      record.setMateAlignmentStart(mate.mAlignStart);
-      record.setMateNegativeStrandFlag(mate.mReverse);
+      final int mateRefIndex = mates.refIndex(mate);
+      final int mateStart = mates.alignStart(mate);
+      final int mateEnd = mates.alignEnd(mate);
+      final boolean mateReverse = mates.reverse(mate);
+      record.setMateReferenceIndex(mateRefIndex);
+      record.setMateAlignmentStart(mateStart);
+      record.setMateNegativeStrandFlag(mateReverse);
       record.setMateUnmappedFlag(false);
-      record.setAttribute(SamUtils.ATTRIBUTE_MATE_END, mate.mAlignEnd);
+      record.setAttribute(SamUtils.ATTRIBUTE_MATE_END, mateEnd);
 
       //make up some start positions etc for this read.
       final String rg = ReadGroupUtils.getReadGroup(record);
@@ -369,14 +517,14 @@ public final class UnmatedAugmenter {
 
       if (mt != null) {
         final PairOrientation mateOrientation;
-        if (mate.mReverse) {
+        if (mateReverse) {
           mateOrientation = record.getFirstOfPairFlag() ? PairOrientation.R2 : PairOrientation.R1;
         } else {
           mateOrientation = record.getFirstOfPairFlag() ? PairOrientation.F2 : PairOrientation.F1;
         }
         final PairOrientation po = mt.orientation().getMateOrientation(mateOrientation);
         if (po != null) {
-          record.setReferenceIndex(mate.mRefIndex);
+          record.setReferenceIndex(mateRefIndex);
           if (PairOrientation.F1 == po || PairOrientation.F2 == po) {
             record.setReadNegativeStrandFlag(false);
           } else {
@@ -405,9 +553,9 @@ public final class UnmatedAugmenter {
           }
           int alignmentStart;
           if (mt.orientation().isMateUpstream(mateOrientation)) {
-            alignmentStart = Math.max(1, mate.mAlignStart + thisFragmentLength - record.getReadLength());
+            alignmentStart = Math.max(1, mateStart + thisFragmentLength - record.getReadLength());
           } else {
-            alignmentStart = Math.max(1, mate.mAlignEnd - 1 - thisFragmentLength);
+            alignmentStart = Math.max(1, mateEnd - 1 - thisFragmentLength);
           }
           final int refLength = record.getHeader().getSequence(record.getReferenceIndex()).getSequenceLength();
           if (referenceGenome != null) {
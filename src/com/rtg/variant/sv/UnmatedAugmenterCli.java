@@ -42,6 +42,7 @@ public class UnmatedAugmenterCli extends LoggedCli {
   static final String KEEP_ORIG_FLAG = "Xkeep-original";
   static final String OUTPUT_SUFFIX_FLAG = "Xoutput-suffix";
   static final String NO_AUGMENT = "no-augment";
+  static final String SINGLE_PASS_FLAG = "Xsingle-pass";
 
   @Override
   public String moduleName() {
@@ -71,6 +72,7 @@ public class UnmatedAugmenterCli extends LoggedCli {
     mFlags.registerOptional('s', OUTPUT_SUFFIX_FLAG, String.class, CommonFlags.STRING, "suffix for output file of each input file", ".augmented").setCategory(CommonFlagCategories.INPUT_OUTPUT);
     mFlags.registerOptional('k', KEEP_ORIG_FLAG, "keep original file and create augmented file using suffix").setCategory(CommonFlagCategories.INPUT_OUTPUT);
     mFlags.registerOptional(NO_AUGMENT, "if set, only compute read group statistics").setCategory(CommonFlagCategories.UTILITY);
+    mFlags.registerOptional(SINGLE_PASS_FLAG, "read each input file once, holding records that cannot yet be augmented in a temporary file").setCategory(CommonFlagCategories.UTILITY);
     mFlags.registerRequired(File.class, CommonFlags.DIR, "directory containing SAM/BAM format files").setCategory(CommonFlagCategories.INPUT_OUTPUT);
     mFlags.setValidator(flags -> checkInputDirectory(flags) && flags.checkIf(OUTPUT_SUFFIX_FLAG, KEEP_ORIG_FLAG));
   }
@@ -139,9 +141,9 @@ public class UnmatedAugmenterCli extends LoggedCli {
       if (mFlags.isSet(NO_AUGMENT)) {
         new ReadGroupStatsCalculator().calculate(Arrays.asList(alignmentsFiles), rgOut);
       } else if (matedFile != null && unmatedFile != null) {
-        augmentSplitFiles(matedFile, unmatedFile, unmappedFile, !mFlags.isSet(KEEP_ORIG_FLAG), mFlags.isSet(FORCE), (String) mFlags.getValue(OUTPUT_SUFFIX_FLAG), rgOut);
+        augmentSplitFiles(matedFile, unmatedFile, unmappedFile, !mFlags.isSet(KEEP_ORIG_FLAG), mFlags.isSet(FORCE), (String) mFlags.getValue(OUTPUT_SUFFIX_FLAG), rgOut, mFlags.isSet(SINGLE_PASS_FLAG));
       } else {
-        augmentMergedFiles(alignmentsFiles, !mFlags.isSet(KEEP_ORIG_FLAG), mFlags.isSet(FORCE), (String) mFlags.getValue(OUTPUT_SUFFIX_FLAG), rgOut);
+        augmentMergedFiles(alignmentsFiles, !mFlags.isSet(KEEP_ORIG_FLAG), mFlags.isSet(FORCE), (String) mFlags.getValue(OUTPUT_SUFFIX_FLAG), rgOut, mFlags.isSet(SINGLE_PASS_FLAG));
       }
     }
     return 0;
@@ -157,11 +159,25 @@ public class UnmatedAugmenterCli extends LoggedCli {
    * @throws IOException they happen maybe
    */
   static void augmentMergedFiles(File[] files, boolean rename, boolean force, String suffix, OutputStream readGroupStatsOut) throws IOException {
+    augmentMergedFiles(files, rename, force, suffix, readGroupStatsOut, false);
+  }
+
+  /**
+   * Augments self-contained alignment files with potential mate information
+   * @param files files containing mated/unmated/unmapped alignments
+   * @param rename rename result file over top of original
+   * @param force overwrite any files that match output file name derived from input and suffix. Ignored when rename set to true.
+   * @param suffix suffix to add to filename appears before optional <code>.sam[.gz]</code>.
+   * @param readGroupStatsOut stream to write out read group stats
+   * @param singlePass read each file once, holding records that cannot yet be augmented in a temporary file
+   * @throws IOException they happen maybe
+   */
+  static void augmentMergedFiles(File[] files, boolean rename, boolean force, String suffix, OutputStream readGroupStatsOut, boolean singlePass) throws IOException {
     final ReadGroupStatsCalculator outer = new ReadGroupStatsCalculator();
 
     for (File file : files) {
       final ReadGroupStatsCalculator calc = new ReadGroupStatsCalculator();
-      final UnmatedAugmenter augmenter = new UnmatedAugmenter();
+      final UnmatedAugmenter augmenter = new UnmatedAugmenter(singlePass);
       final File output = getOutputFile(file, rename, force, suffix);
       augmenter.augmentMixed(file, output, calc);
       renameAndReindex(file, output, rename);
@@ -185,11 +201,27 @@ public class UnmatedAugmenterCli extends LoggedCli {
    * @throws IOException they happen maybe
    */
   static void augmentSplitFiles(File matedFile, File unmatedFile, File unmappedFile, boolean rename, boolean force, String suffix, OutputStream readGroupStatsOut) throws IOException {
+    augmentSplitFiles(matedFile, unmatedFile, unmappedFile, rename, force, suffix, readGroupStatsOut, false);
+  }
+
+  /**
+   * Augments the files with potential mate information
+   * @param matedFile mated file
+   * @param unmatedFile unmated file
+   * @param unmappedFile unmapped file
+   * @param rename rename result file over top of original
+   * @param force overwrite any files that match output file name derived from input and suffix. Ignored when rename set to true.
+   * @param suffix suffix to add to filename appears before optional <code>.sam[.gz]</code>.
+   * @param readGroupStatsOut stream to write out read group stats
+   * @param singlePass read the unmated file once, holding records that cannot yet be augmented in a temporary file
+   * @throws IOException they happen maybe
+   */
+  static void augmentSplitFiles(File matedFile, File unmatedFile, File unmappedFile, boolean rename, boolean force, String suffix, OutputStream readGroupStatsOut, boolean singlePass) throws IOException {
     final ReadGroupStatsCalculator calc = new ReadGroupStatsCalculator();
     calc.addFile(matedFile);
 
     final File output = getOutputFile(unmatedFile, rename, force, suffix);
-    final UnmatedAugmenter augmenter = new UnmatedAugmenter();
+    final UnmatedAugmenter augmenter = new UnmatedAugmenter(singlePass);
     augmenter.augmentUnmated(unmatedFile, output, calc);
     renameAndReindex(unmatedFile, output, rename);
 
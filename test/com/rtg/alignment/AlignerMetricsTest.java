@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.alignment;
+
+import java.util.Arrays;
+
+import com.rtg.util.TestUtils;
+import com.rtg.util.io.MemoryPrintStream;
+
+import junit.framework.TestCase;
+
+/**
+ */
+public class AlignerMetricsTest extends TestCase {
+
+  public void testMergeAndWrite() {
+    final AlignerMetrics a = new AlignerMetrics();
+    assertTrue(a.isEmpty());
+    a.add("table", 1, "SingleIndelEditDistance", 10, 2, 1, 30, 1000);
+    final AlignerMetrics b = new AlignerMetrics();
+    b.add("table", 1, "SingleIndelEditDistance", 5, 1, 0, 12, 500);
+    b.add("general", 2, "GotohEditDistance", 7, 0, 3, 40, 9000);
+    b.addReorders("general", 4);
+    final AlignerMetrics total = new AlignerMetrics();
+    total.merge(a);
+    total.merge(b);
+    assertFalse(total.isEmpty());
+    final long[] c = total.get("table", 1, "SingleIndelEditDistance");
+    assertEquals(15, c[0]);
+    assertEquals(3, c[1]);
+    assertEquals(1, c[2]);
+    assertEquals(42, c[3]);
+    assertEquals(1500, c[4]);
+    assertNull(total.get("table", 2, "SingleIndelEditDistance"));
+    final MemoryPrintStream mps = new MemoryPrintStream();
+    total.write(mps.outputStream());
+    final String out = mps.toString();
+    TestUtils.containsAll(out, AlignerMetrics.VERSION,
+      "#Reorders\tall\tgeneral\t4",
+      "#thread\tchain\tposition\taligner\tcalls\tnulls\tmax-int\ttotal-score\testimated-time-ns",
+      "all\ttable\t1\tSingleIndelEditDistance\t15\t3\t1\t42\t1500",
+      "all\tgeneral\t2\tGotohEditDistance\t7\t0\t3\t40\t9000");
+    assertTrue(out.indexOf("general\t2") < out.indexOf("table\t1"));
+  }
+
+  public void testWriteThreads() {
+    final AlignerMetrics a = new AlignerMetrics();
+    a.add("table", 1, "SingleIndelEditDistance", 10, 2, 1, 30, 1000);
+    final AlignerMetrics b = new AlignerMetrics();
+    b.add("table", 1, "SingleIndelEditDistance", 5, 1, 0, 12, 500);
+    b.addReorders("table", 2);
+    final AlignerMetrics total = new AlignerMetrics();
+    total.merge(a);
+    total.merge(b);
+    final MemoryPrintStream mps = new MemoryPrintStream();
+    total.write(mps.outputStream(), Arrays.asList(a, b));
+    final String out = mps.toString();
+    TestUtils.containsAll(out,
+      "#Reorders\tall\ttable\t2",
+      "#Reorders\t2\ttable\t2",
+      "all\ttable\t1\tSingleIndelEditDistance\t15\t3\t1\t42\t1500",
+      "1\ttable\t1\tSingleIndelEditDistance\t10\t2\t1\t30\t1000",
+      "2\ttable\t1\tSingleIndelEditDistance\t5\t1\t0\t12\t500");
+    assertFalse(out.contains("#Reorders\t1\t"));
+    assertTrue(out.indexOf("all\ttable") < out.indexOf("1\ttable\t1\tSingleIndelEditDistance\t10"));
+    assertTrue(out.indexOf("1\ttable\t1\tSingleIndelEditDistance\t10") < out.indexOf("2\ttable\t1\tSingleIndelEditDistance\t5"));
+  }
+}
@@ -11,6 +11,8 @@
  */
 package com.rtg.alignment;
 
+import java.util.Arrays;
+
 import com.rtg.mode.DnaUtils;
 import com.rtg.ngs.NgsFilterParams;
 import com.rtg.ngs.NgsOutputParamsBuilder;
@@ -143,6 +145,46 @@ public class UnidirectionalPrioritisedEditDistanceTest extends AbstractUnidirect
     }
   }
 
+  public void testMetrics() {
+    final UnidirectionalPrioritisedEditDistance ed = new UnidirectionalPrioritisedEditDistance("test", false, new MinIntEd(), new GotohEditDistance(1, 1, 1, 1, false));
+    final byte[] s1 = DnaUtils.encodeString("gggggattttt");
+    final byte[] s2 = DnaUtils.encodeString("gggggttttt");
+    ed.calculateEditDistance(s1, s1.length, s2, 0, 2, MaxShiftUtils.calculateDefaultMaxShift(s1.length), true);
+    ed.calculateEditDistance(s1, s1.length, s2, 0, 2, MaxShiftUtils.calculateDefaultMaxShift(s1.length), true);
+    final AlignerMetrics metrics = new AlignerMetrics();
+    ed.addMetrics(metrics);
+    final long[] first = metrics.get("test", 1, "MinIntEd");
+    assertEquals(2, first[0]);
+    assertEquals(2, first[1]);
+    final long[] second = metrics.get("test", 2, "GotohEditDistance");
+    assertEquals(2, second[0]);
+    assertEquals(0, second[1]);
+    assertEquals(4, second[3]);
+  }
+
+  public void testReorder() {
+    final UnidirectionalPrioritisedEditDistance ed = new UnidirectionalPrioritisedEditDistance("test", false, new MinIntEd(), new GotohEditDistance(1, 1, 1, 1, false), new GotohEditDistance(1, 1, 1, 1, false));
+    final byte[] s1 = DnaUtils.encodeString("gggggattttt");
+    final byte[] s2 = DnaUtils.encodeString("gggggttttt");
+    ed.reorder();
+    assertEquals("[0, 1, 2]", Arrays.toString(ed.order()));
+    for (int i = 0; i < UnidirectionalPrioritisedEditDistance.ADAPT_MIN_CALLS; ++i) {
+      ed.calculateEditDistance(s1, s1.length, s2, 0, 2, MaxShiftUtils.calculateDefaultMaxShift(s1.length), true);
+    }
+    ed.reorder();
+    // the aligner that never succeeds moves behind the one that always does, the final aligner stays last
+    assertEquals("[1, 0, 2]", Arrays.toString(ed.order()));
+    ed.reorder();
+    assertEquals("[1, 0, 2]", Arrays.toString(ed.order()));
+    final int[] actions = ed.calculateEditDistance(s1, s1.length, s2, 0, 2, MaxShiftUtils.calculateDefaultMaxShift(s1.length), true);
+    assertEquals(2, actions[ActionsHelper.ALIGNMENT_SCORE_INDEX]);
+    final AlignerMetrics metrics = new AlignerMetrics();
+    ed.addMetrics(metrics);
+    assertEquals(UnidirectionalPrioritisedEditDistance.ADAPT_MIN_CALLS + 1, metrics.get("test", 2, "GotohEditDistance")[0]);
+    assertEquals(UnidirectionalPrioritisedEditDistance.ADAPT_MIN_CALLS, metrics.get("test", 1, "MinIntEd")[0]);
+    assertEquals(0, metrics.get("test", 3, "GotohEditDistance")[0]);
+  }
+
   public void testSomeLogging() {
     try (MemoryPrintStream mps = new MemoryPrintStream()) {
       Diagnostic.setLogStream(mps.printStream());
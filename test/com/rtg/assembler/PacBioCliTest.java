@@ -76,6 +76,10 @@ public class PacBioCliTest extends AbstractParamsCliTest<PacBioParams> {
           assertEquals(reads, params.reads().get(0));
           assertEquals(output, params.directory());
           assertEquals(inputGraph, params.graph());
+          final CFlags threadFlags =  new CFlags("foo", TestUtils.getNullPrintStream(), TestUtils.getNullPrintStream());
+          PacBioCli.initLocalFlags(threadFlags);
+          threadFlags.setFlags("-o", output.toString(), "-g", inputGraph.toString(), "-I", fileList.toString(), "-T", "3");
+          assertEquals(3, PacBioCli.makeParamsLocal(threadFlags).numberThreads());
         } finally {
           FileHelper.deleteAll(graph);
         }
@@ -35,6 +35,7 @@ public class PacBioParamsTest extends TestCase {
         , " reads=" + null
         , " graph=" + null
         , " trimGraph=" + false
+        , " numberThreads=" + 1
     );
   }
 
@@ -42,11 +43,12 @@ public class PacBioParamsTest extends TestCase {
     final List<File> reads = Arrays.asList(new File("foo"));
     final File graph = new File("graph");
     final File out = new File("out");
-    final PacBioParams pacBioParams = PacBioParams.builder().directory(out).reads(reads).graph(graph).trimGraph(true).create();
+    final PacBioParams pacBioParams = PacBioParams.builder().directory(out).reads(reads).graph(graph).trimGraph(true).numberThreads(3).create();
     assertEquals(graph, pacBioParams.graph());
     assertEquals(reads, pacBioParams.reads());
     assertEquals(out, pacBioParams.directory());
     assertTrue(pacBioParams.trimGraph());
+    assertEquals(3, pacBioParams.numberThreads());
     assertEquals(new File(out, "bar"), pacBioParams.file("bar"));
   }
 }
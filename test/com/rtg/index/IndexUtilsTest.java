@@ -57,4 +57,18 @@ public class IndexUtilsTest extends TestCase {
     final CreateParams c = new CreateParams(20, 33, 33, 31, false, true, false, false);
     assertEquals(EXPECTED_MEMSTR, IndexUtils.memString(c));
   }
+
+  public void testQueueBytes() {
+    final CreateParams c = new CreateParams(20, 33, 33, 31, true, true, false, false);
+    assertEquals(IndexUtils.bytes(c), IndexUtils.bytes(c, 0));
+    assertTrue(IndexUtils.queueBytes(c, 1) >= 2 * 20 * 8);
+    assertTrue(IndexUtils.queueBytes(c, 4) > IndexUtils.queueBytes(c, 1));
+    assertEquals(IndexUtils.bytes(c) + IndexUtils.queueBytes(c, 1), IndexUtils.bytes(c, 1));
+    assertEquals(IndexUtils.bytes(c) + IndexUtils.queueBytes(c, 4), IndexUtils.bytes(c, 4));
+    final StringBuilder sb = new StringBuilder();
+    IndexUtils.memToString(sb, c, 0);
+    assertEquals(IndexUtils.memToString(c), sb.toString());
+    IndexUtils.memToString(sb, c, 4);
+    assertTrue(sb.toString().endsWith("\tMemory\tQueue\t" + StringUtils.commas(IndexUtils.queueBytes(c, 4)) + "\t4" + StringUtils.LS));
+  }
 }
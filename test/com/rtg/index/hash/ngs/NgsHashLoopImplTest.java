@@ -21,6 +21,7 @@ import java.io.InputStream;
 import java.io.PrintStream;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Random;
 
 import com.rtg.launcher.DefaultReaderParamsTest;
 import com.rtg.launcher.HashingRegion;
@@ -323,6 +324,33 @@ public final class NgsHashLoopImplTest extends TestCase {
       }
     }
   }
+  private String readLoopOutput(final ReaderParams reads, final boolean prefetch) throws IOException {
+    final NgsHashLoopImpl hl = new NgsHashLoopImpl(reads.reader().numberSequences(), false);
+    hl.setReadPrefetch(prefetch);
+    final StringWriter sb = new StringWriter();
+    final ReadHashFunction rhf = new HashFunctionMock(sb);
+    rhf.setReadSequences(reads.reader().numberSequences());
+    final long total = hl.readLoop(new MockSequenceParams(reads, 0, reads.reader().numberSequences()), rhf, ReadEncoder.SINGLE_END, false);
+    return total + LS + sb;
+  }
+
+  public void testReadPrefetch() throws IOException {
+    final Random r = new Random(5);
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 2 * ReadPrefetcher.BLOCK_SIZE + 100; ++i) {
+      sb.append(">r").append(i).append(LS);
+      final int length = r.nextInt(10) == 0 ? 5 : 4;
+      for (int j = 0; j < length; ++j) {
+        sb.append("acgtn".charAt(r.nextInt(5)));
+      }
+      sb.append(LS);
+    }
+    try (ReaderParams reads = getReads(sb.toString())) {
+      final String expected = readLoopOutput(reads, false);
+      assertEquals(expected, readLoopOutput(reads, true));
+    }
+  }
+
   private static final String EXPECTED_3 = "" + "reset" + LS + "code 0" + LS + "code 0" + LS + "code 0" + LS + "code 0" + LS + "readId 0" + LS + "set 0" + LS + "reset" + LS + "reset" + LS + "code 0" + LS + "code 0" + LS + "code 0" + LS + "code 3" + LS + "readId 1" + LS + "set 1" + LS + "reset" + LS + "reset" + LS + "code 0" + LS + "code 0" + LS + "code 1" + LS + "code 1" + LS + "readId 2" + LS + "set 2" + LS + "reset" + LS + "reset" + LS + "code 0" + LS + "code 0" + LS + "code 1" + LS + "code 3" + LS + "readId 3" + LS + "set 3" + LS + "reset" + LS;
 
   /**
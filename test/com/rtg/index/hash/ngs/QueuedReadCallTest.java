@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.index.hash.ngs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Random;
+
+import com.rtg.index.Index;
+import com.rtg.index.IndexCompressed;
+import com.rtg.index.IndexSet;
+import com.rtg.index.UnfilteredFilterMethod;
+import com.rtg.index.params.CreateParams;
+import com.rtg.util.diagnostic.Diagnostic;
+
+import junit.framework.TestCase;
+
+/**
+ */
+public class QueuedReadCallTest extends TestCase {
+
+  private static final int WINDOWS = 3;
+
+  private static IndexSet indexes(final CreateParams params, final int threads) {
+    final Index[] indexes = new Index[WINDOWS];
+    for (int i = 0; i < indexes.length; ++i) {
+      indexes[i] = new IndexCompressed(params, new UnfilteredFilterMethod(), threads);
+    }
+    return new IndexSet(indexes);
+  }
+
+  private static void calls(final ReadCall call, final CreateParams params) {
+    calls(new ReadCall[] {call}, params);
+  }
+
+  // Reads are split into contiguous ranges, one for each call
+  private static void calls(final ReadCall[] calls, final CreateParams params) {
+    final Random r = new Random(17);
+    final long mask = (1L << params.hashBits()) - 1;
+    for (int id = 0; id < params.size(); ++id) {
+      final ReadCall call = calls[(int) (id * calls.length / params.size())];
+      final long hash = r.nextLong() & mask;
+      for (int w = 0; w < WINDOWS; ++w) {
+        // Some duplicated hashes so values within a bucket must keep their order
+        call.readCall(id, w == 0 || r.nextInt(4) == 0 ? hash : (r.nextLong() & mask), w);
+      }
+    }
+  }
+
+  private static String dump(final IndexSet indexes) {
+    final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (PrintStream ps = new PrintStream(bos)) {
+      for (int i = 0; i < indexes.size(); ++i) {
+        indexes.get(i).dumpValues(ps);
+      }
+    }
+    return bos.toString();
+  }
+
+  private static IndexSet twoPasses(final CreateParams params) throws IOException {
+    final IndexSet direct = indexes(params, 1);
+    final ReadCallImplementation rci = new ReadCallImplementation(direct);
+    for (int pass = 0; pass < 2; ++pass) {
+      calls(rci, params);
+      direct.freeze(1);
+    }
+    return direct;
+  }
+
+  public void testSameAsTwoPasses() throws IOException {
+    Diagnostic.setLogStream();
+    final CreateParams params = new CreateParams(2000, 24, 24, 12, true, true, false, false);
+    final IndexSet direct = twoPasses(params);
+    final IndexSet queued = indexes(params, 1);
+    final QueuedReadCall qrc = new QueuedReadCall(WINDOWS, params, 1, 4);
+    calls(qrc, params);
+    assertTrue(qrc.bytes() > 0);
+    qrc.freeze(queued);
+    assertEquals(0, qrc.bytes());
+    assertEquals(dump(direct), dump(queued));
+    for (int i = 0; i < WINDOWS; ++i) {
+      assertEquals(params.size(), queued.get(i).numberEntries());
+    }
+  }
+
+  public void testSeveralQueuesSameAsTwoPasses() throws IOException {
+    Diagnostic.setLogStream();
+    final CreateParams params = new CreateParams(2000, 24, 24, 12, true, true, false, false);
+    final IndexSet direct = twoPasses(params);
+    final IndexSet queued = indexes(params, 1);
+    final QueuedReadCall qrc = new QueuedReadCall(WINDOWS, params, 3, 2);
+    calls(new ReadCall[] {qrc.queue(0), qrc.queue(1), qrc.queue(2)}, params);
+    qrc.freeze(queued);
+    assertEquals(dump(direct), dump(queued));
+  }
+
+  public void testUncompressed() {
+    try {
+      new QueuedReadCall(1, new CreateParams(10, 12, 12, 4, false, true, false, false), 1, 2);
+      fail();
+    } catch (final IllegalArgumentException e) {
+      assertEquals("Queued index construction requires compressed hashes", e.getMessage());
+    }
+  }
+}
@@ -109,6 +109,41 @@ public class IndexQueuesTest extends TestCase {
     }
   }
 
+  public void testBadQueues() {
+    try {
+      new IndexQueues(0, 2, 13, 10, 0, 2);
+      fail();
+    } catch (final IllegalArgumentException e) {
+      assertEquals("queues=0", e.getMessage());
+    }
+  }
+
+  public void testSingleQueueParallelFreeze() {
+    Diagnostic.setLogStream();
+    final IndexQueues iq = new IndexQueues(1, 4, 13, 10, 2, 9);
+    assertEquals("IndexQueues: threads=4 radixBits=9 radixSize=10 lowerBits=4", iq.toString());
+    iq.integrity();
+    final Add a = iq.queue(0);
+    final int h1 = (1 << 3) + 1;
+    final int h2 = (100 << 4) + 2; // same freeze thread as h1 so the order is fixed
+    a.add(h2, 1);
+    a.add(h1, 2);
+    a.add(h2, 3);
+    final Index ix = new MyMockIndex();
+    iq.freeze(ix);
+    final String exp = ""
+        + "add radix=1 hash=1 id=2" + LS
+        + "add radix=200 hash=2 id=1" + LS
+        + "add radix=200 hash=2 id=3" + LS
+        + "freeze" + LS
+        + "add radix=1 hash=1 id=2" + LS
+        + "add radix=200 hash=2 id=1" + LS
+        + "add radix=200 hash=2 id=3" + LS
+        + "freeze" + LS
+        ;
+    assertEquals(exp, ix.toString());
+  }
+
   public void testLongs() {
     final CreateParams indexParams = new CreateParams(1, 20, 20, 33, true, true, false, false);
     final IndexQueues iq = new IndexQueues(4, indexParams.hashBits(), indexParams.size(), indexParams.valueBits(), indexParams.initialPointerBits());
@@ -117,4 +152,14 @@ public class IndexQueuesTest extends TestCase {
     iq.freeze(i);
     assertEquals(0b111111111111111111111111111111111L, i.getValue(i.first(2)));
   }
+
+  public void testBytes() {
+    // two int slots per entry plus housekeeping, and one spare block and queue information for each of 1024 radixes
+    assertEquals(577536, IndexQueues.bytes(1, 20, 1000, 12, 10));
+    assertEquals(1146880, IndexQueues.bytes(2, 20, 1000, 12, 10));
+    assertEquals(2 * 577536 - 32768, IndexQueues.bytes(1, 20, 1000, 40, 10));
+    final IndexQueues iq = new IndexQueues(2, 20, 1000, 12, 10);
+    assertTrue(iq.bytes() > 0);
+    assertTrue(iq.bytes() <= IndexQueues.bytes(2, 20, 1000, 12, 10));
+  }
 }
@@ -110,4 +110,26 @@ public class IndexSimilarityTest extends TestCase {
           expected);
   }
 
+  public final void testSimilarityThreaded() {
+    final CreateParams params = new CreateParams(100, 32, 32, 31, true, true, false, false);
+    final IndexSimilarity single = new IndexSimilarity(params, new FixedRepeatFrequencyFilterMethod(6), false, 1);
+    final IndexSimilarity multi = new IndexSimilarity(params, new FixedRepeatFrequencyFilterMethod(6), false, 4);
+    final long[] hashes = {1, 1, 1, 1, 1, 1, 2, 2, 2, 2, 2, 3, 0xFFFFFFFFL, 0xFFFFFFFFL, 0x7FFFFFFFL, 0x7FFFFFFFL};
+    final int[] ids = {1, 2, 3, 0, 2, 2, 3, 4, 3, 4, 4, 5, 7, 8, 8, 9};
+    for (final IndexSimilarity index : new IndexSimilarity[] {single, multi}) {
+      add(index, hashes, ids);
+      index.freeze();
+      add(index, hashes, ids);
+      index.freeze();
+    }
+    assertEquals(checkSimilarity(single), checkSimilarity(multi));
+  }
+
+  public final void testPartialMatrices() {
+    assertEquals(4, IndexSimilarity.partialMatrices(4, 100, 1000));
+    assertEquals(3, IndexSimilarity.partialMatrices(4, 300, 1000));
+    assertEquals(1, IndexSimilarity.partialMatrices(4, 3000, 1000));
+    assertEquals(1, IndexSimilarity.partialMatrices(1, 100, 1000));
+  }
+
 }
@@ -76,6 +76,29 @@ public class SimilarityMatrixTest extends TestCase {
     assertEquals(expected, sim.toString());
   }
 
+  public void testAdd() {
+    final SimilarityMatrix a = new SimilarityMatrix(4);
+    final SimilarityMatrix b = new SimilarityMatrix(4);
+    a.increment(0, 0);
+    a.increment(3, 1, 2);
+    b.increment(1, 3, 5);
+    b.increment(2, 2);
+    a.add(b, 0, 2);
+    assertEquals(0, a.get(2, 2), 1.0E-8);
+    assertEquals(2, a.get(1, 3), 1.0E-8);
+    a.add(b, 2, 4);
+    assertEquals(1, a.get(0, 0), 1.0E-8);
+    assertEquals(7, a.get(1, 3), 1.0E-8);
+    assertEquals(1, a.get(2, 2), 1.0E-8);
+    a.globalIntegrity();
+    try {
+      a.add(new SimilarityMatrix(3), 0, 3);
+      fail();
+    } catch (final IllegalArgumentException e) {
+      // expected
+    }
+  }
+
   public void testSet() {
     final SimilarityMatrix sim = new SimilarityMatrix(10);
     sim.globalIntegrity();
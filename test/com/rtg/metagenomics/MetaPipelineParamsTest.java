@@ -32,6 +32,7 @@ public class MetaPipelineParamsTest extends TestCase {
     assertNull(params.speciesSdf());
     assertNull(params.proteinSdf());
     assertEquals(Platform.ILLUMINA, params.inputPlatform());
+    assertTrue(params.keepIntermediate());
   }
 
   public void testBuilder() {
@@ -43,6 +44,7 @@ public class MetaPipelineParamsTest extends TestCase {
     assertEquals(builder, builder.speciesSdf(new File("species")));
     assertEquals(builder, builder.proteinSdf(new File("protein")));
     assertEquals(builder, builder.inputPlatform(Platform.IONTORRENT));
+    assertEquals(builder, builder.keepIntermediate(false));
     final MetaPipelineParams params = builder.create();
     assertEquals("input", params.inputFile().getName());
     assertEquals("left", params.inputLeft().getName());
@@ -51,5 +53,6 @@ public class MetaPipelineParamsTest extends TestCase {
     assertEquals("species", params.speciesSdf().getName());
     assertEquals("protein", params.proteinSdf().getName());
     assertEquals(Platform.IONTORRENT, params.inputPlatform());
+    assertFalse(params.keepIntermediate());
   }
 }
@@ -16,10 +16,13 @@ import static com.rtg.util.StringUtils.LS;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 
 import com.rtg.launcher.globals.GlobalFlags;
 import com.rtg.launcher.OutputParams;
 import com.rtg.metagenomics.MetagenomicsWrapperCli.Platform;
+import com.rtg.ngs.MapFCli;
 import com.rtg.ngs.MapFlags;
 import com.rtg.protein.MapXCli;
 import com.rtg.reader.ReaderTestUtils;
@@ -111,6 +114,60 @@ public class MetagenomicsWrapperTaskTest extends TestCase {
     }
   }
 
+  public void testNoIntermediate() throws IOException {
+    try (final TestDirectory tmp = new TestDirectory()) {
+      final File filter = new File(tmp, "filter");
+      final File species = new File(tmp, "species");
+      final File protein = new File(tmp, "protein");
+      final File readSdf = new File(tmp, "reads");
+      ReaderTestUtils.getReaderDNA(">a" + LS + "AAAATAAAGGAAAGGTTTCCAAAATAAAGGAAAGGTTTCCAAAATAAAGGAAAGGTTTCCAAAATAAAGGAAAGGTTTCC" + LS, filter, new SdfId());
+      ReaderTestUtils.getReaderDNA(">a" + LS + "ACGTTTAGACAGTTTAGGAAAAAAAAAAAATTTTTTTTTTTTTTTCCCCCCCCCGGGGGGGGGGGATGCACGTACGTTTAGACAGTTTAGGAAAAAAAAAAAATTTTTTTTTTTTTTTCCCCCCCCCGGGGGGGGGGGATGCACGTACGTTTAGACAGTTTAGGAAAAAAAAAAAATTTTTTTTTTTTTTTCCCCCCCCCGGGGGGGGGGGATGCACGT" + LS, species, new SdfId());
+      ReaderTestUtils.getReaderProtein(">a" + LS + "GGATASDCASSZZXCVB" + LS, protein);
+      ReaderTestUtils.getReaderDNA(">a" + LS + "ACGTTTAGACAGTTTAGGAAAAAAAAAAAATTTTTTTTTTTTTTTCCCCCCCCCGGGGGGGGGGGATGCACGT" + LS, readSdf, new SdfId());
+      final File output = new File(tmp, "output");
+      final MetaPipelineParams params = MetaPipelineParams.builder()
+          .filterSdf(filter)
+          .speciesSdf(species)
+          .proteinSdf(protein)
+          .inputFile(readSdf)
+          .keepIntermediate(false)
+          .outputParams(new OutputParams(output, false, false))
+          .create();
+      final MemoryPrintStream logStream = new MemoryPrintStream();
+      final LogSimple log = new LogSimple(logStream.printStream());
+      final File unmapped = new File(new File(output, "mapf"), "unmapped.sdf");
+      final boolean[] present = new boolean[2];
+      final MetagenomicsWrapperTask task = new MetagenomicsWrapperTask(params, mOut.outputStream(), new UsageMetric(), log, mErr.printStream()) {
+        @Override
+        int species(OutputStream out, File output, List<String> mapInput) throws IOException {
+          present[0] = unmapped.isDirectory();
+          return super.species(out, output, mapInput);
+        }
+
+        @Override
+        int mapX(File mapfOutput, OutputStream out, File output) throws IOException {
+          present[1] = unmapped.isDirectory();
+          return super.mapX(mapfOutput, out, output);
+        }
+      };
+      task.run();
+      assertEquals(mErr.toString(), 0, task.returnCode());
+      final File mapfOut = new File(output, "mapf");
+      assertTrue(mapfOut.isDirectory());
+      assertTrue(new File(output, "mapx1").isDirectory());
+      assertTrue(new File(output, "species").isDirectory());
+      assertTrue(new File(output, "report").isDirectory());
+      assertFalse(new File(mapfOut, "alignments.sdf").exists());
+      assertFalse(new File(mapfOut, "unmapped.sdf").exists());
+      // Both stages read the unmapped reads before they were removed
+      assertTrue(present[0]);
+      assertTrue(present[1]);
+      TestUtils.containsAll(mOut.toString()
+          , "## rtg mapf  --output " + mapfOut.getPath() + " --template " + filter.getPath() + " --sam-rg @RG\\tPL:ILLUMINA\\tSM:sample\\tID:id --input " + readSdf.getPath() + " --" + MapFCli.NO_MAPPED_SDF_FLAG
+          );
+    }
+  }
+
   public void testBasic2() throws IOException {
     try (final TestDirectory tmp = new TestDirectory()) {
       final File filter = new File(tmp, "filter");
@@ -14,6 +14,7 @@ package com.rtg.metagenomics.metasnp;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import com.rtg.util.diagnostic.Diagnostic;
 import com.rtg.variant.util.arithmetic.LogApproximatePossibility;
@@ -83,4 +84,35 @@ public class EmIterateTest extends TestCase {
     }
 
   }
+
+  public void testParallelSameAsSequential() {
+    final Random r = new Random(3);
+    final MetaSnpEvidence evidence = new MetaSnpEvidence(2);
+    final int n = 2 * EmIterate.CHUNK_SIZE + 17;
+    for (int i = 0; i < n; ++i) {
+      final double[][] counts = new double[2][4];
+      for (final double[] sample : counts) {
+        for (int allele = 0; allele < sample.length; ++allele) {
+          sample[allele] = r.nextInt(3) == 0 ? r.nextInt(50) : 0;
+        }
+      }
+      evidence.add(r.nextInt(4), counts);
+    }
+    final PossibilityArithmetic arith = LogApproximatePossibility.SINGLETON;
+    for (final EmIterate.BetaType type : EmIterate.BetaType.values()) {
+      final List<EmIterate.EmResult> sequential = EmIterate.iterate(evidence, 2, n, arith, new EmIterate.FixedIterations(2), type, 0.01, MetaSnpCli.initXi(2, 2, arith), 1);
+      final List<EmIterate.EmResult> parallel = EmIterate.iterate(evidence, 2, n, arith, new EmIterate.FixedIterations(2), type, 0.01, MetaSnpCli.initXi(2, 2, arith), 4);
+      assertEquals(sequential.size(), parallel.size());
+      for (int it = 0; it < sequential.size(); ++it) {
+        final EmIterate.EmResult s = sequential.get(it);
+        final EmIterate.EmResult p = parallel.get(it);
+        assertTrue(Arrays.deepEquals(s.mXi, p.mXi));
+        assertEquals(n, p.mAssignments.size());
+        for (int i = 0; i < n; ++i) {
+          assertTrue(Arrays.equals(s.mAssignments.get(i).mCalls, p.mAssignments.get(i).mCalls));
+          assertEquals(s.mAssignments.get(i).mLikelihood, p.mAssignments.get(i).mLikelihood);
+        }
+      }
+    }
+  }
 }
@@ -66,11 +66,14 @@ public class MetaSnpCliTest extends AbstractCliTest {
   public void testVcfWriting() throws IOException {
     try (TestDirectory dir = new TestDirectory()) {
       final File out = new File(dir, "out.vcf");
-      final List<Integer> ref = Arrays.asList(1, 2, 3, 0);
       final List<MetaSnpLine> lines = getLines(LINES);
+      final MetaSnpEvidence evidence = new MetaSnpEvidence(2);
+      for (final MetaSnpLine line : lines) {
+        evidence.addByAllele(line.getReferenceIndex(), line.mCounts);
+      }
       final List<AlphaScore> assignments = Arrays.asList(new AlphaScore(0.1, 0.1, 0, 1), new AlphaScore(0.2, 0.2, 2, 3), new AlphaScore(0.3, 0.3, 0, 3), new AlphaScore(0.4, 0.4, 1, 1));
       final EmIterate.EmResult res = new EmIterate.EmResult(new double[][] {{0.1, 0.9}, {0.4, 0.6}}, assignments);
-      MetaSnpCli.writeVcf(ref, lines, res, out, SimplePossibility.SINGLETON);
+      MetaSnpCli.writeVcf(evidence, lines, res, out, SimplePossibility.SINGLETON);
       final String s = FileUtils.fileToString(out).replaceAll("\t", " ");
       assertTrue(s, s.contains(EXPECTED_VCF));
     }
@@ -92,7 +95,7 @@ public class MetaSnpCliTest extends AbstractCliTest {
       evidence.add(new double[][] {{1, 2, 2, 0}, {0, 1, 1, 3}});
       evidence.add(new double[][] {{2, 1, 2, 0}, {1, 2, 1, 1}});
       evidence.add(new double[][] {{1, 1, 0, 3}, {2, 1, 1, 1}});
-      MetaSnpCli.outputVisualisation(ref, lines, evidence, res, out);
+      MetaSnpCli.outputVisualisation(lines, new MetaSnpEvidence(ref, evidence), res, out);
       assertEquals(EXPECTED_VISUAL, out.toString().replaceAll("\t", " "));
     }
 
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.metagenomics.metasnp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ */
+public class MetaSnpEvidenceTest extends TestCase {
+
+  public void testAddAndGrow() {
+    final MetaSnpEvidence evidence = new MetaSnpEvidence(2);
+    assertEquals(0, evidence.size());
+    assertEquals(2, evidence.samples());
+    for (int i = 0; i < 3000; ++i) {
+      evidence.add(i % 4, new double[][] {{i, 1, 2, 3}, {4, 5, 6, i + 1}});
+    }
+    evidence.add(1, new double[][] {{7, 8}, {9, 10}});
+    assertEquals(3001, evidence.size());
+    assertEquals(3, evidence.ref(2003));
+    assertEquals(4, evidence.alleles(2003));
+    assertEquals(2003.0, evidence.count(2003, 0, 0));
+    assertEquals(2004.0, evidence.count(2003, 1, 3));
+    assertEquals(evidence.count(2003, 1, 2), evidence.counts(2003)[evidence.offset(2003) + MetaSnpEvidence.STRIDE + 2]);
+    assertEquals(2, evidence.alleles(3000));
+    assertTrue(Arrays.deepEquals(new double[][] {{7, 8}, {9, 10}}, evidence.evidence(3000)));
+  }
+
+  public void testFromLists() {
+    final List<double[][]> counts = new ArrayList<>();
+    counts.add(new double[][] {{0, 0, 100, 200}});
+    counts.add(new double[][] {{300, 0, 0, 0}});
+    final MetaSnpEvidence evidence = new MetaSnpEvidence(Arrays.asList(2, 0), counts);
+    assertEquals(2, evidence.size());
+    assertEquals(1, evidence.samples());
+    assertEquals(2, evidence.ref(0));
+    assertEquals(0, evidence.ref(1));
+    assertTrue(Arrays.deepEquals(counts.get(1), evidence.evidence(1)));
+  }
+
+  public void testTooManyAlleles() {
+    try {
+      new MetaSnpEvidence(1).add(0, new double[][] {{1, 2, 3, 4, 5}});
+      fail();
+    } catch (final IllegalArgumentException e) {
+      assertEquals("Too many alleles: 5", e.getMessage());
+    }
+  }
+
+  public void testAddByAllele() {
+    final MetaSnpEvidence evidence = new MetaSnpEvidence(2);
+    evidence.addByAllele(3, new double[][] {{1, 2}, {3, 4}, {5, 6}});
+    assertEquals(3, evidence.ref(0));
+    assertEquals(3, evidence.alleles(0));
+    assertTrue(Arrays.deepEquals(new double[][] {{1, 3, 5}, {2, 4, 6}}, evidence.evidence(0)));
+  }
+
+  public void testChunks() {
+    assertEquals(16, MetaSnpEvidence.chunkBits(2 * MetaSnpEvidence.STRIDE));
+    assertEquals(0, MetaSnpEvidence.chunkBits(1 << 21));
+    final int samples = 300;
+    final int bits = MetaSnpEvidence.chunkBits(samples * MetaSnpEvidence.STRIDE);
+    assertEquals(9, bits);
+    final MetaSnpEvidence evidence = new MetaSnpEvidence(samples);
+    final int positions = 3 << bits;
+    for (int x = 0; x < positions; ++x) {
+      final double[][] counts = new double[samples][4];
+      counts[samples - 1][3] = x;
+      counts[x % samples][0] = 1;
+      evidence.add(x & 3, counts);
+    }
+    assertEquals(positions, evidence.size());
+    for (int x = 0; x < positions; ++x) {
+      assertEquals((double) x, evidence.count(x, samples - 1, 3));
+      assertEquals(1.0, evidence.count(x, x % samples, 0));
+      assertEquals(x & 3, evidence.ref(x));
+    }
+    assertEquals(0, evidence.offset(1 << bits));
+    assertTrue(evidence.counts(0) != evidence.counts(1 << bits));
+    assertTrue(evidence.counts(0) == evidence.counts((1 << bits) - 1));
+  }
+
+  public void testTooManySamples() {
+    try {
+      new MetaSnpEvidence(Integer.MAX_VALUE / 2);
+      fail();
+    } catch (final IllegalArgumentException e) {
+      assertEquals("Too many samples: " + Integer.MAX_VALUE / 2, e.getMessage());
+    }
+  }
+}
@@ -223,6 +223,8 @@ public class NgsTaskTest extends NgsPairedEndTest {
           }
           assertFalse(hashdummy.mSecondSeen);
           assertEquals(0, hashdummy.mReverseCounts);
+          assertEquals(numberThreads, NgsTask.queuedIndexQueues(params, makeIndexParams(params), 1, Long.MAX_VALUE));
+          assertEquals(0, NgsTask.queuedIndexQueues(params, makeIndexParams(params), 1, 0));
         }
 
         pr.flush();
@@ -232,7 +234,9 @@ public class NgsTaskTest extends NgsPairedEndTest {
         //index statistics
         TestUtils.containsAll(logs, "Index[0] statistics", "] search performance");
         //thread stats
-        TestUtils.containsAll(logs, "Start create job 0", "Finish create job 0", "Start freeze job 0", "Finish freeze job 0");
+        TestUtils.containsAll(logs, "Start create job 0", "Finish create job 0");
+        //queued single pass build
+        TestUtils.containsAll(logs, " Timer Index_queue ", " Timer Index_queue_freeze_0 ", "building indexes in two passes");
       } finally {
         Diagnostic.setLogStream();
       }
@@ -59,6 +59,20 @@ public class SingleEndMapStatisticsTest extends TestCase {
     assertFalse(outString.contains("right arms missing"));
   }
 
+  public void testAlignmentCacheHits() {
+    final SingleEndMapStatistics testStats = new SingleEndMapStatistics(null);
+    testStats.increment(MapStatisticsField.TOTAL_READS, Arm.LEFT);
+    assertFalse(testStats.getStatistics().contains("alignment cache hits"));
+    for (int i = 0; i < 3; ++i) {
+      testStats.increment(MapStatisticsField.ALIGNMENT_CACHE_HITS, Arm.LEFT);
+    }
+    testStats.increment(MapStatisticsField.ALIGNMENT_CACHE_MISSES, Arm.LEFT);
+    TestUtils.containsAll(testStats.getStatistics(),
+        "1 100.0% total",
+        "3  75.0% alignment cache hits"
+      );
+  }
+
   public void testMisc() {
     final SingleEndMapStatistics testStats = new SingleEndMapStatistics(null);
 
@@ -78,6 +78,17 @@ public class TopNPairedEndOutputProcessorSyncTest extends AbstractPairedEndOutpu
     return NgsOutputParams.MATED_BAM_FILE_NAME;
   }
 
+  public void testFilterThreads() {
+    assertEquals(4, AbstractMulticoreFilterConcat.filterThreads(4, 4, false));
+    assertEquals(10, AbstractMulticoreFilterConcat.filterThreads(16, 16, false));
+    assertEquals(2, AbstractMulticoreFilterConcat.filterThreads(4, 4, true));
+    assertEquals(1, AbstractMulticoreFilterConcat.filterThreads(1, 1, true));
+    assertEquals(10, AbstractMulticoreFilterConcat.filterThreads(32, 32, true));
+    assertEquals(22, AbstractMulticoreFilterConcat.compressionThreads(10, 32));
+    assertEquals(2, AbstractMulticoreFilterConcat.compressionThreads(2, 4));
+    assertEquals(1, AbstractMulticoreFilterConcat.compressionThreads(1, 1));
+  }
+
   public void testUnmatedLocal() throws IOException, InvalidParamsException {
     try (TestDirectory tmp = new TestDirectory()) {
       checkUnmated(tmp);
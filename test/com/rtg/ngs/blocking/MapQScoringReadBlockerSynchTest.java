@@ -29,4 +29,28 @@ public class MapQScoringReadBlockerSynchTest extends MapQScoringReadBlockerTest
   protected MapQScoringReadBlocker getScoringReadBlocker(final int count, final int threshold) {
     return new MapQScoringReadBlockerSynch(count, threshold);
   }
+
+  public void testConcurrentIncrement() throws InterruptedException {
+    final MapQScoringReadBlocker b = getScoringReadBlocker(4, 5);
+    final Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; ++i) {
+      final int score = 10 + (i & 1);
+      threads[i] = new Thread(() -> {
+        for (int k = 0; k < 1000; ++k) {
+          b.increment(k & 3, score);
+        }
+      });
+      threads[i].start();
+    }
+    for (final Thread t : threads) {
+      t.join();
+    }
+    for (int r = 0; r < 4; ++r) {
+      assertEquals(10, b.getScore1(r));
+      assertEquals(1000, b.getCount1(r));
+      assertEquals(11, b.getScore2(r));
+      assertEquals(1000, b.getCount2(r));
+      assertTrue(b.isBlocked(r));
+    }
+  }
 }
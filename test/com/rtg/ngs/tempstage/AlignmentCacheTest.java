@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.ngs.tempstage;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests corresponding class.
+ */
+public class AlignmentCacheTest extends TestCase {
+
+  public void testHitAndMiss() {
+    final AlignmentCache cache = new AlignmentCache(4);
+    assertNull(cache.get(3, 100, false, true, 10));
+    final int[] actions = {1, 2, 3, 4};
+    final int[] cached = cache.put(3, 100, false, true, 10, actions);
+    assertTrue(Arrays.equals(actions, cached));
+    actions[0] = 42;
+    assertEquals(1, cache.get(3, 100, false, true, 10)[0]);
+    assertNull(cache.get(3, 100, true, true, 10));
+    assertNull(cache.get(3, 100, false, false, 10));
+    assertNull(cache.get(3, 101, false, true, 10));
+    assertNull(cache.get(4, 100, false, true, 10));
+    assertNull(cache.get(3, 100, false, true, 11));
+    assertEquals(1, cache.hits());
+    assertEquals(6, cache.misses());
+  }
+
+  public void testClear() {
+    final AlignmentCache cache = new AlignmentCache(4);
+    cache.put(0, 0, false, false, 0, new int[] {5});
+    assertNotNull(cache.get(0, 0, false, false, 0));
+    cache.clear();
+    assertNull(cache.get(0, 0, false, false, 0));
+  }
+
+  public void testReplacement() {
+    final AlignmentCache cache = new AlignmentCache(1);
+    for (int i = 0; i < 10; ++i) {
+      cache.put(i, i, false, false, 0, new int[] {i});
+    }
+    int found = 0;
+    for (int i = 0; i < 10; ++i) {
+      final int[] actions = cache.get(i, i, false, false, 0);
+      if (actions != null) {
+        assertEquals(i, actions[0]);
+        ++found;
+      }
+    }
+    assertTrue(found <= 2);
+    assertTrue(cache.get(9, 9, false, false, 0) != null);
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.ngs.tempstage;
+
+import java.util.Arrays;
+
+import com.rtg.reader.ReaderTestUtils;
+import com.rtg.reader.SequencesReader;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests corresponding class.
+ */
+public class ReadBatchTest extends TestCase {
+
+  public void testLoad() throws Exception {
+    final SequencesReader left = ReaderTestUtils.getReaderDnaMemory(">a\nacgt\n>b\nccgg\n>c\ntttt\n");
+    final SequencesReader right = ReaderTestUtils.getReaderDnaMemory(">a\ngggg\n>b\naatt\n>c\nacac\n");
+    final ReadBatch batch = new ReadBatch();
+    assertNull(batch.get(true, 0));
+    final int[] ids = {2, 0, 2, 2, 99};
+    batch.load(left, right, ids, 4);
+    assertEquals(2, batch.size());
+    assertTrue(Arrays.equals(new int[] {2, 0, 2, 2, 99}, ids));
+    assertTrue(Arrays.equals(new byte[] {1, 2, 3, 4}, batch.get(true, 0)));
+    assertTrue(Arrays.equals(new byte[] {3, 3, 3, 3}, batch.get(false, 0)));
+    assertTrue(Arrays.equals(new byte[] {4, 4, 4, 4}, batch.get(true, 2)));
+    assertTrue(Arrays.equals(new byte[] {1, 2, 1, 2}, batch.get(false, 2)));
+    assertNull(batch.get(true, 1));
+
+    batch.load(left, null, new int[] {1}, 1);
+    assertEquals(1, batch.size());
+    assertTrue(Arrays.equals(new byte[] {2, 2, 3, 3}, batch.get(true, 1)));
+    assertNull(batch.get(false, 1));
+    assertNull(batch.get(true, 0));
+  }
+}
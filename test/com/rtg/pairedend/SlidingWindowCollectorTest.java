@@ -61,6 +61,7 @@ public class SlidingWindowCollectorTest extends TestCase {
     private final int mExpectedPairResultCount;
     private int mPairResultCount = 0;
     private int mLeftPosition; // initialised by nextTemplateId
+    private int mPrefetched = 0;
 
     private int mExpectedIndex = 0;
     private long[] mExpectedReadIds = null;
@@ -152,6 +153,11 @@ public class SlidingWindowCollectorTest extends TestCase {
       );
     }
 
+    @Override
+    public void prefetchReads(int[] readIds, int size) {
+      mPrefetched += size;
+    }
+
     @Override
     public void nextTemplateId(final long templateId) {
       ++mTemplateCount;
@@ -295,6 +301,25 @@ public class SlidingWindowCollectorTest extends TestCase {
     }
   }
 
+  public void testPrefetchOnlyHitsWithCandidates() throws Exception {
+    final TestPairedAlignmentWriter writer = new TestPairedAlignmentWriter(2, 6);
+
+    final SlidingWindowCollector swc = new SlidingWindowCollector(11, 0, MachineOrientation.ANY, writer, buildParams(READ_LEFT_LENGTH2, READ_RIGHT_LENGTH2));
+    swc.nextTemplateId(1);
+
+    // Same hits as testMatch, only the three hits that have a candidate mate need their reads
+    swc.match(true, false, 0, 0);
+    swc.match(false, true, 0, 4);
+    swc.match(false, true, 0, 10);
+    swc.match(true, false, 0, 13);
+    swc.match(true, false, 1, 13);
+
+    swc.nextTemplateId(2);
+
+    writer.close();
+    assertEquals(3, writer.mPrefetched);
+  }
+
   public void testMatchReadAtSameLocation() throws Exception {
     final PairedTempFileWriter writer = new TestPairedAlignmentWriter(2, 6);  //6 because 1,1 pairs both ways (4) + the 1,8 pair (2)
 
@@ -516,6 +541,10 @@ public class SlidingWindowCollectorTest extends TestCase {
       public void pairResultRight(final MatedHitInfo matedHitInfo) {
       }
 
+      @Override
+      public void prefetchReads(int[] readIds, int size) {
+      }
+
       @Override
       public void nextTemplateId(final long templateId) {
       }
@@ -173,20 +173,14 @@ public class UnfilteredSlidingWindowCollectorTest extends TestCase {
     assertNotNull(mHit);
     assertTrue(uswc.checkPair(mHit, mMate));
 
-    mHit.setValues(true, false, 0, 0);
-    uswc.setReadLookup(uswc.readHash(0, mHit.first()), mHit);
-    uswc.mReadsWindow[0].add(mHit);
-    uswc.mReadsWindowInUse[0]++;
-
-    mMate.setValues(false, true, 0, TEMPLATE_STR.length() - RIGHT_READ_AS0.length());
-    uswc.mReadsWindow[TEMPLATE_STR.length() - RIGHT_READ_AS0.length()].add(mMate);
-    uswc.mReadsWindowInUse[TEMPLATE_STR.length() - RIGHT_READ_AS0.length()]++;
-    uswc.setReadLookup(uswc.readHash(0, !mHit.first()), mMate);
-
-    mUnhit.setValues(true, false, 0, 0);
-    uswc.mReadsWindow[0].add(mUnhit);
-    uswc.mReadsWindowInUse[0]++;
-    mHit.setNext(mUnhit);
+    mHit = uswc.addHit(true, false, 0, 0);
+    mMate = uswc.addHit(false, true, 0, TEMPLATE_STR.length() - RIGHT_READ_AS0.length());
+    mUnhit = uswc.addHit(true, true, 0, 0);
+    assertNotNull(mHit);
+    assertNotNull(mMate);
+    assertNotNull(mUnhit);
+    assertEquals(2, uswc.mReadsWindowInUse[0]);
+    assertTrue(uswc.integrity());
 
     uswc.flushToPosition(0);
     assertEquals(0, uswc.mReadsWindowInUse[0]);
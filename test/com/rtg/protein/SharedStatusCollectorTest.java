@@ -100,8 +100,7 @@ public class SharedStatusCollectorTest extends TestCase {
     assertEquals(1, stats.value(MapStatisticsField.UNMATED_UNIQUE_READS, Arm.LEFT));
     assertEquals(20, stats.value(MapStatisticsField.UNMAPPED_UNMATED_POOR, Arm.LEFT));
     assertEquals(1, stats.value(MapStatisticsField.UNMAPPED_NO_HITS, Arm.LEFT));
-    final byte[] testGetReadProtein = collector.getReadProtein(131);
-    assertNull(testGetReadProtein);
+    assertEquals(-1, collector.getReadProtein(131, new byte[10]));
   }
 
   public void testMt() throws Exception {
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.protein;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.rtg.mode.Frame;
+import com.rtg.mode.SequenceType;
+import com.rtg.reader.CompressedMemorySequencesReader;
+import com.rtg.util.PortableRandom;
+import com.rtg.util.diagnostic.Diagnostic;
+
+import junit.framework.TestCase;
+
+/**
+ */
+public class TranslatedReadCacheTest extends TestCase {
+
+  @Override
+  public void setUp() {
+    Diagnostic.setLogStream();
+  }
+
+  private static CompressedMemorySequencesReader reads(final int numberReads) {
+    final PortableRandom r = new PortableRandom(3);
+    final byte[][] data = new byte[numberReads][];
+    final String[] names = new String[numberReads];
+    final long[] lengths = new long[numberReads];
+    long min = Long.MAX_VALUE;
+    long max = 0;
+    for (int i = 0; i < numberReads; ++i) {
+      data[i] = new byte[r.nextInt(60)];
+      for (int j = 0; j < data[i].length; ++j) {
+        data[i][j] = (byte) (1 + r.nextInt(4));
+      }
+      names[i] = "read" + i;
+      lengths[i] = data[i].length;
+      min = Math.min(min, lengths[i]);
+      max = Math.max(max, lengths[i]);
+    }
+    return new CompressedMemorySequencesReader(data, names, lengths, min, max, SequenceType.DNA);
+  }
+
+  private void check(final int slabBits, final int threads) throws IOException {
+    final CompressedMemorySequencesReader reader = reads(100);
+    final TranslatedReadCache cache = new TranslatedReadCache(reader, threads, slabBits);
+    if (slabBits == TranslatedReadCache.DEFAULT_SLAB_BITS) {
+      assertEquals(TranslatedReadCache.bytes(reader), cache.bytes());
+    }
+    final byte[] dna = new byte[60];
+    final byte[] cached = new byte[60];
+    for (int readId = 0; readId < 100; ++readId) {
+      final int rlen = reader.read(readId, dna);
+      for (int f = 0; f < 6; ++f) {
+        final int genomeFrame = ProteinOutputProcessor.INTERNAL_ENCODED_FRAME_TO_NATURAL_FRAME[f];
+        final Frame frame = ProteinOutputProcessor.FRAMES_MAPPING[genomeFrame + 3];
+        final int plen = Math.max(0, (rlen - Math.abs(genomeFrame) + 1) / 3);
+        final byte[] expected = new byte[plen];
+        for (int j = 0, i = 0; j < plen; ++j, i += 3) {
+          expected[j] = frame.code(dna, rlen, i);
+        }
+        assertEquals(plen, cache.get(readId * 6 + f, cached));
+        assertTrue(Arrays.equals(expected, Arrays.copyOf(cached, plen)));
+      }
+    }
+  }
+
+  public void testSingleSlab() throws IOException {
+    check(TranslatedReadCache.DEFAULT_SLAB_BITS, 1);
+  }
+
+  public void testManySlabs() throws IOException {
+    check(7, 4);
+  }
+
+  public void testReadTooLong() throws IOException {
+    try {
+      new TranslatedReadCache(reads(10), 1, 2);
+      fail();
+    } catch (final IllegalArgumentException e) {
+      // expected
+    }
+  }
+}
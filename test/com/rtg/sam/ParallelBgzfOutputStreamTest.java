@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.sam;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests corresponding class.
+ */
+public class ParallelBgzfOutputStreamTest extends TestCase {
+
+  private static byte[] gunzip(byte[] data) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+      final byte[] buf = new byte[4096];
+      int n;
+      while ((n = in.read(buf)) > 0) {
+        out.write(buf, 0, n);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] data(int length) {
+    final Random r = new Random(42);
+    final byte[] data = new byte[length];
+    for (int i = 0; i < length; ++i) {
+      // mix of compressible text and noise
+      data[i] = (byte) (i % 1000 < 500 ? "ACGT\t".charAt(r.nextInt(5)) : r.nextInt());
+    }
+    return data;
+  }
+
+  private static int getInt(byte[] b, int pos) {
+    return (b[pos] & 0xff) | (b[pos + 1] & 0xff) << 8 | (b[pos + 2] & 0xff) << 16 | (b[pos + 3] & 0xff) << 24;
+  }
+
+  public void testRoundTrip() throws IOException {
+    final byte[] data = data(5 * ParallelBgzfOutputStream.BLOCK_SIZE + 1234);
+    final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (ParallelBgzfOutputStream out = new ParallelBgzfOutputStream(bos, 3, true)) {
+      out.write(data, 0, 100);
+      out.write(data[100]);
+      out.write(data, 101, data.length - 101);
+    }
+    final byte[] compressed = bos.toByteArray();
+    assertTrue(Arrays.equals(data, gunzip(compressed)));
+    int blocks = 0;
+    long uncompressed = 0;
+    int address = 0;
+    while (address < compressed.length) {
+      // each block starts with the BGZF magic and records its own size
+      assertEquals(0x1f, compressed[address] & 0xff);
+      assertEquals(0x8b, compressed[address + 1] & 0xff);
+      assertEquals('B', compressed[address + 12]);
+      assertEquals('C', compressed[address + 13]);
+      address += ((compressed[address + 16] & 0xff) | (compressed[address + 17] & 0xff) << 8) + 1;
+      uncompressed += getInt(compressed, address - 4);
+      ++blocks;
+    }
+    assertEquals(compressed.length, address);
+    assertEquals(7, blocks);
+    assertEquals(data.length, uncompressed);
+    final byte[] eof = Arrays.copyOfRange(compressed, compressed.length - ParallelBgzfOutputStream.EOF_BLOCK.length, compressed.length);
+    assertTrue(Arrays.equals(ParallelBgzfOutputStream.EOF_BLOCK, eof));
+  }
+
+  public void testNoTerminate() throws IOException {
+    final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (ParallelBgzfOutputStream out = new ParallelBgzfOutputStream(bos, 1, false)) {
+      out.write("hello".getBytes());
+      out.flush();
+      out.write(" world".getBytes());
+    }
+    assertEquals("hello world", new String(gunzip(bos.toByteArray())));
+  }
+
+  public void testIncompressible() throws IOException {
+    final Random r = new Random(1);
+    final byte[] data = new byte[ParallelBgzfOutputStream.BLOCK_SIZE];
+    r.nextBytes(data);
+    final byte[] block = ParallelBgzfOutputStream.compressBlock(data, data.length);
+    assertTrue(block.length <= 1 << 16);
+    assertEquals(block.length - 1, (block[16] & 0xff) | (block[17] & 0xff) << 8);
+    assertTrue(Arrays.equals(data, gunzip(block)));
+  }
+
+  public void testEmpty() throws IOException {
+    final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    new ParallelBgzfOutputStream(bos, 2, true).close();
+    assertTrue(Arrays.equals(ParallelBgzfOutputStream.EOF_BLOCK, bos.toByteArray()));
+  }
+}
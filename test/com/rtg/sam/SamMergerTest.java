@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.sam;
+
+import static com.rtg.util.StringUtils.LS;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.rtg.tabix.TabixIndexer;
+import com.rtg.util.SingletonPopulatorFactory;
+import com.rtg.util.diagnostic.Diagnostic;
+import com.rtg.util.io.TestDirectory;
+import com.rtg.util.test.FileHelper;
+
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.util.BlockCompressedInputStream;
+
+import junit.framework.TestCase;
+
+/**
+ */
+public class SamMergerTest extends TestCase {
+
+  private static final String REGION = "g1:1+5";
+
+  @Override
+  public void setUp() {
+    Diagnostic.setLogStream();
+  }
+
+  public void testReaderThreads() {
+    assertEquals(1, SamMerger.readerThreads(1, false));
+    assertEquals(4, SamMerger.readerThreads(4, false));
+    assertEquals(1, SamMerger.readerThreads(2, true));
+    assertEquals(2, SamMerger.readerThreads(4, true));
+    assertEquals(2, SamMerger.readerThreads(5, true));
+  }
+
+  private static List<File> inputs(final File dir) throws IOException {
+    final List<File> inputs = new ArrayList<>();
+    final File ffa = new File(dir, "alignmentsA.sam.gz");
+    FileHelper.stringToGzFile(SharedSamConstants.SAM1, ffa);
+    new TabixIndexer(ffa, TabixIndexer.indexFileName(ffa)).saveSamIndex();
+    inputs.add(ffa);
+    final File ffb = new File(dir, "alignmentsB.sam.gz");
+    FileHelper.stringToGzFile(SharedSamConstants.SAM9, ffb);
+    new TabixIndexer(ffb, TabixIndexer.indexFileName(ffb)).saveSamIndex();
+    inputs.add(ffb);
+    return inputs;
+  }
+
+  private static void merge(final List<File> inputs, final File output, final int threads) throws IOException {
+    final SamMerger merger = new SamMerger(true, true, false, threads, SamFilterParams.builder().create(), false, false);
+    merger.mergeSamFiles(inputs, Collections.<File>emptyList(), output, null, null, SamUtils.getUberHeader(inputs), true, true);
+  }
+
+  // Read back all the records, or just those in the region which requires a usable index
+  private static String records(final File file, final String region) throws IOException {
+    final List<File> files = Collections.singletonList(file);
+    final SamFilterParams filterParams = region == null ? SamFilterParams.builder().create() : SamFilterParams.builder().restriction(region).create();
+    final StringBuilder sb = new StringBuilder();
+    try (final RecordIterator<SAMRecord> it = new ThreadedMultifileIterator<>(new SamReadingContext(files, 1, filterParams, SamUtils.getUberHeader(files), null), new SingletonPopulatorFactory<>(new SamRecordPopulator()))) {
+      while (it.hasNext()) {
+        sb.append(it.next().getSAMString().trim()).append(LS);
+      }
+    }
+    return sb.toString();
+  }
+
+  private static void checkParallel(final String suffix) throws IOException {
+    try (final TestDirectory dir = new TestDirectory("sammerger")) {
+      final List<File> inputs = inputs(dir);
+      final File single = new File(dir, "single" + suffix);
+      merge(inputs, single, 1);
+      final File parallel = new File(dir, "parallel" + suffix);
+      merge(inputs, parallel, 4);
+      try (final InputStream in = new BufferedInputStream(new FileInputStream(parallel))) {
+        assertTrue(BlockCompressedInputStream.isValidFile(in));
+      }
+      final String expected = records(single, null);
+      assertTrue(expected.length() > 0);
+      assertEquals(expected, records(parallel, null));
+      final File index = parallel.getName().endsWith(SamUtils.BAM_SUFFIX) ? BamIndexer.indexFileName(parallel) : TabixIndexer.indexFileName(parallel);
+      assertTrue(index.length() > 0);
+      final String expectedRegion = records(single, REGION);
+      assertEquals(6, expectedRegion.split(LS).length);
+      assertEquals(expectedRegion, records(parallel, REGION));
+    }
+  }
+
+  public void testParallelBam() throws IOException {
+    checkParallel(SamUtils.BAM_SUFFIX);
+  }
+
+  public void testParallelIndexedSamGz() throws IOException {
+    checkParallel(".sam.gz");
+  }
+}
@@ -69,6 +69,7 @@ public class SamValidatorCliTest extends AbstractCliTest {
         , "-D,", "--distributions", "display distributions of insert sizes, alignment scores and read hits"
         , "--per-file", "output per-file statistics"
         , "--validate", "validate mapping of read to reference. Tests matching of bases according to CIGAR format"
+        , "-T,", "--threads=INT", "number of threads (Default is the number of available cores)"
         );
     checkExtendedHelp("rtg samstats"
         , "--Xignore-cg-fragment", "ignore unusual Complete Genomics fragment lengths."
@@ -241,6 +241,43 @@ public class SamValidatorTest extends TestCase {
     }
   }
 
+  private String checkWithThreads(final File tmpDir, final Collection<File> files, final int threads) throws IOException {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (PrintStream ps = new PrintStream(baos)) {
+      final SamValidator sv = new SamValidator(ps, ps, true, true, true, true, true, getParams(false), true);
+      sv.setThreads(threads);
+      sv.checkSAMAlign(new File(tmpDir, "templ"), files, ReaderUtils.getLeftEnd(tmpDir), ReaderUtils.getRightEnd(tmpDir));
+    }
+    return baos.toString();
+  }
+
+  public void testThreadsSameOutput() throws Exception {
+    Diagnostic.setLogStream();
+    try (final TestDirectory tmpDir = new TestDirectory("samval")) {
+      // Enough records to span several batches, with a bad record in each copy so there are messages to order
+      final String[] lines = SAM_EXAMPLE1.split(StringUtils.LS);
+      final StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 4; ++i) {
+        sb.append(lines[i]).append(StringUtils.LS);
+      }
+      for (int copy = 0; copy < 2 * SamValidator.BATCH_SIZE / 8 + 3; ++copy) {
+        for (int i = 4; i < lines.length; ++i) {
+          sb.append(i == 6 && copy % 7 == 0 ? lines[i].replace("NM:i:0", "NM:i:" + (copy % 5 + 1)) : lines[i]).append(StringUtils.LS);
+        }
+      }
+      final File samFile = new File(tmpDir, "sam.sam");
+      FileUtils.stringToFile(sb.toString(), samFile);
+      final Collection<File> files = new ArrayList<>();
+      files.add(samFile);
+      files.add(samFile);
+      ReaderTestUtils.getReaderDNA(TEMPLATE, new File(tmpDir, "templ"), null);
+      ReaderTestUtils.createPairedReaderDNA(READS_LEFT, READS_RIGHT, tmpDir, null);
+      final String single = checkWithThreads(tmpDir, files, 1);
+      TestUtils.containsAll(single, "Total records: " + 2 * (2 * SamValidator.BATCH_SIZE / 8 + 3) * 8, "Observed mismatches: 0 Claimed mismatches: 3", "Consensus: ");
+      assertEquals(single, checkWithThreads(tmpDir, files, 4));
+    }
+  }
+
   public void testBadInputs() throws Exception {
     try (final TestDirectory tmpDir = new TestDirectory("samval")) {
       final ByteArrayOutputStream baos = new ByteArrayOutputStream();
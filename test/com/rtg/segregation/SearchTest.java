@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+
+package com.rtg.segregation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.rtg.reference.Ploidy;
+import com.rtg.reference.ReferenceSequence;
+import com.rtg.reference.ReferenceSequenceTest;
+import com.rtg.reference.Sex;
+import com.rtg.util.Pair;
+
+import junit.framework.TestCase;
+
+/**
+ */
+public class SearchTest extends TestCase {
+
+  private static final Map<Pair<Sex, String>, ReferenceSequence> PLOIDYS = new HashMap<>();
+  private static final String[] CHILD_GTS = {"0/0", "0/1", "1/1"};
+
+  static {
+    PLOIDYS.put(new Pair<>(Sex.EITHER, "foo"), ReferenceSequenceTest.createReferenceSequence(Ploidy.DIPLOID, "1"));
+  }
+
+  // Random informative blocks for a family with many children
+  private static List<SegregationBlock> blocks(final int seed, final int number, final int children) throws MismatchingPloidyException {
+    final Random r = new Random(seed);
+    final Sex[] sexes = new Sex[children + 2];
+    Arrays.fill(sexes, Sex.EITHER);
+    final List<SegregationBlock> blocks = new ArrayList<>();
+    int pos = 0;
+    while (blocks.size() < number) {
+      final String[] gts = new String[children + 2];
+      gts[0] = r.nextBoolean() ? "0/1" : "0/0";
+      gts[1] = "0/1";
+      for (int i = 2; i < gts.length; ++i) {
+        gts[i] = "0/0".equals(gts[0]) ? CHILD_GTS[r.nextInt(2)] : CHILD_GTS[r.nextInt(3)];
+      }
+      final FamilyGt gt = FamilyGt.familyPloidy("foo", ++pos, gts, sexes, PLOIDYS);
+      if (gt.isMendelian() && !gt.parentsSingleAllele() && !gt.isAllHeterozygous()) {
+        blocks.add(new SegregationBlock(gt));
+      }
+    }
+    return blocks;
+  }
+
+  private static String result(final Search search, final List<SegregationBlock> blocks) {
+    for (final SegregationBlock block : blocks) {
+      search.add(block);
+    }
+    final StringBuilder sb = new StringBuilder();
+    for (final SearchContainer sc : search.bestResult()) {
+      sb.append(sc.toString()).append('\n');
+    }
+    return sb.toString();
+  }
+
+  public void testEmpty() {
+    assertNull(new Search(Search.DEFAULT_NEW_PENALTY, Search.DEFAULT_XO_PENALTY).bestResult());
+  }
+
+  public void testBadBeamWidth() {
+    try {
+      new Search(Search.DEFAULT_NEW_PENALTY, Search.DEFAULT_XO_PENALTY, 0, null, 1);
+      fail();
+    } catch (final IllegalArgumentException e) {
+      assertEquals("Beam width must be positive: 0", e.getMessage());
+    }
+  }
+
+  public void testParallelSameAsSequential() throws MismatchingPloidyException {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (int seed = 0; seed < 5; ++seed) {
+        final List<SegregationBlock> blocks = blocks(seed, 40, 10);
+        final String expected = result(new Search(10, 3), blocks);
+        assertEquals(expected, result(new Search(10, 3, Search.DEFAULT_BEAM_WIDTH, executor, 4), blocks));
+        assertEquals(expected, result(new Search(10, 3, Search.DEFAULT_BEAM_WIDTH, executor, 3), blocks));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  public void testNarrowBeam() throws MismatchingPloidyException {
+    final List<SegregationBlock> blocks = blocks(42, 20, 6);
+    final String wide = result(new Search(10, 3), blocks);
+    final String narrow = result(new Search(10, 3, 1, null, 1), blocks);
+    // With a single chain retained every block still appears in the best result
+    assertEquals(wide.split("\n").length, narrow.split("\n").length);
+  }
+}
@@ -184,7 +184,9 @@ public class SimilarityCliTest extends AbstractCliTest {
         "--unique-words",
         "count only unique words",
         "--max-reads=INT",
-        "maximum number of reads to use from each input SDF");
+        "maximum number of reads to use from each input SDF",
+        "-T,",
+        "--threads=INT");
   }
 
 
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.util.metrics;
+
+import junit.framework.TestCase;
+
+/**
+ */
+public class HistogramTest extends TestCase {
+
+  public void testBucket() {
+    assertEquals(0, Histogram.bucket(-5));
+    assertEquals(0, Histogram.bucket(0));
+    assertEquals(1, Histogram.bucket(1));
+    assertEquals(2, Histogram.bucket(2));
+    assertEquals(2, Histogram.bucket(3));
+    assertEquals(3, Histogram.bucket(4));
+    assertEquals(11, Histogram.bucket(1024));
+    assertEquals(63, Histogram.bucket(Long.MAX_VALUE));
+  }
+
+  public void testEmpty() {
+    final Histogram h = new Histogram();
+    assertEquals(0, h.count());
+    assertEquals(0, h.total());
+    assertEquals(0, h.max());
+    assertEquals(0.0, h.mean());
+    assertEquals(0, h.quantile(0.5));
+  }
+
+  public void testRecord() {
+    final Histogram h = new Histogram();
+    for (int i = 1; i <= 100; ++i) {
+      h.record(i);
+    }
+    h.record(-3);
+    assertEquals(101, h.count());
+    assertEquals(5050, h.total());
+    assertEquals(100, h.max());
+    assertEquals(50.0, h.mean(), 1e-9);
+    assertEquals(63, h.quantile(0.5));
+    assertEquals(100, h.quantile(0.9));
+    assertEquals(0, h.quantile(0));
+    h.reset();
+    assertEquals(0, h.count());
+    assertEquals(0, h.max());
+  }
+}
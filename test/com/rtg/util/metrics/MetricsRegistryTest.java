@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.util.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import com.rtg.util.StringUtils;
+import com.rtg.util.io.FileUtils;
+import com.rtg.util.test.FileHelper;
+
+import junit.framework.TestCase;
+
+/**
+ */
+public class MetricsRegistryTest extends TestCase {
+
+  public void testGet() {
+    final MetricsRegistry reg = new MetricsRegistry();
+    assertTrue(reg.isEmpty());
+    assertTrue(reg.counter("a") == reg.counter("a"));
+    assertTrue(reg.histogram("a") == reg.histogram("a"));
+    assertTrue(reg.phase("a") == reg.phase("a"));
+    assertTrue(reg.isEmpty());
+    assertNotNull(MetricsRegistry.global());
+  }
+
+  public void testWrite() {
+    final MetricsRegistry reg = new MetricsRegistry();
+    final Counter c = reg.counter("test.records");
+    c.increment();
+    c.add(4);
+    assertEquals(5, c.get());
+    reg.histogram("test.lengths").record(10);
+    reg.phase("test.phase").record(2000);
+    reg.counter("test.unused");
+    assertFalse(reg.isEmpty());
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    reg.write(out);
+    final String[] lines = StringUtils.split(out.toString().trim(), '\n');
+    assertEquals(5, lines.length);
+    assertTrue(lines[0].startsWith("#Version\t"));
+    assertTrue(lines[0].endsWith(MetricsRegistry.VERSION));
+    assertEquals("#name\ttype\tcount\ttotal\tmean\tmax\tp50\tp90\tp99", lines[1].trim());
+    assertEquals("test.records\tcounter\t5\t5\t-\t-\t-\t-\t-", lines[2].trim());
+    assertEquals("test.lengths\thistogram\t1\t10\t10.0\t10\t10\t10\t10", lines[3].trim());
+    assertEquals("test.phase\tphase\t1\t2000\t2000.0\t2000\t2000\t2000\t2000", lines[4].trim());
+  }
+
+  public void testReset() {
+    final MetricsRegistry reg = new MetricsRegistry();
+    final PhaseTimer phase = reg.phase("test.phase");
+    final PhaseTimer.Split split = phase.start();
+    split.stop();
+    assertEquals(1, phase.times().count());
+    assertFalse(reg.isEmpty());
+    reg.reset();
+    assertTrue(reg.isEmpty());
+    assertTrue(phase == reg.phase("test.phase"));
+    assertEquals(0, phase.times().count());
+  }
+
+  public void testWriteToDirectory() throws IOException {
+    final File dir = FileUtils.createTempDir("metrics", "test");
+    try {
+      final MetricsRegistry reg = new MetricsRegistry();
+      final File file = new File(dir, MetricsRegistry.METRICS_FILE_NAME);
+      reg.writeToDirectory(dir);
+      assertFalse(file.exists());
+      reg.counter("test.records").increment();
+      reg.writeToDirectory(dir);
+      assertTrue(FileUtils.fileToString(file).contains("test.records\tcounter\t1"));
+    } finally {
+      assertTrue(FileHelper.deleteAll(dir));
+    }
+  }
+}
@@ -21,6 +21,7 @@ import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import com.rtg.util.MathUtils;
 import com.rtg.util.Utils;
@@ -34,11 +35,13 @@ import com.rtg.variant.bayes.multisample.singleton.SingletonCaller;
 import com.rtg.variant.bayes.snp.DescriptionCommon;
 import com.rtg.variant.bayes.snp.DescriptionSnp;
 import com.rtg.variant.bayes.snp.EvidenceQ;
+import com.rtg.variant.bayes.snp.EvidenceQFactory;
 import com.rtg.variant.bayes.snp.HypothesesNone;
 import com.rtg.variant.bayes.snp.HypothesesPrior;
 import com.rtg.variant.bayes.snp.StatisticsSnp;
 import com.rtg.variant.format.VariantOutputVcfFormatter;
 import com.rtg.variant.util.VariantUtils;
+import com.rtg.variant.util.arithmetic.LogPossibility;
 import com.rtg.variant.util.arithmetic.PossibilityArithmetic;
 import com.rtg.variant.util.arithmetic.SimplePossibility;
 
@@ -580,4 +583,32 @@ public class ModelTest extends TestCase {
     assertFalse(new EvidenceQ(DescriptionSnp.SINGLETON, 1, 0, 0, 0.3, 0.7, true, false, false, false).mapError() >= Model.AMBIGUITY_THRESHOLD);
     assertTrue(new EvidenceQ(DescriptionSnp.SINGLETON, 1, 0, 0, 0.51, 0.8, true, false, false, false).mapError() >= Model.AMBIGUITY_THRESHOLD);
   }
+
+  public void testAggregatedEvidence() {
+    final double[] priors = {0.1, 0.4, 0.35, 0.15};
+    final MockHypotheses<DescriptionCommon> hypotheses = new MockHypotheses<DescriptionCommon>(DescriptionSnp.SINGLETON, LogPossibility.SINGLETON, true, priors, 0);
+    final Model<DescriptionCommon> aggregated = new Model<>(hypotheses, new StatisticsSnp(hypotheses.description()), new NoAlleleBalance());
+    aggregated.setAggregateEvidence(true);
+    final Model<DescriptionCommon> single = new Model<>(hypotheses, new StatisticsSnp(hypotheses.description()), new NoAlleleBalance());
+    single.setAggregateEvidence(false);
+    final EvidenceQFactory factory = new EvidenceQFactory();
+    final Random r = new Random(42);
+    // Many more distinct pieces of evidence than the initial table holds, but with most evidence repeated
+    for (int i = 0; i < 5000; ++i) {
+      final int nt = r.nextInt(10) == 0 ? r.nextInt(4) : 1;
+      final EvidenceInterface e = factory.evidence(nt, 0, 0, 20 + 10 * r.nextInt(3), 10 + 5 * r.nextInt(6), r.nextInt(6), 0, false);
+      aggregated.increment(e);
+      single.increment(e);
+      if (i == 100) {
+        assertEquals(single.p(1), aggregated.copy().p(1), 1e-9);
+      }
+    }
+    assertTrue(aggregated.evidenceClasses() > Model.INITIAL_EVIDENCE_CLASSES);
+    aggregated.freeze();
+    single.freeze();
+    for (int i = 0; i < 4; ++i) {
+      assertEquals(single.posteriorLn0(i), aggregated.posteriorLn0(i), 1e-9 * Math.abs(single.posteriorLn0(i)));
+    }
+    assertEquals(single.statistics().toString(), aggregated.statistics().toString());
+  }
 }
@@ -15,9 +15,12 @@ package com.rtg.variant.bayes.multisample.cancer;
 import static com.rtg.util.StringUtils.LS;
 
 import com.rtg.reference.Ploidy;
+import com.rtg.variant.bayes.Code;
 import com.rtg.variant.bayes.Description;
 import com.rtg.variant.bayes.Evidence;
+import com.rtg.variant.bayes.EvidenceInterface;
 import com.rtg.variant.bayes.Hypotheses;
+import com.rtg.variant.bayes.MockEvidence;
 import com.rtg.variant.bayes.NoAlleleBalance;
 import com.rtg.variant.bayes.snp.EvidenceQ;
 import com.rtg.variant.bayes.snp.StatisticsSnp;
@@ -51,4 +54,45 @@ public class ModelCancerContaminationTest extends TestCase {
     assertEquals(EXPECT_1G, model.toString());
     model.integrity();
   }
+
+  // Direct evaluation over the cross-product, for comparison with the factorised update
+  private static double[] crossProduct(final HypothesesCancer<Hypotheses<Description>> hypc, final double contamination, final EvidenceInterface[] evidence) {
+    final Code subCode = hypc.subHypotheses().code();
+    final Code code = hypc.code();
+    final double[] res = new double[hypc.size()];
+    for (final EvidenceInterface ev : evidence) {
+      final double r = ev.mapError();
+      for (int i = 0; i < res.length; ++i) {
+        final int a = code.a(i);
+        final int b = code.bc(i);
+        final double pa = 0.5 * (ev.probability(subCode.a(a)) + ev.probability(subCode.bc(a)));
+        final double pb = 0.5 * (ev.probability(subCode.a(b)) + ev.probability(subCode.bc(b)));
+        final double prob = pa * contamination + pb * (1.0 - contamination);
+        res[i] += Math.log(prob * (1.0 - r) + r * ev.pe());
+      }
+    }
+    return res;
+  }
+
+  public void testFactorisedSameAsCrossProduct() {
+    final Hypotheses<Description> hyps = AbstractSomaticCallerTest.simpleHyps(0.99, 0, Ploidy.DIPLOID);
+    final HypothesesCancer<Hypotheses<Description>> hypc = new HypothesesCancer<>(hyps, SimplePossibility.SINGLETON);
+    final Description desc = hyps.description();
+    final EvidenceInterface[] evidence = {
+      new EvidenceQ(desc, 2, 0, 0, 0.05, 0.05, true, false, false, false),
+      new EvidenceQ(desc, 1, 0, 0, 0.01, 0.2, false, false, false, false),
+      new EvidenceQ(desc, 2, 0, 0, 0.05, 0.05, true, false, false, false),
+      // Evidence with a different probability for every allele
+      new MockEvidence(desc, 0.1, new double[] {0.1, 0.2, 0.3, 0.4}, 3),
+    };
+    final ModelCancerContamination<Hypotheses<Description>> model = new ModelCancerContamination<>(hypc, 0.3, new StatisticsSnp(hypc.description()), new NoAlleleBalance());
+    for (final EvidenceInterface ev : evidence) {
+      model.increment(ev);
+    }
+    model.freeze();
+    final double[] expected = crossProduct(hypc, 0.3, evidence);
+    for (int i = 0; i < expected.length; ++i) {
+      assertEquals(expected[i], model.posteriorLn0(i), 1e-9);
+    }
+  }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+
+package com.rtg.variant.bayes.multisample.forwardbackward;
+
+import com.rtg.reference.Ploidy;
+import com.rtg.variant.bayes.Code;
+import com.rtg.variant.bayes.CodeDiploid;
+import com.rtg.variant.bayes.multisample.family.MendelianAlleleProbability;
+import com.rtg.variant.bayes.multisample.family.MendelianAlleleProbabilityFactory;
+import com.rtg.variant.util.arithmetic.LogPossibility;
+import com.rtg.variant.util.arithmetic.PossibilityArithmetic;
+import com.rtg.variant.util.arithmetic.SimplePossibility;
+
+import junit.framework.TestCase;
+
+/**
+ */
+public class TransmissionTensorTest extends TestCase {
+
+  public void testValues() {
+    final Code code = new CodeDiploid(4);
+    final PossibilityArithmetic arith = LogPossibility.SINGLETON;
+    final MendelianAlleleProbability m = MendelianAlleleProbabilityFactory.COMBINED.getMendelianAlleleProbability(Ploidy.DIPLOID, Ploidy.DIPLOID, Ploidy.DIPLOID, -10, -12, 1);
+    final TransmissionTensor t = TransmissionTensor.get(MendelianAlleleProbabilityFactory.COMBINED, Ploidy.DIPLOID, Ploidy.DIPLOID, Ploidy.DIPLOID, -10, -12, 1, code, code.size(), code.size(), code.size(), arith);
+    assertEquals(10, t.fatherSize());
+    assertEquals(10, t.motherSize());
+    assertEquals(10, t.childSize());
+    for (int j = 0; j < t.fatherSize(); ++j) {
+      for (int k = 0; k < t.motherSize(); ++k) {
+        for (int h = 0; h < t.childSize(); ++h) {
+          assertEquals(m.probabilityLn(code, j, k, h), t.poss(t.offset(j, k) + h));
+        }
+      }
+    }
+  }
+
+  public void testCached() {
+    final Code code = new CodeDiploid(4);
+    final PossibilityArithmetic arith = SimplePossibility.SINGLETON;
+    final TransmissionTensor t = TransmissionTensor.get(MendelianAlleleProbabilityFactory.MENDELIAN, Ploidy.HAPLOID, Ploidy.DIPLOID, Ploidy.DIPLOID, -10, -12, 2, code, 4, 10, 10, arith);
+    assertTrue(t == TransmissionTensor.get(MendelianAlleleProbabilityFactory.MENDELIAN, Ploidy.HAPLOID, Ploidy.DIPLOID, Ploidy.DIPLOID, -10, -12, 2, new CodeDiploid(4), 4, 10, 10, arith));
+    assertFalse(t == TransmissionTensor.get(MendelianAlleleProbabilityFactory.MENDELIAN, Ploidy.HAPLOID, Ploidy.DIPLOID, Ploidy.DIPLOID, -10, -12, 3, code, 4, 10, 10, arith));
+    assertFalse(t == TransmissionTensor.get(MendelianAlleleProbabilityFactory.DENOVO, Ploidy.HAPLOID, Ploidy.DIPLOID, Ploidy.DIPLOID, -10, -12, 2, code, 4, 10, 10, arith));
+    assertFalse(t == TransmissionTensor.get(MendelianAlleleProbabilityFactory.MENDELIAN, Ploidy.HAPLOID, Ploidy.DIPLOID, Ploidy.DIPLOID, -10, -11, 2, code, 4, 10, 10, arith));
+    assertFalse(t == TransmissionTensor.get(MendelianAlleleProbabilityFactory.MENDELIAN, Ploidy.HAPLOID, Ploidy.DIPLOID, Ploidy.DIPLOID, -10, -12, 2, code, 4, 10, 10, LogPossibility.SINGLETON));
+  }
+}
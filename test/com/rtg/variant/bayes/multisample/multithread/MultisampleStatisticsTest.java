@@ -21,7 +21,17 @@ public class MultisampleStatisticsTest extends TestCase {
   public void test() {
     final MultisampleStatistics st = new MultisampleStatistics();
     st.increment(new JobIdMultisample(5, 0, JobType.INCR), 42);
-    assertEquals("[Timer INCR      0.00  count 1       0.00 bytes read 0, Timer DANGLING empty, Timer COMPLEX empty, Timer FLUSH empty, Timer FILTER empty, Timer BED empty, Timer OUT empty]"
+    assertEquals("[Timer INCR      0.00  count 1       0.00 bytes read 0, Timer DANGLING empty, Timer COMPLEX empty, Timer FLUSH empty, Timer FILTER empty, Timer BED empty, Timer OUT empty] screened skipped=0 passed=0"
         , st.toString());
   }
+
+  public void testScreened() {
+    final MultisampleStatistics st = new MultisampleStatistics();
+    st.incrementScreened(true);
+    st.incrementScreened(true);
+    st.incrementScreened(false);
+    assertEquals(2, st.getScreenSkipped());
+    assertEquals(1, st.getScreenPassed());
+    assertTrue(st.toString().endsWith(" screened skipped=2 passed=1"));
+  }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.variant.bayes.multisample.population;
+
+import java.util.List;
+
+import com.rtg.variant.GenomePriorParams;
+import com.rtg.variant.GenomePriorParamsBuilder;
+import com.rtg.variant.VariantParams;
+import com.rtg.variant.VariantParamsBuilder;
+import com.rtg.variant.bayes.Description;
+import com.rtg.variant.bayes.ModelInterface;
+import com.rtg.variant.bayes.multisample.HaploidDiploidHypotheses;
+import com.rtg.variant.bayes.multisample.PriorContainer;
+import com.rtg.variant.bayes.snp.HypothesesNone;
+import com.rtg.variant.bayes.snp.HypothesesPrior;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests corresponding class.
+ */
+public class InvariantSiteScreenTest extends TestCase {
+
+  private static HaploidDiploidHypotheses<HypothesesPrior<Description>> hypotheses(GenomePriorParams params, int refNt) {
+    return new HaploidDiploidHypotheses<>(HypothesesNone.SINGLETON, PopulationCallerTest.haploidHypotheses(params, refNt), PopulationCallerTest.diploidHypotheses(params, refNt));
+  }
+
+  private static List<ModelInterface<?>> models(GenomePriorParams params, String... members) {
+    final List<ModelInterface<?>> models = PopulationCallerTest.buildModels(params, 1, members);
+    for (final ModelInterface<?> model : models) {
+      model.freeze();
+    }
+    return models;
+  }
+
+  public void testReference() {
+    final GenomePriorParams params = new GenomePriorParamsBuilder().create();
+    final List<ModelInterface<?>> models = models(params, "AAAAAAAA", "AAAAAAAAAA", "AAAAAAA", "AAAAAAAAAAAA");
+    final HaploidDiploidHypotheses<HypothesesPrior<Description>> hyp = hypotheses(params, 1);
+    assertTrue(new InvariantSiteScreen(false, true).canSkip(models, hyp));
+    assertTrue(new InvariantSiteScreen(true, true).canSkip(models, hyp));
+    // the joint caller agrees
+    final VariantParams vParams = new VariantParamsBuilder().create();
+    assertFalse(new EmAlgorithm(new HwEstimator(new PopulationCaller(vParams)), 10).getBestScores(models, new PriorContainer<>(hyp, null)).isInteresting());
+    // all reference, but a different reference nucleotide
+    assertFalse(new InvariantSiteScreen(false, true).canSkip(models, hypotheses(params, 2)));
+  }
+
+  public void testWeakEvidence() {
+    final GenomePriorParams params = new GenomePriorParamsBuilder().create();
+    final List<ModelInterface<?>> models = models(params, "A", "", "A");
+    final HaploidDiploidHypotheses<HypothesesPrior<Description>> hyp = hypotheses(params, 1);
+    assertTrue(new InvariantSiteScreen(false, false).canSkip(models, hyp));
+    // a pedigree may make any hypothesis as likely as the reference
+    assertFalse(new InvariantSiteScreen(true, false).canSkip(models, hyp));
+  }
+
+  public void testVariant() {
+    final GenomePriorParams params = new GenomePriorParamsBuilder().create();
+    final List<ModelInterface<?>> models = models(params, "AAAAAAAA", "AAAACCCC", "AAAAAAA");
+    assertFalse(new InvariantSiteScreen(false, true).canSkip(models, hypotheses(params, 1)));
+  }
+
+  public void testNoReference() {
+    final GenomePriorParams params = new GenomePriorParamsBuilder().create();
+    final List<ModelInterface<?>> models = models(params, "AAAAAAAA");
+    assertFalse(new InvariantSiteScreen(false, true).canSkip(models, hypotheses(params, 0)));
+  }
+}
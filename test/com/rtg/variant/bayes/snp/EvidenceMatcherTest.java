@@ -14,6 +14,7 @@ package com.rtg.variant.bayes.snp;
 import static com.rtg.util.StringUtils.LS;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import com.rtg.util.InvalidParamsException;
 import com.rtg.variant.GenomePriorParams;
@@ -125,6 +126,51 @@ public class EvidenceMatcherTest extends TestCase {
     checkCall(template, bm, params, 3, "G1\t4\t.\tT\tC\t30.1\tPASS\tDP=1\tGT:DP:RE:AR:GQ:ABP:SBP:RPB:AQ:PUR:RS:AD:GL\t1:1:0.000:0.000:30:0.00:2.17:0.00:0.000,59.990:0.00:C,1,0.000:0,1:-3.01,0.00");
   }
 
+  public void testDeferred() {
+    final ModelFactory<Description, ?> factory = new MockModelFactory();
+    final byte[] template = {1, 2, 3, 4, 0};
+    final EvidenceMatcher<ModelInterface<Description>> plain = new EvidenceMatcher<>(new ReferenceBasedBuffer<>(1, factory, template, 0), new EvidenceQFactory());
+    final EvidenceMatcher<ModelInterface<Description>> deferred = new EvidenceMatcher<>(new ReferenceBasedBuffer<>(1, factory, template, 0), new EvidenceQFactory(), new boolean[] {false, true, true, false, true});
+    for (final EvidenceMatcher<ModelInterface<Description>> bm : Arrays.asList(plain, deferred)) {
+      final int state = bm.getStateIndex(true, false, false);
+      bm.match(0, 1, 3, 1, 20, 30, state);
+      bm.unmapped(0);
+      bm.match(0, 2, 2, 1, 40, 10, state);
+      bm.match(1, 0, 4, 2, 20, 30, state);
+      bm.match(1, 3, 1, 2, 50, 20, state);
+      bm.match(2, 2, 2, 3, 20, 30, state);
+      bm.match(3, 0, 4, 4, 20, 30, state);
+    }
+    assertNull(deferred.peek(0));
+    // non reference evidence makes the model, which receives the earlier evidence first
+    plain.match(0, 3, 1, 2, 60, 20, 0);
+    deferred.match(0, 3, 1, 2, 60, 20, 0);
+    assertNotNull(deferred.peek(0));
+    checkSame(plain.step(0), deferred.step(0));
+    assertNull(deferred.peek(1));
+    checkSame(plain.step(1), deferred.step(1));
+    // not deferrable at this reference nucleotide
+    assertNotNull(deferred.peek(2));
+    deferred.skip(2);
+    plain.skip(2);
+    assertNull(deferred.peek(3));
+    checkSame(plain.step(3), deferred.step(3));
+    assertNull(deferred.peek(4));
+    try {
+      deferred.skip(5);
+      fail();
+    } catch (final IllegalStateException e) {
+      assertEquals("ref=5 != base=4", e.getMessage());
+    }
+  }
+
+  private static void checkSame(ModelInterface<Description> expected, ModelInterface<Description> actual) {
+    assertEquals(expected.toString(), actual.toString());
+    for (int i = 0; i < expected.size(); ++i) {
+      assertEquals(expected.posteriorLn0(i), actual.posteriorLn0(i));
+    }
+  }
+
   private Variant makeCall(EvidenceMatcher<ModelInterface<Description>> bm, int position, byte[] template, VariantParams params) {
     final ModelInterface<Description> model = bm.step(position);
     if (model == null) {
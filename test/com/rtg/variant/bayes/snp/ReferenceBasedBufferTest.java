@@ -264,4 +264,18 @@ public class ReferenceBasedBufferTest extends TestCase {
       assertEquals("Index less than base. index=" + Integer.toString(f) + " base=" + Integer.toString(b), e.getMessage());
     }
   }
+
+  public void testExisting() {
+    final byte[] template = {1, 2, 3, 4};
+    final ReferenceBasedBuffer<ModelInterface<Description>> cb = new ReferenceBasedBuffer<>(1, new Fac(), template, 0);
+    assertNull(cb.getExisting(2));
+    final ModelInterface<Description> model = cb.get(1);
+    assertTrue(model == cb.getExisting(1));
+    assertNull(cb.stepExisting());
+    assertEquals(1, cb.base());
+    assertTrue(model == cb.stepExisting());
+    assertNull(cb.getExisting(2));
+    assertEquals("1:2", cb.step().toString());
+    assertEquals(3, cb.base());
+  }
 }
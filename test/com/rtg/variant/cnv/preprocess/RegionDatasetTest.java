@@ -12,9 +12,16 @@
 
 package com.rtg.variant.cnv.preprocess;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Random;
 
+import com.rtg.util.diagnostic.NoTalkbackSlimException;
+import com.rtg.util.io.FileUtils;
+import com.rtg.util.io.TestDirectory;
+
 import junit.framework.TestCase;
 
 /**
@@ -42,6 +49,43 @@ public class RegionDatasetTest extends TestCase {
     assertEquals(100.0, makeDataSet(new int[] {1, 2, 2, 4}, new double[] {1, 10, 100, 1000}).weightedMedian(0));
   }
 
+  public void testWeightedMedianSelection() {
+    assertTrue(Double.isNaN(RegionDataset.weightedMedian(new double[0], new int[0])));
+    assertEquals(2.0, RegionDataset.weightedMedian(new double[] {5, 2, 3}, new int[] {0, 0, 0}));
+    assertEquals(3.0, RegionDataset.weightedMedian(new double[] {5, 3, 3, 1, 3}, new int[] {2, 1, 0, 1, 1}));
+    final Random r = new Random(42);
+    for (int t = 0; t < 1000; ++t) {
+      final int n = 1 + r.nextInt(20);
+      final int[] lengths = new int[n];
+      final double[] values = new double[n];
+      for (int i = 0; i < n; ++i) {
+        lengths[i] = 1 + r.nextInt(5);
+        values[i] = r.nextInt(8);
+      }
+      final RegionDataset ds = makeDataSet(lengths, values);
+      // Compare with weighted median from a full sort
+      final Integer[] order = new Integer[n];
+      for (int i = 0; i < n; ++i) {
+        order[i] = i;
+      }
+      Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+      double tot = 0;
+      for (final int w : lengths) {
+        tot += w;
+      }
+      double cum = 0;
+      double expected = Double.NaN;
+      for (final int i : order) {
+        cum += lengths[i];
+        if (cum >= tot / 2) {
+          expected = values[i];
+          break;
+        }
+      }
+      assertEquals(expected, ds.weightedMedian(0));
+    }
+  }
+
   public void testWeightedMean() {
     assertEquals(37.0, makeDataSet(new int[] {1, 1, 1}, new double[] {1, 10, 100}).weightedMean(0), 1e-4);
     assertEquals(62.2, makeDataSet(new int[] {1, 1, 3}, new double[] {1, 10, 100}).weightedMean(0), 1e-4);
@@ -70,4 +114,39 @@ public class RegionDatasetTest extends TestCase {
     assertEquals(240.0, dc.sum());
     assertEquals(Arrays.asList(desiredColumns), d.getColumnNames());
   }
+
+  public void testReadFromBedTemplate() throws IOException {
+    try (final TestDirectory dir = new TestDirectory()) {
+      final String header = "#chrom\tstart\tend\tlabel\tcoverage\n";
+      final File template = FileUtils.stringToFile(header + "chr1\t0\t10\ta\t1.5\nchr1\t10\t20\tb\t2.5\n", new File(dir, "template.bed"));
+      final RegionDataset ds = RegionDataset.readFromBed(template, Collections.emptyList());
+      final File cov = FileUtils.stringToFile(header + "chr1\t0\t10\ta\t3\nchr1\t10\t20\tb\tx\n", new File(dir, "cov.bed"));
+      final RegionDataset d = RegionDataset.readFromBed(cov, new NumericColumn("coverage"), ds);
+      assertEquals(2, d.size());
+      assertEquals(1, d.columns());
+      assertTrue(ds.regions() == d.regions());
+      assertEquals(3.0, d.asNumeric(0).get(0));
+      assertTrue(Double.isNaN(d.asNumeric(0).get(1)));
+      try {
+        RegionDataset.readFromBed(cov, new NumericColumn("depth"), ds);
+        fail();
+      } catch (final IOException e) {
+        assertTrue(e.getMessage().contains("does not contain the expected column: depth"));
+      }
+      final File moved = FileUtils.stringToFile(header + "chr1\t0\t10\ta\t3\nchr1\t11\t20\tb\t4\n", new File(dir, "moved.bed"));
+      try {
+        RegionDataset.readFromBed(moved, new NumericColumn("coverage"), ds);
+        fail();
+      } catch (final NoTalkbackSlimException e) {
+        assertTrue(e.getMessage().contains("at row 1"));
+      }
+      final File shorter = FileUtils.stringToFile(header + "chr1\t0\t10\ta\t3\n", new File(dir, "short.bed"));
+      try {
+        RegionDataset.readFromBed(shorter, new NumericColumn("coverage"), ds);
+        fail();
+      } catch (final NoTalkbackSlimException e) {
+        assertTrue(e.getMessage().contains("is less than the expected 2"));
+      }
+    }
+  }
 }
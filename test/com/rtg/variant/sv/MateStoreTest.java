@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2014. Real Time Genomics Limited.
+ *
+ * Use of this source code is bound by the Real Time Genomics Limited Software Licence Agreement
+ * for Academic Non-commercial Research Purposes only.
+ *
+ * If you did not receive a license accompanying this file, a copy must first be obtained by email
+ * from support@realtimegenomics.com.  On downloading, using and/or continuing to use this source
+ * code you accept the terms of that license agreement and any amendments to those terms that may
+ * be made from time to time by Real Time Genomics Limited.
+ */
+package com.rtg.variant.sv;
+
+import com.rtg.sam.SamUtils;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMSequenceRecord;
+
+import junit.framework.TestCase;
+
+/**
+ */
+public class MateStoreTest extends TestCase {
+
+  private static final SAMFileHeader HEADER = new SAMFileHeader();
+  static {
+    HEADER.addSequence(new SAMSequenceRecord("s0", 100000));
+    HEADER.addSequence(new SAMSequenceRecord("s1", 100000));
+  }
+
+  private static SAMRecord record(String name, int ref, int start, boolean reverse, Integer as) {
+    final SAMRecord rec = new SAMRecord(HEADER);
+    rec.setReadName(name);
+    rec.setReferenceIndex(ref);
+    rec.setAlignmentStart(start);
+    rec.setCigarString("10=");
+    rec.setReadNegativeStrandFlag(reverse);
+    if (as != null) {
+      rec.setAttribute(SamUtils.ATTRIBUTE_ALIGNMENT_SCORE, as);
+    }
+    return rec;
+  }
+
+  public void testPutFind() {
+    final MateStore store = new MateStore();
+    assertEquals(-1, store.find("r1"));
+    store.put(record("r1", 1, 50, true, 3));
+    store.put(record("r2", 0, 70, false, null));
+    assertEquals(2, store.size());
+    final int r1 = store.find("r1");
+    assertTrue(r1 >= 0);
+    assertEquals(1, store.refIndex(r1));
+    assertEquals(50, store.alignStart(r1));
+    assertEquals(59, store.alignEnd(r1));
+    assertTrue(store.reverse(r1));
+    assertEquals(3, store.alignmentScore(r1));
+    final int r2 = store.find("r2");
+    assertEquals(0, store.refIndex(r2));
+    assertFalse(store.reverse(r2));
+    assertEquals(Integer.MIN_VALUE, store.alignmentScore(r2));
+    assertEquals(-1, store.find("r3"));
+
+    // Later records replace earlier ones with the same name
+    store.put(record("r1", 0, 10, false, 1));
+    assertEquals(2, store.size());
+    assertEquals(10, store.alignStart(store.find("r1")));
+  }
+
+  public void testGrowMergeClear() {
+    final MateStore a = new MateStore();
+    final MateStore b = new MateStore();
+    for (int i = 0; i < 5000; ++i) {
+      (i % 2 == 0 ? a : b).put(record("read" + i, i % 2, i + 1, false, i));
+    }
+    a.put(record("read1", 0, 99999, true, 0));
+    a.putAll(b);
+    assertEquals(5000, a.size());
+    for (int i = 0; i < 5000; ++i) {
+      final int e = a.find("read" + i);
+      assertEquals(i + 1, a.alignStart(e));
+      assertEquals(i, a.alignmentScore(e));
+    }
+    a.clear();
+    assertEquals(0, a.size());
+    assertEquals(-1, a.find("read1"));
+  }
+
+  public void testFingerprint() {
+    assertFalse(MateStore.fingerprint("") == 0);
+    assertFalse(MateStore.fingerprint("read1") == MateStore.fingerprint("read2"));
+    assertEquals(MateStore.fingerprint("read1"), MateStore.fingerprint(new StringBuilder("read").append(1).toString()));
+  }
+}
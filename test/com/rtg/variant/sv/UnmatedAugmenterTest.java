@@ -13,6 +13,8 @@
 package com.rtg.variant.sv;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.rtg.launcher.AbstractNanoTest;
 import com.rtg.util.StringUtils;
@@ -43,6 +45,21 @@ public class UnmatedAugmenterTest extends AbstractNanoTest {
     }
   }
 
+  public void testMainSinglePass() throws Exception {
+    try (TestDirectory temp = new TestDirectory()) {
+      final File in = new File(temp, "in.sam");
+      final File out = new File(temp, "out.sam");
+      FileHelper.resourceToFile("com/rtg/sam/resources/unmated.sam", in);
+      final UnmatedAugmenter un = new UnmatedAugmenter(true);
+      un.augmentUnmated(in, out, new ReadGroupStatsCalculator());
+      // Only the input and output remain
+      assertEquals(2, temp.listFiles().length);
+      final File out2 = new File(temp, "out2.sam");
+      new UnmatedAugmenter().augmentUnmated(in, out2, new ReadGroupStatsCalculator());
+      checkSameRecords(FileUtils.fileToString(out2), FileUtils.fileToString(out));
+    }
+  }
+
   public void testGz() throws Exception {
     try (TestDirectory temp = new TestDirectory()) {
       final File in = new File(temp, "in.sam.gz");
@@ -93,6 +110,77 @@ public class UnmatedAugmenterTest extends AbstractNanoTest {
     }
   }
 
+  public void testAugmentingSinglePass() throws Exception {
+    try (TestDirectory temp = new TestDirectory()) {
+      final File mated = new File(temp, "mated.sam");
+      final File unmated = new File(temp, "unmated.sam");
+      final File unmapped = new File(temp, "unmapped.sam");
+      final File outunmated = new File(temp, "outunmated.sam");
+      final File outunmapped = new File(temp, "outunmapped.sam");
+
+      FileHelper.resourceToFile("com/rtg/sam/resources/mergemated.sam", mated);
+      FileHelper.resourceToFile("com/rtg/sam/resources/mergeunmated.sam", unmated);
+      FileHelper.resourceToFile("com/rtg/sam/resources/mergeunmapped.sam.gz", unmapped);
+
+      final UnmatedAugmenter un = new UnmatedAugmenter(true);
+      final ReadGroupStatsCalculator calc = new ReadGroupStatsCalculator();
+      calc.addFile(mated);
+      un.augmentUnmated(unmated, outunmated, calc);
+      un.augmentUnmapped(unmapped, outunmapped, calc);
+      final String outUnmappedStr = FileUtils.fileToString(outunmapped);
+      final String outStrNoPg = StringUtils.grepMinusV(outUnmappedStr, "^@PG");
+      mNano.check("mergeunmapped-aug.sam", outStrNoPg);
+
+      final File outunmated2 = new File(temp, "outunmated2.sam");
+      final UnmatedAugmenter un2 = new UnmatedAugmenter();
+      un2.augmentUnmated(unmated, outunmated2, new ReadGroupStatsCalculator());
+      final int records = checkSameRecords(FileUtils.fileToString(outunmated2), FileUtils.fileToString(outunmated));
+      assertEquals(un2.mAugmentedUnmated, un.mAugmentedUnmated);
+      assertTrue(un.mAugmentedUnmated > 0);
+      // Every record is read once, and only those whose mate came later go through the temporary file
+      assertEquals(records, un.mDirectRecords + un.mHeldRecords);
+      assertTrue(un.mHeldRecords > 0);
+      assertTrue(un.mHeldRecords < records);
+      assertEquals(0, un2.mDirectRecords + un2.mHeldRecords);
+    }
+  }
+
+  public void testAugmentingMixedSinglePass() throws Exception {
+    try (TestDirectory temp = new TestDirectory()) {
+      final File alignments = new File(temp, "alignments.sam.gz");
+      final File outalignments = new File(temp, "outalignments.sam.gz");
+      FileHelper.resourceToFile("com/rtg/sam/resources/mergecombined.sam.gz", alignments);
+      final ReadGroupStatsCalculator calc = new ReadGroupStatsCalculator();
+      new UnmatedAugmenter(true).augmentMixed(alignments, outalignments, calc);
+      final String outUnmappedStr = FileHelper.gzFileToString(outalignments);
+      final String outStrNoPg = StringUtils.grepMinusV(outUnmappedStr, "^@PG");
+      mNano.check("mergecombined-aug.sam", outStrNoPg);
+    }
+  }
+
+  // Single pass output must match two pass output exactly, including the order of records
+  private static int checkSameRecords(String twoPass, String singlePass) {
+    final List<String> expectedRecords = new ArrayList<>();
+    final List<String> actualRecords = new ArrayList<>();
+    assertEquals(header(twoPass, expectedRecords), header(singlePass, actualRecords));
+    assertEquals(expectedRecords, actualRecords);
+    return actualRecords.size();
+  }
+
+  private static String header(String sam, List<String> records) {
+    final StringBuilder header = new StringBuilder();
+    for (final String line : StringUtils.split(sam, '\n')) {
+      if (line.startsWith("@")) {
+        if (!line.startsWith("@PG")) {
+          header.append(line).append('\n');
+        }
+      } else if (line.length() > 0) {
+        records.add(line);
+      }
+    }
+    return header.toString();
+  }
+
   private SAMRecord createSAMRecord(SAMFileHeader header, String readName, int flags, int position) {
     final SAMRecord rec = new SAMRecord(header);
     rec.setAlignmentStart(position);